@@ -22,6 +22,7 @@ import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.onlab.packet.Ethernet;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.core.CoreService;
 import org.onosproject.net.packet.PacketContext;
@@ -30,6 +31,8 @@ import org.onosproject.net.packet.PacketService;
 import org.onosproject.net.proxyarp.ProxyArpService;
 import org.slf4j.Logger;
 
+import com.google.common.collect.ImmutableSet;
+
 /**
  * Sample reactive proxy arp application.
  */
@@ -55,7 +58,8 @@ public class ProxyArp {
     @Activate
     public void activate() {
         appId = coreService.registerApplication("org.onosproject.proxyarp");
-        packetService.addProcessor(processor, PacketProcessor.ADVISOR_MAX + 1);
+        packetService.addProcessor(processor, PacketProcessor.ADVISOR_MAX + 1,
+                                   ImmutableSet.of(Ethernet.TYPE_ARP));
         log.info("Started with Application ID {}", appId.id());
     }
 
@@ -19,24 +19,25 @@ import org.apache.karaf.shell.commands.Command;
 import org.onosproject.cluster.ControllerNode;
 import org.onosproject.store.service.DatabaseAdminService;
 
-import java.util.Optional;
+import java.util.Map;
 
 /**
  * Lists mastership roles of nodes for each device.
  */
 @Command(scope = "onos", name = "tablet-leader",
-         description = "Prints the current leader of a tablet.")
+         description = "Prints the current leader of each tablet.")
 public class TabletLeaderCommand extends AbstractShellCommand {
 
     @Override
     protected void execute() {
         final DatabaseAdminService dbAdminService = get(DatabaseAdminService.class);
 
-        Optional<ControllerNode> leader = dbAdminService.leader();
-        if (leader.isPresent()) {
-            print("Leader: %s", leader.get());
-        } else {
+        Map<String, ControllerNode> leaders = dbAdminService.leaders();
+        if (leaders.isEmpty()) {
             print("No Leader");
         }
+        for (Map.Entry<String, ControllerNode> leader : leaders.entrySet()) {
+            print("Tablet: %s, Leader: %s", leader.getKey(), leader.getValue());
+        }
     }
 }
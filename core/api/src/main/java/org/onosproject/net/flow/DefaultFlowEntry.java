@@ -83,6 +83,20 @@ public class DefaultFlowEntry extends DefaultFlowRule
         this.lastSeen = System.currentTimeMillis();
     }
 
+    // restores an entry in full, e.g. as read back from another instance
+    public DefaultFlowEntry(DefaultFlowRule rule, FlowEntryState state,
+            long life, long packets, long bytes, long lastSeen,
+            int errType, int errCode) {
+        super(rule, rule.created());
+        this.state = state;
+        this.life = life;
+        this.packets = packets;
+        this.bytes = bytes;
+        this.lastSeen = lastSeen;
+        this.errType = errType;
+        this.errCode = errCode;
+    }
+
     @Override
     public long life() {
         return life;
@@ -44,13 +44,21 @@ public class DefaultFlowRule implements FlowRule {
     public DefaultFlowRule(DeviceId deviceId, TrafficSelector selector,
             TrafficTreatment treatment, int priority, long flowId,
             int timeout, boolean permanent) {
+        this(deviceId, selector, treatment, priority, flowId, timeout, permanent,
+             System.currentTimeMillis());
+    }
+
+    // restores a rule along with its creation time, e.g. as read back from another instance
+    public DefaultFlowRule(DeviceId deviceId, TrafficSelector selector,
+            TrafficTreatment treatment, int priority, long flowId,
+            int timeout, boolean permanent, long created) {
         this.deviceId = deviceId;
         this.priority = priority;
         this.selector = selector;
         this.treatment = treatment;
         this.timeout = timeout;
         this.permanent = permanent;
-        this.created = System.currentTimeMillis();
+        this.created = created;
 
         this.appId = (short) (flowId >>> 48);
         this.groupId = new DefaultGroupId((short) ((flowId >>> 32) & 0xFFFF));
@@ -92,11 +100,15 @@ public class DefaultFlowRule implements FlowRule {
          * id consists of the following.
          * | appId (16 bits) | groupId (16 bits) | flowId (32 bits) |
          */
-        this.id = FlowId.valueOf((((long) this.appId) << 48) | (((long) this.groupId.id()) << 32)
+        this.id = FlowId.valueOf((((long) this.appId) << 48) | ((this.groupId.id() & 0xffffL) << 32)
                 | (this.hash() & 0xffffffffL));
     }
 
     public DefaultFlowRule(FlowRule rule) {
+        this(rule, System.currentTimeMillis());
+    }
+
+    protected DefaultFlowRule(FlowRule rule, long created) {
         this.deviceId = rule.deviceId();
         this.priority = rule.priority();
         this.selector = rule.selector();
@@ -106,8 +118,7 @@ public class DefaultFlowRule implements FlowRule {
         this.id = rule.id();
         this.timeout = rule.timeout();
         this.permanent = rule.isPermanent();
-        this.created = System.currentTimeMillis();
-
+        this.created = created;
     }
 
 
@@ -126,6 +137,15 @@ public class DefaultFlowRule implements FlowRule {
         return groupId;
     }
 
+    /**
+     * Returns the time this rule was created, in milliseconds since the epoch.
+     *
+     * @return creation time
+     */
+    public long created() {
+        return created;
+    }
+
     @Override
     public int priority() {
         return priority;
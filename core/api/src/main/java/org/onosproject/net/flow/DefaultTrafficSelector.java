@@ -29,13 +29,25 @@ import org.onlab.packet.VlanId;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 
 /**
  * Default traffic selector implementation.
+ * <p>
+ * Selectors are immutable and carry their hash code. Those produced by the
+ * builder are interned, so flows matching on the same criteria share one
+ * instance.
+ * </p>
  */
 public final class DefaultTrafficSelector implements TrafficSelector {
 
+    // weak, so that selectors no longer used by any flow can be collected
+    private static final Interner<DefaultTrafficSelector> INTERNER =
+            Interners.newWeakInterner();
+
     private final Set<Criterion> criteria;
+    private final int hash;
 
     /**
      * Creates a new traffic selector with the specified criteria.
@@ -44,6 +56,7 @@ public final class DefaultTrafficSelector implements TrafficSelector {
      */
     private DefaultTrafficSelector(Set<Criterion> criteria) {
         this.criteria = ImmutableSet.copyOf(criteria);
+        this.hash = this.criteria.hashCode();
     }
 
     @Override
@@ -63,7 +76,7 @@ public final class DefaultTrafficSelector implements TrafficSelector {
 
     @Override
     public int hashCode() {
-        return criteria.hashCode();
+        return hash;
     }
 
     @Override
@@ -73,7 +86,8 @@ public final class DefaultTrafficSelector implements TrafficSelector {
         }
         if (obj instanceof DefaultTrafficSelector) {
             DefaultTrafficSelector that = (DefaultTrafficSelector) obj;
-            return Objects.equals(criteria, that.criteria);
+            return hash == that.hash &&
+                    Objects.equals(criteria, that.criteria);
 
         }
         return false;
@@ -200,7 +214,7 @@ public final class DefaultTrafficSelector implements TrafficSelector {
 
         @Override
         public TrafficSelector build() {
-            return new DefaultTrafficSelector(ImmutableSet.copyOf(selector.values()));
+            return INTERNER.intern(new DefaultTrafficSelector(ImmutableSet.copyOf(selector.values())));
         }
 
     }
@@ -28,13 +28,25 @@ import org.onlab.packet.VlanId;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 
 /**
  * Default traffic treatment implementation.
+ * <p>
+ * Treatments are immutable and carry their hash code. Those produced by the
+ * builder are interned, so flows applying the same instructions share one
+ * instance.
+ * </p>
  */
 public final class DefaultTrafficTreatment implements TrafficTreatment {
 
+    // weak, so that treatments no longer used by any flow can be collected
+    private static final Interner<DefaultTrafficTreatment> INTERNER =
+            Interners.newWeakInterner();
+
     private final List<Instruction> instructions;
+    private final int hash;
 
     /**
      * Creates a new traffic treatment from the specified list of instructions.
@@ -43,6 +55,7 @@ public final class DefaultTrafficTreatment implements TrafficTreatment {
      */
     private DefaultTrafficTreatment(List<Instruction> instructions) {
         this.instructions = ImmutableList.copyOf(instructions);
+        this.hash = Objects.hash(this.instructions);
     }
 
     @Override
@@ -73,7 +86,7 @@ public final class DefaultTrafficTreatment implements TrafficTreatment {
     //FIXME: Order of instructions may affect hashcode
     @Override
     public int hashCode() {
-        return Objects.hash(instructions);
+        return hash;
     }
 
     @Override
@@ -83,7 +96,8 @@ public final class DefaultTrafficTreatment implements TrafficTreatment {
         }
         if (obj instanceof DefaultTrafficTreatment) {
             DefaultTrafficTreatment that = (DefaultTrafficTreatment) obj;
-            return Objects.equals(instructions, that.instructions);
+            return hash == that.hash &&
+                    Objects.equals(instructions, that.instructions);
 
         }
         return false;
@@ -223,7 +237,7 @@ public final class DefaultTrafficTreatment implements TrafficTreatment {
                 instructions.addAll(outputs);
             }
 
-            return new DefaultTrafficTreatment(instructions);
+            return INTERNER.intern(new DefaultTrafficTreatment(instructions));
         }
 
     }
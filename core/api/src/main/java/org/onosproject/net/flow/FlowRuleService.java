@@ -15,11 +15,11 @@
  */
 package org.onosproject.net.flow;
 
-import java.util.concurrent.Future;
-
 import org.onosproject.core.ApplicationId;
 import org.onosproject.net.DeviceId;
 
+import com.google.common.util.concurrent.ListenableFuture;
+
 /**
  * Service for injecting flow rules into the environment and for obtaining
  * information about flow rules already in the environment. This implements
@@ -96,9 +96,10 @@ public interface FlowRuleService {
      * Applies a batch operation of FlowRules.
      *
      * @param batch batch operation to apply
-     * @return future indicating the state of the batch operation
+     * @return future indicating the state of the batch operation; completes
+     * once every device involved has acknowledged or rejected its share
      */
-    Future<CompletedBatchOperation> applyBatch(FlowRuleBatchOperation batch);
+    ListenableFuture<CompletedBatchOperation> applyBatch(FlowRuleBatchOperation batch);
 
     /**
      * Adds the specified flow rule listener.
@@ -15,6 +15,8 @@
  */
 package org.onosproject.net.packet;
 
+import java.util.Set;
+
 /**
  * Service for intercepting data plane packets and for emitting synthetic
  * outbound packets.
@@ -26,15 +28,28 @@ public interface PacketService {
     /**
      * Adds the specified processor to the list of packet processors.
      * It will be added into the list in the order of priority. The higher
-     * numbers will be processing the packets after the lower numbers.
+     * numbers will be processing the packets after the lower numbers;
+     * processors of equal priority process packets in the order in which
+     * they were added. Adding a processor again replaces its registration.
      *
      * @param processor processor to be added
      * @param priority  priority in the reverse natural order
-     * @throws java.lang.IllegalArgumentException if a processor with the
-     *                                            given priority already exists
      */
     void addProcessor(PacketProcessor processor, int priority);
 
+    /**
+     * Adds the specified processor to the list of packet processors,
+     * offering it only the packets of the given ethernet types.
+     * It will be added into the list in the order of priority as with
+     * {@link #addProcessor(PacketProcessor, int)}.
+     *
+     * @param processor processor to be added
+     * @param priority  priority in the reverse natural order
+     * @param ethTypes  ethernet types of interest; all packets, including
+     *                  those that could not be parsed, if empty
+     */
+    void addProcessor(PacketProcessor processor, int priority, Set<Short> ethTypes);
+
     /**
      * Removes the specified processor from the processing pipeline.
      *
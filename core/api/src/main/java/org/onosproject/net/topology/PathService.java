@@ -18,6 +18,7 @@ package org.onosproject.net.topology;
 import org.onosproject.net.ElementId;
 import org.onosproject.net.Path;
 
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -48,4 +49,18 @@ public interface PathService {
      */
     Set<Path> getPaths(ElementId src, ElementId dst, LinkWeight weight);
 
+    /**
+     * Returns up to the given number of loopless paths, computed using the
+     * supplied edge-weight entity, between the specified source and
+     * destination network elements.
+     *
+     * @param src      source element
+     * @param dst      destination element
+     * @param weight   edge-weight entity
+     * @param maxPaths maximum number of paths to return
+     * @return list of paths between the two elements, cheapest first
+     */
+    List<Path> getKShortestPaths(ElementId src, ElementId dst, LinkWeight weight,
+                                 int maxPaths);
+
 }
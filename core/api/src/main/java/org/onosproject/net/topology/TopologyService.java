@@ -20,6 +20,7 @@ import org.onosproject.net.DeviceId;
 import org.onosproject.net.Link;
 import org.onosproject.net.Path;
 
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -109,6 +110,21 @@ public interface TopologyService {
     Set<Path> getPaths(Topology topology, DeviceId src, DeviceId dst,
                        LinkWeight weight);
 
+    /**
+     * Returns up to the given number of loopless paths, computed using the
+     * supplied edge-weight entity, between the specified source and
+     * destination devices.
+     *
+     * @param topology topology descriptor
+     * @param src      source device
+     * @param dst      destination device
+     * @param weight   edge-weight entity
+     * @param maxPaths maximum number of paths to return
+     * @return list of paths in the order of ascending cost
+     */
+    List<Path> getKShortestPaths(Topology topology, DeviceId src, DeviceId dst,
+                                 LinkWeight weight, int maxPaths);
+
     /**
      * Indicates whether the specified connection point is part of the network
      * infrastructure or part of network edge.
@@ -111,6 +111,20 @@ public interface TopologyStore extends Store<TopologyEvent, TopologyStoreDelegat
     Set<Path> getPaths(Topology topology, DeviceId src, DeviceId dst,
                        LinkWeight weight);
 
+    /**
+     * Computes and returns up to the given number of loopless paths between
+     * src and dest, cheapest first.
+     *
+     * @param topology topology descriptor
+     * @param src      source device
+     * @param dst      destination device
+     * @param weight   link weight function
+     * @param maxPaths maximum number of paths
+     * @return list of paths in the order of ascending cost
+     */
+    List<Path> getKShortestPaths(Topology topology, DeviceId src, DeviceId dst,
+                                 LinkWeight weight, int maxPaths);
+
     /**
      * Indicates whether the given connect point is part of the network fabric.
      *
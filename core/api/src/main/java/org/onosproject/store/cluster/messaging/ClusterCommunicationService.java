@@ -17,6 +17,7 @@ package org.onosproject.store.cluster.messaging;
 
 import java.io.IOException;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import org.onosproject.cluster.NodeId;
 
@@ -76,13 +77,31 @@ public interface ClusterCommunicationService {
     ListenableFuture<byte[]> sendAndReceive(ClusterMessage message, NodeId toNodeId) throws IOException;
 
     /**
-     * Adds a new subscriber for the specified message subject.
+     * Adds a new subscriber for the specified message subject. Its messages
+     * are handled one at a time, in order of arrival, on the thread
+     * receiving them.
      *
      * @param subject    message subject
      * @param subscriber message subscriber
      */
     void addSubscriber(MessageSubject subject, ClusterMessageHandler subscriber);
 
+    /**
+     * Adds a new subscriber for the specified message subject, whose
+     * messages are decoded and handled on the given executor.
+     * <p>
+     * Messages are handled as concurrently and in whatever order the
+     * executor runs them; subscribers relying on ordering should supply a
+     * single threaded executor.
+     * </p>
+     *
+     * @param subject    message subject
+     * @param subscriber message subscriber
+     * @param executor   executor to handle the messages on
+     */
+    void addSubscriber(MessageSubject subject, ClusterMessageHandler subscriber,
+                       ExecutorService executor);
+
     /**
      * Removes a subscriber for the specified message subject.
      *
@@ -16,6 +16,7 @@
 package org.onosproject.store.service;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -64,23 +65,23 @@ public interface DatabaseAdminService {
 
 
     /**
-     * Add member to default Tablet.
+     * Add member to every Tablet.
      *
      * @param node to add
      */
     public void addMember(ControllerNode node);
 
     /**
-     * Remove member from default Tablet.
+     * Remove member from every Tablet.
      *
      * @param node node to remove
      */
     public void removeMember(ControllerNode node);
 
     /**
-     * List members forming default Tablet.
+     * List members forming the Tablets.
      *
-     * @return Copied collection of members forming default Tablet.
+     * @return Copied collection of members of any Tablet.
      */
     public Collection<ControllerNode> listMembers();
 
@@ -90,4 +91,11 @@ public interface DatabaseAdminService {
      * @return leader node
      */
     public Optional<ControllerNode> leader();
+
+    /**
+     * Returns the current Leader of each Tablet with a known Leader.
+     *
+     * @return leader node by Tablet name
+     */
+    public Map<String, ControllerNode> leaders();
 }
@@ -16,6 +16,7 @@
 package org.onosproject.store.service;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service interface for a strongly consistent and durable
@@ -24,13 +25,22 @@ import java.util.Map;
 public interface DatabaseService {
 
     /**
-     * Reads the specified key.
+     * Reads the specified key, with {@link ReadConsistency#LINEARIZABLE} consistency.
      * @param tableName name of the table associated with this operation.
      * @param key key to read.
      * @return value (and version) associated with this key. This calls returns null if the key does not exist.
      */
     VersionedValue get(String tableName, String key);
 
+    /**
+     * Reads the specified key with the given consistency.
+     * @param tableName name of the table associated with this operation.
+     * @param key key to read.
+     * @param consistency consistency required of the read.
+     * @return value (and version) associated with this key. This calls returns null if the key does not exist.
+     */
+    VersionedValue get(String tableName, String key, ReadConsistency consistency);
+
     /**
      * Reads the whole table.
      *
@@ -105,20 +115,48 @@ public interface DatabaseService {
     boolean removeIfValueMatches(String tableName, String key, byte[] value);
 
     /**
-     * Performs a batch read operation and returns the results.
+     * Performs a batch read operation, with {@link ReadConsistency#LINEARIZABLE} consistency,
+     * and returns the results.
      * @param batchRequest batch request.
      * @return result of the batch operation.
      */
     BatchReadResult batchRead(BatchReadRequest batchRequest);
 
+    /**
+     * Performs a batch read operation with the given consistency and returns the results.
+     * @param batchRequest batch request.
+     * @param consistency consistency required of the reads.
+     * @return result of the batch operation.
+     */
+    BatchReadResult batchRead(BatchReadRequest batchRequest, ReadConsistency consistency);
+
     /**
      * Performs a batch write operation and returns the results.
      * This method provides transactional semantics. Either all writes succeed or none do.
      * Even a single write failure would cause the entire batch to be aborted.
+     * If the database is partitioned and the batch writes to tables held by
+     * different partitions, this only holds for the writes to each partition.
      * In the case of unsuccessful operation, the batch result can be inspected to determine
      * which operation(s) caused the batch to fail.
      * @param batchRequest batch request.
      * @return result of the batch operation.
      */
     BatchWriteResult batchWrite(BatchWriteRequest batchRequest);
+
+    /**
+     * Asynchronously performs a batch read operation.
+     * @param batchRequest batch request.
+     * @return future that completes with the result of the batch operation.
+     */
+    CompletableFuture<BatchReadResult> batchReadAsync(BatchReadRequest batchRequest);
+
+    /**
+     * Asynchronously performs a batch write operation.
+     * The batch has the same transactional semantics as {@link #batchWrite}.
+     * Concurrently issued batches may be carried to the database together,
+     * but each one still succeeds or fails on its own.
+     * @param batchRequest batch request.
+     * @return future that completes with the result of the batch operation.
+     */
+    CompletableFuture<BatchWriteResult> batchWriteAsync(BatchWriteRequest batchRequest);
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.service;
+
+/**
+ * Consistency required of a database read.
+ */
+public enum ReadConsistency {
+
+    /**
+     * Read is served by the current leader once it has confirmed its
+     * leadership with a quorum, and reflects every write completed before
+     * the read was issued.
+     */
+    LINEARIZABLE,
+
+    /**
+     * Read is served by the local replica, or from a local cache of the
+     * leader's answers on instances not taking part in consensus. Values
+     * may lag behind the leader, but never go back in time on a given
+     * instance for as long as it follows the same leader.
+     */
+    SEQUENTIAL
+}
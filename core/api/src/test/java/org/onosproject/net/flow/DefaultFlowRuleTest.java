@@ -17,6 +17,7 @@
 package org.onosproject.net.flow;
 
 import org.junit.Test;
+import org.onosproject.core.DefaultGroupId;
 import org.onosproject.net.intent.IntentTestsMocks;
 
 import com.google.common.testing.EqualsTester;
@@ -112,4 +113,38 @@ public class DefaultFlowRuleTest {
         assertThat(rule.treatment(), is(TREATMENT));
         assertThat(rule.timeout(), is(44));
     }
+
+    /**
+     * Tests that a group id with the sign bit set does not spill into the
+     * application id part of the flow id.
+     */
+    @Test
+    public void testNegativeGroupId() {
+        final DefaultFlowRule rule =
+                new DefaultFlowRule(did("1"), SELECTOR,
+                        TREATMENT, 22, APP_ID,
+                        new DefaultGroupId((short) 0xabcd), 44, false);
+        final long id = rule.id().value();
+        assertThat((short) (id >>> 48), is(APP_ID.id()));
+        assertThat(id >>> 32 & 0xffffL, is(0xabcdL));
+
+        final DefaultFlowRule fromId =
+                new DefaultFlowRule(did("1"), SELECTOR,
+                        TREATMENT, 22, id,
+                        44, false);
+        assertThat(fromId.appId(), is(APP_ID.id()));
+        assertThat(fromId.groupId(), is(rule.groupId()));
+    }
+
+    /**
+     * Tests that the creation time is kept when restoring a rule.
+     */
+    @Test
+    public void testCreationTime() {
+        final DefaultFlowRule rule =
+                new DefaultFlowRule(did("1"), SELECTOR,
+                        TREATMENT, 22, 33,
+                        44, false, 1234L);
+        assertThat(rule.created(), is(1234L));
+    }
 }
@@ -34,6 +34,7 @@ import com.google.common.testing.EqualsTester;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.onlab.junit.ImmutableClassChecker.assertThatClassIsImmutable;
 import static org.onosproject.net.flow.criteria.Criterion.Type;
 
@@ -71,6 +72,20 @@ public class DefaultTrafficSelectorTest {
                 .testEquals();
     }
 
+    /**
+     * Tests that identical selectors share one instance.
+     */
+    @Test
+    public void testInterning() {
+        final TrafficSelector selector1 = DefaultTrafficSelector.builder()
+                .matchEthType((short) 0x800).matchInport(PortNumber.portNumber(1)).build();
+        final TrafficSelector selector2 = DefaultTrafficSelector.builder()
+                .matchInport(PortNumber.portNumber(1)).matchEthType((short) 0x800).build();
+
+        assertThat(selector2, sameInstance(selector1));
+        assertThat(DefaultTrafficSelector.builder(selector1).build(), sameInstance(selector1));
+    }
+
     /**
      * Hamcrest matcher to check that a selector contains a
      * Criterion with the specified type.
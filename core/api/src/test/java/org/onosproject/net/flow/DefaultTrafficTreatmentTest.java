@@ -30,6 +30,7 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.onosproject.net.flow.instructions.L0ModificationInstruction.L0SubType;
 import static org.onosproject.net.flow.instructions.L0ModificationInstruction.ModLambdaInstruction;
 
@@ -110,4 +111,22 @@ public class DefaultTrafficTreatmentTest {
                 .addEqualityGroup(treatment2)
                 .testEquals();
     }
+
+    /**
+     * Tests that identical treatments share one instance.
+     */
+    @Test
+    public void testInterning() {
+        final TrafficTreatment treatment1 = DefaultTrafficTreatment.builder()
+                .setOutput(PortNumber.portNumber(2))
+                .setEthDst(MacAddress.BROADCAST)
+                .build();
+        final TrafficTreatment treatment2 = DefaultTrafficTreatment.builder()
+                .setEthDst(MacAddress.BROADCAST)
+                .setOutput(PortNumber.portNumber(2))
+                .build();
+
+        assertThat(treatment2, sameInstance(treatment1));
+        assertThat(DefaultTrafficTreatment.builder(treatment1).build(), sameInstance(treatment1));
+    }
 }
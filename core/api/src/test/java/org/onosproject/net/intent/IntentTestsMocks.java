@@ -140,6 +140,12 @@ public class IntentTestsMocks {
             }
             return paths;
         }
+
+        @Override
+        public List<Path> getKShortestPaths(ElementId src, ElementId dst, LinkWeight weight,
+                                            int maxPaths) {
+            return new ArrayList<>(getPaths(src, dst, weight));
+        }
     }
 
     public static class MockLinkResourceAllocations implements LinkResourceAllocations {
@@ -20,6 +20,7 @@ import org.onosproject.net.DeviceId;
 import org.onosproject.net.Link;
 import org.onosproject.net.Path;
 
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -71,6 +72,12 @@ public class TopologyServiceAdapter implements TopologyService {
         return null;
     }
 
+    @Override
+    public List<Path> getKShortestPaths(Topology topology, DeviceId src, DeviceId dst,
+                                        LinkWeight weight, int maxPaths) {
+        return null;
+    }
+
     @Override
     public boolean isInfrastructure(Topology topology, ConnectPoint connectPoint) {
         return false;
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.flow.impl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+import org.jboss.netty.util.Timeout;
+import org.jboss.netty.util.TimerTask;
+import org.onlab.util.Timer;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowId;
+import org.slf4j.Logger;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Tracks idle timeouts of flow entries enforced by the controller.
+ * <p>
+ * Flows are kept by id in the buckets of a timing wheel, placed by their
+ * idle deadline. Traffic seen in a stats reply only moves the deadline;
+ * the flow is re-bucketed lazily when the wheel reaches its old bucket, so
+ * refreshing is cheap. Flows whose deadline has passed are handed to the
+ * expiry consumer in one batch per tick and forgotten.
+ * </p>
+ */
+final class FlowIdleTracker implements TimerTask {
+
+    private final Logger log = getLogger(getClass());
+
+    private final long tickMillis;
+    private final Queue<Tracked>[] wheel;
+    private final Consumer<List<FlowEntry>> expiry;
+    private final ConcurrentMap<FlowId, Tracked> tracked = Maps.newConcurrentMap();
+
+    // start of the last tick processed; guarded by this
+    private long lastTick;
+    private volatile Timeout timeout;
+    private volatile boolean isStopped = true;
+
+    /**
+     * Creates a tracker.
+     *
+     * @param tickMillis wheel resolution in milliseconds
+     * @param wheelSize  number of buckets of the wheel
+     * @param expiry     consumer of the batches of expired flow entries;
+     *                   each carries the packet count last seen
+     */
+    @SuppressWarnings("unchecked")
+    FlowIdleTracker(long tickMillis, int wheelSize, Consumer<List<FlowEntry>> expiry) {
+        checkArgument(tickMillis > 0 && wheelSize > 0);
+        this.tickMillis = tickMillis;
+        this.wheel = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new ArrayDeque<>();
+        }
+        this.expiry = expiry;
+        this.lastTick = System.currentTimeMillis();
+    }
+
+    synchronized void start() {
+        if (isStopped) {
+            isStopped = false;
+            lastTick = System.currentTimeMillis();
+            timeout = Timer.getTimer().newTimeout(this, tickMillis, MILLISECONDS);
+        }
+    }
+
+    synchronized void stop() {
+        isStopped = true;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    /**
+     * Records a sighting of a flow in a stats reply.
+     *
+     * @param stored  flow entry as stored
+     * @param current flow entry as reported by the device
+     * @return false if the flow has been idle for longer than its timeout
+     */
+    boolean seen(FlowEntry stored, FlowEntry current) {
+        if (stored.isPermanent()) {
+            return true;
+        }
+        final long now = System.currentTimeMillis();
+        final long idleTimeout = stored.timeout() * 1000L;
+
+        Tracked t = tracked.get(stored.id());
+        if (t == null) {
+            // checking for the first time
+            long last = current.packets() != stored.packets() ? now : stored.lastSeen();
+            if (last + idleTimeout < now) {
+                return false;
+            }
+            t = new Tracked(stored.id(), current, last + idleTimeout);
+            Tracked existing = tracked.putIfAbsent(stored.id(), t);
+            if (existing == null) {
+                schedule(t);
+                return true;
+            }
+            t = existing;
+        }
+
+        if (current.packets() != t.entry.packets()) {
+            t.entry = current;
+            t.deadline = now + idleTimeout;
+            return true;
+        }
+        if (now <= t.deadline) {
+            return true;
+        }
+        tracked.remove(stored.id(), t);
+        return false;
+    }
+
+    /**
+     * Stops tracking the given flow.
+     *
+     * @param id flow identifier
+     */
+    void remove(FlowId id) {
+        tracked.remove(id);
+    }
+
+    /**
+     * Returns the number of flows tracked.
+     *
+     * @return number of flows
+     */
+    int size() {
+        return tracked.size();
+    }
+
+    @Override
+    public void run(Timeout t) {
+        if (isStopped) {
+            return;
+        }
+        try {
+            advance(System.currentTimeMillis());
+        } catch (Exception e) {
+            log.warn("Unable to expire idle flows", e);
+        }
+        if (!isStopped) {
+            timeout = Timer.getTimer().newTimeout(this, tickMillis, MILLISECONDS);
+        }
+    }
+
+    /**
+     * Processes all wheel buckets due up to the given time and hands the
+     * flows found expired to the expiry consumer.
+     *
+     * @param now current time in milliseconds
+     */
+    void advance(long now) {
+        List<FlowEntry> expired = new ArrayList<>();
+        synchronized (this) {
+            // a full turn visits every bucket; no need to go round again
+            long ticks = Math.min((now - lastTick) / tickMillis, wheel.length);
+            for (long i = 0; i < ticks; i++) {
+                lastTick += tickMillis;
+                Queue<Tracked> bucket = wheel[slot(lastTick)];
+                for (int n = bucket.size(); n > 0; n--) {
+                    Tracked t = bucket.poll();
+                    if (tracked.get(t.id) != t) {
+                        // removed or superseded meanwhile
+                        continue;
+                    }
+                    if (t.deadline <= now) {
+                        if (tracked.remove(t.id, t)) {
+                            expired.add(t.entry);
+                        }
+                    } else {
+                        schedule(t);
+                    }
+                }
+            }
+            if (now - lastTick >= tickMillis) {
+                lastTick = now - (now - lastTick) % tickMillis;
+            }
+        }
+        if (!expired.isEmpty()) {
+            expiry.accept(expired);
+        }
+    }
+
+    private synchronized void schedule(Tracked t) {
+        // never into a bucket already processed for this turn
+        wheel[slot(Math.max(t.deadline, lastTick + tickMillis))].add(t);
+    }
+
+    private int slot(long time) {
+        return (int) ((time / tickMillis) % wheel.length);
+    }
+
+    private static final class Tracked {
+        // id of the stored flow, which the flow is tracked by
+        private final FlowId id;
+        // last reported by the device
+        private volatile FlowEntry entry;
+        private volatile long deadline;
+
+        private Tracked(FlowId id, FlowEntry entry, long deadline) {
+            this.id = id;
+            this.entry = entry;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -15,12 +15,19 @@
  */
 package org.onosproject.net.flow.impl;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.codahale.metrics.Timer.Context;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
@@ -28,7 +35,10 @@ import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.jboss.netty.util.Timeout;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.core.ApplicationId;
+import org.onosproject.core.MetricsHelper;
 import org.onosproject.event.AbstractListenerRegistry;
 import org.onosproject.event.EventDeliveryService;
 import org.onosproject.net.Device;
@@ -55,19 +65,23 @@ import org.onosproject.net.provider.AbstractProviderRegistry;
 import org.onosproject.net.provider.AbstractProviderService;
 import org.slf4j.Logger;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CancellationException;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.onlab.metrics.MetricsUtil.decCounter;
+import static org.onlab.metrics.MetricsUtil.incCounter;
+import static org.onlab.metrics.MetricsUtil.startTimer;
+import static org.onlab.metrics.MetricsUtil.stopTimer;
+import static org.onlab.util.Timer.getTimer;
 import static org.onlab.util.Tools.namedThreads;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -78,7 +92,7 @@ import static org.slf4j.LoggerFactory.getLogger;
 @Service
 public class FlowRuleManager
         extends AbstractProviderRegistry<FlowRuleProvider, FlowRuleProviderService>
-        implements FlowRuleService, FlowRuleProviderRegistry {
+        implements FlowRuleService, FlowRuleProviderRegistry, MetricsHelper {
 
     enum BatchState { STARTED, FINISHED, CANCELLED };
 
@@ -90,8 +104,17 @@ public class FlowRuleManager
 
     private final FlowRuleStoreDelegate delegate = new InternalStoreDelegate();
 
+    // runs batch completion callbacks; never blocks on the providers
     private ExecutorService futureService;
 
+    private final ConcurrentMap<DeviceId, BatchMetrics> batchMetrics =
+            Maps.newConcurrentMap();
+
+    // idle timeouts of the flows enforced by the controller
+    private static final long IDLE_TICK_MILLIS = 1000;
+    private static final int IDLE_WHEEL_SIZE = 512;
+    private FlowIdleTracker idleTracker;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected FlowRuleStore store;
 
@@ -101,10 +124,16 @@ public class FlowRuleManager
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DeviceService deviceService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     @Activate
     public void activate() {
         futureService =
                 Executors.newFixedThreadPool(32, namedThreads("provider-future-listeners-%d"));
+        idleTracker = new FlowIdleTracker(IDLE_TICK_MILLIS, IDLE_WHEEL_SIZE,
+                                          expired -> futureService.execute(() -> removeIdle(expired)));
+        idleTracker.start();
         store.setDelegate(delegate);
         eventDispatcher.addSink(FlowRuleEvent.class, listenerRegistry);
         log.info("Started");
@@ -112,6 +141,7 @@ public class FlowRuleManager
 
     @Deactivate
     public void deactivate() {
+        idleTracker.stop();
         futureService.shutdownNow();
 
         store.unsetDelegate(delegate);
@@ -119,6 +149,11 @@ public class FlowRuleManager
         log.info("Stopped");
     }
 
+    @Override
+    public MetricsService metricsService() {
+        return metricsService;
+    }
+
     @Override
     public int getFlowRuleCount() {
         return store.getFlowRuleCount();
@@ -152,6 +187,22 @@ public class FlowRuleManager
         removeFlowRules(Iterables.toArray(getFlowRulesById(id), FlowRule.class));
     }
 
+    // Removes the flows the idle tracker found expired, unless the store
+    // has seen traffic on them since.
+    private void removeIdle(List<FlowEntry> expired) {
+        Set<FlowRuleBatchEntry> toRemove = Sets.newHashSet();
+        for (FlowEntry entry : expired) {
+            FlowEntry stored = store.getFlowEntry(entry);
+            if (stored != null && stored.packets() == entry.packets()) {
+                toRemove.add(new FlowRuleBatchEntry(FlowRuleOperation.REMOVE, stored));
+            }
+        }
+        if (!toRemove.isEmpty()) {
+            log.debug("Removing {} idle flows", toRemove.size());
+            applyBatch(new FlowRuleBatchOperation(toRemove));
+        }
+    }
+
     @Override
     public Iterable<FlowRule> getFlowRulesById(ApplicationId id) {
         Set<FlowRule> flowEntries = Sets.newHashSet();
@@ -180,11 +231,11 @@ public class FlowRuleManager
     }
 
     @Override
-    public Future<CompletedBatchOperation> applyBatch(
+    public ListenableFuture<CompletedBatchOperation> applyBatch(
             FlowRuleBatchOperation batch) {
         Multimap<DeviceId, FlowRuleBatchEntry> perDeviceBatches =
                 ArrayListMultimap.create();
-        List<Future<CompletedBatchOperation>> futures = Lists.newArrayList();
+        List<ListenableFuture<CompletedBatchOperation>> futures = Lists.newArrayList();
         for (FlowRuleBatchEntry fbe : batch.getOperations()) {
             final FlowRule f = fbe.getTarget();
             perDeviceBatches.put(f.deviceId(), fbe);
@@ -193,8 +244,7 @@ public class FlowRuleManager
         for (DeviceId deviceId : perDeviceBatches.keySet()) {
             FlowRuleBatchOperation b =
                     new FlowRuleBatchOperation(perDeviceBatches.get(deviceId));
-            Future<CompletedBatchOperation> future = store.storeBatch(b);
-            futures.add(future);
+            futures.add(store.storeBatch(b));
         }
         return new FlowRuleBatchFuture(futures, perDeviceBatches);
     }
@@ -219,8 +269,6 @@ public class FlowRuleManager
             extends AbstractProviderService<FlowRuleProvider>
             implements FlowRuleProviderService {
 
-        final Map<FlowEntry, Long> lastSeen = Maps.newConcurrentMap();
-
         protected InternalFlowRuleProviderService(FlowRuleProvider provider) {
             super(provider);
         }
@@ -229,7 +277,7 @@ public class FlowRuleManager
         public void flowRemoved(FlowEntry flowEntry) {
             checkNotNull(flowEntry, FLOW_RULE_NULL);
             checkValidity();
-            lastSeen.remove(flowEntry);
+            idleTracker.remove(flowEntry.id());
             FlowEntry stored = store.getFlowEntry(flowEntry);
             if (stored == null) {
                 log.debug("Rule already evicted from store: {}", flowEntry);
@@ -316,35 +364,7 @@ public class FlowRuleManager
         }
 
         private boolean checkRuleLiveness(FlowEntry swRule, FlowEntry storedRule) {
-            if (storedRule == null) {
-                return false;
-            }
-            if (storedRule.isPermanent()) {
-                return true;
-            }
-
-            final long timeout = storedRule.timeout() * 1000;
-            final long currentTime = System.currentTimeMillis();
-            if (storedRule.packets() != swRule.packets()) {
-                lastSeen.put(storedRule, currentTime);
-                return true;
-            }
-            if (!lastSeen.containsKey(storedRule)) {
-                // checking for the first time
-                lastSeen.put(storedRule, storedRule.lastSeen());
-                // Use following if lastSeen attr. was removed.
-                //lastSeen.put(storedRule, currentTime);
-            }
-            Long last = lastSeen.get(storedRule);
-            if (last == null) {
-                // concurrently removed? let the liveness check fail
-                return false;
-            }
-
-            if ((currentTime - last) <= timeout) {
-                return true;
-            }
-            return false;
+            return storedRule != null && idleTracker.seen(storedRule, swRule);
         }
 
         // Posts the specified event to the local event dispatcher.
@@ -399,30 +419,42 @@ public class FlowRuleManager
 
                 FlowRuleBatchOperation batchOperation = request.asBatchOperation();
 
-                FlowRuleProvider flowRuleProvider =
-                        getProvider(batchOperation.getOperations().get(0).getTarget().deviceId());
-                final Future<CompletedBatchOperation> result =
+                final DeviceId deviceId =
+                        batchOperation.getOperations().get(0).getTarget().deviceId();
+                FlowRuleProvider flowRuleProvider = getProvider(deviceId);
+                final BatchMetrics metrics = batchMetrics(deviceId);
+                final Context latency = metrics.started();
+                final ListenableFuture<CompletedBatchOperation> result =
                         flowRuleProvider.executeBatch(batchOperation);
-                futureService.submit(new Runnable() {
+
+                // give up on the device if it does not answer in time;
+                // cancellation is reported through the callback below
+                final Timeout timeout = getTimer().newTimeout(
+                        t -> result.cancel(true),
+                        TIMEOUT_PER_OP * batchOperation.size(), TimeUnit.MILLISECONDS);
+                Futures.addCallback(result, new FutureCallback<CompletedBatchOperation>() {
+                    @Override
+                    public void onSuccess(CompletedBatchOperation res) {
+                        timeout.cancel();
+                        metrics.completed(latency);
+                        store.batchOperationComplete(FlowRuleBatchEvent.completed(request, res));
+                    }
+
                     @Override
-                    public void run() {
-                        CompletedBatchOperation res;
-                        try {
-                            res = result.get(TIMEOUT_PER_OP * batchOperation.size(), TimeUnit.MILLISECONDS);
-                            store.batchOperationComplete(FlowRuleBatchEvent.completed(request, res));
-                        } catch (TimeoutException | InterruptedException | ExecutionException e) {
-                            log.warn("Something went wrong with the batch operation {}",
-                                     request.batchId(), e);
-
-                            Set<FlowRule> failures = new HashSet<>(batchOperation.size());
-                            for (FlowRuleBatchEntry op : batchOperation.getOperations()) {
-                                failures.add(op.getTarget());
-                            }
-                            res = new CompletedBatchOperation(false, failures);
-                            store.batchOperationComplete(FlowRuleBatchEvent.completed(request, res));
+                    public void onFailure(Throwable e) {
+                        timeout.cancel();
+                        metrics.completed(latency);
+                        log.warn("Something went wrong with the batch operation {}",
+                                 request.batchId(), e);
+
+                        Set<FlowRule> failures = new HashSet<>(batchOperation.size());
+                        for (FlowRuleBatchEntry op : batchOperation.getOperations()) {
+                            failures.add(op.getTarget());
                         }
+                        CompletedBatchOperation res = new CompletedBatchOperation(false, failures);
+                        store.batchOperationComplete(FlowRuleBatchEvent.completed(request, res));
                     }
-                });
+                }, futureService);
                 break;
 
             case BATCH_OPERATION_COMPLETED:
@@ -438,107 +470,111 @@ public class FlowRuleManager
         }
     }
 
-    private class FlowRuleBatchFuture implements Future<CompletedBatchOperation> {
+    private BatchMetrics batchMetrics(DeviceId deviceId) {
+        return batchMetrics.computeIfAbsent(deviceId, BatchMetrics::new);
+    }
+
+    /**
+     * Number of batches in flight to a device and the time it takes the
+     * device to complete them.
+     */
+    private final class BatchMetrics {
+
+        private final Counter inFlight;
+        private final Timer latency;
+
+        private BatchMetrics(DeviceId deviceId) {
+            inFlight = createCounter("FlowRule", "Batches", deviceId + ".inFlight");
+            latency = createTimer("FlowRule", "Batches", deviceId + ".latency");
+        }
+
+        private Context started() {
+            incCounter(inFlight);
+            return startTimer(latency);
+        }
+
+        private void completed(Context context) {
+            decCounter(inFlight);
+            stopTimer(context);
+        }
+    }
+
+    /**
+     * Aggregate of the per-device batch futures. Completes from the callbacks
+     * of the underlying store futures, so no thread is held while waiting for
+     * the devices to respond.
+     */
+    private class FlowRuleBatchFuture extends AbstractFuture<CompletedBatchOperation>
+            implements FutureCallback<CompletedBatchOperation> {
 
-        private final List<Future<CompletedBatchOperation>> futures;
+        private final List<ListenableFuture<CompletedBatchOperation>> futures;
         private final Multimap<DeviceId, FlowRuleBatchEntry> batches;
+        private final AtomicInteger pending;
         private final AtomicReference<BatchState> state;
-        private CompletedBatchOperation overall;
 
-        public FlowRuleBatchFuture(List<Future<CompletedBatchOperation>> futures,
+        public FlowRuleBatchFuture(List<ListenableFuture<CompletedBatchOperation>> futures,
                 Multimap<DeviceId, FlowRuleBatchEntry> batches) {
             this.futures = futures;
             this.batches = batches;
+            this.pending = new AtomicInteger(futures.size());
             state = new AtomicReference<FlowRuleManager.BatchState>();
             state.set(BatchState.STARTED);
-        }
-
-        @Override
-        public boolean cancel(boolean mayInterruptIfRunning) {
-            if (state.get() == BatchState.FINISHED) {
-                return false;
-            }
-            if (log.isDebugEnabled()) {
-                log.debug("Cancelling FlowRuleBatchFuture",
-                          new RuntimeException("Just printing backtrace"));
-            }
-            if (!state.compareAndSet(BatchState.STARTED, BatchState.CANCELLED)) {
-                return false;
+            if (futures.isEmpty()) {
+                finish(new CompletedBatchOperation(true, Collections.<FlowRule>emptySet()));
+                return;
             }
-            cleanUpBatch();
-            for (Future<CompletedBatchOperation> f : futures) {
-                f.cancel(mayInterruptIfRunning);
+            for (ListenableFuture<CompletedBatchOperation> f : futures) {
+                Futures.addCallback(f, this);
             }
-            return true;
-        }
-
-        @Override
-        public boolean isCancelled() {
-            return state.get() == BatchState.CANCELLED;
         }
 
         @Override
-        public boolean isDone() {
-            return state.get() == BatchState.FINISHED;
+        public void onSuccess(CompletedBatchOperation completed) {
+            if (!completed.isSuccess()) {
+                log.warn("FlowRuleBatch failed: {}", completed);
+                // first failure decides the outcome; revert the whole batch
+                if (state.compareAndSet(BatchState.STARTED, BatchState.FINISHED)) {
+                    cleanUpBatch();
+                    cancelAllSubBatches();
+                    set(new CompletedBatchOperation(false, completed.failedItems(),
+                                                    completed.failedIds()));
+                }
+                return;
+            }
+            if (pending.decrementAndGet() == 0) {
+                finish(new CompletedBatchOperation(true, Collections.<FlowRule>emptySet()));
+            }
         }
 
-
         @Override
-        public CompletedBatchOperation get() throws InterruptedException,
-            ExecutionException {
-
-            if (isDone()) {
-                return overall;
+        public void onFailure(Throwable t) {
+            // sub-batches cancelled by ourselves end up here as well
+            if (state.compareAndSet(BatchState.STARTED, BatchState.FINISHED)) {
+                setException(t);
             }
+        }
 
-            boolean success = true;
-            Set<FlowRule> failed = Sets.newHashSet();
-            Set<Long> failedIds = Sets.newHashSet();
-            CompletedBatchOperation completed;
-            for (Future<CompletedBatchOperation> future : futures) {
-                completed = future.get();
-                success = validateBatchOperation(failed, failedIds, completed);
+        private void finish(CompletedBatchOperation overall) {
+            if (state.compareAndSet(BatchState.STARTED, BatchState.FINISHED)) {
+                set(overall);
             }
-
-            return finalizeBatchOperation(success, failed, failedIds);
-
         }
 
         @Override
-        public CompletedBatchOperation get(long timeout, TimeUnit unit)
-                throws InterruptedException, ExecutionException,
-                TimeoutException {
-
-            if (isDone()) {
-                return overall;
-            }
-            boolean success = true;
-            Set<FlowRule> failed = Sets.newHashSet();
-            Set<Long> failedIds = Sets.newHashSet();
-            CompletedBatchOperation completed;
-            for (Future<CompletedBatchOperation> future : futures) {
-                completed = future.get(timeout, unit);
-                success = validateBatchOperation(failed, failedIds, completed);
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (state.get() == BatchState.FINISHED) {
+                return false;
             }
-            return finalizeBatchOperation(success, failed, failedIds);
-        }
-
-        private boolean validateBatchOperation(Set<FlowRule> failed,
-                                               Set<Long> failedIds,
-                                               CompletedBatchOperation completed) {
-
-            if (isCancelled()) {
-                throw new CancellationException();
+            if (log.isDebugEnabled()) {
+                log.debug("Cancelling FlowRuleBatchFuture",
+                          new RuntimeException("Just printing backtrace"));
             }
-            if (!completed.isSuccess()) {
-                log.warn("FlowRuleBatch failed: {}", completed);
-                failed.addAll(completed.failedItems());
-                failedIds.addAll(completed.failedIds());
-                cleanUpBatch();
-                cancelAllSubBatches();
+            if (!state.compareAndSet(BatchState.STARTED, BatchState.CANCELLED)) {
                 return false;
             }
-            return true;
+            cleanUpBatch();
+            cancelAllSubBatches();
+            return super.cancel(mayInterruptIfRunning);
         }
 
         private void cancelAllSubBatches() {
@@ -547,21 +583,6 @@ public class FlowRuleManager
             }
         }
 
-        private CompletedBatchOperation finalizeBatchOperation(boolean success,
-                                                               Set<FlowRule> failed,
-                                                               Set<Long> failedIds) {
-            synchronized (this) {
-                if (!state.compareAndSet(BatchState.STARTED, BatchState.FINISHED)) {
-                    if (state.get() == BatchState.FINISHED) {
-                        return overall;
-                    }
-                    throw new CancellationException();
-                }
-                overall = new CompletedBatchOperation(success, failed, failedIds);
-                return overall;
-            }
-        }
-
         private void cleanUpBatch() {
             log.debug("cleaning up batch");
             // TODO convert these into a batch?
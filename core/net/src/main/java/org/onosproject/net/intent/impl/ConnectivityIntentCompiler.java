@@ -15,8 +15,6 @@
  */
 package org.onosproject.net.intent.impl;
 
-import com.google.common.base.Predicate;
-import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Reference;
@@ -33,6 +31,7 @@ import org.onosproject.net.topology.LinkWeight;
 import org.onosproject.net.topology.PathService;
 import org.onosproject.net.topology.TopologyEdge;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -48,6 +47,9 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
 
     private static final ProviderId PID = new ProviderId("core", "org.onosproject.core", true);
 
+    // Number of paths to try when the shortest ones fail path constraints
+    private static final int MAX_PATHS = 16;
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected IntentExtensionService intentManager;
 
@@ -65,7 +67,19 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
      * @return edge-weight function
      */
     protected LinkWeight weight(List<Constraint> constraints) {
-        return new ConstraintBasedLinkWeight(constraints);
+        return weight(constraints, resourceService);
+    }
+
+    /**
+     * Returns an edge-weight capable of evaluating links on the basis of the
+     * specified constraints, using the given resource service.
+     *
+     * @param constraints path constraints
+     * @param resources   link resource service to consult
+     * @return edge-weight function
+     */
+    protected LinkWeight weight(List<Constraint> constraints, LinkResourceService resources) {
+        return new ConstraintBasedLinkWeight(constraints, resources);
     }
 
     /**
@@ -76,8 +90,22 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
      * @return true if the path passes all constraints
      */
     protected boolean checkPath(Path path, List<Constraint> constraints) {
+        return checkPath(path, constraints, resourceService);
+    }
+
+    /**
+     * Validates the specified path against the given constraints, using the
+     * given resource service.
+     *
+     * @param path        path to be checked
+     * @param constraints path constraints
+     * @param resources   link resource service to consult
+     * @return true if the path passes all constraints
+     */
+    protected boolean checkPath(Path path, List<Constraint> constraints,
+                                LinkResourceService resources) {
         for (Constraint constraint : constraints) {
-            if (!constraint.validate(path, resourceService)) {
+            if (!constraint.validate(path, resources)) {
                 return false;
             }
         }
@@ -86,6 +114,14 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
 
     /**
      * Computes a path between two ConnectPoints.
+     * <p>
+     * Links which fail any of the intent constraints are pruned by the path
+     * search itself. Constraints which can only be judged on whole paths,
+     * such as waypoints or latency, are then checked on the equal-cost
+     * shortest paths; should none of them pass, a bounded number of the
+     * next shortest paths are tried. All links are evaluated against a
+     * single snapshot of the available link resources.
+     * </p>
      *
      * @param intent intent on which behalf path is being computed
      * @param one    start of the path
@@ -95,20 +131,32 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
      */
     protected Path getPath(ConnectivityIntent intent,
                            ElementId one, ElementId two) {
-        Set<Path> paths = pathService.getPaths(one, two, weight(intent.constraints()));
-        final List<Constraint> constraints = intent.constraints();
-        ImmutableList<Path> filtered = FluentIterable.from(paths)
-                .filter(new Predicate<Path>() {
-                    @Override
-                    public boolean apply(Path path) {
-                        return checkPath(path, constraints);
-                    }
-                }).toList();
-        if (filtered.isEmpty()) {
+        List<Constraint> constraints = intent.constraints();
+        LinkResourceService resources = new LinkResourceSnapshot(resourceService);
+        LinkWeight weight = weight(constraints, resources);
+
+        Set<Path> paths = pathService.getPaths(one, two, weight);
+        Path path = firstValid(paths, constraints, resources);
+        if (path == null && !paths.isEmpty()) {
+            // none of the shortest paths will do; try the longer ones
+            path = firstValid(pathService.getKShortestPaths(one, two, weight, MAX_PATHS),
+                              constraints, resources);
+        }
+        if (path == null) {
             throw new PathNotFoundException("No packet path from " + one + " to " + two);
         }
-        // TODO: let's be more intelligent about this eventually
-        return filtered.iterator().next();
+        return path;
+    }
+
+    // Returns the first of the given paths passing all constraints, if any.
+    private Path firstValid(Collection<Path> paths, List<Constraint> constraints,
+                            LinkResourceService resources) {
+        for (Path path : paths) {
+            if (checkPath(path, constraints, resources)) {
+                return path;
+            }
+        }
+        return null;
     }
 
     /**
@@ -117,6 +165,7 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
     protected class ConstraintBasedLinkWeight implements LinkWeight {
 
         private final List<Constraint> constraints;
+        private final LinkResourceService resources;
 
         /**
          * Creates a new edge-weight function capable of evaluating links
@@ -125,11 +174,23 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
          * @param constraints path constraints
          */
         ConstraintBasedLinkWeight(List<Constraint> constraints) {
+            this(constraints, resourceService);
+        }
+
+        /**
+         * Creates a new edge-weight function capable of evaluating links
+         * on the basis of the specified constraints and link resources.
+         *
+         * @param constraints path constraints
+         * @param resources   link resource service to consult
+         */
+        ConstraintBasedLinkWeight(List<Constraint> constraints, LinkResourceService resources) {
             if (constraints == null) {
                 this.constraints = Collections.emptyList();
             } else {
                 this.constraints = ImmutableList.copyOf(constraints);
             }
+            this.resources = resources;
         }
 
         @Override
@@ -142,9 +203,9 @@ public abstract class ConnectivityIntentCompiler<T extends ConnectivityIntent>
             // the first one with fast fail over the first failure
             Iterator<Constraint> it = constraints.iterator();
 
-            double cost = it.next().cost(edge.link(), resourceService);
+            double cost = it.next().cost(edge.link(), resources);
             while (it.hasNext() && cost > 0) {
-                if (it.next().cost(edge.link(), resourceService) < 0) {
+                if (it.next().cost(edge.link(), resources) < 0) {
                     return -1;
                 }
             }
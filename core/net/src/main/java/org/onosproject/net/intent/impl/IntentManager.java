@@ -19,12 +19,17 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.jboss.netty.util.Timeout;
+import org.onlab.util.Timer;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.core.CoreService;
 import org.onosproject.core.IdGenerator;
@@ -59,11 +64,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -741,6 +744,13 @@ public class IntentManager
         }
     }
 
+    /**
+     * Drives installation of a batch of intent operations through its flow
+     * rule phases. Each phase is advanced from the completion callback of the
+     * corresponding flow rule batch, so a monitor holds no thread while the
+     * devices are working; the deadline of each installation attempt is
+     * tracked on the shared timer.
+     */
     private class IntentInstallMonitor implements Runnable {
 
         // TODO make this configurable
@@ -750,21 +760,24 @@ public class IntentManager
         private final IntentOperations ops;
         private final List<IntentUpdate> intentUpdates = Lists.newArrayList();
 
-        // future holding current FlowRuleBatch installation result
-        private Future<CompletedBatchOperation> future;
-        private long startTime = System.currentTimeMillis();
-        private long endTime;
+        // future holding current FlowRuleBatch installation result;
+        // completions of any other (stale) future are ignored
+        private ListenableFuture<CompletedBatchOperation> future;
+        private Timeout deadline;
         private int installAttempt;
 
         public IntentInstallMonitor(IntentOperations ops) {
             this.ops = ops;
-            resetTimeoutLimit();
         }
 
         private void resetTimeoutLimit() {
+            if (deadline != null) {
+                deadline.cancel();
+            }
             // FIXME compute reasonable timeouts
-            this.endTime = System.currentTimeMillis()
-                           + ops.operations().size() * TIMEOUT_PER_OP;
+            deadline = Timer.getTimer().newTimeout(
+                    t -> executor.execute(() -> attemptTimedOut(t)),
+                    ops.operations().size() * TIMEOUT_PER_OP, TimeUnit.MILLISECONDS);
         }
 
         private void buildIntentUpdates() {
@@ -785,7 +798,6 @@ public class IntentManager
             for (IntentUpdate update : intentUpdates) {
                 processIntentUpdate(update);
             }
-            future = applyNextBatch();
         }
 
         /**
@@ -793,7 +805,7 @@ public class IntentManager
          *
          * @return Future for next batch
          */
-        private Future<CompletedBatchOperation> applyNextBatch() {
+        private ListenableFuture<CompletedBatchOperation> applyNextBatch() {
             //TODO test this. (also, maybe save this batch)
             FlowRuleBatchOperation batch = new FlowRuleBatchOperation(Collections.emptyList());
             for (IntentUpdate update : intentUpdates) {
@@ -817,6 +829,78 @@ public class IntentManager
             }
         }
 
+        /**
+         * Makes the given batch the current one and registers for its
+         * completion; finishes the operations if there is none.
+         *
+         * @param next future of the next batch, or null if done
+         */
+        private void awaitBatch(ListenableFuture<CompletedBatchOperation> next) {
+            future = next;
+            if (next == null) {
+                // there are no outstanding batches; we are done
+                deadline.cancel();
+                batchService.removeIntentOperations(ops);
+                return;
+            }
+            Futures.addCallback(next, new FutureCallback<CompletedBatchOperation>() {
+                @Override
+                public void onSuccess(CompletedBatchOperation completed) {
+                    batchCompleted(next, completed);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    batchFailed(next, t);
+                }
+            }, executor);
+        }
+
+        private synchronized void batchCompleted(Future<CompletedBatchOperation> completedFuture,
+                                                 CompletedBatchOperation completed) {
+            if (completedFuture != future) {
+                return;
+            }
+            try {
+                // -- If complete OK:
+                //       step each IntentUpdate forward
+                //           If phase left: generate next FlowRuleBatch
+                //           If no more phase: write parking states
+                // -- If complete FAIL:
+                //       Intent which failed: transition Intent to FAILED
+                //       Other Intents: resubmit same FlowRuleBatch for this phase
+                updateBatches(completed);
+                awaitBatch(applyNextBatch());
+            } catch (Exception e) {
+                log.error("Error submitting batches:", e);
+                abandonShip();
+            }
+        }
+
+        private synchronized void batchFailed(Future<CompletedBatchOperation> failedFuture,
+                                              Throwable t) {
+            if (failedFuture != future) {
+                // cancelled by a retry or otherwise superseded
+                return;
+            }
+            log.warn("Execution of batch failed: {}", ops, t);
+            abandonShip();
+        }
+
+        private synchronized void attemptTimedOut(Timeout timeout) {
+            if (timeout != deadline || future == null) {
+                // superseded by a retry, or already done
+                return;
+            }
+            try {
+                // - cancel current FlowRuleBatch and resubmit again
+                retry();
+            } catch (Exception e) {
+                log.error("Error submitting batches:", e);
+                abandonShip();
+            }
+        }
+
         private void updateBatches(CompletedBatchOperation completed) {
             if (completed.isSuccess()) {
                 for (IntentUpdate update : intentUpdates) {
@@ -851,27 +935,10 @@ public class IntentManager
             // TODO: maybe we should do more?
             log.error("Walk the plank, matey...");
             future = null;
-            batchService.removeIntentOperations(ops);
-        }
-
-        /**
-         * Iterate through the pending futures, and remove them when they have completed.
-         */
-        private void processFutures() {
-            if (future == null) {
-                // we are done if the future is null
-                return;
-            }
-            try {
-                CompletedBatchOperation completed = future.get(100, TimeUnit.NANOSECONDS);
-                updateBatches(completed);
-                future = applyNextBatch();
-            } catch (TimeoutException | InterruptedException te) {
-                log.trace("Installation of intents are still pending: {}", ops);
-            } catch (ExecutionException e) {
-                log.warn("Execution of batch failed: {}", ops, e);
-                abandonShip();
+            if (deadline != null) {
+                deadline.cancel();
             }
+            batchService.removeIntentOperations(ops);
         }
 
         private void retry() {
@@ -889,8 +956,7 @@ public class IntentManager
                     abandonShip();
                     return;
                 } // else just resubmit the work
-                future = applyNextBatch();
-                executor.submit(this);
+                awaitBatch(applyNextBatch());
             } else {
                 log.error("Cancelling FlowRuleBatch failed.");
                 // FIXME
@@ -901,43 +967,16 @@ public class IntentManager
             }
         }
 
-        boolean isComplete() {
-            return future == null;
-        }
-
         @Override
-        public void run() {
+        public synchronized void run() {
             try {
-                if (intentUpdates.isEmpty()) {
-                    // this should only be called on the first iteration
-                    // note: this a "expensive", so it is not done in the constructor
-
-                    // - creates per Intent installation context (IntentUpdate)
-                    // - write Intents to store
-                    // - process (compile, install, etc.) each Intents
-                    // - generate FlowRuleBatch for this phase
-                    buildIntentUpdates();
-                }
-
-                // - peek if current FlowRuleBatch is complete
-                // -- If complete OK:
-                //       step each IntentUpdate forward
-                //           If phase left: generate next FlowRuleBatch
-                //           If no more phase: write parking states
-                // -- If complete FAIL:
-                //       Intent which failed: transition Intent to FAILED
-                //       Other Intents: resubmit same FlowRuleBatch for this phase
-                processFutures();
-                if (isComplete()) {
-                    // there are no outstanding batches; we are done
-                    batchService.removeIntentOperations(ops);
-                } else if (endTime < System.currentTimeMillis()) {
-                    // - cancel current FlowRuleBatch and resubmit again
-                    retry();
-                } else {
-                    // we are not done yet, yield the thread by resubmitting ourselves
-                    executor.submit(this);
-                }
+                // - creates per Intent installation context (IntentUpdate)
+                // - write Intents to store
+                // - process (compile, install, etc.) each Intents
+                // - generate FlowRuleBatch for this phase
+                resetTimeoutLimit();
+                buildIntentUpdates();
+                awaitBatch(applyNextBatch());
             } catch (Exception e) {
                 log.error("Error submitting batches:", e);
                 // FIXME incomplete Intents should be cleaned up
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.intent.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.onosproject.net.Link;
+import org.onosproject.net.intent.IntentId;
+import org.onosproject.net.resource.LinkResourceAllocations;
+import org.onosproject.net.resource.LinkResourceListener;
+import org.onosproject.net.resource.LinkResourceRequest;
+import org.onosproject.net.resource.LinkResourceService;
+import org.onosproject.net.resource.ResourceRequest;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Link resource service which remembers the resources available on each
+ * link the first time they are asked for, so that the constraints of a
+ * single compilation evaluate every link against the same state and query
+ * the backing service once per link. All other operations are passed
+ * through. Not thread safe; meant to live for a single compilation.
+ */
+final class LinkResourceSnapshot implements LinkResourceService {
+
+    private final LinkResourceService delegate;
+    private final Map<Link, Iterable<ResourceRequest>> available = new HashMap<>();
+
+    /**
+     * Creates a snapshot backed by the given service.
+     *
+     * @param delegate backing link resource service
+     */
+    LinkResourceSnapshot(LinkResourceService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Iterable<ResourceRequest> getAvailableResources(Link link) {
+        Iterable<ResourceRequest> resources = available.get(link);
+        if (resources == null) {
+            resources = ImmutableList.copyOf(delegate.getAvailableResources(link));
+            available.put(link, resources);
+        }
+        return resources;
+    }
+
+    @Override
+    public Iterable<ResourceRequest> getAvailableResources(Link link,
+                                                           LinkResourceAllocations allocations) {
+        return delegate.getAvailableResources(link, allocations);
+    }
+
+    @Override
+    public LinkResourceAllocations requestResources(LinkResourceRequest req) {
+        return delegate.requestResources(req);
+    }
+
+    @Override
+    public void releaseResources(LinkResourceAllocations allocations) {
+        delegate.releaseResources(allocations);
+    }
+
+    @Override
+    public LinkResourceAllocations updateResources(LinkResourceRequest req,
+                                                   LinkResourceAllocations oldAllocations) {
+        return delegate.updateResources(req, oldAllocations);
+    }
+
+    @Override
+    public Iterable<LinkResourceAllocations> getAllocations() {
+        return delegate.getAllocations();
+    }
+
+    @Override
+    public Iterable<LinkResourceAllocations> getAllocations(Link link) {
+        return delegate.getAllocations(link);
+    }
+
+    @Override
+    public LinkResourceAllocations getAllocations(IntentId intentId) {
+        return delegate.getAllocations(intentId);
+    }
+
+    @Override
+    public void addListener(LinkResourceListener listener) {
+        delegate.addListener(listener);
+    }
+
+    @Override
+    public void removeListener(LinkResourceListener listener) {
+        delegate.removeListener(listener);
+    }
+}
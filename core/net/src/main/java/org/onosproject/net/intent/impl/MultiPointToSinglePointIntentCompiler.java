@@ -19,7 +19,10 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
@@ -29,7 +32,6 @@ import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.Link;
-import org.onosproject.net.Path;
 import org.onosproject.net.intent.Intent;
 import org.onosproject.net.intent.IntentCompiler;
 import org.onosproject.net.intent.IntentExtensionService;
@@ -37,10 +39,19 @@ import org.onosproject.net.intent.LinkCollectionIntent;
 import org.onosproject.net.intent.MultiPointToSinglePointIntent;
 import org.onosproject.net.intent.PointToPointIntent;
 import org.onosproject.net.resource.LinkResourceAllocations;
-import org.onosproject.net.topology.PathService;
+import org.onosproject.net.topology.DefaultTopologyVertex;
+import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyEdge;
+import org.onosproject.net.topology.TopologyGraph;
+import org.onosproject.net.topology.TopologyService;
+import org.onosproject.net.topology.TopologyVertex;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
 
+import static org.onosproject.net.Link.State.ACTIVE;
+import static org.onosproject.net.Link.Type.INDIRECT;
+
 /**
  * An intent compiler for
  * {@link org.onosproject.net.intent.MultiPointToSinglePointIntent}.
@@ -53,7 +64,10 @@ public class MultiPointToSinglePointIntentCompiler
     protected IntentExtensionService intentManager;
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
-    protected PathService pathService;
+    protected TopologyService topologyService;
+
+    // Trees towards egress devices, computed on a single topology
+    private volatile Trees trees;
 
     @Activate
     public void activate() {
@@ -68,19 +82,22 @@ public class MultiPointToSinglePointIntentCompiler
     @Override
     public List<Intent> compile(MultiPointToSinglePointIntent intent, List<Intent> installable,
                                 Set<LinkResourceAllocations> resources) {
+        DeviceId egress = intent.egressPoint().deviceId();
+        Map<DeviceId, Link> tree = getTree(egress);
         Map<DeviceId, Link> links = new HashMap<>();
 
         for (ConnectPoint ingressPoint : intent.ingressPoints()) {
-            Path path = getPath(ingressPoint, intent.egressPoint());
-            for (Link link : path.links()) {
-                if (links.containsKey(link.src().deviceId())) {
-                    // We've already reached the existing tree with the first
-                    // part of this path. Don't add the remainder of the path
-                    // in case it differs from the path we already have.
-                    break;
+            DeviceId device = ingressPoint.deviceId();
+            // Follow the tree until the egress or a part of the tree already
+            // taken by another ingress point is reached.
+            while (!device.equals(egress) && !links.containsKey(device)) {
+                Link link = tree.get(device);
+                if (link == null) {
+                    throw new PathNotFoundException("No path from " + ingressPoint +
+                                                    " to " + intent.egressPoint());
                 }
-
-                links.put(link.src().deviceId(), link);
+                links.put(device, link);
+                device = link.dst().deviceId();
             }
         }
 
@@ -91,19 +108,86 @@ public class MultiPointToSinglePointIntentCompiler
     }
 
     /**
-     * Computes a path between two ConnectPoints.
+     * Returns the tree of shortest paths from all devices towards the given
+     * egress device in the current topology. Trees are computed once per
+     * egress device and topology, and shared by all intents compiled on that
+     * topology.
      *
-     * @param one start of the path
-     * @param two end of the path
-     * @return Path between the two
-     * @throws org.onosproject.net.intent.impl.PathNotFoundException if a path cannot be found
+     * @param egress egress device
+     * @return map of devices to the first link of their path to the egress
      */
-    private Path getPath(ConnectPoint one, ConnectPoint two) {
-        Set<Path> paths = pathService.getPaths(one.deviceId(), two.deviceId());
-        if (paths.isEmpty()) {
-            throw new PathNotFoundException("No path from " + one + " to " + two);
+    private Map<DeviceId, Link> getTree(DeviceId egress) {
+        Topology topology = topologyService.currentTopology();
+        Trees current = trees;
+        if (current == null || current.topology != topology) {
+            current = new Trees(topology);
+            trees = current;
+        }
+        return current.trees.computeIfAbsent(egress, device -> buildTree(topology, device));
+    }
+
+    // Searches the reversed graph for the shortest paths, in terms of
+    // hop-count, from all devices to the egress device.
+    private Map<DeviceId, Link> buildTree(Topology topology, DeviceId egress) {
+        TopologyGraph graph = topologyService.getGraph(topology);
+        TopologyVertex root = new DefaultTopologyVertex(egress);
+        if (!graph.getVertexes().contains(root)) {
+            return ImmutableMap.of();
+        }
+
+        // Indirect links are as expensive as the linear vertex traversal,
+        // same as for the pre-computed paths of the topology.
+        int indirectLinkCost = graph.getVertexes().size();
+        Map<DeviceId, Link> tree = new HashMap<>();
+        Map<TopologyVertex, Integer> costs = new HashMap<>();
+        PriorityQueue<Hop> queue = new PriorityQueue<>();
+        costs.put(root, 0);
+        queue.add(new Hop(root, 0));
+        while (!queue.isEmpty()) {
+            Hop hop = queue.poll();
+            if (hop.cost > costs.get(hop.vertex)) {
+                continue;
+            }
+            for (TopologyEdge edge : graph.getEdgesTo(hop.vertex)) {
+                if (edge.link().state() != ACTIVE) {
+                    continue;
+                }
+                int cost = hop.cost + (edge.link().type() == INDIRECT ? indirectLinkCost : 1);
+                Integer old = costs.get(edge.src());
+                if (old == null || cost < old) {
+                    costs.put(edge.src(), cost);
+                    tree.put(edge.src().deviceId(), edge.link());
+                    queue.add(new Hop(edge.src(), cost));
+                }
+            }
+        }
+        return ImmutableMap.copyOf(tree);
+    }
+
+    // Trees towards egress devices computed on a given topology.
+    private static final class Trees {
+        private final Topology topology;
+        private final ConcurrentMap<DeviceId, Map<DeviceId, Link>> trees =
+                new ConcurrentHashMap<>();
+
+        private Trees(Topology topology) {
+            this.topology = topology;
+        }
+    }
+
+    // Vertex queued with its cost of reaching the egress.
+    private static final class Hop implements Comparable<Hop> {
+        private final TopologyVertex vertex;
+        private final int cost;
+
+        private Hop(TopologyVertex vertex, int cost) {
+            this.vertex = vertex;
+            this.cost = cost;
+        }
+
+        @Override
+        public int compareTo(Hop other) {
+            return Integer.compare(cost, other.cost);
         }
-        // TODO: let's be more intelligent about this eventually
-        return paths.iterator().next();
     }
 }
@@ -18,8 +18,13 @@ package org.onosproject.net.packet.impl;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
 
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
@@ -27,6 +32,7 @@ import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.packet.Ethernet;
 import org.onosproject.net.Device;
 import org.onosproject.net.device.DeviceService;
 import org.onosproject.net.packet.OutboundPacket;
@@ -43,6 +49,10 @@ import org.onosproject.net.provider.AbstractProviderRegistry;
 import org.onosproject.net.provider.AbstractProviderService;
 import org.slf4j.Logger;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
 /**
  * Provides a basic implementation of the packet SB &amp; NB APIs.
  */
@@ -62,7 +72,12 @@ implements PacketService, PacketProviderRegistry {
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     private PacketStore store;
 
-    private final Map<Integer, PacketProcessor> processors = new ConcurrentHashMap<>();
+    // registrations in processing order; guarded by this
+    private final List<Registration> registrations = new ArrayList<>();
+    private long registrationCount = 0;
+
+    // dispatch table rebuilt on every change of the registrations
+    private volatile Dispatch dispatch = new Dispatch(Collections.emptyList());
 
     @Activate
     public void activate() {
@@ -78,14 +93,27 @@ implements PacketService, PacketProviderRegistry {
 
     @Override
     public void addProcessor(PacketProcessor processor, int priority) {
+        addProcessor(processor, priority, ImmutableSet.of());
+    }
+
+    @Override
+    public synchronized void addProcessor(PacketProcessor processor, int priority,
+                                          Set<Short> ethTypes) {
         checkNotNull(processor, "Processor cannot be null");
-        processors.put(priority, processor);
+        checkNotNull(ethTypes, "Ethernet types cannot be null");
+        registrations.removeIf(r -> r.processor == processor);
+        registrations.add(new Registration(processor, priority, ethTypes,
+                                           registrationCount++));
+        registrations.sort(Registration.ORDER);
+        dispatch = new Dispatch(registrations);
     }
 
     @Override
-    public void removeProcessor(PacketProcessor processor) {
+    public synchronized void removeProcessor(PacketProcessor processor) {
         checkNotNull(processor, "Processor cannot be null");
-        processors.values().remove(processor);
+        if (registrations.removeIf(r -> r.processor == processor)) {
+            dispatch = new Dispatch(registrations);
+        }
     }
 
     @Override
@@ -125,11 +153,80 @@ implements PacketService, PacketProviderRegistry {
 
         @Override
         public void processPacket(PacketContext context) {
-            for (PacketProcessor processor : processors.values()) {
-                processor.process(context);
+            Ethernet eth = context.inPacket().parsed();
+            List<PacketProcessor> chain = dispatch.chain(eth);
+            for (int i = 0; i < chain.size(); i++) {
+                chain.get(i).process(context);
+            }
+        }
+
+    }
+
+    // A processor registered with its priority and ethernet types of interest.
+    private static final class Registration {
+
+        static final Comparator<Registration> ORDER =
+                Comparator.<Registration>comparingInt(r -> r.priority)
+                        .thenComparingLong(r -> r.sequence);
+
+        final PacketProcessor processor;
+        final int priority;
+        final Set<Short> ethTypes;
+        final long sequence;
+
+        Registration(PacketProcessor processor, int priority,
+                     Set<Short> ethTypes, long sequence) {
+            this.processor = processor;
+            this.priority = priority;
+            this.ethTypes = ImmutableSet.copyOf(ethTypes);
+            this.sequence = sequence;
+        }
+
+        boolean accepts(short ethType) {
+            return ethTypes.isEmpty() || ethTypes.contains(ethType);
+        }
+    }
+
+    /**
+     * Processor chains precomputed for each ethernet type of interest to
+     * some processor; any other packet only visits the processors that
+     * asked for all packets.
+     */
+    private static final class Dispatch {
+
+        private final Map<Short, List<PacketProcessor>> byEthType;
+        private final List<PacketProcessor> catchAll;
+
+        Dispatch(List<Registration> registrations) {
+            ImmutableList.Builder<PacketProcessor> all = ImmutableList.builder();
+            Set<Short> ethTypes = new HashSet<>();
+            for (Registration r : registrations) {
+                if (r.ethTypes.isEmpty()) {
+                    all.add(r.processor);
+                }
+                ethTypes.addAll(r.ethTypes);
             }
+            ImmutableMap.Builder<Short, List<PacketProcessor>> chains = ImmutableMap.builder();
+            for (short ethType : ethTypes) {
+                ImmutableList.Builder<PacketProcessor> chain = ImmutableList.builder();
+                for (Registration r : registrations) {
+                    if (r.accepts(ethType)) {
+                        chain.add(r.processor);
+                    }
+                }
+                chains.put(ethType, chain.build());
+            }
+            this.byEthType = chains.build();
+            this.catchAll = all.build();
         }
 
+        List<PacketProcessor> chain(Ethernet eth) {
+            if (eth == null) {
+                return catchAll;
+            }
+            List<PacketProcessor> chain = byEthType.get(eth.getEtherType());
+            return chain != null ? chain : catchAll;
+        }
     }
 
     /**
@@ -15,6 +15,7 @@
  */
 package org.onosproject.net.topology.impl;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -121,6 +122,35 @@ public class PathManager implements PathService {
         return edgeToEdgePaths(srcEdge, dstEdge, paths);
     }
 
+    @Override
+    public List<Path> getKShortestPaths(ElementId src, ElementId dst, LinkWeight weight,
+                                        int maxPaths) {
+        checkNotNull(src, ELEMENT_ID_NULL);
+        checkNotNull(dst, ELEMENT_ID_NULL);
+        checkNotNull(weight, "Link weight cannot be null");
+
+        EdgeLink srcEdge = getEdgeLink(src, true);
+        EdgeLink dstEdge = getEdgeLink(dst, false);
+        if (srcEdge == null || dstEdge == null) {
+            return ImmutableList.of();
+        }
+
+        DeviceId srcDevice = srcEdge != NOT_HOST ? srcEdge.dst().deviceId() : (DeviceId) src;
+        DeviceId dstDevice = dstEdge != NOT_HOST ? dstEdge.src().deviceId() : (DeviceId) dst;
+        if (srcDevice.equals(dstDevice)) {
+            return ImmutableList.of(edgeToEdgePath(srcEdge, dstEdge, null));
+        }
+
+        Topology topology = topologyService.currentTopology();
+        List<Path> paths = topologyService.getKShortestPaths(topology, srcDevice, dstDevice,
+                                                             weight, maxPaths);
+        ImmutableList.Builder<Path> builder = ImmutableList.builder();
+        for (Path path : paths) {
+            builder.add(edgeToEdgePath(srcEdge, dstEdge, path));
+        }
+        return builder.build();
+    }
+
     // Finds the host edge link if the element ID is a host id of an existing
     // host. Otherwise, if the host does not exist, it returns null and if
     // the element ID is not a host ID, returns NOT_HOST edge link.
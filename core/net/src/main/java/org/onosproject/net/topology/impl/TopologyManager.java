@@ -49,6 +49,7 @@ import org.slf4j.Logger;
 import java.util.List;
 import java.util.Set;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -156,6 +157,17 @@ public class TopologyManager
         return store.getPaths(topology, src, dst, weight);
     }
 
+    @Override
+    public List<Path> getKShortestPaths(Topology topology, DeviceId src, DeviceId dst,
+                                        LinkWeight weight, int maxPaths) {
+        checkNotNull(topology, TOPOLOGY_NULL);
+        checkNotNull(src, DEVICE_ID_NULL);
+        checkNotNull(dst, DEVICE_ID_NULL);
+        checkNotNull(weight, "Link weight cannot be null");
+        checkArgument(maxPaths > 0, "Maximum number of paths must be positive");
+        return store.getKShortestPaths(topology, src, dst, weight, maxPaths);
+    }
+
     @Override
     public boolean isInfrastructure(Topology topology, ConnectPoint connectPoint) {
         checkNotNull(topology, TOPOLOGY_NULL);
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.flow.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.net.NetTestTools.did;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.MacAddress;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowRule;
+
+/**
+ * Test of the flow idle timeout tracker.
+ */
+public class FlowIdleTrackerTest {
+
+    private static final int TIMEOUT = 10;
+
+    private final List<FlowEntry> expired = new ArrayList<>();
+    private FlowIdleTracker tracker;
+
+    @Before
+    public void setUp() {
+        // not started; the tests drive the wheel themselves
+        tracker = new FlowIdleTracker(1000, 8, expired::addAll);
+    }
+
+    private FlowRule rule(int i, boolean permanent) {
+        return new DefaultFlowRule(did("d1"),
+                DefaultTrafficSelector.builder().matchEthDst(MacAddress.valueOf(i)).build(),
+                DefaultTrafficTreatment.builder().build(),
+                10, i, TIMEOUT, permanent);
+    }
+
+    private FlowEntry entry(FlowRule rule, long packets) {
+        return new DefaultFlowEntry(rule, FlowEntry.FlowEntryState.ADDED, 0, packets, 0);
+    }
+
+    @Test
+    public void idleFlowExpires() {
+        FlowEntry stored = entry(rule(1, false), 0);
+        assertTrue("flow should be live", tracker.seen(stored, entry(stored, 0)));
+        assertEquals(1, tracker.size());
+
+        tracker.advance(System.currentTimeMillis() + 5000);
+        assertTrue("flow expired too early", expired.isEmpty());
+
+        // past the timeout, beyond a full turn of the wheel
+        tracker.advance(System.currentTimeMillis() + (TIMEOUT + 2) * 1000);
+        assertEquals("flow should have expired", 1, expired.size());
+        assertEquals(stored.id(), expired.get(0).id());
+        assertEquals(0, tracker.size());
+    }
+
+    @Test
+    public void trafficRefreshesFlow() {
+        FlowEntry stored = entry(rule(1, false), 0);
+        long start = System.currentTimeMillis();
+        tracker.seen(stored, entry(stored, 0));
+
+        tracker.advance(start + 5000);
+        // packets went up; refreshed at the real current time
+        assertTrue(tracker.seen(stored, entry(stored, 42)));
+        tracker.advance(start + (TIMEOUT - 1) * 1000);
+        assertTrue("refreshed flow expired", expired.isEmpty());
+
+        tracker.advance(System.currentTimeMillis() + (TIMEOUT + 2) * 1000);
+        assertEquals(1, expired.size());
+        assertEquals(42, expired.get(0).packets());
+    }
+
+    @Test
+    public void flowReportedUnderOtherIdExpires() {
+        FlowEntry stored = entry(rule(1, false), 0);
+        // id of the reported entry comes from the cookie set by the device
+        FlowEntry reported = entry(rule(99, false), 0);
+        assertTrue(tracker.seen(stored, reported));
+
+        tracker.advance(System.currentTimeMillis() + (TIMEOUT + 2) * 1000);
+        assertEquals("flow should have expired", 1, expired.size());
+        assertEquals("flow should be forgotten", 0, tracker.size());
+    }
+
+    @Test
+    public void removedFlowIsForgotten() {
+        FlowEntry stored = entry(rule(1, false), 0);
+        tracker.seen(stored, entry(stored, 0));
+        tracker.remove(stored.id());
+        tracker.advance(System.currentTimeMillis() + (TIMEOUT + 2) * 1000);
+        assertTrue(expired.isEmpty());
+        assertEquals(0, tracker.size());
+    }
+
+    @Test
+    public void permanentFlowNotTracked() {
+        FlowEntry stored = entry(rule(1, true), 0);
+        assertTrue(tracker.seen(stored, entry(stored, 0)));
+        assertEquals(0, tracker.size());
+    }
+}
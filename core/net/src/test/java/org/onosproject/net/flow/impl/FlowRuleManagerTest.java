@@ -15,15 +15,21 @@
  */
 package org.onosproject.net.flow.impl;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricFilter;
+import com.codahale.metrics.Timer;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.onlab.metrics.MetricsManager;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.core.DefaultApplicationId;
 import org.onosproject.event.impl.TestEventDispatcher;
@@ -67,6 +73,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
@@ -406,6 +413,43 @@ public class FlowRuleManagerTest {
 
     }
 
+    @Test
+    public void batchCompletionIsSignalled() throws InterruptedException {
+        FlowRule f1 = flowRule(1, 1);
+        FlowRuleBatchOperation fbo = new FlowRuleBatchOperation(
+                Lists.newArrayList(new FlowRuleBatchEntry(
+                        FlowRuleBatchEntry.FlowRuleOperation.ADD, f1)));
+
+        // completion must be pushed to listeners without anyone calling get()
+        CountDownLatch done = new CountDownLatch(1);
+        ListenableFuture<CompletedBatchOperation> future = mgr.applyBatch(fbo);
+        future.addListener(done::countDown, MoreExecutors.directExecutor());
+        assertTrue("Batch completion not signalled",
+                   done.await(TIMEOUT, TimeUnit.SECONDS));
+        assertTrue("Future should be done", future.isDone());
+    }
+
+    @Test
+    public void batchMetrics() throws Exception {
+        MetricsManager metrics = new MetricsManager();
+        mgr.metricsService = metrics;
+
+        FlowRule f1 = flowRule(1, 1);
+        FlowRuleBatchOperation fbo = new FlowRuleBatchOperation(
+                Lists.newArrayList(new FlowRuleBatchEntry(
+                        FlowRuleBatchEntry.FlowRuleOperation.ADD, f1)));
+        mgr.applyBatch(fbo).get(TIMEOUT, TimeUnit.SECONDS);
+
+        Timer latency = metrics.getTimers(MetricFilter.ALL)
+                .get("FlowRule.Batches." + DID + ".latency");
+        Counter inFlight = metrics.getCounters(MetricFilter.ALL)
+                .get("FlowRule.Batches." + DID + ".inFlight");
+        assertNotNull("Latency not tracked", latency);
+        assertNotNull("In-flight batches not tracked", inFlight);
+        assertEquals("Incorrect completed batch count", 1, latency.getCount());
+        assertEquals("Batch still in flight", 0, inFlight.getCount());
+    }
+
     @Test
     public void cancelBatch() {
         FlowRule f1 = flowRule(1, 1);
@@ -434,9 +478,10 @@ public class FlowRuleManagerTest {
 
         FlowRuleBatchOperation fbo = new FlowRuleBatchOperation(
                 Lists.newArrayList(fbe1, fbe2));
+        provider.holdBatches = true;
         Future<CompletedBatchOperation> future = mgr.applyBatch(fbo);
 
-        future.cancel(true);
+        assertTrue("Batch should be cancellable while pending", future.cancel(true));
 
         assertTrue(flowCount() == 2);
 
@@ -511,6 +556,9 @@ public class FlowRuleManagerTest {
 
     private class TestProvider extends AbstractProvider implements FlowRuleProvider {
 
+        // when set, batches are left pending as if the device never answered
+        boolean holdBatches;
+
         protected TestProvider(ProviderId id) {
             super(PID);
         }
@@ -530,6 +578,9 @@ public class FlowRuleManagerTest {
         @Override
         public ListenableFuture<CompletedBatchOperation> executeBatch(
                 BatchOperation<FlowRuleBatchEntry> batch) {
+            if (holdBatches) {
+                return SettableFuture.create();
+            }
             return new TestInstallationFuture();
         }
 
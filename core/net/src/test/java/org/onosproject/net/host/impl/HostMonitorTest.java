@@ -179,6 +179,11 @@ public class HostMonitorTest {
         public void addProcessor(PacketProcessor processor, int priority) {
         }
 
+        @Override
+        public void addProcessor(PacketProcessor processor, int priority,
+                                 Set<Short> ethTypes) {
+        }
+
         @Override
         public void removeProcessor(PacketProcessor processor) {
         }
@@ -17,7 +17,6 @@ package org.onosproject.net.intent.impl;
 
 import java.util.Collections;
 import java.util.Set;
-import java.util.concurrent.Future;
 
 import org.onosproject.core.ApplicationId;
 import org.onosproject.net.DeviceId;
@@ -32,11 +31,12 @@ import org.onosproject.net.flow.FlowRuleService;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 
 
 public class MockFlowRuleService implements FlowRuleService {
 
-    private Future<CompletedBatchOperation> future;
+    private ListenableFuture<CompletedBatchOperation> future;
     final Set<FlowRule> flows = Sets.newHashSet();
 
     public void setFuture(boolean success) {
@@ -54,7 +54,7 @@ public class MockFlowRuleService implements FlowRuleService {
     }
 
     @Override
-    public Future<CompletedBatchOperation> applyBatch(FlowRuleBatchOperation batch) {
+    public ListenableFuture<CompletedBatchOperation> applyBatch(FlowRuleBatchOperation batch) {
         for (FlowRuleBatchEntry fbe : batch.getOperations()) {
             FlowRule fr = fbe.getTarget();
             switch (fbe.getOperator()) {
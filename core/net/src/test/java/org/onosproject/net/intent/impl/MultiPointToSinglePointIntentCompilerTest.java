@@ -19,9 +19,9 @@ import org.hamcrest.Matchers;
 import org.junit.Test;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.TestApplicationId;
+import org.onlab.graph.AdjacencyListsGraph;
 import org.onosproject.net.ConnectPoint;
-import org.onosproject.net.ElementId;
-import org.onosproject.net.Path;
+import org.onosproject.net.Link;
 import org.onosproject.net.flow.TrafficSelector;
 import org.onosproject.net.flow.TrafficTreatment;
 import org.onosproject.net.intent.AbstractIntentTest;
@@ -29,19 +29,25 @@ import org.onosproject.net.intent.Intent;
 import org.onosproject.net.intent.IntentTestsMocks;
 import org.onosproject.net.intent.LinkCollectionIntent;
 import org.onosproject.net.intent.MultiPointToSinglePointIntent;
-import org.onosproject.net.topology.LinkWeight;
-import org.onosproject.net.topology.PathService;
+import org.onosproject.net.topology.DefaultTopologyEdge;
+import org.onosproject.net.topology.DefaultTopologyVertex;
+import org.onosproject.net.topology.Topology;
+import org.onosproject.net.topology.TopologyEdge;
+import org.onosproject.net.topology.TopologyGraph;
+import org.onosproject.net.topology.TopologyServiceAdapter;
+import org.onosproject.net.topology.TopologyVertex;
 
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import static org.easymock.EasyMock.createMock;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.onosproject.net.NetTestTools.connectPoint;
-import static org.onosproject.net.NetTestTools.createPath;
+import static org.onosproject.net.NetTestTools.link;
 import static org.onosproject.net.intent.LinksHaveEntryWithSourceDestinationPairMatcher.linksHasPath;
 
 /**
@@ -55,36 +61,58 @@ public class MultiPointToSinglePointIntentCompilerTest extends AbstractIntentTes
     private TrafficTreatment treatment = new IntentTestsMocks.MockTreatment();
 
     /**
-     * Mock path service for creating paths within the test.
+     * Mock topology service for creating a graph within the test.
      */
-    private static class MockPathService implements PathService {
+    private static class MockTopologyService extends TopologyServiceAdapter {
 
-        final String[] pathHops;
+        final TopologyGraph graph;
+        Topology topology = createMock(Topology.class);
+        int graphRequests;
 
         /**
-         * Constructor that provides a set of hops to mock.
+         * Constructor that provides a set of ingress devices, all linked to
+         * the first of the hops, and a set of chained hops to mock.
          *
-         * @param pathHops path hops to mock
+         * @param ingressIds ingress device ids
+         * @param pathHops   path hops to mock
          */
-        MockPathService(String[] pathHops) {
-            this.pathHops = pathHops;
+        MockTopologyService(String[] ingressIds, String[] pathHops) {
+            Set<Link> links = new HashSet<>();
+            for (String ingressId : ingressIds) {
+                links.add(link(ingressId, 1, pathHops[0], 1));
+            }
+            for (int i = 0; i < pathHops.length - 1; i++) {
+                links.add(link(pathHops[i], 2, pathHops[i + 1], 1));
+            }
+            Set<TopologyVertex> vertexes = new HashSet<>();
+            Set<TopologyEdge> edges = new HashSet<>();
+            for (Link link : links) {
+                TopologyVertex src = new DefaultTopologyVertex(link.src().deviceId());
+                TopologyVertex dst = new DefaultTopologyVertex(link.dst().deviceId());
+                vertexes.add(src);
+                vertexes.add(dst);
+                edges.add(new DefaultTopologyEdge(src, dst, link));
+            }
+            graph = new MockTopologyGraph(vertexes, edges);
         }
 
         @Override
-        public Set<Path> getPaths(ElementId src, ElementId dst) {
-            Set<Path> result = new HashSet<>();
-
-            String[] allHops = new String[pathHops.length + 1];
-            allHops[0] = src.toString();
-            System.arraycopy(pathHops, 0, allHops, 1, pathHops.length);
-
-            result.add(createPath(allHops));
-            return result;
+        public Topology currentTopology() {
+            return topology;
         }
 
         @Override
-        public Set<Path> getPaths(ElementId src, ElementId dst, LinkWeight weight) {
-            return null;
+        public TopologyGraph getGraph(Topology topology) {
+            graphRequests++;
+            return graph;
+        }
+    }
+
+    private static class MockTopologyGraph
+            extends AdjacencyListsGraph<TopologyVertex, TopologyEdge>
+            implements TopologyGraph {
+        MockTopologyGraph(Set<TopologyVertex> vertexes, Set<TopologyEdge> edges) {
+            super(vertexes, edges);
         }
     }
 
@@ -111,13 +139,15 @@ public class MultiPointToSinglePointIntentCompilerTest extends AbstractIntentTes
     /**
      * Creates a compiler for MultiPointToSinglePoint intents.
      *
-     * @param hops hops to use while computing paths for this intent
+     * @param ingressIds ingress device ids
+     * @param hops       hops to use while computing paths for this intent
      * @return MultiPointToSinglePoint intent
      */
-    private MultiPointToSinglePointIntentCompiler makeCompiler(String[] hops) {
+    private MultiPointToSinglePointIntentCompiler makeCompiler(String[] ingressIds,
+                                                               String[] hops) {
         MultiPointToSinglePointIntentCompiler compiler =
                 new MultiPointToSinglePointIntentCompiler();
-        compiler.pathService = new MockPathService(hops);
+        compiler.topologyService = new MockTopologyService(ingressIds, hops);
         return compiler;
     }
 
@@ -135,7 +165,7 @@ public class MultiPointToSinglePointIntentCompilerTest extends AbstractIntentTes
 
         String[] hops = {"h1", "h2", "h3", "h4", "h5", "h6", "h7", "h8",
                 egress};
-        MultiPointToSinglePointIntentCompiler compiler = makeCompiler(hops);
+        MultiPointToSinglePointIntentCompiler compiler = makeCompiler(ingress, hops);
         assertThat(compiler, is(notNullValue()));
 
         List<Intent> result = compiler.compile(intent, null, null);
@@ -170,7 +200,7 @@ public class MultiPointToSinglePointIntentCompilerTest extends AbstractIntentTes
         assertThat(intent, is(notNullValue()));
 
         final String[] hops = {"inner1", "inner2", egress};
-        MultiPointToSinglePointIntentCompiler compiler = makeCompiler(hops);
+        MultiPointToSinglePointIntentCompiler compiler = makeCompiler(ingress, hops);
         assertThat(compiler, is(notNullValue()));
 
         List<Intent> result = compiler.compile(intent, null, null);
@@ -203,7 +233,7 @@ public class MultiPointToSinglePointIntentCompilerTest extends AbstractIntentTes
         assertThat(intent, is(notNullValue()));
 
         final String[] hops = {"n1", egress};
-        MultiPointToSinglePointIntentCompiler compiler = makeCompiler(hops);
+        MultiPointToSinglePointIntentCompiler compiler = makeCompiler(ingress, hops);
         assertThat(compiler, is(notNullValue()));
 
         List<Intent> result = compiler.compile(intent, null, null);
@@ -223,4 +253,42 @@ public class MultiPointToSinglePointIntentCompilerTest extends AbstractIntentTes
             assertThat(linkIntent.links(), linksHasPath("n1", egress));
         }
     }
+
+    /**
+     * Tests that the tree towards an egress device is computed once per
+     * topology and shared by all intents to that egress.
+     */
+    @Test
+    public void testTreeReuse() {
+        String[] ingress = {"i1", "i2", "i3"};
+        String egress = "e";
+        final String[] hops = {"n1", "n2", egress};
+        MultiPointToSinglePointIntentCompiler compiler = makeCompiler(ingress, hops);
+        MockTopologyService topologyService = (MockTopologyService) compiler.topologyService;
+
+        compiler.compile(makeIntent(new String[]{"i1", "i2"}, egress), null, null);
+        List<Intent> result = compiler.compile(makeIntent(new String[]{"i3"}, egress), null, null);
+        assertThat(topologyService.graphRequests, is(1));
+        LinkCollectionIntent linkIntent = (LinkCollectionIntent) result.get(0);
+        assertThat(linkIntent.links(), hasSize(3));
+        assertThat(linkIntent.links(), linksHasPath("i3", "n1"));
+
+        compiler.compile(makeIntent(new String[]{"i1"}, "n2"), null, null);
+        assertThat(topologyService.graphRequests, is(2));
+
+        topologyService.topology = createMock(Topology.class);
+        compiler.compile(makeIntent(new String[]{"i1"}, egress), null, null);
+        assertThat(topologyService.graphRequests, is(3));
+    }
+
+    /**
+     * Tests that compilation fails for an ingress point with no path to
+     * the egress point.
+     */
+    @Test(expected = PathNotFoundException.class)
+    public void testNoPathCompilation() {
+        final String[] hops = {"n1", "e"};
+        MultiPointToSinglePointIntentCompiler compiler = makeCompiler(new String[]{"i1"}, hops);
+        compiler.compile(makeIntent(new String[]{"i1", "i2"}, "e"), null, null);
+    }
 }
@@ -15,11 +15,14 @@
  */
 package org.onosproject.net.intent.impl;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import org.hamcrest.Matchers;
 import org.junit.Test;
 import org.onosproject.TestApplicationId;
 import org.onosproject.core.ApplicationId;
 import org.onosproject.net.ConnectPoint;
+import org.onosproject.net.ElementId;
 import org.onosproject.net.Link;
 import org.onosproject.net.Path;
 import org.onosproject.net.flow.TrafficSelector;
@@ -29,8 +32,12 @@ import org.onosproject.net.intent.Intent;
 import org.onosproject.net.intent.IntentTestsMocks;
 import org.onosproject.net.intent.PathIntent;
 import org.onosproject.net.intent.PointToPointIntent;
+import org.onosproject.net.intent.constraint.WaypointConstraint;
+import org.onosproject.net.topology.LinkWeight;
+import org.onosproject.net.topology.PathService;
 
 import java.util.List;
+import java.util.Set;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.notNullValue;
@@ -41,6 +48,8 @@ import static org.onosproject.net.DefaultEdgeLink.createEdgeLink;
 import static org.onosproject.net.DeviceId.deviceId;
 import static org.onosproject.net.NetTestTools.APP_ID;
 import static org.onosproject.net.NetTestTools.connectPoint;
+import static org.onosproject.net.NetTestTools.createPath;
+import static org.onosproject.net.NetTestTools.did;
 import static org.onosproject.net.PortNumber.portNumber;
 import static org.onosproject.net.intent.LinksHaveEntryWithSourceDestinationPairMatcher.linksHasPath;
 
@@ -171,4 +180,67 @@ public class PointToPointIntentCompilerTest extends AbstractIntentTest {
         Link secondLink = path.links().get(1);
         assertThat(secondLink, is(createEdgeLink(dst, false)));
     }
+
+    /**
+     * Tests that a longer path is picked when none of the shortest paths
+     * passes the path constraints.
+     */
+    @Test
+    public void testLongerPathCompilation() {
+        PointToPointIntent intent =
+                new PointToPointIntent(APPID, selector, treatment,
+                                       connectPoint("d1", 1), connectPoint("d4", 1),
+                                       ImmutableList.of(new WaypointConstraint(did("d3"))));
+
+        PointToPointIntentCompiler compiler = new PointToPointIntentCompiler();
+        compiler.pathService = new ShortestFirstPathService(createPath("d1", "d2", "d4"),
+                                                            createPath("d1", "d3", "d4"));
+
+        List<Intent> result = compiler.compile(intent, null, null);
+        assertThat(result, hasSize(1));
+        Path path = ((PathIntent) result.get(0)).path();
+        assertThat(path.links(), linksHasPath("d1", "d3"));
+        assertThat(path.links(), linksHasPath("d3", "d4"));
+    }
+
+    /**
+     * Tests that compilation fails when no path passes the path constraints.
+     */
+    @Test(expected = PathNotFoundException.class)
+    public void testNoFeasiblePathCompilation() {
+        PointToPointIntent intent =
+                new PointToPointIntent(APPID, selector, treatment,
+                                       connectPoint("d1", 1), connectPoint("d4", 1),
+                                       ImmutableList.of(new WaypointConstraint(did("d5"))));
+
+        PointToPointIntentCompiler compiler = new PointToPointIntentCompiler();
+        compiler.pathService = new ShortestFirstPathService(createPath("d1", "d2", "d4"),
+                                                            createPath("d1", "d3", "d4"));
+        compiler.compile(intent, null, null);
+    }
+
+    // Path service with a given list of paths, the first of them being the shortest.
+    private static class ShortestFirstPathService implements PathService {
+        private final List<Path> paths;
+
+        ShortestFirstPathService(Path... paths) {
+            this.paths = ImmutableList.copyOf(paths);
+        }
+
+        @Override
+        public Set<Path> getPaths(ElementId src, ElementId dst) {
+            return ImmutableSet.of(paths.get(0));
+        }
+
+        @Override
+        public Set<Path> getPaths(ElementId src, ElementId dst, LinkWeight weight) {
+            return ImmutableSet.of(paths.get(0));
+        }
+
+        @Override
+        public List<Path> getKShortestPaths(ElementId src, ElementId dst, LinkWeight weight,
+                                            int maxPaths) {
+            return paths;
+        }
+    }
 }
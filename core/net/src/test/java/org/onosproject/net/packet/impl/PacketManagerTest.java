@@ -0,0 +1,144 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.net.packet.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.onosproject.net.NetTestTools.connectPoint;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.MacAddress;
+import org.onosproject.net.packet.DefaultInboundPacket;
+import org.onosproject.net.packet.DefaultPacketContext;
+import org.onosproject.net.packet.OutboundPacket;
+import org.onosproject.net.packet.PacketContext;
+import org.onosproject.net.packet.PacketProcessor;
+import org.onosproject.net.packet.PacketProvider;
+import org.onosproject.net.packet.PacketProviderService;
+import org.onosproject.net.provider.AbstractProvider;
+import org.onosproject.net.provider.ProviderId;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Test of the processor chain of the packet manager.
+ */
+public class PacketManagerTest {
+
+    private static final ProviderId PID = new ProviderId("of", "foo");
+
+    private final List<String> visited = new ArrayList<>();
+
+    private PacketManager mgr;
+    private PacketProviderService providerService;
+
+    @Before
+    public void setUp() {
+        mgr = new PacketManager();
+        providerService = mgr.register(new TestProvider());
+    }
+
+    @Test
+    public void processorsInPriorityOrder() {
+        mgr.addProcessor(new TestProcessor("c"), 3);
+        mgr.addProcessor(new TestProcessor("a"), 1);
+        mgr.addProcessor(new TestProcessor("b1"), 2);
+        // same priority, processed after the earlier one
+        mgr.addProcessor(new TestProcessor("b2"), 2);
+
+        providerService.processPacket(context(Ethernet.TYPE_IPV4));
+        assertEquals(ImmutableList.of("a", "b1", "b2", "c"), visited);
+    }
+
+    @Test
+    public void processorsFilteredByEthType() {
+        mgr.addProcessor(new TestProcessor("all"), 1);
+        mgr.addProcessor(new TestProcessor("arp"), 0, ImmutableSet.of(Ethernet.TYPE_ARP));
+        mgr.addProcessor(new TestProcessor("ip"), 2,
+                         ImmutableSet.of(Ethernet.TYPE_IPV4, Ethernet.TYPE_IPV6));
+
+        providerService.processPacket(context(Ethernet.TYPE_ARP));
+        assertEquals(ImmutableList.of("arp", "all"), visited);
+
+        visited.clear();
+        providerService.processPacket(context(Ethernet.TYPE_IPV4));
+        assertEquals(ImmutableList.of("all", "ip"), visited);
+
+        visited.clear();
+        providerService.processPacket(context(Ethernet.TYPE_LLDP));
+        assertEquals(ImmutableList.of("all"), visited);
+    }
+
+    @Test
+    public void processorsReplacedAndRemoved() {
+        TestProcessor a = new TestProcessor("a");
+        mgr.addProcessor(a, 1);
+        mgr.addProcessor(new TestProcessor("b"), 2);
+        mgr.addProcessor(a, 3, ImmutableSet.of(Ethernet.TYPE_ARP));
+
+        providerService.processPacket(context(Ethernet.TYPE_ARP));
+        assertEquals(ImmutableList.of("b", "a"), visited);
+
+        visited.clear();
+        mgr.removeProcessor(a);
+        providerService.processPacket(context(Ethernet.TYPE_ARP));
+        assertEquals(ImmutableList.of("b"), visited);
+    }
+
+    private PacketContext context(short ethType) {
+        Ethernet eth = new Ethernet();
+        eth.setEtherType(ethType)
+                .setSourceMACAddress(MacAddress.valueOf(1L))
+                .setDestinationMACAddress(MacAddress.BROADCAST);
+        DefaultInboundPacket inPkt =
+                new DefaultInboundPacket(connectPoint("d1", 1), eth,
+                                         ByteBuffer.wrap(eth.serialize()));
+        return new DefaultPacketContext(0, inPkt, null, false) {
+            @Override
+            public void send() {
+            }
+        };
+    }
+
+    private class TestProcessor implements PacketProcessor {
+        private final String name;
+
+        TestProcessor(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void process(PacketContext context) {
+            visited.add(name);
+        }
+    }
+
+    private static class TestProvider extends AbstractProvider implements PacketProvider {
+        TestProvider() {
+            super(PID);
+        }
+
+        @Override
+        public void emit(OutboundPacket packet) {
+        }
+    }
+}
@@ -572,6 +572,11 @@ public class ProxyArpManagerTest {
         public void addProcessor(PacketProcessor processor, int priority) {
         }
 
+        @Override
+        public void addProcessor(PacketProcessor processor, int priority,
+                                 Set<Short> ethTypes) {
+        }
+
         @Override
         public void removeProcessor(PacketProcessor processor) {
         }
@@ -32,8 +32,10 @@ import org.onosproject.net.topology.Topology;
 import org.onosproject.net.topology.TopologyService;
 import org.onosproject.net.topology.TopologyServiceAdapter;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -118,6 +120,18 @@ public class PathManagerTest {
         validatePaths(paths, 1, 2, src, dst);
     }
 
+    @Test
+    public void edgeToEdgeKShortest() {
+        HostId src = hid("12:34:56:78:90:ab/1");
+        HostId dst = hid("12:34:56:78:90:ef/1");
+        fakeTopoMgr.paths.add(createPath("srcEdge", "middle", "dstEdge"));
+        fakeTopoMgr.paths.add(createPath("srcEdge", "other", "dstEdge"));
+        fakeHostMgr.hosts.put(src, host("12:34:56:78:90:ab/1", "srcEdge"));
+        fakeHostMgr.hosts.put(dst, host("12:34:56:78:90:ef/1", "dstEdge"));
+        List<Path> paths = service.getKShortestPaths(src, dst, edge -> 1.0, 2);
+        validatePaths(new HashSet<>(paths), 2, 4, src, dst);
+    }
+
     @Test
     public void noEdge() {
         Set<Path> paths = service.getPaths(hid("12:34:56:78:90:ab/1"),
@@ -149,6 +163,12 @@ public class PathManagerTest {
         public Set<Path> getPaths(Topology topology, DeviceId src, DeviceId dst, LinkWeight weight) {
             return paths;
         }
+
+        @Override
+        public List<Path> getKShortestPaths(Topology topology, DeviceId src, DeviceId dst,
+                                            LinkWeight weight, int maxPaths) {
+            return new ArrayList<>(paths);
+        }
     }
 
     // Fake entity to give out hosts.
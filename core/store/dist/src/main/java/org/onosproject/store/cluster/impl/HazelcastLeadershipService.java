@@ -68,8 +68,12 @@ import com.hazelcast.core.MessageListener;
  * healed Hazelcast partitions), and (2) Inform all listeners who is
  * the current leader (e.g., for informational purpose).
  * </p>
+ * <p>
+ * Superseded by {@link LeadershipManager}, which elects leaders on the Raft
+ * backed database.
+ * </p>
  */
-@Component(immediate = true)
+@Component(immediate = true, enabled = false)
 @Service
 public class HazelcastLeadershipService implements LeadershipService,
                                         MessageListener<byte[]> {
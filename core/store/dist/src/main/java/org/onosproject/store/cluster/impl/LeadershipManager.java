@@ -20,8 +20,10 @@ import static org.onlab.util.Tools.namedThreads;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -32,6 +34,8 @@ import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onosproject.cluster.ClusterEvent;
+import org.onosproject.cluster.ClusterEventListener;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.Leadership;
 import org.onosproject.cluster.LeadershipEvent;
@@ -46,31 +50,43 @@ import org.onosproject.store.serializers.KryoNamespaces;
 import org.onosproject.store.serializers.KryoSerializer;
 import org.onosproject.store.service.Lock;
 import org.onosproject.store.service.LockService;
-import org.onosproject.store.service.impl.DistributedLockManager;
 import org.onlab.util.KryoNamespace;
 import org.slf4j.Logger;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Sets;
 
 /**
  * Distributed implementation of LeadershipService that is based on the primitives exposed by
  * LockService.
+ * <p>
+ * A term is a lease on a lock in the Raft backed database, numbered by the
+ * version of the lock row written when the term began. The leader renews its
+ * lease several times per term; contenders wait on the lock and take it over
+ * once its row has gone a whole lease without a renewal, so a failed leader
+ * is replaced within two terms. Elections and lost leadership are pushed to
+ * peers as they happen, and peers drop a departed node from the leader board
+ * as soon as the cluster reports it gone.
+ * </p>
  */
-@Component(enabled = false)
+@Component(immediate = true)
 @Service
 public class LeadershipManager implements LeadershipService {
 
     private final Logger log = getLogger(getClass());
 
-    // TODO: Remove this dependency
-    private static final int TERM_DURATION_MS =
-            DistributedLockManager.DEAD_LOCK_TIMEOUT_MS;
+    // Lease on the leadership lock; leases are enforced per lock, so this
+    // does not depend on the expiration of the lock table.
+    private static final int TERM_DURATION_MS = 500;
+
+    // Number of times per term the leader renews its lease, so that
+    // a single delayed renewal does not cost the leadership.
+    private static final int RENEWALS_PER_TERM = 3;
 
     // Time to wait before retrying leadership after
     // a unexpected error.
-    private static final int WAIT_BEFORE_RETRY_MS = 2000;
+    private static final int WAIT_BEFORE_RETRY_MS = TERM_DURATION_MS;
 
     // TODO: Make Thread pool size configurable.
     private final ScheduledExecutorService threadPool =
@@ -91,11 +107,12 @@ public class LeadershipManager implements LeadershipService {
     private final Map<String, Leadership> leaderBoard = Maps.newHashMap();
 
     private final Map<String, Lock> openContests = Maps.newConcurrentMap();
-    private final Set<LeadershipEventListener> listeners = Sets.newIdentityHashSet();
+    private final Set<LeadershipEventListener> listeners = new CopyOnWriteArraySet<>();
     private NodeId localNodeId;
 
     private final LeadershipEventListener peerAdvertiser = new PeerAdvertiser();
     private final LeadershipEventListener leaderBoardUpdater = new LeaderBoardUpdater();
+    private final ClusterEventListener clusterEventListener = new InternalClusterEventListener();
 
     public static final KryoSerializer SERIALIZER = new KryoSerializer() {
         @Override
@@ -118,6 +135,8 @@ public class LeadershipManager implements LeadershipService {
                 LEADERSHIP_UPDATES,
                 new PeerAdvertisementHandler());
 
+        clusterService.addListener(clusterEventListener);
+
         log.info("Started.");
     }
 
@@ -126,6 +145,7 @@ public class LeadershipManager implements LeadershipService {
         removeListener(peerAdvertiser);
         removeListener(leaderBoardUpdater);
 
+        clusterService.removeListener(clusterEventListener);
         clusterCommunicator.removeSubscriber(LEADERSHIP_UPDATES);
 
         threadPool.shutdown();
@@ -176,7 +196,9 @@ public class LeadershipManager implements LeadershipService {
 
     @Override
     public Map<String, Leadership> getLeaderBoard() {
-        return ImmutableMap.copyOf(leaderBoard);
+        synchronized (leaderBoard) {
+            return ImmutableMap.copyOf(leaderBoard);
+        }
     }
 
     @Override
@@ -211,7 +233,7 @@ public class LeadershipManager implements LeadershipService {
             if (error == null) {
                 threadPool.schedule(
                         new ReelectionTask(lock),
-                        TERM_DURATION_MS / 2,
+                        TERM_DURATION_MS / RENEWALS_PER_TERM,
                         TimeUnit.MILLISECONDS);
                 notifyListeners(
                         new LeadershipEvent(
@@ -252,7 +274,7 @@ public class LeadershipManager implements LeadershipService {
                         new LeadershipEvent(
                                 LeadershipEvent.Type.LEADER_REELECTED,
                                 new Leadership(lock.path(), localNodeId, lock.epoch())));
-                threadPool.schedule(this, TERM_DURATION_MS / 2, TimeUnit.MILLISECONDS);
+                threadPool.schedule(this, TERM_DURATION_MS / RENEWALS_PER_TERM, TimeUnit.MILLISECONDS);
             } else {
                 // Check if this node already withdrew from the contest, in which case
                 // we don't need to notify here.
@@ -308,6 +330,34 @@ public class LeadershipManager implements LeadershipService {
         }
     }
 
+    private class InternalClusterEventListener implements ClusterEventListener {
+        @Override
+        public void event(ClusterEvent event) {
+            if (event.type() != ClusterEvent.Type.INSTANCE_DEACTIVATED &&
+                    event.type() != ClusterEvent.Type.INSTANCE_REMOVED) {
+                return;
+            }
+            NodeId departed = event.subject().id();
+            if (departed.equals(localNodeId)) {
+                return;
+            }
+            // A departed node cannot announce that it lost leadership;
+            // do it on its behalf so listeners stop relying on it right away.
+            List<Leadership> lost = Lists.newArrayList();
+            synchronized (leaderBoard) {
+                for (Leadership leadership : leaderBoard.values()) {
+                    if (departed.equals(leadership.leader())) {
+                        lost.add(leadership);
+                    }
+                }
+            }
+            for (Leadership leadership : lost) {
+                log.info("Leader {} of {} left the cluster", departed, leadership.topic());
+                notifyListeners(new LeadershipEvent(LeadershipEvent.Type.LEADER_BOOTED, leadership));
+            }
+        }
+    }
+
     private class LeaderBoardUpdater implements LeadershipEventListener {
         @Override
         public void event(LeadershipEvent event) {
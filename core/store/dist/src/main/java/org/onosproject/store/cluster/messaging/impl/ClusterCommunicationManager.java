@@ -16,9 +16,15 @@
 package org.onosproject.store.cluster.messaging.impl;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static org.onlab.metrics.MetricsUtil.decCounter;
+import static org.onlab.metrics.MetricsUtil.incCounter;
+import static org.onlab.metrics.MetricsUtil.startTimer;
+import static org.onlab.metrics.MetricsUtil.stopTimer;
 
 import java.io.IOException;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
@@ -26,6 +32,7 @@ import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsService;
 import org.onlab.netty.Endpoint;
 import org.onlab.netty.Message;
 import org.onlab.netty.MessageHandler;
@@ -34,6 +41,7 @@ import org.onlab.netty.NettyMessagingService;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.ControllerNode;
 import org.onosproject.cluster.NodeId;
+import org.onosproject.core.MetricsHelper;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
 import org.onosproject.store.cluster.messaging.ClusterMessage;
 import org.onosproject.store.cluster.messaging.ClusterMessageHandler;
@@ -46,20 +54,27 @@ import org.onlab.util.KryoNamespace;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
 import com.google.common.util.concurrent.ListenableFuture;
 
 @Component(immediate = true)
 @Service
 public class ClusterCommunicationManager
-        implements ClusterCommunicationService {
+        implements ClusterCommunicationService, MetricsHelper {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
+    private static final String COMPONENT_NAME = "ClusterCommunication";
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     private ClusterService clusterService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     // TODO: This probably should not be a OSGi service.
-    private MessagingService messagingService;
+    MessagingService messagingService;
 
     private static final KryoSerializer SERIALIZER = new KryoSerializer() {
         @Override
@@ -100,6 +115,11 @@ public class ClusterCommunicationManager
         log.info("Stopped");
     }
 
+    @Override
+    public MetricsService metricsService() {
+        return metricsService;
+    }
+
     @Override
     public boolean broadcast(ClusterMessage message) throws IOException {
         boolean ok = true;
@@ -173,7 +193,16 @@ public class ClusterCommunicationManager
     @Override
     public void addSubscriber(MessageSubject subject,
                               ClusterMessageHandler subscriber) {
-        messagingService.registerHandler(subject.value(), new InternalClusterMessageHandler(subscriber));
+        messagingService.registerHandler(subject.value(),
+                new InternalClusterMessageHandler(subject, subscriber, null));
+    }
+
+    @Override
+    public void addSubscriber(MessageSubject subject,
+                              ClusterMessageHandler subscriber,
+                              ExecutorService executor) {
+        messagingService.registerHandler(subject.value(),
+                new InternalClusterMessageHandler(subject, subscriber, executor));
     }
 
     @Override
@@ -181,28 +210,70 @@ public class ClusterCommunicationManager
         messagingService.unregisterHandler(subject.value());
     }
 
+    /**
+     * Decodes and handles messages received on the I/O thread, or hands
+     * them over to the executor of the subscriber if it brought one.
+     */
     private final class InternalClusterMessageHandler implements MessageHandler {
 
+        private final MessageSubject subject;
         private final ClusterMessageHandler handler;
+        private final ExecutorService executor;
+        private final Counter queueDepth;
+        private final Timer handlingTimer;
 
-        public InternalClusterMessageHandler(ClusterMessageHandler handler) {
+        public InternalClusterMessageHandler(MessageSubject subject,
+                                             ClusterMessageHandler handler,
+                                             ExecutorService executor) {
+            this.subject = subject;
             this.handler = handler;
+            this.executor = executor;
+            this.queueDepth = executor == null ? null
+                    : createCounter(COMPONENT_NAME, subject.value(), "queueDepth");
+            this.handlingTimer = createTimer(COMPONENT_NAME, subject.value(), "handlingTime");
         }
 
         @Override
         public void handle(Message message) {
-            final ClusterMessage clusterMessage;
+            if (executor == null) {
+                dispatch(message);
+                return;
+            }
+            incCounter(queueDepth);
             try {
-                clusterMessage = SERIALIZER.decode(message.payload());
-            } catch (Exception e) {
-                log.error("Failed decoding ClusterMessage", e);
-                throw e;
+                executor.execute(() -> {
+                    decCounter(queueDepth);
+                    try {
+                        dispatch(message);
+                    } catch (Exception e) {
+                        // already logged by dispatch; nobody else to report it to
+                        log.trace("Handling of message on {} failed", subject, e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                decCounter(queueDepth);
+                log.warn("Dropped message on {}; executor is not accepting work", subject);
             }
+        }
+
+        private void dispatch(Message message) {
+            final Timer.Context context = startTimer(handlingTimer);
             try {
-                handler.handle(new InternalClusterMessage(clusterMessage, message));
-            } catch (Exception e) {
-                log.error("Exception caught handling {}", clusterMessage, e);
-                throw e;
+                final ClusterMessage clusterMessage;
+                try {
+                    clusterMessage = SERIALIZER.decode(message.payload());
+                } catch (Exception e) {
+                    log.error("Failed decoding ClusterMessage", e);
+                    throw e;
+                }
+                try {
+                    handler.handle(new InternalClusterMessage(clusterMessage, message));
+                } catch (Exception e) {
+                    log.error("Exception caught handling {}", clusterMessage, e);
+                    throw e;
+                }
+            } finally {
+                stopTimer(context);
             }
         }
     }
@@ -19,6 +19,7 @@ import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
@@ -63,7 +64,6 @@ import org.onosproject.store.serializers.KryoSerializer;
 import org.onosproject.store.serializers.impl.DistributedStoreSerializers;
 import org.onlab.packet.ChassisId;
 import org.onlab.util.KryoNamespace;
-import org.onlab.util.NewConcurrentHashMap;
 import org.slf4j.Logger;
 
 import java.io.IOException;
@@ -89,7 +89,6 @@ import static com.google.common.base.Predicates.notNull;
 import static org.onosproject.cluster.ControllerNodeToNodeId.toNodeId;
 import static org.onosproject.net.device.DeviceEvent.Type.*;
 import static org.slf4j.LoggerFactory.getLogger;
-import static org.apache.commons.lang3.concurrent.ConcurrentUtils.createIfAbsentUnchecked;
 import static org.onosproject.net.DefaultAnnotations.merge;
 import static com.google.common.base.Verify.verify;
 import static org.onlab.util.Tools.minPriority;
@@ -119,11 +118,12 @@ public class GossipDeviceStore
 
     // cache of Device and Ports generated by compositing descriptions from providers
     private final ConcurrentMap<DeviceId, Device> devices = Maps.newConcurrentMap();
-    private final ConcurrentMap<DeviceId, ConcurrentMap<PortNumber, Port>> devicePorts = Maps.newConcurrentMap();
+    // port maps are immutable, replaced as a whole under Device lock
+    private final ConcurrentMap<DeviceId, Map<PortNumber, Port>> devicePorts = Maps.newConcurrentMap();
 
-    // to be updated under Device lock
-    private final Map<DeviceId, Timestamp> offline = Maps.newHashMap();
-    private final Map<DeviceId, Timestamp> removalRequest = Maps.newHashMap();
+    // to be updated under Device lock; concurrent since locks are per Device
+    private final ConcurrentMap<DeviceId, Timestamp> offline = Maps.newConcurrentMap();
+    private final ConcurrentMap<DeviceId, Timestamp> removalRequest = Maps.newConcurrentMap();
 
     // available(=UP) devices
     private final Set<DeviceId> availableDevices = Sets.newConcurrentHashSet();
@@ -173,6 +173,11 @@ public class GossipDeviceStore
 
     @Activate
     public void activate() {
+        executor = Executors.newCachedThreadPool(namedThreads("device-fg-%d"));
+
+        backgroundExecutor =
+                newSingleThreadScheduledExecutor(minPriority(namedThreads("device-bg-%d")));
+
         clusterCommunicator.addSubscriber(
                 GossipDeviceStoreMessageSubjects.DEVICE_UPDATE, new InternalDeviceEventListener());
         clusterCommunicator.addSubscriber(
@@ -184,13 +189,10 @@ public class GossipDeviceStore
                 GossipDeviceStoreMessageSubjects.PORT_UPDATE, new InternalPortEventListener());
         clusterCommunicator.addSubscriber(
                 GossipDeviceStoreMessageSubjects.PORT_STATUS_UPDATE, new InternalPortStatusEventListener());
+        // advertisements are decoded and handled off the I/O thread
         clusterCommunicator.addSubscriber(
-                GossipDeviceStoreMessageSubjects.DEVICE_ADVERTISE, new InternalDeviceAdvertisementListener());
-
-        executor = Executors.newCachedThreadPool(namedThreads("device-fg-%d"));
-
-        backgroundExecutor =
-                newSingleThreadScheduledExecutor(minPriority(namedThreads("device-bg-%d")));
+                GossipDeviceStoreMessageSubjects.DEVICE_ADVERTISE, new InternalDeviceAdvertisementListener(),
+                backgroundExecutor);
 
         // start anti-entropy thread
         backgroundExecutor.scheduleAtFixedRate(new SendAdvertisementTask(),
@@ -249,7 +251,7 @@ public class GossipDeviceStore
     }
 
     @Override
-    public synchronized DeviceEvent createOrUpdateDevice(ProviderId providerId,
+    public DeviceEvent createOrUpdateDevice(ProviderId providerId,
                                      DeviceId deviceId,
                                      DeviceDescription deviceDescription) {
         final Timestamp newTimestamp = deviceClockService.getTimestamp(deviceId);
@@ -441,7 +443,7 @@ public class GossipDeviceStore
     }
 
     @Override
-    public synchronized List<DeviceEvent> updatePorts(ProviderId providerId,
+    public List<DeviceEvent> updatePorts(ProviderId providerId,
                                        DeviceId deviceId,
                                        List<PortDescription> portDescriptions) {
 
@@ -522,7 +524,7 @@ public class GossipDeviceStore
                     "Device description for Device ID %s from Provider %s was not found",
                     deviceId, providerId);
 
-            Map<PortNumber, Port> ports = getPortMap(deviceId);
+            Map<PortNumber, Port> ports = copyPortMap(deviceId);
 
             final Timestamp newTimestamp = portDescriptions.timestamp();
 
@@ -555,6 +557,7 @@ public class GossipDeviceStore
             }
 
             events.addAll(pruneOldPorts(device, ports, processed));
+            devicePorts.put(deviceId, ImmutableMap.copyOf(ports));
         }
         return FluentIterable.from(events).filter(notNull()).toList();
     }
@@ -603,11 +606,12 @@ public class GossipDeviceStore
         return events;
     }
 
-    // Gets the map of ports for the specified device; if one does not already
-    // exist, it creates and registers a new one.
-    private ConcurrentMap<PortNumber, Port> getPortMap(DeviceId deviceId) {
-        return createIfAbsentUnchecked(devicePorts, deviceId,
-                NewConcurrentHashMap.<PortNumber, Port>ifNeeded());
+    // Gets a mutable copy of the ports of the specified device, to be
+    // published back to devicePorts once modified.
+    // Guarded by deviceDescs value (=Device lock)
+    private Map<PortNumber, Port> copyPortMap(DeviceId deviceId) {
+        Map<PortNumber, Port> ports = devicePorts.get(deviceId);
+        return ports == null ? new HashMap<PortNumber, Port>() : new HashMap<>(ports);
     }
 
     private Map<ProviderId, DeviceDescriptions> getOrCreateDeviceDescriptionsMap(
@@ -641,7 +645,7 @@ public class GossipDeviceStore
     }
 
     @Override
-    public synchronized DeviceEvent updatePortStatus(ProviderId providerId,
+    public DeviceEvent updatePortStatus(ProviderId providerId,
                                                      DeviceId deviceId,
                                                      PortDescription portDescription) {
 
@@ -700,7 +704,7 @@ public class GossipDeviceStore
                     "Device description for Device ID %s from Provider %s was not found",
                     deviceId, providerId);
 
-            ConcurrentMap<PortNumber, Port> ports = getPortMap(deviceId);
+            Map<PortNumber, Port> ports = copyPortMap(deviceId);
             final PortNumber number = deltaDesc.value().portNumber();
             final Port oldPort = ports.get(number);
             final Port newPort;
@@ -718,11 +722,13 @@ public class GossipDeviceStore
                 return null;
             }
 
-            if (oldPort == null) {
-                return createPort(device, newPort, ports);
-            } else {
-                return updatePort(device, oldPort, newPort, ports);
+            final DeviceEvent event = (oldPort == null) ?
+                    createPort(device, newPort, ports) :
+                    updatePort(device, oldPort, newPort, ports);
+            if (event != null) {
+                devicePorts.put(deviceId, ImmutableMap.copyOf(ports));
             }
+            return event;
         }
     }
 
@@ -747,7 +753,7 @@ public class GossipDeviceStore
     }
 
     @Override
-    public synchronized DeviceEvent removeDevice(DeviceId deviceId) {
+    public DeviceEvent removeDevice(DeviceId deviceId) {
         final NodeId myId = clusterService.getLocalNode().id();
         NodeId master = mastershipService.getMasterFor(deviceId);
 
@@ -825,10 +831,7 @@ public class GossipDeviceStore
 
             Device device = devices.remove(deviceId);
             // should DEVICE_REMOVED carry removed ports?
-            Map<PortNumber, Port> ports = devicePorts.get(deviceId);
-            if (ports != null) {
-                ports.clear();
-            }
+            devicePorts.remove(deviceId);
             markOfflineInternal(deviceId, timestamp);
             descs.clear();
             return device == null ? null :
@@ -1444,17 +1447,11 @@ public class GossipDeviceStore
         public void handle(ClusterMessage message) {
             log.trace("Received Device Anti-Entropy advertisement from peer: {}", message.sender());
             DeviceAntiEntropyAdvertisement advertisement = SERIALIZER.decode(message.payload());
-            backgroundExecutor.submit(new Runnable() {
-
-                @Override
-                public void run() {
-                    try {
-                        handleAdvertisement(advertisement);
-                    } catch (Exception e) {
-                        log.warn("Exception thrown handling Device advertisements.", e);
-                    }
-                }
-            });
+            try {
+                handleAdvertisement(advertisement);
+            } catch (Exception e) {
+                log.warn("Exception thrown handling Device advertisements.", e);
+            }
         }
     }
 }
@@ -19,6 +19,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static org.onosproject.net.flow.FlowRuleEvent.Type.RULE_REMOVED;
 import static org.slf4j.LoggerFactory.getLogger;
 import static org.onosproject.store.flow.impl.FlowStoreMessageSubjects.*;
+import static org.onlab.util.Timer.getTimer;
 import static org.onlab.util.Tools.namedThreads;
 
 import java.io.IOException;
@@ -27,8 +28,12 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -45,8 +50,10 @@ import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.NodeId;
+import org.onosproject.core.MetricsHelper;
 import org.onosproject.net.Device;
 import org.onosproject.net.DeviceId;
 import org.onosproject.net.device.DeviceService;
@@ -82,17 +89,18 @@ import org.onosproject.store.serializers.impl.DistributedStoreSerializers;
 import org.onlab.util.KryoNamespace;
 import org.slf4j.Logger;
 
+import com.codahale.metrics.Timer;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
-import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
-import com.google.common.collect.Multimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
@@ -105,16 +113,13 @@ import com.hazelcast.core.IMap;
 @Service
 public class DistributedFlowRuleStore
         extends AbstractHazelcastStore<FlowRuleBatchEvent, FlowRuleStoreDelegate>
-        implements FlowRuleStore {
+        implements FlowRuleStore, MetricsHelper {
 
     private final Logger log = getLogger(getClass());
 
     // primary data:
-    //  read/write needs to be locked
-    private final ReentrantReadWriteLock flowEntriesLock = new ReentrantReadWriteLock();
-    // store entries as a pile of rules, no info about device tables
-    private final Multimap<DeviceId, StoredFlowEntry> flowEntries
-        = ArrayListMultimap.<DeviceId, StoredFlowEntry>create();
+    //  flow table of each device, read/write needs to be locked per device
+    private final ConcurrentMap<DeviceId, FlowTable> flowTables = Maps.newConcurrentMap();
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected ReplicaInfoService replicaInfoManager;
@@ -128,6 +133,9 @@ public class DistributedFlowRuleStore
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     protected DeviceService deviceService;
 
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
     private final AtomicInteger localBatchIdGen = new AtomicInteger();
 
     private int pendingFutureTimeoutMinutes = 5;
@@ -148,8 +156,34 @@ public class DistributedFlowRuleStore
     private final ExecutorService backupExecutors =
             Executors.newSingleThreadExecutor(namedThreads("async-backups"));
 
+    // inbound peer requests are handled off the I/O thread, since they may
+    // block on the backup; batches on a single thread to keep them in order
+    private final ExecutorService batchHandlingExecutor =
+            Executors.newSingleThreadExecutor(namedThreads("flowstore-batch-handler"));
+
+    private final ExecutorService messageHandlingExecutor =
+            Executors.newFixedThreadPool(8, namedThreads("flowstore-message-handlers-%d"));
+
+    private final ExecutorService takeoverExecutors =
+            Executors.newFixedThreadPool(8, namedThreads("flowstore-takeover-%d"));
+
+    // number of flow ids fetched from the backup at a time during takeover
+    private static final int TAKEOVER_CHUNK_SIZE = 1000;
+
+    // devices being loaded from backup, with the state of the current load
+    private final ConcurrentMap<DeviceId, Takeover> takeovers = Maps.newConcurrentMap();
+
     private boolean syncBackup = false;
 
+    // how long changes to a device are collected before written to the backup
+    private static final long BACKUP_WINDOW_MILLIS = 10;
+
+    private final ConcurrentMap<DeviceId, PendingBackup> pendingBackups =
+            Maps.newConcurrentMap();
+
+    // time from a change being made until it is in the backup
+    private Timer backupLag;
+
     protected static final StoreSerializer SERIALIZER = new KryoSerializer() {
         @Override
         protected void setupKryoPool() {
@@ -172,6 +206,8 @@ public class DistributedFlowRuleStore
         super.serializer = SERIALIZER;
         super.theInstance = storeService.getHazelcastInstance();
 
+        backupLag = createTimer("FlowRuleStore", "backup", "lag");
+
         // Cache to create SMap on demand
         smaps = CacheBuilder.newBuilder()
                     .softValues()
@@ -179,7 +215,8 @@ public class DistributedFlowRuleStore
 
         final NodeId local = clusterService.getLocalNode().id();
 
-        clusterCommunicator.addSubscriber(APPLY_BATCH_FLOWS, new OnStoreBatch(local));
+        clusterCommunicator.addSubscriber(APPLY_BATCH_FLOWS, new OnStoreBatch(local),
+                                          batchHandlingExecutor);
 
         clusterCommunicator.addSubscriber(GET_FLOW_ENTRY, new ClusterMessageHandler() {
 
@@ -194,7 +231,7 @@ public class DistributedFlowRuleStore
                     log.error("Failed to respond back", e);
                 }
             }
-        });
+        }, messageHandlingExecutor);
 
         clusterCommunicator.addSubscriber(GET_DEVICE_FLOW_ENTRIES, new ClusterMessageHandler() {
 
@@ -209,7 +246,7 @@ public class DistributedFlowRuleStore
                     log.error("Failed to respond to peer's getFlowEntries request", e);
                 }
             }
-        });
+        }, messageHandlingExecutor);
 
         clusterCommunicator.addSubscriber(REMOVE_FLOW_ENTRY, new ClusterMessageHandler() {
 
@@ -224,7 +261,7 @@ public class DistributedFlowRuleStore
                     log.error("Failed to respond back", e);
                 }
             }
-        });
+        }, messageHandlingExecutor);
 
         replicaInfoEventListener = new InternalReplicaInfoEventListener();
 
@@ -244,6 +281,11 @@ public class DistributedFlowRuleStore
     }
 
 
+    @Override
+    public MetricsService metricsService() {
+        return metricsService;
+    }
+
     // This is not a efficient operation on a distributed sharded
     // flow store. We need to revisit the need for this operation or at least
     // make it device specific.
@@ -289,19 +331,24 @@ public class DistributedFlowRuleStore
     }
 
     private StoredFlowEntry getFlowEntryInternal(FlowRule rule) {
-        flowEntriesLock.readLock().lock();
+        FlowTable table = flowTable(rule.deviceId());
+        table.lock.readLock().lock();
         try {
-            for (StoredFlowEntry f : flowEntries.get(rule.deviceId())) {
+            for (StoredFlowEntry f : table.entries) {
                 if (f.equals(rule)) {
                     return f;
                 }
             }
         } finally {
-            flowEntriesLock.readLock().unlock();
+            table.lock.readLock().unlock();
         }
         return null;
     }
 
+    private FlowTable flowTable(DeviceId deviceId) {
+        return flowTables.computeIfAbsent(deviceId, d -> new FlowTable());
+    }
+
     @Override
     public Iterable<FlowEntry> getFlowEntries(DeviceId deviceId) {
 
@@ -334,15 +381,15 @@ public class DistributedFlowRuleStore
     }
 
     private Set<FlowEntry> getFlowEntriesInternal(DeviceId deviceId) {
-        flowEntriesLock.readLock().lock();
+        FlowTable table = flowTables.get(deviceId);
+        if (table == null) {
+            return Collections.emptySet();
+        }
+        table.lock.readLock().lock();
         try {
-            Collection<? extends FlowEntry> rules = flowEntries.get(deviceId);
-            if (rules == null) {
-                return Collections.emptySet();
-            }
-            return ImmutableSet.copyOf(rules);
+            return ImmutableSet.copyOf(table.entries);
         } finally {
-            flowEntriesLock.readLock().unlock();
+            table.lock.readLock().unlock();
         }
     }
 
@@ -352,7 +399,7 @@ public class DistributedFlowRuleStore
     }
 
     @Override
-    public Future<CompletedBatchOperation> storeBatch(FlowRuleBatchOperation operation) {
+    public ListenableFuture<CompletedBatchOperation> storeBatch(FlowRuleBatchOperation operation) {
 
         if (operation.getOperations().isEmpty()) {
             return Futures.immediateFuture(new CompletedBatchOperation(true,
@@ -397,28 +444,27 @@ public class DistributedFlowRuleStore
 
         final List<FlowRuleBatchEntry> toRemove = new ArrayList<>();
         final List<FlowRuleBatchEntry> toAdd = new ArrayList<>();
-        DeviceId did = null;
-
+        // all operations of a batch are on the same device
+        final DeviceId did = operation.getOperations().get(0).getTarget().deviceId();
+        final FlowTable table = flowTable(did);
 
-        flowEntriesLock.writeLock().lock();
+        table.lock.writeLock().lock();
         try {
             for (FlowRuleBatchEntry batchEntry : operation.getOperations()) {
                 FlowRule flowRule = batchEntry.getTarget();
                 FlowRuleOperation op = batchEntry.getOperator();
-                if (did == null) {
-                    did = flowRule.deviceId();
-                }
                 if (op.equals(FlowRuleOperation.REMOVE)) {
                     StoredFlowEntry entry = getFlowEntryInternal(flowRule);
                     if (entry != null) {
                         entry.setState(FlowEntryState.PENDING_REMOVE);
                         toRemove.add(batchEntry);
+                    } else if (tombstone(flowRule)) {
+                        // not loaded from the backup yet; remove it anyway
+                        toRemove.add(batchEntry);
                     }
                 } else if (op.equals(FlowRuleOperation.ADD)) {
                     StoredFlowEntry flowEntry = new DefaultFlowEntry(flowRule);
-                    DeviceId deviceId = flowRule.deviceId();
-                    if (!flowEntries.containsEntry(deviceId, flowEntry)) {
-                        flowEntries.put(deviceId, flowEntry);
+                    if (table.entries.add(flowEntry)) {
                         toAdd.add(batchEntry);
                     }
                 }
@@ -430,7 +476,7 @@ public class DistributedFlowRuleStore
             // create remote backup copies
             updateBackup(did, toAdd, toRemove);
         } finally {
-            flowEntriesLock.writeLock().unlock();
+            table.lock.writeLock().unlock();
         }
 
         SettableFuture<CompletedBatchOperation> r = SettableFuture.create();
@@ -446,15 +492,21 @@ public class DistributedFlowRuleStore
                               final List<FlowRuleBatchEntry> toAdd,
                               final List<FlowRuleBatchEntry> list) {
 
-        Future<?> submit = backupExecutors.submit(new UpdateBackup(deviceId, toAdd, list));
+        PendingBackup pending = pendingBackups.computeIfAbsent(deviceId, PendingBackup::new);
+        boolean first = pending.add(toAdd, list);
 
         if (syncBackup) {
             // wait for backup to complete
+            Future<?> submit = backupExecutors.submit(new UpdateBackup(pending));
             try {
                 submit.get();
             } catch (InterruptedException | ExecutionException e) {
                 log.error("Failed to create backups", e);
             }
+        } else if (first) {
+            // give further changes to this device a moment to pile up
+            getTimer().newTimeout(t -> backupExecutors.execute(new UpdateBackup(pending)),
+                                  BACKUP_WINDOW_MILLIS, TimeUnit.MILLISECONDS);
         }
     }
 
@@ -483,8 +535,9 @@ public class DistributedFlowRuleStore
 
     private FlowRuleEvent addOrUpdateFlowRuleInternal(FlowEntry rule) {
         final DeviceId did = rule.deviceId();
+        final FlowTable table = flowTable(did);
 
-        flowEntriesLock.writeLock().lock();
+        table.lock.writeLock().lock();
         try {
             // check if this new rule is an update to an existing entry
             StoredFlowEntry stored = getFlowEntryInternal(rule);
@@ -504,9 +557,9 @@ public class DistributedFlowRuleStore
 
             // TODO: Confirm if this behavior is correct. See SimpleFlowRuleStore
             // TODO: also update backup if the behavior is correct.
-            flowEntries.put(did, new DefaultFlowEntry(rule));
+            table.entries.add(new DefaultFlowEntry(rule));
         } finally {
-            flowEntriesLock.writeLock().unlock();
+            table.lock.writeLock().unlock();
         }
         return null;
 
@@ -548,10 +601,12 @@ public class DistributedFlowRuleStore
 
     private FlowRuleEvent removeFlowRuleInternal(FlowEntry rule) {
         final DeviceId deviceId = rule.deviceId();
-        flowEntriesLock.writeLock().lock();
+        final FlowTable table = flowTable(deviceId);
+        table.lock.writeLock().lock();
         try {
             // This is where one could mark a rule as removed and still keep it in the store.
-            final boolean removed = flowEntries.remove(deviceId, rule);
+            final boolean removed = table.entries.remove(rule);
+            tombstone(rule);
             FlowRuleBatchEntry entry =
                     new FlowRuleBatchEntry(FlowRuleOperation.REMOVE, rule);
             updateBackup(deviceId, Collections.<FlowRuleBatchEntry>emptyList(), Arrays.asList(entry));
@@ -561,7 +616,7 @@ public class DistributedFlowRuleStore
                 return null;
             }
         } finally {
-            flowEntriesLock.writeLock().unlock();
+            table.lock.writeLock().unlock();
         }
     }
 
@@ -577,39 +632,128 @@ public class DistributedFlowRuleStore
         notifyDelegate(event);
     }
 
-    private void loadFromBackup(final DeviceId did) {
+    /**
+     * Loads the flow table of a device this node has become master of from
+     * the backup. Loads of different devices run in parallel. The backup is
+     * fetched in chunks without holding the lock of the device flow table
+     * and each chunk is merged under that lock alone, so reads during the
+     * takeover return the entries loaded so far and other devices are not
+     * held up. Entries already in the primary table, e.g.
+     * written since this node became master, take precedence over their
+     * backup copy. A load stops once the device is removed from the primary.
+     *
+     * @param did device identifier
+     * @return future completed once the flow table is loaded
+     */
+    Future<?> loadFromBackup(final DeviceId did) {
+        final Takeover token = new Takeover();
+        final FlowTable table = flowTable(did);
+        table.lock.writeLock().lock();
+        try {
+            takeovers.put(did, token);
+        } finally {
+            table.lock.writeLock().unlock();
+        }
+        return takeoverExecutors.submit(() -> {
+            try {
+                log.debug("Loading FlowRules for {} from backups", did);
+                SMap<FlowId, ImmutableList<StoredFlowEntry>> backupFlowTable = smaps.get(did);
+                List<FlowId> ids = new ArrayList<>(backupFlowTable.keySet());
+                for (List<FlowId> chunk : Lists.partition(ids, TAKEOVER_CHUNK_SIZE)) {
+                    Collection<ImmutableList<StoredFlowEntry>> loaded =
+                            backupFlowTable.getAll(new HashSet<>(chunk)).values();
+                    if (!mergeFromBackup(did, table, token, loaded)) {
+                        log.debug("Loading FlowRules for {} abandoned", did);
+                        return;
+                    }
+                }
+            } catch (ExecutionException e) {
+                log.error("Failed to load backup flowtable for {}", did, e);
+            } finally {
+                takeovers.remove(did, token);
+            }
+        });
+    }
 
-        flowEntriesLock.writeLock().lock();
+    private boolean mergeFromBackup(DeviceId did, FlowTable table, Takeover token,
+                                    Collection<ImmutableList<StoredFlowEntry>> loaded) {
+        // the mastership change event may lag behind; do not keep loading
+        // a device another node has become master of
+        final NodeId local = clusterService.getLocalNode().id();
+        if (!local.equals(replicaInfoManager.getReplicaInfoFor(did).master().orNull())) {
+            return false;
+        }
+        table.lock.writeLock().lock();
         try {
-            log.debug("Loading FlowRules for {} from backups", did);
-            SMap<FlowId, ImmutableList<StoredFlowEntry>> backupFlowTable = smaps.get(did);
-            for (Entry<FlowId, ImmutableList<StoredFlowEntry>> e
-                    : backupFlowTable.entrySet()) {
-
-                log.trace("loading {}", e.getValue());
-                for (StoredFlowEntry entry : e.getValue()) {
-                    flowEntries.remove(did, entry);
-                    flowEntries.put(did, entry);
+            if (takeovers.get(did) != token) {
+                return false;
+            }
+            for (ImmutableList<StoredFlowEntry> entries : loaded) {
+                log.trace("loading {}", entries);
+                for (StoredFlowEntry entry : entries) {
+                    // entries removed since the takeover began stay removed;
+                    // entries already present are kept over their backup copy
+                    if (!token.removed.contains(entry)) {
+                        table.entries.add(entry);
+                    }
                 }
             }
-        } catch (ExecutionException e) {
-            log.error("Failed to load backup flowtable for {}", did, e);
+            return true;
         } finally {
-            flowEntriesLock.writeLock().unlock();
+            table.lock.writeLock().unlock();
         }
     }
 
+    /**
+     * Records the removal of a flow rule of a device being loaded from the
+     * backup, so its stale backup copy is not loaded afterwards. Must be
+     * called holding the write lock of the device flow table.
+     *
+     * @param rule removed flow rule
+     * @return true if the device is being loaded from the backup
+     */
+    private boolean tombstone(FlowRule rule) {
+        Takeover takeover = takeovers.get(rule.deviceId());
+        if (takeover == null) {
+            return false;
+        }
+        takeover.removed.add(rule);
+        return true;
+    }
+
     private void removeFromPrimary(final DeviceId did) {
         Collection<StoredFlowEntry> removed = null;
-        flowEntriesLock.writeLock().lock();
+        FlowTable table = flowTable(did);
+        table.lock.writeLock().lock();
         try {
-            removed = flowEntries.removeAll(did);
+            // stop any takeover still loading this device
+            takeovers.remove(did);
+            removed = ImmutableList.copyOf(table.entries);
+            table.entries.clear();
         } finally {
-            flowEntriesLock.writeLock().unlock();
+            table.lock.writeLock().unlock();
         }
         log.trace("removedFromPrimary {}", removed);
     }
 
+    /**
+     * Flow entries of a device, without info about device tables. Set
+     * semantics, so an entry is looked up without walking the table.
+     */
+    private static final class FlowTable {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Set<StoredFlowEntry> entries = new LinkedHashSet<>();
+    }
+
+    /**
+     * Load of the flow table of a device from the backup, along with the
+     * flow rules removed since it began. Guarded by the lock of the device
+     * flow table.
+     */
+    private static final class Takeover {
+        private final Set<FlowRule> removed = new HashSet<>();
+    }
+
     private static final class TimeoutFuture
         implements RemovalListener<Integer, SettableFuture<CompletedBatchOperation>> {
         @Override
@@ -723,78 +867,107 @@ public class DistributedFlowRuleStore
         }
     }
 
-    // Task to update FlowEntries in backup HZ store
-    // TODO: Should be refactored to contain only one list and not
-    //      toAdd and toRemove
-    private final class UpdateBackup implements Runnable {
+    /**
+     * Flow rule changes of a device not yet written to the backup.
+     */
+    private static final class PendingBackup {
 
         private final DeviceId deviceId;
-        private final List<FlowRuleBatchEntry> toAdd;
-        private final List<FlowRuleBatchEntry> toRemove;
+        private List<FlowRuleBatchEntry> changes = new ArrayList<>();
+        // when the oldest pending change was queued, in nanoseconds
+        private long since;
 
-        public UpdateBackup(DeviceId deviceId,
-                             List<FlowRuleBatchEntry> toAdd,
-                             List<FlowRuleBatchEntry> list) {
+        private PendingBackup(DeviceId deviceId) {
             this.deviceId = checkNotNull(deviceId);
-            this.toAdd = checkNotNull(toAdd);
-            this.toRemove = checkNotNull(list);
+        }
+
+        /**
+         * Queues changes for the backup.
+         *
+         * @param toAdd    added or updated flow entries
+         * @param toRemove removed flow entries
+         * @return true if nothing was pending before
+         */
+        private synchronized boolean add(List<FlowRuleBatchEntry> toAdd,
+                                         List<FlowRuleBatchEntry> toRemove) {
+            boolean first = changes.isEmpty();
+            if (first) {
+                since = System.nanoTime();
+            }
+            changes.addAll(toAdd);
+            changes.addAll(toRemove);
+            return first;
+        }
+
+        private synchronized List<FlowRuleBatchEntry> drain() {
+            List<FlowRuleBatchEntry> drained = changes;
+            changes = new ArrayList<>();
+            return drained;
+        }
+
+        private synchronized long since() {
+            return since;
+        }
+    }
+
+    // Task to write all pending changes of a device to the backup HZ store,
+    // reading and writing the affected flow ids in one bulk operation each
+    private final class UpdateBackup implements Runnable {
+
+        private final PendingBackup pending;
+
+        public UpdateBackup(PendingBackup pending) {
+            this.pending = checkNotNull(pending);
         }
 
         @Override
         public void run() {
+            final DeviceId deviceId = pending.deviceId;
+            final long since = pending.since();
+            final List<FlowRuleBatchEntry> changes = pending.drain();
+            if (changes.isEmpty()) {
+                // already written by an earlier run
+                return;
+            }
             try {
-                log.trace("update backup {} +{} -{}", deviceId, toAdd, toRemove);
+                log.trace("update backup {} {}", deviceId, changes);
                 final SMap<FlowId, ImmutableList<StoredFlowEntry>> backupFlowTable = smaps.get(deviceId);
-                // Following should be rewritten using async APIs
-                for (FlowRuleBatchEntry bEntry : toAdd) {
-                    final FlowRule entry = bEntry.getTarget();
-                    final FlowId id = entry.id();
-                    ImmutableList<StoredFlowEntry> original = backupFlowTable.get(id);
-                    List<StoredFlowEntry> list = new ArrayList<>();
-                    if (original != null) {
-                        list.addAll(original);
-                    }
-
-                    list.remove(bEntry.getTarget());
-                    list.add((StoredFlowEntry) entry);
 
-                    ImmutableList<StoredFlowEntry> newValue = ImmutableList.copyOf(list);
-                    boolean success;
-                    if (original == null) {
-                        success = (backupFlowTable.putIfAbsent(id, newValue) == null);
-                    } else {
-                        success = backupFlowTable.replace(id, original, newValue);
-                    }
-                    if (!success) {
-                        log.error("Updating backup failed.");
-                    }
+                // coalesce all changes to a flow id into a single new value
+                Map<FlowId, List<FlowRuleBatchEntry>> byId = new LinkedHashMap<>();
+                for (FlowRuleBatchEntry bEntry : changes) {
+                    byId.computeIfAbsent(bEntry.getTarget().id(), id -> new ArrayList<>())
+                        .add(bEntry);
                 }
-                for (FlowRuleBatchEntry bEntry : toRemove) {
-                    final FlowRule entry = bEntry.getTarget();
-                    final FlowId id = entry.id();
-                    ImmutableList<StoredFlowEntry> original = backupFlowTable.get(id);
+
+                Map<FlowId, ImmutableList<StoredFlowEntry>> originals =
+                        backupFlowTable.getAll(byId.keySet());
+                Map<FlowId, ImmutableList<StoredFlowEntry>> updates =
+                        Maps.newHashMapWithExpectedSize(byId.size());
+                for (Entry<FlowId, List<FlowRuleBatchEntry>> e : byId.entrySet()) {
+                    ImmutableList<StoredFlowEntry> original = originals.get(e.getKey());
                     List<StoredFlowEntry> list = new ArrayList<>();
                     if (original != null) {
                         list.addAll(original);
                     }
-
-                    list.remove(bEntry.getTarget());
-
-                    ImmutableList<StoredFlowEntry> newValue = ImmutableList.copyOf(list);
-                    boolean success;
-                    if (original == null) {
-                        success = (backupFlowTable.putIfAbsent(id, newValue) == null);
-                    } else {
-                        success = backupFlowTable.replace(id, original, newValue);
-                    }
-                    if (!success) {
-                        log.error("Updating backup failed.");
+                    for (FlowRuleBatchEntry bEntry : e.getValue()) {
+                        final FlowRule entry = bEntry.getTarget();
+                        list.remove(entry);
+                        if (bEntry.getOperator() != FlowRuleOperation.REMOVE) {
+                            list.add(entry instanceof StoredFlowEntry ?
+                                     (StoredFlowEntry) entry : new DefaultFlowEntry(entry));
+                        }
                     }
+                    updates.put(e.getKey(), ImmutableList.copyOf(list));
                 }
+                backupFlowTable.putAll(updates);
             } catch (ExecutionException e) {
                 log.error("Failed to write to backups", e);
+            } finally {
+                if (backupLag != null) {
+                    backupLag.update(System.nanoTime() - since, TimeUnit.NANOSECONDS);
+                }
             }
-
         }
     }
 }
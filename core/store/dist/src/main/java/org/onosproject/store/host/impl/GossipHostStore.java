@@ -144,20 +144,22 @@ public class GossipHostStore
 
     @Activate
     public void activate() {
+        executor = Executors.newCachedThreadPool(namedThreads("host-fg-%d"));
+
+        backgroundExecutor =
+                newSingleThreadScheduledExecutor(minPriority(namedThreads("host-bg-%d")));
+
         clusterCommunicator.addSubscriber(
                 GossipHostStoreMessageSubjects.HOST_UPDATED,
                 new InternalHostEventListener());
         clusterCommunicator.addSubscriber(
                 GossipHostStoreMessageSubjects.HOST_REMOVED,
                 new InternalHostRemovedEventListener());
+        // advertisements are decoded and handled off the I/O thread
         clusterCommunicator.addSubscriber(
                 GossipHostStoreMessageSubjects.HOST_ANTI_ENTROPY_ADVERTISEMENT,
-                new InternalHostAntiEntropyAdvertisementListener());
-
-        executor = Executors.newCachedThreadPool(namedThreads("host-fg-%d"));
-
-        backgroundExecutor =
-                newSingleThreadScheduledExecutor(minPriority(namedThreads("host-bg-%d")));
+                new InternalHostAntiEntropyAdvertisementListener(),
+                backgroundExecutor);
 
         // TODO: Make these configurable
         long initialDelaySec = 5;
@@ -674,17 +676,11 @@ public class GossipHostStore
         public void handle(ClusterMessage message) {
             log.trace("Received Host Anti-Entropy advertisement from peer: {}", message.sender());
             HostAntiEntropyAdvertisement advertisement = SERIALIZER.decode(message.payload());
-            backgroundExecutor.submit(new Runnable() {
-
-                @Override
-                public void run() {
-                    try {
-                        handleAntiEntropyAdvertisement(advertisement);
-                    } catch (Exception e) {
-                        log.warn("Exception thrown handling Host advertisements", e);
-                    }
-                }
-            });
+            try {
+                handleAntiEntropyAdvertisement(advertisement);
+            } catch (Exception e) {
+                log.warn("Exception thrown handling Host advertisements", e);
+            }
         }
     }
 }
@@ -64,6 +64,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static org.onosproject.net.intent.IntentState.*;
+import static org.onosproject.store.service.impl.DatabaseManager.TABLE_GROUP_SEPARATOR;
 import static org.slf4j.LoggerFactory.getLogger;
 import static org.onlab.metrics.MetricsUtil.*;
 
@@ -87,14 +88,15 @@ public class DistributedIntentStore
     private static final String INTENTS_TABLE = "intents";
     private CMap<IntentId, Intent> intents;
 
-    private static final String STATES_TABLE = "intent-states";
+    // intent tables are written together, so they are kept in one partition
+    private static final String STATES_TABLE = INTENTS_TABLE + TABLE_GROUP_SEPARATOR + "states";
     private CMap<IntentId, IntentState> states;
 
     // TODO transient state issue remains for this impl.: ONOS-103
     // Map to store instance local intermediate state transition
     private transient Map<IntentId, IntentState> transientStates = new ConcurrentHashMap<>();
 
-    private static final String INSTALLABLE_TABLE = "installable-intents";
+    private static final String INSTALLABLE_TABLE = INTENTS_TABLE + TABLE_GROUP_SEPARATOR + "installable";
     private CMap<IntentId, List<Intent>> installable;
 
     private LoadingCache<IntentId, String> keyCache;
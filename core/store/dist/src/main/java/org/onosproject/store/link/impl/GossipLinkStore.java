@@ -17,9 +17,8 @@ package org.onosproject.store.link.impl;
 
 import com.google.common.base.Function;
 import com.google.common.collect.FluentIterable;
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
 
 import org.apache.commons.lang3.RandomUtils;
 import org.apache.felix.scr.annotations.Activate;
@@ -63,7 +62,6 @@ import org.slf4j.Logger;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -77,7 +75,6 @@ import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Predicates.notNull;
-import static com.google.common.collect.Multimaps.synchronizedSetMultimap;
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static org.onosproject.cluster.ControllerNodeToNodeId.toNodeId;
 import static org.onosproject.net.DefaultAnnotations.merge;
@@ -112,9 +109,11 @@ public class GossipLinkStore
     // Link instance cache
     private final ConcurrentMap<LinkKey, Link> links = new ConcurrentHashMap<>();
 
-    // Egress and ingress link sets
-    private final SetMultimap<DeviceId, LinkKey> srcLinks = createSynchronizedHashMultiMap();
-    private final SetMultimap<DeviceId, LinkKey> dstLinks = createSynchronizedHashMultiMap();
+    // Egress and ingress link sets, indexed by device and by connect point
+    private final ConcurrentMap<DeviceId, Set<LinkKey>> srcLinks = new ConcurrentHashMap<>();
+    private final ConcurrentMap<DeviceId, Set<LinkKey>> dstLinks = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ConnectPoint, Set<LinkKey>> srcPointLinks = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ConnectPoint, Set<LinkKey>> dstPointLinks = new ConcurrentHashMap<>();
 
     // Remove links
     private final Map<LinkKey, Timestamp> removedLinks = new ConcurrentHashMap<>();
@@ -149,20 +148,22 @@ public class GossipLinkStore
     @Activate
     public void activate() {
 
+        executor = Executors.newCachedThreadPool(namedThreads("link-fg-%d"));
+
+        backgroundExecutors =
+                newSingleThreadScheduledExecutor(minPriority(namedThreads("link-bg-%d")));
+
         clusterCommunicator.addSubscriber(
                 GossipLinkStoreMessageSubjects.LINK_UPDATE,
                 new InternalLinkEventListener());
         clusterCommunicator.addSubscriber(
                 GossipLinkStoreMessageSubjects.LINK_REMOVED,
                 new InternalLinkRemovedEventListener());
+        // advertisements are decoded and handled off the I/O thread
         clusterCommunicator.addSubscriber(
                 GossipLinkStoreMessageSubjects.LINK_ANTI_ENTROPY_ADVERTISEMENT,
-                new InternalLinkAntiEntropyAdvertisementListener());
-
-        executor = Executors.newCachedThreadPool(namedThreads("link-fg-%d"));
-
-        backgroundExecutors =
-                newSingleThreadScheduledExecutor(minPriority(namedThreads("link-bg-%d")));
+                new InternalLinkAntiEntropyAdvertisementListener(),
+                backgroundExecutors);
 
         long initialDelaySec = 5;
         long periodSec = 5;
@@ -191,6 +192,8 @@ public class GossipLinkStore
         links.clear();
         srcLinks.clear();
         dstLinks.clear();
+        srcPointLinks.clear();
+        dstPointLinks.clear();
         log.info("Stopped");
     }
 
@@ -206,24 +209,12 @@ public class GossipLinkStore
 
     @Override
     public Set<Link> getDeviceEgressLinks(DeviceId deviceId) {
-        // lock for iteration
-        synchronized (srcLinks) {
-            return FluentIterable.from(srcLinks.get(deviceId))
-            .transform(lookupLink())
-            .filter(notNull())
-            .toSet();
-        }
+        return lookupLinks(srcLinks.get(deviceId));
     }
 
     @Override
     public Set<Link> getDeviceIngressLinks(DeviceId deviceId) {
-        // lock for iteration
-        synchronized (dstLinks) {
-            return FluentIterable.from(dstLinks.get(deviceId))
-            .transform(lookupLink())
-            .filter(notNull())
-            .toSet();
-        }
+        return lookupLinks(dstLinks.get(deviceId));
     }
 
     @Override
@@ -233,24 +224,23 @@ public class GossipLinkStore
 
     @Override
     public Set<Link> getEgressLinks(ConnectPoint src) {
-        Set<Link> egress = new HashSet<>();
-        for (LinkKey linkKey : srcLinks.get(src.deviceId())) {
-            if (linkKey.src().equals(src)) {
-                egress.add(links.get(linkKey));
-            }
-        }
-        return egress;
+        return lookupLinks(srcPointLinks.get(src));
     }
 
     @Override
     public Set<Link> getIngressLinks(ConnectPoint dst) {
-        Set<Link> ingress = new HashSet<>();
-        for (LinkKey linkKey : dstLinks.get(dst.deviceId())) {
-            if (linkKey.dst().equals(dst)) {
-                ingress.add(links.get(linkKey));
-            }
+        return lookupLinks(dstPointLinks.get(dst));
+    }
+
+    // Resolves the given index entry to the current link instances
+    private Set<Link> lookupLinks(Set<LinkKey> keys) {
+        if (keys == null) {
+            return Collections.emptySet();
         }
-        return ingress;
+        return FluentIterable.from(keys)
+                .transform(lookupLink())
+                .filter(notNull())
+                .toSet();
     }
 
     @Override
@@ -375,8 +365,7 @@ public class GossipLinkStore
     // Guarded by linkDescs value (=locking each Link)
     private LinkEvent createLink(LinkKey key, Link newLink) {
         links.put(key, newLink);
-        srcLinks.put(newLink.src().deviceId(), key);
-        dstLinks.put(newLink.dst().deviceId(), key);
+        addToIndexes(key);
         return new LinkEvent(LINK_ADDED, newLink);
     }
 
@@ -391,8 +380,7 @@ public class GossipLinkStore
 
             links.put(key, newLink);
             // strictly speaking following can be ommitted
-            srcLinks.put(oldLink.src().deviceId(), key);
-            dstLinks.put(oldLink.dst().deviceId(), key);
+            addToIndexes(key);
             return new LinkEvent(LINK_UPDATED, newLink);
         }
         return null;
@@ -482,16 +470,43 @@ public class GossipLinkStore
             Link link = links.remove(key);
             linkDescriptions.clear();
             if (link != null) {
-                srcLinks.remove(link.src().deviceId(), key);
-                dstLinks.remove(link.dst().deviceId(), key);
+                removeFromIndexes(key);
                 return new LinkEvent(LINK_REMOVED, link);
             }
             return null;
         }
     }
 
-    private static <K, V> SetMultimap<K, V> createSynchronizedHashMultiMap() {
-        return synchronizedSetMultimap(HashMultimap.<K, V>create());
+    private void addToIndexes(LinkKey key) {
+        addToIndex(srcLinks, key.src().deviceId(), key);
+        addToIndex(dstLinks, key.dst().deviceId(), key);
+        addToIndex(srcPointLinks, key.src(), key);
+        addToIndex(dstPointLinks, key.dst(), key);
+    }
+
+    private void removeFromIndexes(LinkKey key) {
+        removeFromIndex(srcLinks, key.src().deviceId(), key);
+        removeFromIndex(dstLinks, key.dst().deviceId(), key);
+        removeFromIndex(srcPointLinks, key.src(), key);
+        removeFromIndex(dstPointLinks, key.dst(), key);
+    }
+
+    // compute is atomic per index key, readers only ever see complete sets
+    private static <K> void addToIndex(ConcurrentMap<K, Set<LinkKey>> index,
+                                       K indexKey, LinkKey key) {
+        index.compute(indexKey, (k, keys) -> {
+            Set<LinkKey> result = (keys == null) ? Sets.newConcurrentHashSet() : keys;
+            result.add(key);
+            return result;
+        });
+    }
+
+    private static <K> void removeFromIndex(ConcurrentMap<K, Set<LinkKey>> index,
+                                            K indexKey, LinkKey key) {
+        index.computeIfPresent(indexKey, (k, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
     }
 
     /**
@@ -825,18 +840,11 @@ public class GossipLinkStore
         public void handle(ClusterMessage message) {
             log.trace("Received Link Anti-Entropy advertisement from peer: {}", message.sender());
             LinkAntiEntropyAdvertisement advertisement = SERIALIZER.decode(message.payload());
-            backgroundExecutors.submit(new Runnable() {
-
-                @Override
-                public void run() {
-                    try {
-                        handleAntiEntropyAdvertisement(advertisement);
-                    } catch (Exception e) {
-                        log.warn("Exception thrown while handling Link advertisements", e);
-                        throw e;
-                    }
-                }
-            });
+            try {
+                handleAntiEntropyAdvertisement(advertisement);
+            } catch (Exception e) {
+                log.warn("Exception thrown while handling Link advertisements", e);
+            }
         }
     }
 }
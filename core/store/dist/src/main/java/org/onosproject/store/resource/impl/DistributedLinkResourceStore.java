@@ -67,6 +67,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Predicates.notNull;
 import static org.onlab.util.HexString.toHexString;
+import static org.onosproject.store.service.impl.DatabaseManager.TABLE_GROUP_SEPARATOR;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
@@ -84,8 +85,9 @@ public class DistributedLinkResourceStore implements LinkResourceStore {
     /** LinkKey -> List<LinkResourceAllocations>. */
     private static final String LINK_RESOURCE_ALLOCATIONS = "LinkResourceAllocations";
 
-    /** IntentId -> LinkResourceAllocations. */
-    private static final String INTENT_ALLOCATIONS = "IntentAllocations";
+    /** IntentId -> LinkResourceAllocations; kept in the partition of the link allocations. */
+    private static final String INTENT_ALLOCATIONS =
+            LINK_RESOURCE_ALLOCATIONS + TABLE_GROUP_SEPARATOR + "IntentAllocations";
 
     private static final Bandwidth EMPTY_BW = Bandwidth.valueOf(0);
 
@@ -18,6 +18,7 @@ package org.onosproject.store.service.impl;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.kuujo.copycat.cluster.TcpClusterConfig;
 import net.kuujo.copycat.cluster.TcpMember;
@@ -81,6 +82,9 @@ public class ClusterMessagingProtocol
     public static final MessageSubject COPYCAT_SUBMIT =
             new MessageSubject("copycat-raft-consensus-submit");
 
+    // name of the partition whose subjects carry no suffix
+    static final String DEFAULT_PARTITION = "default";
+
     static final int AFTER_COPYCAT = KryoNamespaces.BEGIN_USER_CUSTOM_ID + 50;
 
     static final KryoNamespace COPYCAT = KryoNamespace.newBuilder()
@@ -118,6 +122,8 @@ public class ClusterMessagingProtocol
                     // TODO: Move this out to API?
                     .register(TableModificationEvent.class)
                     .register(TableModificationEvent.Type.class)
+                    // State tables, since read concurrently
+                    .register(ConcurrentHashMap.class)
                     .build();
         }
     };
@@ -132,16 +138,57 @@ public class ClusterMessagingProtocol
         log.info("Stopped");
     }
 
+    /**
+     * Returns the message subject used by a given partition in place of
+     * given subject of the default partition.
+     *
+     * @param subject   subject of the default partition
+     * @param partition partition name
+     * @return subject of the partition
+     */
+    static MessageSubject partitionSubject(MessageSubject subject, String partition) {
+        if (DEFAULT_PARTITION.equals(partition)) {
+            return subject;
+        }
+        return new MessageSubject(subject.value() + "-" + partition);
+    }
+
     @Override
     public ProtocolServer createServer(TcpMember member) {
-        return new ClusterMessagingProtocolServer(clusterCommunicator);
+        return partition(DEFAULT_PARTITION).createServer(member);
     }
 
     @Override
     public ProtocolClient createClient(TcpMember member) {
-        return new ClusterMessagingProtocolClient(clusterService,
-                                                  clusterCommunicator,
-                                                  clusterService.getLocalNode(),
-                                                  member);
+        return partition(DEFAULT_PARTITION).createClient(member);
+    }
+
+    @Override
+    public Protocol<TcpMember> partition(String name) {
+        return new PartitionProtocol(name);
+    }
+
+    // Protocol of a single partition, exchanging messages under its own subjects.
+    private final class PartitionProtocol implements Protocol<TcpMember> {
+
+        private final String partition;
+
+        PartitionProtocol(String partition) {
+            this.partition = partition;
+        }
+
+        @Override
+        public ProtocolServer createServer(TcpMember member) {
+            return new ClusterMessagingProtocolServer(clusterCommunicator, partition);
+        }
+
+        @Override
+        public ProtocolClient createClient(TcpMember member) {
+            return new ClusterMessagingProtocolClient(clusterService,
+                                                      clusterCommunicator,
+                                                      clusterService.getLocalNode(),
+                                                      member,
+                                                      partition);
+        }
     }
 }
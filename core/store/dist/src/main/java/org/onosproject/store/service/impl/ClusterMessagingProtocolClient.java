@@ -17,6 +17,7 @@ package org.onosproject.store.service.impl;
 
 import static com.google.common.base.Verify.verifyNotNull;
 import static org.onosproject.store.service.impl.ClusterMessagingProtocol.DB_SERIALIZER;
+import static org.onosproject.store.service.impl.ClusterMessagingProtocol.partitionSubject;
 import static org.onlab.util.Tools.namedThreads;
 import static org.slf4j.LoggerFactory.getLogger;
 import static java.util.concurrent.Executors.newCachedThreadPool;
@@ -60,6 +61,10 @@ public class ClusterMessagingProtocolClient implements ProtocolClient {
     private final ClusterCommunicationService clusterCommunicator;
     private final ControllerNode localNode;
     private final TcpMember remoteMember;
+    private final MessageSubject pingSubject;
+    private final MessageSubject syncSubject;
+    private final MessageSubject pollSubject;
+    private final MessageSubject submitSubject;
 
     private ControllerNode remoteNode;
     private final AtomicBoolean connectionOK = new AtomicBoolean(true);
@@ -71,11 +76,34 @@ public class ClusterMessagingProtocolClient implements ProtocolClient {
             ClusterCommunicationService clusterCommunicator,
             ControllerNode localNode,
             TcpMember remoteMember) {
+        this(clusterService, clusterCommunicator, localNode, remoteMember,
+             ClusterMessagingProtocol.DEFAULT_PARTITION);
+    }
+
+    /**
+     * Creates a client for the Raft group of a database partition.
+     *
+     * @param clusterService cluster service
+     * @param clusterCommunicator cluster communication service
+     * @param localNode local controller node
+     * @param remoteMember member to talk to
+     * @param partition partition name
+     */
+    public ClusterMessagingProtocolClient(
+            ClusterService clusterService,
+            ClusterCommunicationService clusterCommunicator,
+            ControllerNode localNode,
+            TcpMember remoteMember,
+            String partition) {
 
         this.clusterService = clusterService;
         this.clusterCommunicator = clusterCommunicator;
         this.localNode = localNode;
         this.remoteMember = remoteMember;
+        this.pingSubject = partitionSubject(ClusterMessagingProtocol.COPYCAT_PING, partition);
+        this.syncSubject = partitionSubject(ClusterMessagingProtocol.COPYCAT_SYNC, partition);
+        this.pollSubject = partitionSubject(ClusterMessagingProtocol.COPYCAT_POLL, partition);
+        this.submitSubject = partitionSubject(ClusterMessagingProtocol.COPYCAT_SUBMIT, partition);
     }
 
     @Override
@@ -119,13 +147,13 @@ public class ClusterMessagingProtocolClient implements ProtocolClient {
     private <I> MessageSubject messageType(I input) {
         Class<?> clazz = input.getClass();
         if (clazz.equals(PollRequest.class)) {
-            return ClusterMessagingProtocol.COPYCAT_POLL;
+            return pollSubject;
         } else if (clazz.equals(SyncRequest.class)) {
-            return ClusterMessagingProtocol.COPYCAT_SYNC;
+            return syncSubject;
         } else if (clazz.equals(SubmitRequest.class)) {
-            return ClusterMessagingProtocol.COPYCAT_SUBMIT;
+            return submitSubject;
         } else if (clazz.equals(PingRequest.class)) {
-            return ClusterMessagingProtocol.COPYCAT_PING;
+            return pingSubject;
         } else {
             throw new IllegalArgumentException("Unknown class " + clazz.getName());
         }
@@ -35,6 +35,7 @@ import net.kuujo.copycat.spi.protocol.ProtocolServer;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
 import org.onosproject.store.cluster.messaging.ClusterMessage;
 import org.onosproject.store.cluster.messaging.ClusterMessageHandler;
+import org.onosproject.store.cluster.messaging.MessageSubject;
 import org.slf4j.Logger;
 
 /**
@@ -45,13 +46,32 @@ public class ClusterMessagingProtocolServer implements ProtocolServer {
     private final Logger log = getLogger(getClass());
 
     private final ClusterCommunicationService clusterCommunicator;
+    private final MessageSubject pingSubject;
+    private final MessageSubject syncSubject;
+    private final MessageSubject pollSubject;
+    private final MessageSubject submitSubject;
 
     private volatile RequestHandler handler;
 
     private ExecutorService pool;
 
     public ClusterMessagingProtocolServer(ClusterCommunicationService clusterCommunicator) {
+        this(clusterCommunicator, DEFAULT_PARTITION);
+    }
+
+    /**
+     * Creates a server for the Raft group of a database partition.
+     *
+     * @param clusterCommunicator cluster communication service
+     * @param partition partition name
+     */
+    public ClusterMessagingProtocolServer(ClusterCommunicationService clusterCommunicator,
+                                          String partition) {
         this.clusterCommunicator = clusterCommunicator;
+        this.pingSubject = partitionSubject(COPYCAT_PING, partition);
+        this.syncSubject = partitionSubject(COPYCAT_SYNC, partition);
+        this.pollSubject = partitionSubject(COPYCAT_POLL, partition);
+        this.submitSubject = partitionSubject(COPYCAT_SUBMIT, partition);
     }
 
     @Override
@@ -65,19 +85,19 @@ public class ClusterMessagingProtocolServer implements ProtocolServer {
             pool = newCachedThreadPool(namedThreads("copycat-netty-messaging-server-%d"));
         }
 
-        clusterCommunicator.addSubscriber(COPYCAT_PING, new PingHandler());
-        clusterCommunicator.addSubscriber(COPYCAT_SYNC, new SyncHandler());
-        clusterCommunicator.addSubscriber(COPYCAT_POLL, new PollHandler());
-        clusterCommunicator.addSubscriber(COPYCAT_SUBMIT, new SubmitHandler());
+        clusterCommunicator.addSubscriber(pingSubject, new PingHandler());
+        clusterCommunicator.addSubscriber(syncSubject, new SyncHandler());
+        clusterCommunicator.addSubscriber(pollSubject, new PollHandler());
+        clusterCommunicator.addSubscriber(submitSubject, new SubmitHandler());
         return CompletableFuture.completedFuture(null);
     }
 
     @Override
     public CompletableFuture<Void> close() {
-        clusterCommunicator.removeSubscriber(COPYCAT_PING);
-        clusterCommunicator.removeSubscriber(COPYCAT_SYNC);
-        clusterCommunicator.removeSubscriber(COPYCAT_POLL);
-        clusterCommunicator.removeSubscriber(COPYCAT_SUBMIT);
+        clusterCommunicator.removeSubscriber(pingSubject);
+        clusterCommunicator.removeSubscriber(syncSubject);
+        clusterCommunicator.removeSubscriber(pollSubject);
+        clusterCommunicator.removeSubscriber(submitSubject);
         if (pool != null) {
             pool.shutdownNow();
             pool = null;
@@ -18,24 +18,29 @@ package org.onosproject.store.service.impl;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.kuujo.copycat.cluster.Member;
 import net.kuujo.copycat.cluster.TcpMember;
 import net.kuujo.copycat.event.LeaderElectEvent;
 import net.kuujo.copycat.protocol.Response.Status;
 import net.kuujo.copycat.protocol.SubmitRequest;
-import net.kuujo.copycat.protocol.SubmitResponse;
+import net.kuujo.copycat.spi.protocol.Protocol;
 import net.kuujo.copycat.spi.protocol.ProtocolClient;
 
+import org.jboss.netty.util.Timeout;
+import org.onlab.util.Timer;
 import org.onosproject.store.cluster.messaging.ClusterMessage;
 import org.onosproject.store.cluster.messaging.ClusterMessageHandler;
 import org.onosproject.store.service.BatchReadRequest;
@@ -48,6 +53,12 @@ import org.slf4j.Logger;
 
 /**
  * Client for interacting with the Copycat Raft cluster.
+ * <p>
+ * Requests are submitted asynchronously so several can be outstanding at
+ * once. Write batches issued while the maximum number of write commands is
+ * already in flight are queued and sent together as a single command once
+ * one of those completes.
+ * </p>
  */
 public class DatabaseClient implements ClusterMessageHandler {
 
@@ -55,14 +66,23 @@ public class DatabaseClient implements ClusterMessageHandler {
 
     private static final int TIMEOUT_MS = 2000;
 
+    // maximum number of write commands outstanding at the leader
+    private static final int MAX_WRITES_IN_FLIGHT = 4;
+
+    // maximum number of write batches carried by one write command
+    private static final int MAX_WRITES_PER_COMMAND = 128;
+
     private final Logger log = getLogger(getClass());
 
-    private final DatabaseProtocolService protocol;
+    private final Protocol<TcpMember> protocol;
     private volatile ProtocolClient client = null;
     private volatile Member currentLeader = null;
     private volatile long currentLeaderTerm = 0;
 
-    public DatabaseClient(DatabaseProtocolService protocol) {
+    private final Queue<PendingWrite> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger writesInFlight = new AtomicInteger();
+
+    public DatabaseClient(Protocol<TcpMember> protocol) {
         this.protocol = checkNotNull(protocol);
     }
 
@@ -111,28 +131,54 @@ public class DatabaseClient implements ClusterMessageHandler {
 
     private <T> T submit(String operationName, Object... args) {
         waitForLeader();
-        if (currentLeader == null) {
-            throw new DatabaseException("Raft cluster does not have a leader.");
+        return await(submitAsync(operationName, args));
+    }
+
+    // Waits for completion of a submitted request, rethrowing failures
+    // as DatabaseExceptions.
+    static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DatabaseException) {
+                throw (DatabaseException) e.getCause();
+            }
+            throw new DatabaseException(e.getCause());
+        }
+    }
+
+    private <T> CompletableFuture<T> submitAsync(String operationName, Object... args) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        ProtocolClient leaderClient = client;
+        if (currentLeader == null || leaderClient == null) {
+            future.completeExceptionally(
+                    new DatabaseException("Raft cluster does not have a leader."));
+            return future;
         }
 
         SubmitRequest request =
                 new SubmitRequest(nextRequestId(), operationName, Arrays.asList(args));
 
-        CompletableFuture<SubmitResponse> submitResponse = client.submit(request);
-
-        log.debug("Sent {} to {}", request, currentLeader);
+        Timeout timeout = Timer.getTimer().newTimeout(t -> future.completeExceptionally(
+                new DatabaseException.Timeout("Timed out waiting for " + operationName)),
+                TIMEOUT_MS, TimeUnit.MILLISECONDS);
 
-        try {
-            final SubmitResponse response = submitResponse.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
-            if (response.status() != Status.OK) {
-                throw new DatabaseException(response.error());
+        leaderClient.submit(request).whenComplete((response, error) -> {
+            timeout.cancel();
+            if (error != null) {
+                future.completeExceptionally(new DatabaseException(error));
+            } else if (response.status() != Status.OK) {
+                future.completeExceptionally(new DatabaseException(response.error()));
+            } else {
+                future.complete((T) response.result());
             }
-            return (T) response.result();
-        } catch (ExecutionException | InterruptedException e) {
-            throw new DatabaseException(e);
-        } catch (TimeoutException e) {
-            throw new DatabaseException.Timeout(e);
-        }
+        });
+
+        log.debug("Sent {} to {}", request, currentLeader);
+        return future;
     }
 
     public boolean createTable(String tableName) {
@@ -160,7 +206,74 @@ public class DatabaseClient implements ClusterMessageHandler {
     }
 
     public List<WriteResult> batchWrite(BatchWriteRequest batchRequest) {
-        return submit("write", batchRequest);
+        waitForLeader();
+        return await(batchWriteAsync(batchRequest));
+    }
+
+    public CompletableFuture<List<ReadResult>> batchReadAsync(BatchReadRequest batchRequest) {
+        return submitAsync("read", batchRequest);
+    }
+
+    /**
+     * Submits a write batch. The batch is queued and carried to the leader,
+     * possibly together with other queued batches, as soon as fewer than
+     * the maximum number of write commands are in flight.
+     *
+     * @param batchRequest write batch
+     * @return future that completes with the results of the batch
+     */
+    public CompletableFuture<List<WriteResult>> batchWriteAsync(BatchWriteRequest batchRequest) {
+        PendingWrite write = new PendingWrite(batchRequest);
+        pendingWrites.add(write);
+        flushWrites();
+        return write.future;
+    }
+
+    // Sends queued write batches while there is room in the pipeline.
+    private void flushWrites() {
+        while (!pendingWrites.isEmpty()) {
+            int inFlight = writesInFlight.get();
+            if (inFlight >= MAX_WRITES_IN_FLIGHT) {
+                // the completion of an in flight command flushes again
+                return;
+            }
+            if (!writesInFlight.compareAndSet(inFlight, inFlight + 1)) {
+                continue;
+            }
+
+            List<PendingWrite> writes = new ArrayList<>();
+            while (writes.size() < MAX_WRITES_PER_COMMAND) {
+                PendingWrite write = pendingWrites.poll();
+                if (write == null) {
+                    break;
+                }
+                writes.add(write);
+            }
+            if (writes.isEmpty()) {
+                writesInFlight.decrementAndGet();
+                continue;
+            }
+            sendWrites(writes);
+        }
+    }
+
+    private void sendWrites(List<PendingWrite> writes) {
+        List<BatchWriteRequest> requests = new ArrayList<>(writes.size());
+        for (PendingWrite write : writes) {
+            requests.add(write.request);
+        }
+        this.<List<List<WriteResult>>>submitAsync("writeAll", requests)
+            .whenComplete((results, error) -> {
+                writesInFlight.decrementAndGet();
+                for (int i = 0; i < writes.size(); i++) {
+                    if (error != null) {
+                        writes.get(i).future.completeExceptionally(error);
+                    } else {
+                        writes.get(i).future.complete(results.get(i));
+                    }
+                }
+                flushWrites();
+            });
     }
 
     public Map<String, VersionedValue> getAll(String tableName) {
@@ -170,4 +283,13 @@ public class DatabaseClient implements ClusterMessageHandler {
     Member getCurrentLeader() {
         return currentLeader;
     }
+
+    private static final class PendingWrite {
+        private final BatchWriteRequest request;
+        private final CompletableFuture<List<WriteResult>> future = new CompletableFuture<>();
+
+        PendingWrite(BatchWriteRequest request) {
+            this.request = request;
+        }
+    }
 }
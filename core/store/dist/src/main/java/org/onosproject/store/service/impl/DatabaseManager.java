@@ -17,20 +17,30 @@ package org.onosproject.store.service.impl;
 
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static org.onlab.util.Tools.namedThreads;
+import static org.onosproject.store.service.impl.ClusterMessagingProtocol.partitionSubject;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import net.kuujo.copycat.Copycat;
 import net.kuujo.copycat.CopycatConfig;
@@ -54,8 +64,10 @@ import org.onosproject.cluster.ClusterEventListener;
 import org.onosproject.cluster.ClusterService;
 import org.onosproject.cluster.ControllerNode;
 import org.onosproject.cluster.DefaultControllerNode;
+import org.onosproject.cluster.NodeId;
 import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
 import org.onosproject.store.cluster.messaging.ClusterMessage;
+import org.onosproject.store.cluster.messaging.ClusterMessageHandler;
 import org.onosproject.store.cluster.messaging.MessageSubject;
 import org.onosproject.store.service.BatchReadRequest;
 import org.onosproject.store.service.BatchReadResult;
@@ -64,28 +76,56 @@ import org.onosproject.store.service.BatchWriteResult;
 import org.onosproject.store.service.DatabaseAdminService;
 import org.onosproject.store.service.DatabaseException;
 import org.onosproject.store.service.DatabaseService;
+import org.onosproject.store.service.ReadConsistency;
+import org.onosproject.store.service.ReadRequest;
 import org.onosproject.store.service.ReadResult;
 import org.onosproject.store.service.ReadStatus;
 import org.onosproject.store.service.VersionedValue;
+import org.onosproject.store.service.WriteRequest;
 import org.onosproject.store.service.WriteResult;
 import org.onosproject.store.service.WriteStatus;
+import org.onosproject.store.service.impl.DatabaseStateMachine.State;
+import org.onosproject.store.service.impl.DatabaseStateMachine.TableMetadata;
 import org.onlab.packet.IpAddress;
 import org.slf4j.Logger;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hashing;
 
 /**
  * Strongly consistent and durable state management service based on
  * Copycat implementation of Raft consensus protocol.
+ * <p>
+ * Every tablet of the tablet definition is run as an independent Raft
+ * group, or partition, over its own members. Tables are spread over the
+ * partitions by hash of their group: the part of the table name before the
+ * first {@value #TABLE_GROUP_SEPARATOR}, or the whole name if there is none.
+ * Tables written together in one batch are expected to share a group, as
+ * batches spanning several partitions are split and only atomic within each
+ * partition; such batches are refused if they hold conditional writes. As
+ * tables are not moved between partitions, the tablet definition is
+ * expected to stay the same for as long as the data is kept.
+ * </p>
  */
 @Component(immediate = false)
 @Service
 public class DatabaseManager implements DatabaseService, DatabaseAdminService {
 
+    /**
+     * Separates the group of a table from the rest of its name; tables of
+     * one group are held by the same partition.
+     */
+    public static final String TABLE_GROUP_SEPARATOR = "/";
+
     private static final int RETRY_MS = 500;
 
     private static final int ACTIVATE_MAX_RETRIES = 100;
 
+    // bounds of the read cache of instances without a replica
+    private static final int READ_CACHE_MAX_ENTRIES = 10000;
+    private static final long READ_CACHE_EXPIRE_MS = 10000;
+
     private final Logger log = getLogger(getClass());
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
@@ -105,7 +145,7 @@ public class DatabaseManager implements DatabaseService, DatabaseAdminService {
 
     private static final String DEFAULT_MEMBER_FILE = "tablets.json";
 
-    private static final String DEFAULT_TABLET = "default";
+    private static final String DEFAULT_TABLET = ClusterMessagingProtocol.DEFAULT_PARTITION;
 
     // TODO: make this configurable
     // initial member configuration file path
@@ -114,11 +154,14 @@ public class DatabaseManager implements DatabaseService, DatabaseAdminService {
     public static final MessageSubject RAFT_LEADER_ELECTION_EVENT =
             new MessageSubject("raft-leader-election-event");
 
-    private Copycat copycat;
-    private DatabaseClient client;
+    // message subject for invalidating the read cache of instances without a replica
+    public static final MessageSubject DATABASE_CACHE_INVALIDATIONS =
+            new MessageSubject("database-cache-invalidations");
 
-    // guarded by synchronized block
-    private ClusterConfig<TcpMember> clusterConfig;
+    // partitions, ordered by name
+    private List<Partition> partitions;
+    // partition of the default tablet
+    private Partition defaultPartition;
 
     private CountDownLatch clusterEventLatch;
     private ClusterEventListener clusterEventListener;
@@ -129,7 +172,7 @@ public class DatabaseManager implements DatabaseService, DatabaseAdminService {
 
     private ScheduledExecutorService executor;
 
-    private volatile LeaderElectEvent myLeaderEvent = null;
+    private boolean cacheSubscribed = false;
 
     // TODO make this configurable
     private int maxLogSizeBytes = 128 * (1024 * 1024);
@@ -155,8 +198,7 @@ public class DatabaseManager implements DatabaseService, DatabaseAdminService {
             throw new IllegalStateException("Failed to load tablet config", e);
         }
 
-        // load default tablet configuration and start copycat
-        clusterConfig = new TcpClusterConfig();
+        // the default tablet is mandatory, any other one is an additional partition
         Set<DefaultControllerNode> defaultMembers = tabletMembers.get(DEFAULT_TABLET);
         if (defaultMembers == null || defaultMembers.isEmpty()) {
             log.error("No members found in [{}] tablet configuration.",
@@ -165,71 +207,39 @@ public class DatabaseManager implements DatabaseService, DatabaseAdminService {
 
         }
 
-        final ControllerNode localNode = clusterService.getLocalNode();
-        for (ControllerNode member : defaultMembers) {
-            final TcpMember tcpMember = new TcpMember(member.ip().toString(),
-                                                      member.tcpPort());
-            if (localNode.equals(member)) {
-                clusterConfig.setLocalMember(tcpMember);
-            } else {
-                clusterConfig.addRemoteMember(tcpMember);
-            }
+        int raftClusterSize = createPartitions(tabletMembers);
+        if (raftClusterSize > 0) {
+            // Wait for a minimum viable Raft cluster to boot up.
+            waitForClusterQuorum(raftClusterSize);
         }
 
-        if (clusterConfig.getLocalMember() != null) {
+        setUpPartitions(dataDir);
 
-            // Wait for a minimum viable Raft cluster to boot up.
-            waitForClusterQuorum();
-
-            final TcpCluster cluster;
-            synchronized (clusterConfig) {
-                // Create the cluster.
-                cluster = new TcpCluster(clusterConfig);
+        // Starts copycat of the partitions this node is a participant of.
+        List<CompletableFuture<Void>> started = new ArrayList<>();
+        for (Partition partition : partitions) {
+            if (partition.copycat != null) {
+                started.add(partition.copycat.start());
             }
-            log.info("Starting cluster: {}", cluster);
-
-            DatabaseEntryExpirationTracker expirationTracker =
-                    new DatabaseEntryExpirationTracker(
-                            clusterConfig.getLocalMember(),
-                            clusterService.getLocalNode(),
-                            clusterCommunicator,
-                            this);
-
-            DatabaseStateMachine stateMachine = new DatabaseStateMachine();
-            stateMachine.addEventListener(expirationTracker);
-            Log consensusLog = new MapDBLog(dataDir + "/" + LOG_FILE_PREFIX + localNode.id(),
-                    ClusterMessagingProtocol.DB_SERIALIZER);
-
-            CopycatConfig ccConfig = new CopycatConfig();
-            ccConfig.setMaxLogSize(maxLogSizeBytes);
-            ccConfig.setElectionTimeout(electionTimeoutMs);
-
-            copycat = new Copycat(stateMachine, consensusLog, cluster, copycatMessagingProtocol, ccConfig);
-            copycat.event(LeaderElectEvent.class).registerHandler(new RaftLeaderElectionMonitor());
-            copycat.event(LeaderElectEvent.class).registerHandler(expirationTracker);
         }
-
-        client = new DatabaseClient(copycatMessagingProtocol);
-        clusterCommunicator.addSubscriber(RAFT_LEADER_ELECTION_EVENT, client);
-
-        // Starts copycat if this node is a participant
-        // of the Raft cluster.
-        if (copycat != null) {
-            copycat.start().get();
-
+        for (CompletableFuture<Void> start : started) {
+            start.get();
+        }
+        if (!started.isEmpty()) {
             executor =
                     newSingleThreadScheduledExecutor(namedThreads("db-heartbeat-%d"));
             executor.scheduleWithFixedDelay(new LeaderAdvertiser(), 5, 2, TimeUnit.SECONDS);
-
         }
 
-        client.waitForLeader();
+        for (Partition partition : partitions) {
+            partition.client.waitForLeader();
+        }
 
         // Try and list the tables to verify database manager is
         // in a state where it can serve requests.
         tryTableListing();
 
-        log.info("Started.");
+        log.info("Started with {} partition(s).", partitions.size());
     }
 
     @Deactivate
@@ -240,20 +250,74 @@ public class DatabaseManager implements DatabaseService, DatabaseAdminService {
         clusterService.removeListener(clusterEventListener);
         // TODO: ClusterCommunicationService must support more than one
         // handler per message subject.
-        clusterCommunicator.removeSubscriber(RAFT_LEADER_ELECTION_EVENT);
-        if (copycat != null) {
-            copycat.stop();
+        for (Partition partition : partitions) {
+            clusterCommunicator.removeSubscriber(partition.leaderSubject);
+            if (partition.copycat != null) {
+                partition.copycat.stop();
+            }
+        }
+        if (cacheSubscribed) {
+            clusterCommunicator.removeSubscriber(DATABASE_CACHE_INVALIDATIONS);
+            cacheSubscribed = false;
         }
         log.info("Stopped.");
     }
 
-    private void waitForClusterQuorum() {
-        // note: from this point beyond, clusterConfig requires synchronization
+    /**
+     * Creates a partition for each tablet with members.
+     *
+     * @param tablets members of each tablet
+     * @return size of the largest Raft group this node is a member of,
+     *         0 if none
+     */
+    int createPartitions(Map<String, Set<DefaultControllerNode>> tablets) {
+        List<String> tabletNames = new ArrayList<>(tablets.keySet());
+        Collections.sort(tabletNames);
+        partitions = new ArrayList<>(tabletNames.size());
+        int raftClusterSize = 0;
+        for (String tabletName : tabletNames) {
+            Set<DefaultControllerNode> members = tablets.get(tabletName);
+            if (members == null || members.isEmpty()) {
+                log.warn("No members found in [{}] tablet configuration, ignored.", tabletName);
+                continue;
+            }
+            Partition partition = new Partition(tabletName, partitions.size(), members);
+            partitions.add(partition);
+            if (partition.clusterConfig.getLocalMember() != null) {
+                raftClusterSize = Math.max(raftClusterSize, members.size());
+            }
+            if (tabletName.equals(DEFAULT_TABLET)) {
+                defaultPartition = partition;
+            }
+        }
+        return raftClusterSize;
+    }
+
+    /**
+     * Sets up the replica of the partitions this node is a member of, and
+     * the client of every partition.
+     *
+     * @param dataDir directory holding the logs of the replicas
+     */
+    void setUpPartitions(String dataDir) {
+        for (Partition partition : partitions) {
+            partition.createCopycat(dataDir);
+            partition.createClient();
+            if (partition.copycat == null && !cacheSubscribed) {
+                clusterCommunicator.addSubscriber(DATABASE_CACHE_INVALIDATIONS,
+                                                  new CacheInvalidationListener());
+                cacheSubscribed = true;
+            }
+        }
+    }
+
+    private void waitForClusterQuorum(int raftClusterSize) {
+        // note: from this point beyond, the cluster configuration of the
+        // partitions requires synchronization
         clusterEventLatch = new CountDownLatch(1);
         clusterEventListener = new InternalClusterEventListener();
         clusterService.addListener(clusterEventListener);
 
-        final int raftClusterSize = clusterConfig.getMembers().size();
         final int raftClusterQuorumSize = (int) (Math.floor(raftClusterSize / 2)) + 1;
         if (clusterService.getNodes().size() < raftClusterQuorumSize) {
             // current cluster size smaller then expected
@@ -293,29 +357,138 @@ public class DatabaseManager implements DatabaseService, DatabaseAdminService {
         } while (true);
     }
 
+    /**
+     * Returns the partition holding a table.
+     *
+     * @param tableName table name
+     * @return partition
+     */
+    private Partition partitionOf(String tableName) {
+        if (partitions.size() == 1) {
+            return partitions.get(0);
+        }
+        int hash = Hashing.murmur3_32().hashString(tableGroup(tableName), StandardCharsets.UTF_8).asInt();
+        return partitions.get(Math.floorMod(hash, partitions.size()));
+    }
+
+    /**
+     * Returns the group of a table, which decides the partition holding it.
+     *
+     * @param tableName table name
+     * @return table group
+     */
+    static String tableGroup(String tableName) {
+        int index = tableName.indexOf(TABLE_GROUP_SEPARATOR);
+        return index < 0 ? tableName : tableName.substring(0, index);
+    }
+
+    /**
+     * Verifies that a batch holding conditional writes is held by a single
+     * partition, as it could otherwise be partially applied.
+     *
+     * @param requests write requests of the batch
+     * @throws DatabaseException if a conditional batch spans partitions
+     */
+    private void checkConditionalBatch(List<WriteRequest> requests) {
+        Partition partition = null;
+        boolean conditional = false;
+        boolean split = false;
+        for (WriteRequest request : requests) {
+            conditional |= request.type() != WriteRequest.Type.PUT &&
+                    request.type() != WriteRequest.Type.REMOVE;
+            Partition current = partitionOf(request.tableName());
+            split |= partition != null && current != partition;
+            partition = current;
+        }
+        if (conditional && split) {
+            throw new DatabaseException("Conditional batch spans several partitions");
+        }
+    }
+
+    /**
+     * Splits requests by partition, sends each share and puts the results
+     * back in the order of the requests. Requests of a single partition are
+     * sent as they are.
+     *
+     * @param requests requests to send
+     * @param tableOf  table a request is for
+     * @param send     sends requests to a partition, returning their results
+     * @param <Q>      request type
+     * @param <R>      result type
+     * @return future that completes with the results of all requests
+     */
+    private <Q, R> CompletableFuture<List<R>> scatter(
+            List<Q> requests,
+            Function<Q, String> tableOf,
+            BiFunction<Partition, List<Q>, CompletableFuture<List<R>>> send) {
+
+        Map<Partition, List<Integer>> positions = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            positions.computeIfAbsent(partitionOf(tableOf.apply(requests.get(i))),
+                                      p -> new ArrayList<>()).add(i);
+        }
+        if (positions.size() <= 1) {
+            Partition partition = positions.isEmpty() ? defaultPartition
+                                                      : positions.keySet().iterator().next();
+            return send.apply(partition, requests);
+        }
+
+        AtomicReferenceArray<R> results = new AtomicReferenceArray<>(requests.size());
+        List<CompletableFuture<Void>> shares = new ArrayList<>(positions.size());
+        for (Map.Entry<Partition, List<Integer>> entry : positions.entrySet()) {
+            List<Integer> indices = entry.getValue();
+            List<Q> share = new ArrayList<>(indices.size());
+            for (int index : indices) {
+                share.add(requests.get(index));
+            }
+            shares.add(send.apply(entry.getKey(), share).thenAccept(shareResults -> {
+                for (int i = 0; i < indices.size(); i++) {
+                    results.set(indices.get(i), shareResults.get(i));
+                }
+            }));
+        }
+        return CompletableFuture.allOf(shares.toArray(new CompletableFuture[shares.size()]))
+                .thenApply(v -> {
+                    List<R> ordered = new ArrayList<>(results.length());
+                    for (int i = 0; i < results.length(); i++) {
+                        ordered.add(results.get(i));
+                    }
+                    return ordered;
+                });
+    }
+
     @Override
     public boolean createTable(String name) {
-        return client.createTable(name);
+        return partitionOf(name).client.createTable(name);
     }
 
     @Override
     public boolean createTable(String name, int ttlMillis) {
-        return client.createTable(name, ttlMillis);
+        return partitionOf(name).client.createTable(name, ttlMillis);
     }
 
     @Override
     public void dropTable(String name) {
-        client.dropTable(name);
+        partitionOf(name).client.dropTable(name);
     }
 
     @Override
     public void dropAllTables() {
-        client.dropAllTables();
+        for (Partition partition : partitions) {
+            partition.client.dropAllTables();
+        }
     }
 
     @Override
     public Set<String> listTables() {
-        return client.listTables();
+        if (partitions.size() == 1) {
+            return partitions.get(0).client.listTables();
+        }
+        ImmutableSet.Builder<String> tables = ImmutableSet.builder();
+        for (Partition partition : partitions) {
+            tables.addAll(partition.client.listTables());
+        }
+        return tables.build();
     }
 
     @Override
@@ -328,20 +501,70 @@ public class DatabaseManager implements DatabaseService, DatabaseAdminService {
         throw new DatabaseException("get failed due to status: " + readResult.status());
     }
 
+    @Override
+    public VersionedValue get(String tableName, String key, ReadConsistency consistency) {
+        BatchReadRequest batchRequest = new BatchReadRequest.Builder().get(tableName, key).build();
+        ReadResult readResult = batchRead(batchRequest, consistency).getAsList().get(0);
+        if (readResult.status().equals(ReadStatus.OK)) {
+            return readResult.value();
+        }
+        throw new DatabaseException("get failed due to status: " + readResult.status());
+    }
+
     @Override
     public Map<String, VersionedValue> getAll(String tableName) {
-        return client.getAll(tableName);
+        return partitionOf(tableName).client.getAll(tableName);
     }
 
 
     @Override
     public BatchReadResult batchRead(BatchReadRequest batchRequest) {
-        return new BatchReadResult(client.batchRead(batchRequest));
+        return new BatchReadResult(DatabaseClient.await(
+                scatter(batchRequest.getAsList(), ReadRequest::tableName, (partition, requests) -> {
+                    partition.client.waitForLeader();
+                    return partition.client.batchReadAsync(BatchReadRequest.create(requests));
+                })));
+    }
+
+    @Override
+    public BatchReadResult batchRead(BatchReadRequest batchRequest, ReadConsistency consistency) {
+        if (consistency == ReadConsistency.LINEARIZABLE) {
+            return batchRead(batchRequest);
+        }
+        return new BatchReadResult(DatabaseClient.await(
+                scatter(batchRequest.getAsList(), ReadRequest::tableName,
+                        Partition::sequentialRead)));
     }
 
     @Override
     public BatchWriteResult batchWrite(BatchWriteRequest batchRequest) {
-        return new BatchWriteResult(client.batchWrite(batchRequest));
+        checkConditionalBatch(batchRequest.getAsList());
+        return new BatchWriteResult(DatabaseClient.await(
+                scatter(batchRequest.getAsList(), WriteRequest::tableName, (partition, requests) -> {
+                    partition.client.waitForLeader();
+                    return partition.client.batchWriteAsync(BatchWriteRequest.create(requests));
+                })));
+    }
+
+    @Override
+    public CompletableFuture<BatchReadResult> batchReadAsync(BatchReadRequest batchRequest) {
+        return scatter(batchRequest.getAsList(), ReadRequest::tableName, (partition, requests) ->
+                    partition.client.batchReadAsync(BatchReadRequest.create(requests)))
+                .thenApply(BatchReadResult::new);
+    }
+
+    @Override
+    public CompletableFuture<BatchWriteResult> batchWriteAsync(BatchWriteRequest batchRequest) {
+        try {
+            checkConditionalBatch(batchRequest.getAsList());
+        } catch (DatabaseException e) {
+            CompletableFuture<BatchWriteResult> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        return scatter(batchRequest.getAsList(), WriteRequest::tableName, (partition, requests) ->
+                    partition.client.batchWriteAsync(BatchWriteRequest.create(requests)))
+                .thenApply(BatchWriteResult::new);
     }
 
     @Override
@@ -446,64 +669,263 @@ public class DatabaseManager implements DatabaseService, DatabaseAdminService {
         final TcpMember tcpMember = new TcpMember(node.ip().toString(),
                                                   node.tcpPort());
         log.info("{} was added to the cluster", tcpMember);
-        synchronized (clusterConfig) {
-            clusterConfig.addRemoteMember(tcpMember);
+        for (Partition partition : partitions) {
+            partition.addRemoteMember(tcpMember);
         }
     }
 
     @Override
     public Optional<ControllerNode> leader() {
-        if (copycat != null) {
-            if (copycat.isLeader()) {
-                return Optional.of(clusterService.getLocalNode());
+        return defaultPartition.leader();
+    }
+
+    @Override
+    public Map<String, ControllerNode> leaders() {
+        Map<String, ControllerNode> leaders = new LinkedHashMap<>();
+        for (Partition partition : partitions) {
+            partition.leader().ifPresent(leader -> leaders.put(partition.name, leader));
+        }
+        return leaders;
+    }
+
+    /**
+     * A Raft group holding a share of the tables, together with the client
+     * used to reach its leader.
+     */
+    private final class Partition {
+
+        private final String name;
+        private final int index;
+        private final Set<DefaultControllerNode> members;
+        private final ClusterConfig<TcpMember> clusterConfig = new TcpClusterConfig();
+        private final MessageSubject leaderSubject;
+
+        private Copycat copycat;
+        private DatabaseStateMachine stateMachine;
+        private DatabaseClient client;
+
+        private volatile LeaderElectEvent myLeaderEvent = null;
+
+        private final DatabaseReadCache readCache =
+                new DatabaseReadCache(READ_CACHE_MAX_ENTRIES, READ_CACHE_EXPIRE_MS);
+        // leader the read cache was filled from
+        private volatile Member readCacheLeader;
+
+        Partition(String name, int index, Set<DefaultControllerNode> members) {
+            this.name = name;
+            this.index = index;
+            this.members = members;
+            this.leaderSubject = partitionSubject(RAFT_LEADER_ELECTION_EVENT, name);
+
+            final ControllerNode localNode = clusterService.getLocalNode();
+            for (ControllerNode member : members) {
+                final TcpMember tcpMember = new TcpMember(member.ip().toString(),
+                                                          member.tcpPort());
+                if (localNode.equals(member)) {
+                    clusterConfig.setLocalMember(tcpMember);
+                } else {
+                    clusterConfig.addRemoteMember(tcpMember);
+                }
             }
-            Member leader = copycat.cluster().remoteMember(copycat.leader());
-            return Optional.ofNullable(getNodeIdFromMember(leader));
         }
-        return Optional.ofNullable(getNodeIdFromMember(client.getCurrentLeader()));
+
+        // Sets up the replica, if this node is a member of the partition.
+        void createCopycat(String dataDir) {
+            if (clusterConfig.getLocalMember() == null) {
+                return;
+            }
+            final ControllerNode localNode = clusterService.getLocalNode();
+
+            final TcpCluster cluster;
+            synchronized (clusterConfig) {
+                // Create the cluster.
+                cluster = new TcpCluster(clusterConfig);
+            }
+            log.info("Starting cluster of partition {}: {}", name, cluster);
+
+            DatabaseEntryExpirationTracker expirationTracker =
+                    new DatabaseEntryExpirationTracker(
+                            clusterConfig.getLocalMember(),
+                            localNode,
+                            clusterCommunicator,
+                            DatabaseManager.this);
+
+            stateMachine = new DatabaseStateMachine();
+            stateMachine.addEventListener(expirationTracker);
+            stateMachine.addEventListener(new CacheInvalidationPublisher(this));
+            String logFile = dataDir + "/" + LOG_FILE_PREFIX + localNode.id();
+            if (!name.equals(DEFAULT_TABLET)) {
+                logFile += "_" + name;
+            }
+            Log consensusLog = new MapDBLog(logFile, ClusterMessagingProtocol.DB_SERIALIZER);
+
+            CopycatConfig ccConfig = new CopycatConfig();
+            ccConfig.setMaxLogSize(maxLogSizeBytes);
+            ccConfig.setElectionTimeout(electionTimeout());
+
+            copycat = new Copycat(stateMachine, consensusLog, cluster,
+                                  copycatMessagingProtocol.partition(name), ccConfig);
+            copycat.event(LeaderElectEvent.class).registerHandler(new RaftLeaderElectionMonitor(this));
+            copycat.event(LeaderElectEvent.class).registerHandler(expirationTracker);
+        }
+
+        // With several partitions, one member of each is favoured to win
+        // elections, by timing out sooner, so that leaders get spread over
+        // the instances rather than piling up on the first one up.
+        private long electionTimeout() {
+            if (partitions.size() <= 1) {
+                return electionTimeoutMs;
+            }
+            List<DefaultControllerNode> ordered = new ArrayList<>(members);
+            ordered.sort(Comparator.comparing(node -> node.id().toString()));
+            ControllerNode preferred = ordered.get(index % ordered.size());
+            if (preferred.equals(clusterService.getLocalNode())) {
+                return electionTimeoutMs;
+            }
+            return electionTimeoutMs + electionTimeoutMs / 2;
+        }
+
+        void createClient() {
+            client = new DatabaseClient(copycatMessagingProtocol.partition(name));
+            clusterCommunicator.addSubscriber(leaderSubject, client);
+        }
+
+        void addRemoteMember(TcpMember tcpMember) {
+            synchronized (clusterConfig) {
+                if (!clusterConfig.getMembers().contains(tcpMember)) {
+                    clusterConfig.addRemoteMember(tcpMember);
+                }
+            }
+        }
+
+        void removeRemoteMember(TcpMember tcpMember) {
+            synchronized (clusterConfig) {
+                if (clusterConfig.getMembers().contains(tcpMember)) {
+                    clusterConfig.removeRemoteMember(tcpMember);
+                }
+            }
+        }
+
+        Optional<ControllerNode> leader() {
+            if (copycat != null) {
+                if (copycat.isLeader()) {
+                    return Optional.of(clusterService.getLocalNode());
+                }
+                Member leader = copycat.cluster().remoteMember(copycat.leader());
+                return Optional.ofNullable(getNodeIdFromMember(leader));
+            }
+            return Optional.ofNullable(getNodeIdFromMember(client.getCurrentLeader()));
+        }
+
+        Collection<? extends Member> raftMembers() {
+            if (copycat != null) {
+                return copycat.cluster().members();
+            }
+            synchronized (clusterConfig) {
+                return new ArrayList<>(clusterConfig.getMembers());
+            }
+        }
+
+        // Reads served by the local replica, or else through the read cache,
+        // fetching misses without waiting for them.
+        CompletableFuture<List<ReadResult>> sequentialRead(List<ReadRequest> requests) {
+            if (stateMachine != null) {
+                return CompletableFuture.completedFuture(
+                        stateMachine.read(BatchReadRequest.create(requests)));
+            }
+
+            Member leader = client.getCurrentLeader();
+            if (leader == null || !leader.equals(readCacheLeader)) {
+                // invalidations from a former leader may have been missed
+                readCache.invalidateAll();
+                readCacheLeader = leader;
+            }
+
+            ReadResult[] results = new ReadResult[requests.size()];
+            List<ReadRequest> misses = new ArrayList<>();
+            List<Long> generations = new ArrayList<>();
+            for (int i = 0; i < results.length; i++) {
+                ReadRequest request = requests.get(i);
+                results[i] = readCache.get(request);
+                if (results[i] == null) {
+                    generations.add(readCache.generation(request.tableName()));
+                    misses.add(request);
+                }
+            }
+            if (misses.isEmpty()) {
+                return CompletableFuture.completedFuture(ImmutableList.copyOf(results));
+            }
+
+            client.waitForLeader();
+            return client.batchReadAsync(BatchReadRequest.create(misses)).thenApply(fetched -> {
+                for (int i = 0, j = 0; i < results.length; i++) {
+                    if (results[i] == null) {
+                        results[i] = fetched.get(j);
+                        readCache.put(results[i], generations.get(j));
+                        j++;
+                    }
+                }
+                return ImmutableList.copyOf(results);
+            });
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
     }
 
     private final class LeaderAdvertiser implements Runnable {
 
         @Override
         public void run() {
-            try {
-                LeaderElectEvent event = myLeaderEvent;
-                if (event != null) {
-                    log.trace("Broadcasting RAFT_LEADER_ELECTION_EVENT: {}", event);
-                    // This node just became the leader.
-                    clusterCommunicator.broadcastIncludeSelf(
-                            new ClusterMessage(
-                                    clusterService.getLocalNode().id(),
-                                    RAFT_LEADER_ELECTION_EVENT,
-                                    ClusterMessagingProtocol.DB_SERIALIZER.encode(event)));
+            for (Partition partition : partitions) {
+                try {
+                    LeaderElectEvent event = partition.myLeaderEvent;
+                    if (event != null) {
+                        log.trace("Broadcasting {}: {}", partition.leaderSubject, event);
+                        // This node just became the leader.
+                        clusterCommunicator.broadcastIncludeSelf(
+                                new ClusterMessage(
+                                        clusterService.getLocalNode().id(),
+                                        partition.leaderSubject,
+                                        ClusterMessagingProtocol.DB_SERIALIZER.encode(event)));
+                    }
+                } catch (Exception e) {
+                    log.debug("LeaderAdvertiser failed with exception", e);
                 }
-            } catch (Exception e) {
-                log.debug("LeaderAdvertiser failed with exception", e);
             }
         }
 
     }
 
     private final class RaftLeaderElectionMonitor implements EventHandler<LeaderElectEvent> {
+
+        private final Partition partition;
+
+        RaftLeaderElectionMonitor(Partition partition) {
+            this.partition = partition;
+        }
+
         @Override
         public void handle(LeaderElectEvent event) {
             try {
-                log.debug("Received LeaderElectEvent: {}", event);
-                if (clusterConfig.getLocalMember() != null && event.leader().equals(clusterConfig.getLocalMember())) {
-                    log.debug("Broadcasting RAFT_LEADER_ELECTION_EVENT");
-                    myLeaderEvent = event;
+                log.debug("Received LeaderElectEvent for partition {}: {}", partition, event);
+                TcpMember localMember = partition.clusterConfig.getLocalMember();
+                if (localMember != null && event.leader().equals(localMember)) {
+                    log.debug("Broadcasting {}", partition.leaderSubject);
+                    partition.myLeaderEvent = event;
                     // This node just became the leader.
                     clusterCommunicator.broadcastIncludeSelf(
                             new ClusterMessage(
                                     clusterService.getLocalNode().id(),
-                                    RAFT_LEADER_ELECTION_EVENT,
+                                    partition.leaderSubject,
                                     ClusterMessagingProtocol.DB_SERIALIZER.encode(event)));
                 } else {
-                    if (myLeaderEvent != null) {
-                        log.debug("This node is no longer the Leader");
+                    if (partition.myLeaderEvent != null) {
+                        log.debug("This node is no longer the Leader of partition {}", partition);
                     }
-                    myLeaderEvent = null;
+                    partition.myLeaderEvent = null;
                 }
             } catch (IOException e) {
                 log.error("Failed to broadcast raft leadership change event", e);
@@ -511,6 +933,82 @@ public class DatabaseManager implements DatabaseService, DatabaseAdminService {
         }
     }
 
+    /**
+     * Reports modifications applied while leader of a partition to the
+     * instances without a replica of it, for them to invalidate their read
+     * cache.
+     */
+    private final class CacheInvalidationPublisher implements DatabaseUpdateEventListener {
+
+        private final Partition partition;
+
+        CacheInvalidationPublisher(Partition partition) {
+            this.partition = partition;
+        }
+
+        private void publish(Object invalidation) {
+            Copycat copycat = partition.copycat;
+            if (copycat == null || !copycat.isLeader()) {
+                return;
+            }
+            Set<NodeId> readers = new HashSet<>();
+            for (ControllerNode node : clusterService.getNodes()) {
+                readers.add(node.id());
+            }
+            for (ControllerNode member : partition.members) {
+                readers.remove(member.id());
+            }
+            if (readers.isEmpty()) {
+                return;
+            }
+            try {
+                clusterCommunicator.multicast(
+                        new ClusterMessage(clusterService.getLocalNode().id(),
+                                           DATABASE_CACHE_INVALIDATIONS,
+                                           ClusterMessagingProtocol.DB_SERIALIZER.encode(invalidation)),
+                        readers);
+            } catch (IOException e) {
+                log.warn("Failed to publish read cache invalidation", e);
+            }
+        }
+
+        @Override
+        public void tableModified(TableModificationEvent event) {
+            publish(event);
+        }
+
+        @Override
+        public void tableCreated(TableMetadata metadata) {
+        }
+
+        @Override
+        public void tableDeleted(String tableName) {
+            publish(tableName);
+        }
+
+        @Override
+        public void snapshotInstalled(State snapshotState) {
+        }
+    }
+
+    /**
+     * Invalidates the read cache as modifications are reported by the leader.
+     */
+    private final class CacheInvalidationListener implements ClusterMessageHandler {
+
+        @Override
+        public void handle(ClusterMessage message) {
+            Object invalidation = ClusterMessagingProtocol.DB_SERIALIZER.decode(message.payload());
+            if (invalidation instanceof TableModificationEvent) {
+                TableModificationEvent event = (TableModificationEvent) invalidation;
+                partitionOf(event.tableName()).readCache.invalidate(event.tableName(), event.key());
+            } else if (invalidation instanceof String) {
+                String tableName = (String) invalidation;
+                partitionOf(tableName).readCache.invalidate(tableName);
+            }
+        }
+    }
+
     private final class InternalClusterEventListener
     implements ClusterEventListener {
 
@@ -526,27 +1024,20 @@ public class DatabaseManager implements DatabaseService, DatabaseAdminService {
             case INSTANCE_ACTIVATED:
             case INSTANCE_ADDED:
                 if (autoAddMember) {
-                    synchronized (clusterConfig) {
-                        if (!clusterConfig.getMembers().contains(tcpMember)) {
-                            log.info("{} was automatically added to the cluster", tcpMember);
-                            clusterConfig.addRemoteMember(tcpMember);
-                        }
+                    log.info("{} was automatically added to the cluster", tcpMember);
+                    for (Partition partition : partitions) {
+                        partition.addRemoteMember(tcpMember);
                     }
                 }
                 break;
             case INSTANCE_DEACTIVATED:
             case INSTANCE_REMOVED:
                 if (autoAddMember) {
-                    Set<DefaultControllerNode> members
-                    = tabletMembers.getOrDefault(DEFAULT_TABLET,
-                            Collections.emptySet());
-                    // remove only if not the initial members
-                    if (!members.contains(node)) {
-                        synchronized (clusterConfig) {
-                            if (clusterConfig.getMembers().contains(tcpMember)) {
-                                log.info("{} was automatically removed from the cluster", tcpMember);
-                                clusterConfig.removeRemoteMember(tcpMember);
-                            }
+                    log.info("{} was automatically removed from the cluster", tcpMember);
+                    for (Partition partition : partitions) {
+                        // remove only if not an initial member of the tablet
+                        if (!partition.members.contains(node)) {
+                            partition.removeRemoteMember(tcpMember);
                         }
                     }
                 }
@@ -554,8 +1045,8 @@ public class DatabaseManager implements DatabaseService, DatabaseAdminService {
             default:
                 break;
             }
-            if (copycat != null) {
-                log.debug("Current cluster: {}", copycat.cluster());
+            if (defaultPartition.copycat != null) {
+                log.debug("Current cluster: {}", defaultPartition.copycat.cluster());
             }
             clusterEventLatch.countDown();
         }
@@ -567,26 +1058,46 @@ public class DatabaseManager implements DatabaseService, DatabaseAdminService {
         final TcpMember tcpMember = new TcpMember(node.ip().toString(),
                                                   node.tcpPort());
       log.info("{} was removed from the cluster", tcpMember);
-      synchronized (clusterConfig) {
-          clusterConfig.removeRemoteMember(tcpMember);
+      for (Partition partition : partitions) {
+          partition.removeRemoteMember(tcpMember);
       }
     }
 
     @Override
     public Collection<ControllerNode> listMembers() {
-        if (copycat == null) {
-            return ImmutableList.of();
-        }
         Set<ControllerNode> members = new HashSet<>();
-        for (Member member : copycat.cluster().members()) {
+        for (Partition partition : partitions) {
+            members.addAll(toNodes(partition.raftMembers()));
+        }
+        return members;
+    }
+
+    /**
+     * Returns the members of the Raft group of a tablet.
+     *
+     * @param tabletName tablet name
+     * @return members of the tablet, empty if there is no such tablet
+     */
+    Set<ControllerNode> listMembers(String tabletName) {
+        for (Partition partition : partitions) {
+            if (partition.name.equals(tabletName)) {
+                return toNodes(partition.raftMembers());
+            }
+        }
+        return ImmutableSet.of();
+    }
+
+    private Set<ControllerNode> toNodes(Collection<? extends Member> raftMembers) {
+        Set<ControllerNode> nodes = new HashSet<>();
+        for (Member member : raftMembers) {
             ControllerNode node = getNodeIdFromMember(member);
             if (node == null) {
                 log.info("No Node found for {}", member);
                 continue;
             }
-            members.add(node);
+            nodes.add(node);
         }
-        return members;
+        return nodes;
     }
 
     private ControllerNode getNodeIdFromMember(Member member) {
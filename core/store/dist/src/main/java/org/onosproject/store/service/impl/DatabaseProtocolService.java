@@ -22,4 +22,12 @@ import net.kuujo.copycat.spi.protocol.Protocol;
 // TODO: Consider changing ClusterMessagingProtocol to non-Service class
 public interface DatabaseProtocolService extends Protocol<TcpMember> {
 
+    /**
+     * Returns the protocol for the Raft group of a database partition.
+     * Each partition exchanges its messages under distinct subjects.
+     *
+     * @param name partition name
+     * @return protocol of the partition
+     */
+    Protocol<TcpMember> partition(String name);
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.service.impl;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.onosproject.store.service.ReadRequest;
+import org.onosproject.store.service.ReadResult;
+import org.onosproject.store.service.ReadStatus;
+import org.onosproject.store.service.VersionedValue;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+
+/**
+ * Per-table cache of values read from the leader, kept by instances which
+ * do not hold a replica of the database.
+ * <p>
+ * Entries are invalidated as modifications of their rows are reported by
+ * the leader. A read result is only cached if no modification of its table
+ * was reported while the read was outstanding, so a late answer cannot
+ * bring back a value that was already overwritten. Entries also expire
+ * after a while, which bounds staleness should a report get lost.
+ * </p>
+ */
+final class DatabaseReadCache {
+
+    private final ConcurrentMap<String, TableCache> tables = Maps.newConcurrentMap();
+
+    private final int maxEntries;
+    private final long expireMillis;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxEntries   maximum number of entries kept per table
+     * @param expireMillis time after which an entry expires
+     */
+    DatabaseReadCache(int maxEntries, long expireMillis) {
+        this.maxEntries = maxEntries;
+        this.expireMillis = expireMillis;
+    }
+
+    private TableCache table(String tableName) {
+        return tables.computeIfAbsent(tableName, name -> new TableCache());
+    }
+
+    /**
+     * Returns the generation of a table, to be handed back when caching the
+     * result of a read issued after this call.
+     *
+     * @param tableName table name
+     * @return current generation of the table
+     */
+    long generation(String tableName) {
+        return table(tableName).generation;
+    }
+
+    /**
+     * Looks up a cached read result.
+     *
+     * @param request read request
+     * @return cached result, or null if there is none
+     */
+    ReadResult get(ReadRequest request) {
+        TableCache table = tables.get(request.tableName());
+        if (table == null) {
+            return null;
+        }
+        Optional<VersionedValue> value = table.entries.getIfPresent(request.key());
+        if (value == null) {
+            return null;
+        }
+        return new ReadResult(ReadStatus.OK, request.tableName(), request.key(),
+                              VersionedValue.copy(value.orElse(null)));
+    }
+
+    /**
+     * Caches a read result, unless its table was modified since the given
+     * generation.
+     *
+     * @param result     read result
+     * @param generation generation of the table before the read was issued
+     */
+    void put(ReadResult result, long generation) {
+        if (result.status() != ReadStatus.OK) {
+            return;
+        }
+        table(result.tableName()).put(result.key(), result.value(), generation);
+    }
+
+    /**
+     * Invalidates a row.
+     *
+     * @param tableName table name
+     * @param key       row key
+     */
+    void invalidate(String tableName, String key) {
+        table(tableName).invalidate(key);
+    }
+
+    /**
+     * Invalidates a whole table.
+     *
+     * @param tableName table name
+     */
+    void invalidate(String tableName) {
+        table(tableName).invalidate(null);
+    }
+
+    /**
+     * Invalidates everything.
+     */
+    void invalidateAll() {
+        for (TableCache table : tables.values()) {
+            table.invalidate(null);
+        }
+    }
+
+    private final class TableCache {
+        private final Cache<String, Optional<VersionedValue>> entries = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(expireMillis, TimeUnit.MILLISECONDS)
+                .build();
+        private volatile long generation;
+
+        synchronized void put(String key, VersionedValue value, long readGeneration) {
+            if (readGeneration == generation) {
+                entries.put(key, Optional.ofNullable(value));
+            }
+        }
+
+        synchronized void invalidate(String key) {
+            generation++;
+            if (key == null) {
+                entries.invalidateAll();
+            } else {
+                entries.invalidate(key);
+            }
+        }
+    }
+}
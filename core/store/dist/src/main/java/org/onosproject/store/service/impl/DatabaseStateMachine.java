@@ -21,6 +21,9 @@ import static org.onosproject.store.service.impl.ClusterMessagingProtocol.DB_SER
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -28,7 +31,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.zip.DeflaterOutputStream;
 import java.util.zip.InflaterInputStream;
 
 import net.kuujo.copycat.Command;
@@ -75,11 +77,18 @@ public class DatabaseStateMachine implements StateMachine {
     private final Set<DatabaseUpdateEventListener> listeners = Sets.newIdentityHashSet();
 
     // durable internal state of the database.
-    private State state = new State();
+    // also read outside of Copycat, for reads served by the local replica
+    private volatile State state = new State();
 
     // TODO make this configurable
     private boolean compressSnapshot = true;
 
+    // marks snapshots written table by table; older ones hold the whole state
+    private static final int SNAPSHOT_MAGIC = 0x4f4e5354;
+
+    // encoded tables, reused by the next snapshot as far as unmodified
+    private final Map<String, TableSnapshot> tableSnapshots = Maps.newHashMap();
+
     @Command
     public boolean createTable(String tableName) {
         TableMetadata metadata = new TableMetadata(tableName);
@@ -114,6 +123,7 @@ public class DatabaseStateMachine implements StateMachine {
     @Command
     public boolean dropTable(String tableName) {
         if (state.removeTable(tableName)) {
+            tableSnapshots.remove(tableName);
 
             updatesExecutor.submit(new Runnable() {
                 @Override
@@ -133,6 +143,7 @@ public class DatabaseStateMachine implements StateMachine {
     public boolean dropAllTables() {
         Set<String> tableNames = state.getTableNames();
         state.removeAllTables();
+        tableSnapshots.clear();
 
         updatesExecutor.submit(new Runnable() {
             @Override
@@ -162,7 +173,10 @@ public class DatabaseStateMachine implements StateMachine {
                 results.add(new ReadResult(ReadStatus.NO_SUCH_TABLE, request.tableName(), request.key(), null));
                 continue;
             }
-            VersionedValue value = VersionedValue.copy(table.get(request.key()));
+            VersionedValue value;
+            synchronized (table) {
+                value = VersionedValue.copy(table.get(request.key()));
+            }
             results.add(new ReadResult(ReadStatus.OK, request.tableName(), request.key(), value));
         }
         return results;
@@ -210,6 +224,25 @@ public class DatabaseStateMachine implements StateMachine {
         return WriteStatus.ABORTED;
     }
 
+    /**
+     * Applies several independent write batches in one command. Each batch
+     * keeps its own all-or-nothing semantics; a failed batch does not affect
+     * the others.
+     *
+     * @param batchRequests write batches to apply in order
+     * @return results of each batch, in the same order
+     */
+    @Command
+    public List<List<WriteResult>> writeAll(List<BatchWriteRequest> batchRequests) {
+        List<List<WriteResult>> results = new ArrayList<>(batchRequests.size());
+        for (BatchWriteRequest batchRequest : batchRequests) {
+            List<WriteResult> batchResults = write(batchRequest);
+            // a successful write also appends the results of the apply phase
+            results.add(new ArrayList<>(batchResults.subList(0, batchRequest.batchSize())));
+        }
+        return results;
+    }
+
     @Command
     public List<WriteResult> write(BatchWriteRequest batchRequest) {
 
@@ -261,6 +294,7 @@ public class DatabaseStateMachine implements StateMachine {
                 case PUT_IF_VERSION:
                     VersionedValue newValue = new VersionedValue(request.newValue(), state.nextVersion());
                     VersionedValue previousValue = table.put(request.key(), newValue);
+                    tableModified(request.tableName(), request.key());
                     WriteResult putResult = new WriteResult(WriteStatus.OK, previousValue);
                     results.add(putResult);
                     tableModificationEvent = (previousValue == null) ?
@@ -275,6 +309,7 @@ public class DatabaseStateMachine implements StateMachine {
                     WriteResult removeResult = new WriteResult(WriteStatus.OK, removedValue);
                     results.add(removeResult);
                     if (removedValue != null) {
+                        tableModified(request.tableName(), request.key());
                         tableModificationEvent =
                                 TableModificationEvent.rowDeleted(request.tableName(), request.key(), removedValue);
                     }
@@ -308,19 +343,37 @@ public class DatabaseStateMachine implements StateMachine {
         return results;
     }
 
+    private void tableModified(String tableName, String key) {
+        TableSnapshot snapshot = tableSnapshots.get(tableName);
+        if (snapshot != null) {
+            snapshot.modified(key);
+        }
+    }
+
     public static class State {
 
-        private final Map<String, TableMetadata> tableMetadata = Maps.newHashMap();
-        private final Map<String, Map<String, VersionedValue>> tableData = Maps.newHashMap();
+        private final Map<String, TableMetadata> tableMetadata = Maps.newConcurrentMap();
+        private final Map<String, Map<String, VersionedValue>> tableData = Maps.newConcurrentMap();
         private long versionCounter = 1;
 
+        public State() {
+        }
+
+        State(long versionCounter) {
+            this.versionCounter = versionCounter;
+        }
+
         Map<String, VersionedValue> getTable(String tableName) {
             return tableData.get(tableName);
         }
 
         void createTable(TableMetadata metadata) {
+            createTable(metadata, Maps.newHashMap());
+        }
+
+        void createTable(TableMetadata metadata, Map<String, VersionedValue> table) {
             tableMetadata.put(metadata.tableName, metadata);
-            tableData.put(metadata.tableName, Maps.newHashMap());
+            tableData.put(metadata.tableName, table);
         }
 
         TableMetadata getTableMetadata(String tableName) {
@@ -331,6 +384,10 @@ public class DatabaseStateMachine implements StateMachine {
             return versionCounter++;
         }
 
+        long currentVersion() {
+            return versionCounter;
+        }
+
         Set<String> getTableNames() {
             return ImmutableSet.copyOf(tableMetadata.keySet());
         }
@@ -391,41 +448,91 @@ public class DatabaseStateMachine implements StateMachine {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Tables are written one after another, each split into independently
+     * encoded segments. Segments not modified since the previous snapshot
+     * are copied over as they are, and modified ones are encoded from the
+     * keys kept for them, so the time spent encoding is bound by the amount
+     * of data changed rather than by the size of the database. Only a table
+     * that grew or shrank a lot since it was last split is walked whole.
+     * </p>
+     */
     @Override
     public byte[] takeSnapshot() {
         try {
-            if (compressSnapshot) {
-                byte[] input = DB_SERIALIZER.encode(state);
-                ByteArrayOutputStream comp = new ByteArrayOutputStream(input.length);
-                DeflaterOutputStream compressor = new DeflaterOutputStream(comp);
-                compressor.write(input, 0, input.length);
-                compressor.close();
-                return comp.toByteArray();
-            } else {
-                return DB_SERIALIZER.encode(state);
+            Set<String> tableNames = state.getTableNames();
+            List<byte[]> metadata = new ArrayList<>(tableNames.size());
+            List<byte[][]> segments = new ArrayList<>(tableNames.size());
+            int size = Integer.BYTES + 1 + Long.BYTES + Integer.BYTES;
+
+            for (String tableName : tableNames) {
+                Map<String, VersionedValue> table = state.getTable(tableName);
+                TableSnapshot snapshot = tableSnapshots.computeIfAbsent(tableName,
+                        name -> new TableSnapshot(compressSnapshot));
+                byte[][] tableSegments;
+                synchronized (table) {
+                    tableSegments = snapshot.segments(table);
+                }
+                byte[] tableMetadata = DB_SERIALIZER.encode(state.getTableMetadata(tableName));
+                metadata.add(tableMetadata);
+                segments.add(tableSegments);
+
+                size += Integer.BYTES + tableMetadata.length + Integer.BYTES;
+                for (byte[] segment : tableSegments) {
+                    size += Integer.BYTES + segment.length;
+                }
             }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(size);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeBoolean(compressSnapshot);
+            out.writeLong(state.currentVersion());
+            out.writeInt(metadata.size());
+            for (int i = 0; i < metadata.size(); i++) {
+                writeChunk(out, metadata.get(i));
+                out.writeInt(segments.get(i).length);
+                for (byte[] segment : segments.get(i)) {
+                    writeChunk(out, segment);
+                }
+            }
+            out.flush();
+            return bytes.toByteArray();
         } catch (Exception e) {
             log.error("Failed to take snapshot", e);
             throw new SnapshotException(e);
         }
     }
 
+    private static void writeChunk(DataOutputStream out, byte[] chunk) throws IOException {
+        out.writeInt(chunk.length);
+        out.write(chunk);
+    }
+
+    private static byte[] readChunk(DataInputStream in) throws IOException {
+        byte[] chunk = new byte[in.readInt()];
+        in.readFully(chunk);
+        return chunk;
+    }
+
     @Override
     public void installSnapshot(byte[] data) {
         try {
-            if (compressSnapshot) {
-                ByteArrayInputStream in = new ByteArrayInputStream(data);
-                InflaterInputStream decompressor = new InflaterInputStream(in);
-                this.state = DB_SERIALIZER.decode(decompressor);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            if (data.length >= Integer.BYTES && in.readInt() == SNAPSHOT_MAGIC) {
+                installTables(in);
             } else {
-                this.state = DB_SERIALIZER.decode(data);
+                installLegacy(data);
             }
 
+            final State installed = this.state;
             updatesExecutor.submit(new Runnable() {
                 @Override
                 public void run() {
                     for (DatabaseUpdateEventListener listener : listeners) {
-                        listener.snapshotInstalled(state);
+                        listener.snapshotInstalled(installed);
                     }
                 }
             });
@@ -436,6 +543,51 @@ public class DatabaseStateMachine implements StateMachine {
         }
     }
 
+    private void installTables(DataInputStream in) throws IOException {
+        final boolean compressed = in.readBoolean();
+        State installed = new State(in.readLong());
+        Map<String, TableSnapshot> snapshots = Maps.newHashMap();
+
+        int tableCount = in.readInt();
+        for (int i = 0; i < tableCount; i++) {
+            TableMetadata metadata = DB_SERIALIZER.decode(readChunk(in));
+            byte[][] segments = new byte[in.readInt()][];
+            Map<String, VersionedValue> table = Maps.newHashMap();
+            for (int j = 0; j < segments.length; j++) {
+                segments[j] = readChunk(in);
+                TableSnapshot.decode(compressed, segments[j], table);
+            }
+            installed.createTable(metadata, table);
+            // the segments read can be written out again as they are
+            if (compressed == compressSnapshot) {
+                snapshots.put(metadata.tableName(), new TableSnapshot(compressed, segments, table));
+            }
+        }
+
+        this.state = installed;
+        tableSnapshots.clear();
+        tableSnapshots.putAll(snapshots);
+    }
+
+    // snapshots taken before tables were written one by one
+    private void installLegacy(byte[] data) {
+        State decoded;
+        if (compressSnapshot) {
+            ByteArrayInputStream in = new ByteArrayInputStream(data);
+            InflaterInputStream decompressor = new InflaterInputStream(in);
+            decoded = DB_SERIALIZER.decode(decompressor);
+        } else {
+            decoded = DB_SERIALIZER.decode(data);
+        }
+        // the table maps decoded are not safe for concurrent reads
+        State installed = new State(decoded.currentVersion());
+        for (String tableName : decoded.getTableNames()) {
+            installed.createTable(decoded.getTableMetadata(tableName), decoded.getTable(tableName));
+        }
+        this.state = installed;
+        tableSnapshots.clear();
+    }
+
     /**
      * Adds specified DatabaseUpdateEventListener.
      * @param listener listener to add
@@ -32,11 +32,21 @@ import org.onosproject.cluster.ClusterService;
 import org.onosproject.store.service.DatabaseException;
 import org.onosproject.store.service.DatabaseService;
 import org.onosproject.store.service.Lock;
+import org.onosproject.store.service.ReadConsistency;
 import org.onosproject.store.service.VersionedValue;
 import org.slf4j.Logger;
 
 /**
  * A distributed lock implementation.
+ * <p>
+ * The lock row holds the lock id along with the lease duration it was
+ * acquired or extended with. Every write of the row gives it a new version,
+ * so a contender takes over a row whose version has not changed for a whole
+ * lease, as timed on its own clock from when it first saw that version. The
+ * holder times its lease from before its write, so it gives the lock up
+ * before any contender can take it over; clocks of different nodes are
+ * never compared.
+ * </p>
  */
 public class DistributedLock implements Lock {
 
@@ -48,7 +58,13 @@ public class DistributedLock implements Lock {
     private DateTime lockExpirationTime;
     private AtomicBoolean isLocked = new AtomicBoolean(false);
     private volatile long epoch = 0;
-    private byte[] lockId;
+    private String lockId;
+    // lock row value written by this lock; lock id and lease duration
+    private volatile byte[] lockValue;
+    // version and lease of the holder's row, and when it was first seen
+    private long observedVersion = 0;
+    private long observedLeaseMillis = 0;
+    private long observedAtNanos = 0;
 
     public DistributedLock(
             String path,
@@ -60,9 +76,8 @@ public class DistributedLock implements Lock {
         this.databaseService = databaseService;
         this.lockManager = lockManager;
         this.lockId =
-                (UUID.randomUUID().toString() + "::" +
-                        clusterService.getLocalNode().id().toString()).
-                        getBytes(StandardCharsets.UTF_8);
+                UUID.randomUUID().toString() + "::" +
+                        clusterService.getLocalNode().id().toString();
     }
 
     @Override
@@ -95,21 +110,86 @@ public class DistributedLock implements Lock {
 
     @Override
     public boolean tryLock(int leaseDurationMillis) {
+        DateTime expiration = DateTime.now().plusMillis(leaseDurationMillis);
+        byte[] value = lockValue(leaseDurationMillis);
         if (databaseService.putIfAbsent(
                 DistributedLockManager.ONOS_LOCK_TABLE_NAME,
                 path,
-                lockId)) {
+                value) || takeOverExpired(value)) {
             VersionedValue vv =
                     databaseService.get(DistributedLockManager.ONOS_LOCK_TABLE_NAME, path);
-            verify(Arrays.equals(vv.value(), lockId));
+            verify(Arrays.equals(vv.value(), value));
             epoch = vv.version();
+            lockValue = value;
+            lockExpirationTime = expiration;
             isLocked.set(true);
-            lockExpirationTime = DateTime.now().plusMillis(leaseDurationMillis);
             return true;
         }
         return false;
     }
 
+    // Replaces the lock row if it has kept the same version for the whole
+    // lease of its holder. The row is read locally; a stale copy only makes
+    // the conditional write fail.
+    private synchronized boolean takeOverExpired(byte[] value) {
+        VersionedValue vv =
+                databaseService.get(DistributedLockManager.ONOS_LOCK_TABLE_NAME, path,
+                                    ReadConsistency.SEQUENTIAL);
+        if (vv == null) {
+            observedVersion = 0;
+            observedLeaseMillis = 0;
+            return false;
+        }
+        if (vv.version() != observedVersion) {
+            observedVersion = vv.version();
+            observedLeaseMillis = leaseDuration(vv.value());
+            observedAtNanos = System.nanoTime();
+            return false;
+        }
+        if (holderLeaseRemaining() > 0) {
+            return false;
+        }
+        log.debug("Lease on {} expired, taking over the lock", path);
+        return databaseService.putIfVersionMatches(
+                DistributedLockManager.ONOS_LOCK_TABLE_NAME,
+                path,
+                value,
+                observedVersion);
+    }
+
+    /**
+     * Returns how long the lease of the current holder has yet to run, as
+     * seen by failed attempts to acquire this lock.
+     *
+     * @return remaining lease in milliseconds; zero without a known holder
+     */
+    synchronized long holderLeaseRemaining() {
+        if (observedVersion == 0) {
+            return 0;
+        }
+        if (observedLeaseMillis == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - observedAtNanos);
+        return Math.max(0, observedLeaseMillis - elapsed);
+    }
+
+    private byte[] lockValue(int leaseDurationMillis) {
+        return (lockId + "@" + leaseDurationMillis).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Lease duration recorded in a lock row; rows without one never expire
+    // on their own and are left for the lock table to expire.
+    private static long leaseDuration(byte[] value) {
+        String s = new String(value, StandardCharsets.UTF_8);
+        int index = s.lastIndexOf('@');
+        try {
+            return index < 0 ? Long.MAX_VALUE : Long.parseLong(s.substring(index + 1));
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
     @Override
     public boolean tryLock(
             int waitTimeMillis,
@@ -159,7 +239,7 @@ public class DistributedLock implements Lock {
         if (!isLocked()) {
             return;
         } else {
-            if (databaseService.removeIfValueMatches(DistributedLockManager.ONOS_LOCK_TABLE_NAME, path, lockId)) {
+            if (databaseService.removeIfValueMatches(DistributedLockManager.ONOS_LOCK_TABLE_NAME, path, lockValue)) {
                 isLocked.set(false);
             }
         }
@@ -173,12 +253,15 @@ public class DistributedLock implements Lock {
             return false;
         }
 
+        DateTime expiration = DateTime.now().plusMillis(leaseDurationMillis);
+        byte[] value = lockValue(leaseDurationMillis);
         if (databaseService.putIfValueMatches(
                 DistributedLockManager.ONOS_LOCK_TABLE_NAME,
                 path,
-                lockId,
-                lockId)) {
-            lockExpirationTime = DateTime.now().plusMillis(leaseDurationMillis);
+                lockValue,
+                value)) {
+            lockValue = value;
+            lockExpirationTime = expiration;
             log.debug("Succeeded in extending lock {} expiration time to {}", lockExpirationTime);
             return true;
         } else {
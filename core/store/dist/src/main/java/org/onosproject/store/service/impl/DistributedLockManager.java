@@ -22,8 +22,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
@@ -52,8 +54,8 @@ import com.google.common.collect.Multimaps;
 @Service
 public class DistributedLockManager implements LockService {
 
-    private static final ExecutorService THREAD_POOL =
-            Executors.newCachedThreadPool(namedThreads("lock-manager-%d"));
+    private static final ScheduledExecutorService THREAD_POOL =
+            Executors.newScheduledThreadPool(4, namedThreads("lock-manager-%d"));
 
     private final Logger log = getLogger(getClass());
 
@@ -64,6 +66,9 @@ public class DistributedLockManager implements LockService {
     private final ListMultimap<String, LockRequest> locksToAcquire =
                 Multimaps.synchronizedListMultimap(LinkedListMultimap.<String, LockRequest>create());
 
+    // paths with a retry scheduled for when the lease of their holder expires
+    private final Set<String> retriesScheduled = ConcurrentHashMap.newKeySet();
+
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
     private ClusterCommunicationService clusterCommunicator;
 
@@ -127,7 +132,7 @@ public class DistributedLockManager implements LockService {
      * @return Future that can be blocked on until lock becomes available.
      */
     protected CompletableFuture<Void> lockIfAvailable(
-            Lock lock,
+            DistributedLock lock,
             int waitTimeMillis,
             int leaseDurationMillis) {
         CompletableFuture<Void> future = new CompletableFuture<>();
@@ -137,6 +142,7 @@ public class DistributedLockManager implements LockService {
                 DateTime.now().plusMillis(waitTimeMillis),
                 future);
         locksToAcquire.put(lock.path(), request);
+        scheduleRetry(lock.path(), lock.holderLeaseRemaining());
         return future;
     }
 
@@ -147,7 +153,7 @@ public class DistributedLockManager implements LockService {
      * @return Future lease expiration date.
      */
     protected CompletableFuture<Void> lockIfAvailable(
-            Lock lock,
+            DistributedLock lock,
             int leaseDurationMillis) {
         CompletableFuture<Void> future = new CompletableFuture<>();
         LockRequest request = new LockRequest(
@@ -156,9 +162,24 @@ public class DistributedLockManager implements LockService {
                 DateTime.now().plusYears(100),
                 future);
         locksToAcquire.put(lock.path(), request);
+        scheduleRetry(lock.path(), lock.holderLeaseRemaining());
         return future;
     }
 
+    // Retries the outstanding requests for the path once the lease of the
+    // current holder expires, unless a retry is already scheduled. The delay
+    // is capped so a holder with an unknown lease is still polled.
+    private void scheduleRetry(String path, long holderLeaseRemaining) {
+        if (!retriesScheduled.add(path)) {
+            return;
+        }
+        long delay = Math.min(DEAD_LOCK_TIMEOUT_MS, holderLeaseRemaining) + 1;
+        THREAD_POOL.schedule(() -> {
+            retriesScheduled.remove(path);
+            new RetryLockTask(path).run();
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
     private class LockEventMessageListener implements ClusterMessageHandler {
         @Override
         public void handle(ClusterMessage message) {
@@ -194,6 +215,7 @@ public class DistributedLockManager implements LockService {
                     path, existingRequests.size());
 
             synchronized (existingRequests) {
+                long holderLeaseRemaining = Long.MAX_VALUE;
                 Iterator<LockRequest> existingRequestIterator = existingRequests.iterator();
                 while (existingRequestIterator.hasNext()) {
                     LockRequest request = existingRequestIterator.next();
@@ -204,22 +226,28 @@ public class DistributedLockManager implements LockService {
                         if (request.lock().tryLock(request.leaseDurationMillis())) {
                             request.future().complete(null);
                             existingRequestIterator.remove();
+                        } else {
+                            holderLeaseRemaining = Math.min(holderLeaseRemaining,
+                                                            request.lock().holderLeaseRemaining());
                         }
                     }
                 }
+                if (!existingRequests.isEmpty()) {
+                    scheduleRetry(path, holderLeaseRemaining);
+                }
             }
         }
     }
 
     private class LockRequest {
 
-        private final Lock lock;
+        private final DistributedLock lock;
         private final DateTime requestExpirationTime;
         private final int leaseDurationMillis;
         private final CompletableFuture<Void> future;
 
         public LockRequest(
-                Lock lock,
+                DistributedLock lock,
                 int leaseDurationMillis,
                 DateTime requestExpirationTime,
                 CompletableFuture<Void> future) {
@@ -230,7 +258,7 @@ public class DistributedLockManager implements LockService {
             this.future = future;
         }
 
-        public Lock lock() {
+        public DistributedLock lock() {
             return lock;
         }
 
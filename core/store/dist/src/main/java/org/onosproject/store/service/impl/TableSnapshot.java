@@ -0,0 +1,209 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.service.impl;
+
+import static org.onosproject.store.service.impl.ClusterMessagingProtocol.DB_SERIALIZER;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.onosproject.store.service.VersionedValue;
+
+/**
+ * Encoded form of a single table, split by key hash into segments which
+ * are encoded independently.
+ * <p>
+ * The keys of each segment are kept as writes are applied. Writes mark the
+ * segment of the key they touch as dirty; only dirty segments are encoded
+ * again when the next snapshot is taken, from their own keys, and the others
+ * are reused as they are. Only re-splitting a table that grew or shrank a
+ * lot walks the whole table. Not thread safe; used from the state machine.
+ * </p>
+ */
+final class TableSnapshot {
+
+    // number of entries aimed for in a single segment
+    static final int SEGMENT_ENTRIES = 1024;
+    static final int MAX_SEGMENTS = 1024;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final boolean compressed;
+    private byte[][] segments;
+    private BitSet dirty;
+    // keys of each segment; removed keys are dropped when it is encoded.
+    // null until the table is first split
+    private Set<String>[] keys;
+
+    /**
+     * Creates an empty table snapshot; everything is encoded on first use.
+     *
+     * @param compressed whether segments are deflated
+     */
+    TableSnapshot(boolean compressed) {
+        this.compressed = compressed;
+        this.segments = new byte[0][];
+        this.dirty = new BitSet();
+    }
+
+    /**
+     * Creates a table snapshot from segments read back from a snapshot.
+     *
+     * @param compressed whether segments are deflated
+     * @param segments   encoded segments, a power of two of them
+     * @param table      table content decoded from the segments
+     */
+    TableSnapshot(boolean compressed, byte[][] segments, Map<String, VersionedValue> table) {
+        this.compressed = compressed;
+        this.segments = segments;
+        this.dirty = new BitSet(segments.length);
+        this.keys = index(table.keySet(), segments.length);
+    }
+
+    /**
+     * Number of segments to split a table of given size into.
+     *
+     * @param size number of entries
+     * @return power of two number of segments
+     */
+    static int segmentsFor(int size) {
+        int wanted = Math.min(MAX_SEGMENTS, Math.max(1, size / SEGMENT_ENTRIES));
+        return Integer.highestOneBit(wanted);
+    }
+
+    private static int segmentOf(String key, int segmentCount) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (segmentCount - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String>[] index(Set<String> tableKeys, int segmentCount) {
+        Set<String>[] index = new Set[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            index[i] = new HashSet<>();
+        }
+        for (String key : tableKeys) {
+            index[segmentOf(key, segmentCount)].add(key);
+        }
+        return index;
+    }
+
+    // Splits the whole table again into the given number of segments.
+    private void split(Map<String, VersionedValue> table, int segmentCount) {
+        segments = new byte[segmentCount][];
+        dirty = new BitSet(segmentCount);
+        dirty.set(0, segmentCount);
+        keys = index(table.keySet(), segmentCount);
+    }
+
+    /**
+     * Marks the segment holding given key as modified.
+     *
+     * @param key added, updated or removed key
+     */
+    void modified(String key) {
+        if (keys == null) {
+            // not split yet; everything is encoded on first use
+            return;
+        }
+        int segment = segmentOf(key, keys.length);
+        keys[segment].add(key);
+        dirty.set(segment);
+    }
+
+    /**
+     * Returns the encoded segments, encoding again those modified since the
+     * last call. The table is re-split first if it grew or shrank a lot.
+     *
+     * @param table current table content
+     * @return encoded segments; must not be modified
+     */
+    byte[][] segments(Map<String, VersionedValue> table) {
+        int wanted = segmentsFor(table.size());
+        if (keys == null || wanted > segments.length || wanted < segments.length / 4) {
+            split(table, wanted);
+        }
+        for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+            Map<String, VersionedValue> part = new HashMap<>(keys[i].size());
+            Iterator<String> it = keys[i].iterator();
+            while (it.hasNext()) {
+                String key = it.next();
+                VersionedValue value = table.get(key);
+                if (value == null) {
+                    it.remove();
+                } else {
+                    part.put(key, value);
+                }
+            }
+            segments[i] = encode(part);
+        }
+        dirty.clear();
+        return segments;
+    }
+
+    private byte[] encode(Map<String, VersionedValue> part) {
+        if (part.isEmpty()) {
+            return EMPTY;
+        }
+        if (!compressed) {
+            return DB_SERIALIZER.encode(part);
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (OutputStream out = new DeflaterOutputStream(bytes)) {
+                DB_SERIALIZER.encode(part, out);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new SnapshotException(e);
+        }
+    }
+
+    /**
+     * Decodes the entries of an encoded segment into given table.
+     *
+     * @param compressed whether the segment is deflated
+     * @param segment    encoded segment
+     * @param table      table to add the entries to
+     */
+    static void decode(boolean compressed, byte[] segment, Map<String, VersionedValue> table) {
+        if (segment.length == 0) {
+            return;
+        }
+        Map<String, VersionedValue> part;
+        if (!compressed) {
+            part = DB_SERIALIZER.decode(segment);
+        } else {
+            try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(segment))) {
+                part = DB_SERIALIZER.decode(in);
+            } catch (IOException e) {
+                throw new SnapshotException(e);
+            }
+        }
+        table.putAll(part);
+    }
+}
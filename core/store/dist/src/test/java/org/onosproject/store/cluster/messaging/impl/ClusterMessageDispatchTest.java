@@ -0,0 +1,304 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.cluster.messaging.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.metrics.MetricsManager;
+import org.onlab.netty.Endpoint;
+import org.onlab.netty.Message;
+import org.onlab.netty.MessageHandler;
+import org.onlab.netty.MessagingService;
+import org.onlab.util.KryoNamespace;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.store.cluster.messaging.ClusterMessage;
+import org.onosproject.store.cluster.messaging.MessageSubject;
+import org.onosproject.store.serializers.KryoNamespaces;
+import org.onosproject.store.serializers.KryoSerializer;
+import org.onosproject.store.serializers.impl.ClusterMessageSerializer;
+import org.onosproject.store.serializers.impl.MessageSubjectSerializer;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricFilter;
+import com.codahale.metrics.Timer;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Tests of the delivery of inbound messages to cluster message subscribers.
+ */
+public class ClusterMessageDispatchTest {
+
+    private static final MessageSubject SUBJECT = new MessageSubject("test-subject");
+    private static final MessageSubject SLOW_SUBJECT = new MessageSubject("slow-subject");
+    private static final NodeId SENDER = new NodeId("sender");
+
+    private static final KryoSerializer SERIALIZER = new KryoSerializer() {
+        @Override
+        protected void setupKryoPool() {
+            serializerPool = KryoNamespace.newBuilder()
+                    .register(KryoNamespaces.API)
+                    .nextId(KryoNamespaces.BEGIN_USER_CUSTOM_ID)
+                    .register(new ClusterMessageSerializer(), ClusterMessage.class)
+                    .register(new MessageSubjectSerializer(), MessageSubject.class)
+                    .build();
+        }
+    };
+
+    private final TestMessagingService messagingService = new TestMessagingService();
+    private final MetricsManager metrics = new MetricsManager();
+    private ClusterCommunicationManager ccm;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        ccm = new ClusterCommunicationManager();
+        ccm.messagingService = messagingService;
+        ccm.metricsService = metrics;
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private void deliver(int i) throws IOException {
+        deliver(new TestMessage(i));
+    }
+
+    private void deliver(TestMessage message) throws IOException {
+        deliver(SUBJECT, message);
+    }
+
+    private void deliver(MessageSubject subject, TestMessage message) throws IOException {
+        MessageHandler handler = messagingService.handlers.get(subject.value());
+        assertNotNull("subscriber should be registered", handler);
+        handler.handle(message);
+    }
+
+    @Test
+    public void defaultSubscriberHandlesInOrderOnReceivingThread() throws IOException {
+        List<Integer> handled = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        ccm.addSubscriber(SUBJECT, message -> {
+            handled.add((int) message.payload()[0]);
+            threads.add(Thread.currentThread());
+        });
+
+        for (int i = 0; i < 10; i++) {
+            deliver(i);
+            assertEquals("message should be handled before returning", i + 1, handled.size());
+        }
+        assertEquals(asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), handled);
+        for (Thread thread : threads) {
+            assertSame("message should be handled on the receiving thread",
+                       Thread.currentThread(), thread);
+        }
+
+        Timer timer = metrics.getTimers(MetricFilter.ALL)
+                .get("ClusterCommunication." + SUBJECT.value() + ".handlingTime");
+        assertNotNull("handling time should be tracked", timer);
+        assertEquals(10, timer.getCount());
+        assertTrue("no queue for inline delivery", metrics.getCounters(MetricFilter.ALL).isEmpty());
+    }
+
+    @Test
+    public void executorSubscriberHandlesOnExecutor() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(10);
+        List<Integer> handled = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        ccm.addSubscriber(SUBJECT, message -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            handled.add((int) message.payload()[0]);
+            threads.add(Thread.currentThread());
+            done.countDown();
+        }, executor);
+
+        for (int i = 0; i < 10; i++) {
+            deliver(i);
+        }
+        assertTrue("receiving thread should not wait for the handler", handled.isEmpty());
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Counter queueDepth = metrics.getCounters(MetricFilter.ALL)
+                .get("ClusterCommunication." + SUBJECT.value() + ".queueDepth");
+        assertNotNull("queue depth should be tracked", queueDepth);
+        assertEquals("one message in the handler, the rest queued", 9, queueDepth.getCount());
+
+        release.countDown();
+        assertTrue("messages should be handled", done.await(5, TimeUnit.SECONDS));
+        assertEquals(asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), handled);
+        for (Thread thread : threads) {
+            assertNotSame("message should be handled on the executor",
+                          Thread.currentThread(), thread);
+        }
+        assertEquals("queue should be drained", 0, queueDepth.getCount());
+    }
+
+    @Test
+    public void slowSubscriberDoesNotBlockOtherSubjects() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ccm.addSubscriber(SLOW_SUBJECT, message -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, executor);
+        List<Integer> handled = new ArrayList<>();
+        ccm.addSubscriber(SUBJECT, message -> handled.add((int) message.payload()[0]));
+
+        try {
+            deliver(SLOW_SUBJECT, new TestMessage(0));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            deliver(SLOW_SUBJECT, new TestMessage(1));
+            for (int i = 0; i < 3; i++) {
+                deliver(i);
+            }
+            assertEquals("other subjects should be handled while the slow one is busy",
+                         asList(0, 1, 2), handled);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void failingHandlerKeepsExecutorGoing() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        ccm.addSubscriber(SUBJECT, message -> {
+            if (message.payload()[0] == 0) {
+                throw new IllegalStateException("failing on purpose");
+            }
+            done.countDown();
+        }, executor);
+
+        deliver(0);
+        deliver(1);
+        assertTrue("later message should still be handled", done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void rejectedMessageIsDropped() throws IOException {
+        executor.shutdown();
+        ccm.addSubscriber(SUBJECT, message -> {
+            throw new AssertionError("message should not be handled");
+        }, executor);
+
+        deliver(0);
+        Counter queueDepth = metrics.getCounters(MetricFilter.ALL)
+                .get("ClusterCommunication." + SUBJECT.value() + ".queueDepth");
+        assertEquals("dropped message should not be counted as queued", 0, queueDepth.getCount());
+    }
+
+    @Test
+    public void responseGoesToRawMessage() throws Exception {
+        ccm.addSubscriber(SUBJECT, message -> {
+            try {
+                message.respond(new byte[] {42});
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }, executor);
+
+        TestMessage message = new TestMessage(0);
+        deliver(message);
+        assertTrue("response should be sent", message.responded.await(5, TimeUnit.SECONDS));
+        assertArrayEquals(new byte[] {42}, message.response);
+    }
+
+    private static List<Integer> asList(Integer... values) {
+        List<Integer> list = new ArrayList<>();
+        Collections.addAll(list, values);
+        return list;
+    }
+
+    // Raw message carrying an encoded cluster message with a one byte payload.
+    private static final class TestMessage implements Message {
+
+        private final byte[] payload;
+        private final CountDownLatch responded = new CountDownLatch(1);
+        private volatile byte[] response;
+
+        private TestMessage(int i) {
+            payload = SERIALIZER.encode(new ClusterMessage(SENDER, SUBJECT, new byte[] {(byte) i}));
+        }
+
+        @Override
+        public byte[] payload() {
+            return payload;
+        }
+
+        @Override
+        public void respond(byte[] data) throws IOException {
+            response = data;
+            responded.countDown();
+        }
+    }
+
+    // Messaging service keeping hold of the registered handlers.
+    private static final class TestMessagingService implements MessagingService {
+
+        private final Map<String, MessageHandler> handlers = new HashMap<>();
+
+        @Override
+        public void sendAsync(Endpoint ep, String type, byte[] payload) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ListenableFuture<byte[]> sendAndReceive(Endpoint ep, String type,
+                                                       byte[] payload) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void registerHandler(String type, MessageHandler handler) {
+            handlers.put(type, handler);
+        }
+
+        @Override
+        public void unregisterHandler(String type) {
+            handlers.remove(type);
+        }
+    }
+}
@@ -25,6 +25,7 @@ import static org.onosproject.net.DefaultAnnotations.union;
 import static java.util.Arrays.asList;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -32,6 +33,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.easymock.Capture;
@@ -672,6 +676,17 @@ public class GossipDeviceStoreTest {
         replay(clusterCommunicator);
     }
 
+    private void resetCommunicatorExpectingAnyBroadcast() {
+        reset(clusterCommunicator);
+        try {
+            expect(clusterCommunicator.broadcast(anyObject(ClusterMessage.class)))
+                .andReturn(true).anyTimes();
+        } catch (IOException e) {
+            fail("Should never reach here");
+        }
+        replay(clusterCommunicator);
+    }
+
     @Test
     public final void testGetPorts() {
         putDevice(DID1, SW1);
@@ -759,6 +774,87 @@ public class GossipDeviceStoreTest {
         assertAnnotationsEquals(deviceStore.getPort(DID1, P1).annotations());
     }
 
+    @Test
+    public final void testConcurrentPortUpdatesSameDevice() throws Exception {
+        putDevice(DID1, SW1);
+        resetCommunicatorExpectingAnyBroadcast();
+
+        final int threads = 8;
+        final int portsPerThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int base = t * portsPerThread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 1; i <= portsPerThread; i++) {
+                        PortNumber number = PortNumber.portNumber(base + i);
+                        deviceStore.updatePortStatus(PID, DID1,
+                                new DefaultPortDescription(number, true));
+                        deviceStore.updatePortStatus(PID, DID1,
+                                new DefaultPortDescription(number, false));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Port> ports = deviceStore.getPorts(DID1);
+        assertEquals("no port update should be lost", threads * portsPerThread, ports.size());
+        for (Port port : ports) {
+            assertFalse("latest status should win", port.isEnabled());
+        }
+    }
+
+    @Test
+    public final void testConcurrentUpdatesDifferentDevices() throws Exception {
+        final int devices = 8;
+        final int rounds = 50;
+        List<DeviceId> ids = new ArrayList<>();
+        for (int d = 0; d < devices; d++) {
+            DeviceId id = deviceId("of:concurrent" + d);
+            deviceClockManager.setMastershipTerm(id, MastershipTerm.of(NID1, 1));
+            ids.add(id);
+        }
+        resetCommunicatorExpectingAnyBroadcast();
+
+        ExecutorService executor = Executors.newFixedThreadPool(devices);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (DeviceId id : ids) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 1; i <= rounds; i++) {
+                        deviceStore.createOrUpdateDevice(PID, id,
+                                new DefaultDeviceDescription(id.uri(), SWITCH, MFR,
+                                                             HW, "v" + i, SN, CID));
+                        deviceStore.updatePorts(PID, id, asList(
+                                new DefaultPortDescription(P1, i % 2 == 0),
+                                new DefaultPortDescription(PortNumber.portNumber(i + 1), true)));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals("all devices should be present", devices, deviceStore.getDeviceCount());
+        for (DeviceId id : ids) {
+            assertDevice(id, "v" + rounds, deviceStore.getDevice(id));
+            assertTrue(deviceStore.isAvailable(id));
+            List<Port> ports = deviceStore.getPorts(id);
+            assertEquals("stale ports should be removed", 2, ports.size());
+            assertTrue(deviceStore.getPort(id, P1).isEnabled());
+            assertTrue(deviceStore.getPort(id, PortNumber.portNumber(rounds + 1)).isEnabled());
+        }
+    }
+
     // If Delegates should be called only on remote events,
     // then Simple* should never call them, thus not test required.
     // TODO add test for Port events when we have them
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.flow.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.MacAddress;
+import org.onosproject.cluster.ClusterServiceAdapter;
+import org.onosproject.cluster.ControllerNode;
+import org.onosproject.cluster.DefaultControllerNode;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.device.DeviceServiceAdapter;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.StoredFlowEntry;
+import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
+import org.onosproject.store.cluster.messaging.ClusterMessage;
+import org.onosproject.store.cluster.messaging.ClusterMessageHandler;
+import org.onosproject.store.cluster.messaging.MessageSubject;
+import org.onosproject.store.flow.ReplicaInfo;
+import org.onosproject.store.flow.ReplicaInfoEventListener;
+import org.onosproject.store.flow.ReplicaInfoService;
+import org.onosproject.store.hz.SMap;
+import org.onosproject.store.hz.StoreService;
+import org.onosproject.store.hz.TestStoreManager;
+import org.slf4j.Logger;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.hazelcast.core.Hazelcast;
+
+/**
+ * Test of the flow table takeover of the distributed flow rule store.
+ * <p>
+ * The size of the takeover can be scaled up to measure failover time, e.g.
+ * {@code -Dtakeover.devices=500 -Dtakeover.flows=10000}.
+ * </p>
+ */
+public class DistributedFlowRuleStoreTest {
+
+    private static final Logger log = getLogger(DistributedFlowRuleStoreTest.class);
+
+    private static final int DEVICES = Integer.getInteger("takeover.devices", 20);
+    private static final int FLOWS = Integer.getInteger("takeover.flows", 500);
+
+    private static final NodeId LOCAL = new NodeId("local");
+    private static final NodeId REMOTE = new NodeId("remote");
+
+    // enough flows for the takeover to load them in several chunks
+    private static final int CHUNKED_FLOWS = 2500;
+
+    private TestStoreManager storeMgr;
+    private DistributedFlowRuleStore store;
+    private TestReplicaInfoService replicaInfo;
+
+    @Before
+    public void setUp() {
+        storeMgr = new TestStoreManager(
+                Hazelcast.newHazelcastInstance(TestStoreManager.getTestConfig()));
+        storeMgr.activate();
+
+        store = new TestDistributedFlowRuleStore(storeMgr);
+        store.clusterService = new TestClusterService();
+        store.clusterCommunicator = new TestClusterCommunicationService();
+        replicaInfo = new TestReplicaInfoService();
+        store.replicaInfoManager = replicaInfo;
+        store.deviceService = new DeviceServiceAdapter();
+        store.activate();
+    }
+
+    @After
+    public void tearDown() {
+        store.deactivate();
+        storeMgr.deactivate();
+    }
+
+    @Test
+    public void takeoverLoadsBackups() throws Exception {
+        List<DeviceId> devices = new ArrayList<>(DEVICES);
+        for (int d = 0; d < DEVICES; d++) {
+            DeviceId did = DeviceId.deviceId("of:" + d);
+            devices.add(did);
+            backup(did, FLOWS);
+        }
+
+        Stopwatch watch = Stopwatch.createStarted();
+        List<Future<?>> takeovers = new ArrayList<>(DEVICES);
+        for (DeviceId did : devices) {
+            takeovers.add(store.loadFromBackup(did));
+        }
+        for (Future<?> takeover : takeovers) {
+            takeover.get(5, TimeUnit.MINUTES);
+        }
+        log.info("Took over {} devices with {} flows each in {}", DEVICES, FLOWS, watch);
+
+        for (DeviceId did : devices) {
+            Set<FlowEntry> expected = new HashSet<>(FLOWS);
+            for (int i = 0; i < FLOWS; i++) {
+                expected.add(new DefaultFlowEntry(rule(did, i)));
+            }
+            assertEquals("Incorrect number of flows loaded for " + did,
+                         FLOWS, Iterables.size(store.getFlowEntries(did)));
+            assertEquals("Incorrect flows loaded for " + did,
+                         expected, ImmutableSet.copyOf(store.getFlowEntries(did)));
+        }
+    }
+
+    @Test
+    public void removalDuringTakeoverIsKept() throws Exception {
+        DeviceId did = DeviceId.deviceId("of:1");
+        backup(did, CHUNKED_FLOWS);
+        FlowEntry removed = new DefaultFlowEntry(rule(did, CHUNKED_FLOWS - 1));
+
+        // remove a flow once the load is under way, before it is loaded
+        AtomicInteger lookups = new AtomicInteger();
+        replicaInfo.onLookup = () -> {
+            if (lookups.getAndIncrement() == 0) {
+                store.removeFlowRule(removed);
+            }
+        };
+        store.loadFromBackup(did).get(1, TimeUnit.MINUTES);
+
+        assertEquals("Incorrect number of flows loaded",
+                     CHUNKED_FLOWS - 1, Iterables.size(store.getFlowEntries(did)));
+        assertFalse("Removed flow should not be loaded",
+                    Iterables.contains(store.getFlowEntries(did), removed));
+    }
+
+    @Test
+    public void takeoverStopsOnMastershipLoss() throws Exception {
+        DeviceId did = DeviceId.deviceId("of:1");
+        backup(did, CHUNKED_FLOWS);
+
+        // another node becomes master once the first chunk is loaded
+        AtomicInteger lookups = new AtomicInteger();
+        replicaInfo.onLookup = () -> {
+            if (lookups.getAndIncrement() == 1) {
+                replicaInfo.master = REMOTE;
+            }
+        };
+        store.loadFromBackup(did).get(1, TimeUnit.MINUTES);
+
+        // look at what was loaded locally
+        replicaInfo.master = LOCAL;
+        int loaded = Iterables.size(store.getFlowEntries(did));
+        assertTrue("Load should stop after mastership is lost, but loaded " + loaded,
+                   loaded < CHUNKED_FLOWS);
+    }
+
+    private DefaultFlowRule rule(DeviceId did, int i) {
+        return new DefaultFlowRule(
+                did,
+                DefaultTrafficSelector.builder().matchEthDst(MacAddress.valueOf(i)).build(),
+                DefaultTrafficTreatment.builder().build(),
+                10, i, 0, true);
+    }
+
+    // writes the given number of distinct flows of a device to its backup
+    private void backup(DeviceId did, int flows) {
+        SMap<FlowId, ImmutableList<StoredFlowEntry>> backup =
+                new SMap<>(storeMgr.getHazelcastInstance().getMap("flowtable_" + did),
+                           DistributedFlowRuleStore.SERIALIZER);
+        Map<FlowId, ImmutableList<StoredFlowEntry>> table = new HashMap<>(flows);
+        for (int i = 0; i < flows; i++) {
+            DefaultFlowRule rule = rule(did, i);
+            table.put(rule.id(), ImmutableList.of(new DefaultFlowEntry(rule)));
+        }
+        backup.putAll(table);
+    }
+
+    private static class TestDistributedFlowRuleStore extends DistributedFlowRuleStore {
+        TestDistributedFlowRuleStore(StoreService storeService) {
+            this.storeService = storeService;
+        }
+    }
+
+    private static class TestClusterService extends ClusterServiceAdapter {
+        private final ControllerNode local =
+                new DefaultControllerNode(LOCAL, IpAddress.valueOf("127.0.0.1"));
+
+        @Override
+        public ControllerNode getLocalNode() {
+            return local;
+        }
+    }
+
+    private static class TestReplicaInfoService implements ReplicaInfoService {
+        private volatile NodeId master = LOCAL;
+        private volatile Runnable onLookup;
+
+        @Override
+        public ReplicaInfo getReplicaInfoFor(DeviceId deviceId) {
+            if (onLookup != null) {
+                onLookup.run();
+            }
+            return new ReplicaInfo(master, Collections.<NodeId>emptyList());
+        }
+
+        @Override
+        public void addListener(ReplicaInfoEventListener listener) {
+        }
+
+        @Override
+        public void removeListener(ReplicaInfoEventListener listener) {
+        }
+    }
+
+    private static class TestClusterCommunicationService
+            implements ClusterCommunicationService {
+        @Override
+        public boolean broadcast(ClusterMessage message) throws IOException {
+            return false;
+        }
+
+        @Override
+        public boolean broadcastIncludeSelf(ClusterMessage message) throws IOException {
+            return false;
+        }
+
+        @Override
+        public boolean unicast(ClusterMessage message, NodeId toNodeId) throws IOException {
+            return false;
+        }
+
+        @Override
+        public boolean multicast(ClusterMessage message, Set<NodeId> nodeIds) throws IOException {
+            return false;
+        }
+
+        @Override
+        public ListenableFuture<byte[]> sendAndReceive(ClusterMessage message,
+                                                      NodeId toNodeId) throws IOException {
+            throw new IOException("Not connected");
+        }
+
+        @Override
+        public void addSubscriber(MessageSubject subject, ClusterMessageHandler subscriber) {
+        }
+
+        @Override
+        public void addSubscriber(MessageSubject subject, ClusterMessageHandler subscriber,
+                                  ExecutorService executor) {
+        }
+
+        @Override
+        public void removeSubscriber(MessageSubject subject) {
+        }
+    }
+}
@@ -528,6 +528,13 @@ public class GossipLinkStoreTest {
         LinkEvent event2 = linkStore.removeLink(d1P1, d2P2);
         assertNull(event2);
 
+        assertTrue("removed link should leave egress index",
+                   linkStore.getEgressLinks(d1P1).isEmpty());
+        assertTrue("removed link should leave ingress index",
+                   linkStore.getIngressLinks(d2P2).isEmpty());
+        assertEquals(1, linkStore.getDeviceEgressLinks(DID2).size());
+        assertTrue(linkStore.getDeviceEgressLinks(DID1).isEmpty());
+
         assertLink(linkId2, DIRECT, linkStore.getLink(d2P2, d1P1));
         assertAnnotationsEquals(linkStore.getLink(d2P2, d1P1).annotations(), A2);
 
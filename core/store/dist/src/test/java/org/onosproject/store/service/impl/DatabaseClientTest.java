@@ -0,0 +1,284 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import net.kuujo.copycat.cluster.TcpMember;
+import net.kuujo.copycat.event.LeaderElectEvent;
+import net.kuujo.copycat.protocol.PingRequest;
+import net.kuujo.copycat.protocol.PingResponse;
+import net.kuujo.copycat.protocol.PollRequest;
+import net.kuujo.copycat.protocol.PollResponse;
+import net.kuujo.copycat.protocol.SubmitRequest;
+import net.kuujo.copycat.protocol.SubmitResponse;
+import net.kuujo.copycat.protocol.SyncRequest;
+import net.kuujo.copycat.protocol.SyncResponse;
+import net.kuujo.copycat.spi.protocol.Protocol;
+import net.kuujo.copycat.spi.protocol.ProtocolClient;
+import net.kuujo.copycat.spi.protocol.ProtocolServer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.store.cluster.messaging.ClusterMessage;
+import org.onosproject.store.cluster.messaging.MessageSubject;
+import org.onosproject.store.service.BatchWriteRequest;
+import org.onosproject.store.service.DatabaseException;
+import org.onosproject.store.service.WriteResult;
+import org.onosproject.store.service.WriteStatus;
+
+/**
+ * Test of the asynchronous write pipeline of the database client.
+ */
+public class DatabaseClientTest {
+
+    private static final String TABLE = "test-table";
+
+    private final TestProtocolClient protocolClient = new TestProtocolClient();
+    private DatabaseClient client;
+
+    @Before
+    public void setUp() {
+        client = new DatabaseClient(new TestProtocol());
+        LeaderElectEvent event = new LeaderElectEvent(1, new TcpMember("127.0.0.1", 1234));
+        client.handle(new ClusterMessage(new NodeId("leader"), new MessageSubject("leader"),
+                                         ClusterMessagingProtocol.DB_SERIALIZER.encode(event)));
+    }
+
+    private BatchWriteRequest write(String key) {
+        return BatchWriteRequest.newBuilder().put(TABLE, key, new byte[] {1}).build();
+    }
+
+    private List<WriteResult> result(WriteStatus status) {
+        return Collections.singletonList(new WriteResult(status, null));
+    }
+
+    // Answers a writeAll command with one result per carried batch.
+    private void answer(Submitted submitted, WriteStatus status) {
+        List<List<WriteResult>> results = new ArrayList<>();
+        for (int i = 0; i < submitted.batches().size(); i++) {
+            results.add(result(status));
+        }
+        submitted.future.complete(new SubmitResponse(submitted.request.id(), results));
+    }
+
+    @Test
+    public void writesArePipelined() throws Exception {
+        List<CompletableFuture<List<WriteResult>>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(client.batchWriteAsync(write("a" + i)));
+        }
+        List<Submitted> inFlight = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Submitted submitted = protocolClient.next();
+            assertEquals("writeAll", submitted.request.operation());
+            assertEquals("each batch should be sent right away", 1, submitted.batches().size());
+            inFlight.add(submitted);
+        }
+        assertTrue("pipeline should be full", protocolClient.submitted.isEmpty());
+        for (CompletableFuture<List<WriteResult>> future : futures) {
+            assertFalse(future.isDone());
+        }
+
+        for (int i = 0; i < inFlight.size(); i++) {
+            answer(inFlight.get(i), WriteStatus.OK);
+            assertEquals("batch should complete with its results",
+                         WriteStatus.OK, futures.get(i).get(1, TimeUnit.SECONDS).get(0).status());
+        }
+    }
+
+    @Test
+    public void queuedWritesAreCoalesced() throws Exception {
+        List<Submitted> inFlight = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            client.batchWriteAsync(write("a" + i));
+            inFlight.add(protocolClient.next());
+        }
+
+        BatchWriteRequest b1 = write("b1");
+        BatchWriteRequest b2 = write("b2");
+        BatchWriteRequest b3 = write("b3");
+        CompletableFuture<List<WriteResult>> f1 = client.batchWriteAsync(b1);
+        CompletableFuture<List<WriteResult>> f2 = client.batchWriteAsync(b2);
+        CompletableFuture<List<WriteResult>> f3 = client.batchWriteAsync(b3);
+        assertTrue("queued batches should wait for room", protocolClient.submitted.isEmpty());
+
+        answer(inFlight.get(0), WriteStatus.OK);
+        Submitted coalesced = protocolClient.next();
+        assertEquals("queued batches should be sent in one command, in order",
+                     asList(b1, b2, b3), coalesced.batches());
+        assertTrue(protocolClient.submitted.isEmpty());
+
+        List<List<WriteResult>> results = new ArrayList<>();
+        results.add(result(WriteStatus.OK));
+        results.add(result(WriteStatus.PRECONDITION_VIOLATION));
+        results.add(result(WriteStatus.OK));
+        coalesced.future.complete(new SubmitResponse(coalesced.request.id(), results));
+
+        assertEquals(WriteStatus.OK, f1.get(1, TimeUnit.SECONDS).get(0).status());
+        assertEquals("results should go to the batch they belong to",
+                     WriteStatus.PRECONDITION_VIOLATION, f2.get(1, TimeUnit.SECONDS).get(0).status());
+        assertEquals(WriteStatus.OK, f3.get(1, TimeUnit.SECONDS).get(0).status());
+    }
+
+    @Test
+    public void failureFailsCarriedBatches() throws Exception {
+        List<Submitted> inFlight = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            client.batchWriteAsync(write("a" + i));
+            inFlight.add(protocolClient.next());
+        }
+        CompletableFuture<List<WriteResult>> f1 = client.batchWriteAsync(write("b1"));
+        CompletableFuture<List<WriteResult>> f2 = client.batchWriteAsync(write("b2"));
+
+        answer(inFlight.get(0), WriteStatus.OK);
+        Submitted coalesced = protocolClient.next();
+        coalesced.future.complete(new SubmitResponse(coalesced.request.id(), "failed"));
+
+        assertFailed(f1);
+        assertFailed(f2);
+
+        // the failed command should have released its slot in the pipeline
+        CompletableFuture<List<WriteResult>> f3 = client.batchWriteAsync(write("c"));
+        Submitted next = protocolClient.next();
+        answer(next, WriteStatus.OK);
+        assertEquals(WriteStatus.OK, f3.get(1, TimeUnit.SECONDS).get(0).status());
+    }
+
+    @Test
+    public void unansweredWriteTimesOut() throws Exception {
+        CompletableFuture<List<WriteResult>> future = client.batchWriteAsync(write("a"));
+        protocolClient.next();
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("write should have timed out");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof DatabaseException.Timeout);
+        }
+    }
+
+    @Test
+    public void synchronousWriteUsesPipeline() throws Exception {
+        CompletableFuture<List<WriteResult>> result =
+                CompletableFuture.supplyAsync(() -> client.batchWrite(write("a")));
+        Submitted submitted = protocolClient.next();
+        assertEquals("writeAll", submitted.request.operation());
+        answer(submitted, WriteStatus.OK);
+        assertEquals(WriteStatus.OK, result.get(1, TimeUnit.SECONDS).get(0).status());
+    }
+
+    private void assertFailed(CompletableFuture<?> future) throws Exception {
+        try {
+            future.get(1, TimeUnit.SECONDS);
+            fail("batch should have failed");
+        } catch (ExecutionException e) {
+            assertSame(DatabaseException.class, e.getCause().getClass());
+        }
+    }
+
+    private static List<BatchWriteRequest> asList(BatchWriteRequest... requests) {
+        List<BatchWriteRequest> list = new ArrayList<>();
+        Collections.addAll(list, requests);
+        return list;
+    }
+
+    // Submitted request along with the future answering it.
+    private static final class Submitted {
+        private final SubmitRequest request;
+        private final CompletableFuture<SubmitResponse> future = new CompletableFuture<>();
+
+        private Submitted(SubmitRequest request) {
+            this.request = request;
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<BatchWriteRequest> batches() {
+            return (List<BatchWriteRequest>) request.args().get(0);
+        }
+    }
+
+    private final class TestProtocol implements Protocol<TcpMember> {
+        @Override
+        public ProtocolServer createServer(TcpMember member) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ProtocolClient createClient(TcpMember member) {
+            return protocolClient;
+        }
+    }
+
+    // Protocol client holding on to submitted requests until answered by the test.
+    private static final class TestProtocolClient implements ProtocolClient {
+
+        private final BlockingQueue<Submitted> submitted = new LinkedBlockingQueue<>();
+
+        private Submitted next() throws InterruptedException {
+            Submitted next = submitted.poll(1, TimeUnit.SECONDS);
+            if (next == null) {
+                fail("request should have been submitted");
+            }
+            return next;
+        }
+
+        @Override
+        public CompletableFuture<SubmitResponse> submit(SubmitRequest request) {
+            Submitted s = new Submitted(request);
+            submitted.add(s);
+            return s.future;
+        }
+
+        @Override
+        public CompletableFuture<Void> connect() {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> close() {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<PingResponse> ping(PingRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<SyncResponse> sync(SyncRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<PollResponse> poll(PollRequest request) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
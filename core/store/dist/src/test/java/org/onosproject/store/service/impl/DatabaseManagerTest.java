@@ -0,0 +1,551 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import net.kuujo.copycat.cluster.TcpMember;
+import net.kuujo.copycat.event.LeaderElectEvent;
+import net.kuujo.copycat.protocol.PingRequest;
+import net.kuujo.copycat.protocol.PingResponse;
+import net.kuujo.copycat.protocol.PollRequest;
+import net.kuujo.copycat.protocol.PollResponse;
+import net.kuujo.copycat.protocol.SubmitRequest;
+import net.kuujo.copycat.protocol.SubmitResponse;
+import net.kuujo.copycat.protocol.SyncRequest;
+import net.kuujo.copycat.protocol.SyncResponse;
+import net.kuujo.copycat.spi.protocol.Protocol;
+import net.kuujo.copycat.spi.protocol.ProtocolClient;
+import net.kuujo.copycat.spi.protocol.ProtocolServer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.IpAddress;
+import org.onosproject.cluster.ControllerNode;
+import org.onosproject.cluster.DefaultControllerNode;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.store.cluster.StaticClusterService;
+import org.onosproject.store.cluster.messaging.ClusterCommunicationService;
+import org.onosproject.store.cluster.messaging.ClusterMessage;
+import org.onosproject.store.cluster.messaging.ClusterMessageHandler;
+import org.onosproject.store.cluster.messaging.MessageSubject;
+import org.onosproject.store.service.BatchReadRequest;
+import org.onosproject.store.service.BatchReadResult;
+import org.onosproject.store.service.BatchWriteRequest;
+import org.onosproject.store.service.BatchWriteResult;
+import org.onosproject.store.service.DatabaseException;
+import org.onosproject.store.service.ReadConsistency;
+import org.onosproject.store.service.ReadRequest;
+import org.onosproject.store.service.ReadResult;
+import org.onosproject.store.service.ReadStatus;
+import org.onosproject.store.service.VersionedValue;
+import org.onosproject.store.service.WriteRequest;
+import org.onosproject.store.service.WriteResult;
+import org.onosproject.store.service.WriteStatus;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Test of the routing of database requests over several partitions.
+ */
+public class DatabaseManagerTest {
+
+    private static final String OTHER = "other";
+    private static final List<String> PARTITIONS =
+            asList(ClusterMessagingProtocol.DEFAULT_PARTITION, OTHER);
+
+    private static final IpAddress LOCALHOST = IpAddress.valueOf("127.0.0.1");
+
+    // initial member of each partition, its leader, and a node joining later
+    private static final List<ControllerNode> MEMBERS = asList(
+            new DefaultControllerNode(new NodeId("node0"), LOCALHOST, 9876),
+            new DefaultControllerNode(new NodeId("node1"), LOCALHOST, 9877));
+    private static final ControllerNode JOINING =
+            new DefaultControllerNode(new NodeId("joining"), LOCALHOST, 9900);
+
+    private final TestClusterCommunicator communicator = new TestClusterCommunicator();
+    private final Map<String, TestProtocolClient> protocolClients = new HashMap<>();
+    private DatabaseManager manager;
+
+    @Before
+    public void setUp() {
+        manager = new DatabaseManager();
+        manager.clusterService = new TestClusterService();
+        manager.clusterCommunicator = communicator;
+        manager.copycatMessagingProtocol = new TestProtocolService();
+
+        // this instance is a member of neither partition
+        Map<String, Set<DefaultControllerNode>> tablets = new HashMap<>();
+        for (int i = 0; i < PARTITIONS.size(); i++) {
+            String name = PARTITIONS.get(i);
+            protocolClients.put(name, new TestProtocolClient());
+            tablets.put(name, ImmutableSet.of((DefaultControllerNode) MEMBERS.get(i)));
+        }
+        assertEquals("no local replica expected", 0, manager.createPartitions(tablets));
+        manager.setUpPartitions("unused");
+
+        for (int i = 0; i < PARTITIONS.size(); i++) {
+            LeaderElectEvent event = new LeaderElectEvent(1, new TcpMember("127.0.0.1", 9876 + i));
+            ClusterMessageHandler client = communicator.subscribers.get(
+                    ClusterMessagingProtocol.partitionSubject(DatabaseManager.RAFT_LEADER_ELECTION_EVENT,
+                                                              PARTITIONS.get(i)));
+            assertNotNull("partition client should listen to its leader", client);
+            client.handle(new ClusterMessage(new NodeId("leader"), DatabaseManager.RAFT_LEADER_ELECTION_EVENT,
+                                             ClusterMessagingProtocol.DB_SERIALIZER.encode(event)));
+        }
+    }
+
+    // Partition a table is expected in, partitions being ordered by name.
+    private static String partitionOf(String table) {
+        int hash = Hashing.murmur3_32().hashString(DatabaseManager.tableGroup(table),
+                                                   StandardCharsets.UTF_8).asInt();
+        return PARTITIONS.get(Math.floorMod(hash, PARTITIONS.size()));
+    }
+
+    // Returns the n-th of the tables held by a partition.
+    private static String table(String partition, int n) {
+        for (int i = 0, found = 0;; i++) {
+            String table = "table" + i;
+            if (partitionOf(table).equals(partition) && found++ == n) {
+                return table;
+            }
+        }
+    }
+
+    private static byte[] bytes(String table, String key) {
+        return (table + "/" + key).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(VersionedValue value) {
+        return new String(value.value(), StandardCharsets.UTF_8);
+    }
+
+    private TestProtocolClient client(String partition) {
+        return protocolClients.get(partition);
+    }
+
+    @Test
+    public void leadersArePerPartition() {
+        Map<String, ControllerNode> leaders = manager.leaders();
+        assertEquals(MEMBERS.get(0), leaders.get(ClusterMessagingProtocol.DEFAULT_PARTITION));
+        assertEquals(MEMBERS.get(1), leaders.get(OTHER));
+        assertEquals("default tablet leader", Optional.of(MEMBERS.get(0)), manager.leader());
+    }
+
+    @Test
+    public void membershipChangesReachEveryPartition() {
+        manager.addMember(JOINING);
+        for (int i = 0; i < PARTITIONS.size(); i++) {
+            assertEquals("partition should gain the member",
+                         ImmutableSet.of(MEMBERS.get(i), JOINING),
+                         manager.listMembers(PARTITIONS.get(i)));
+        }
+        assertEquals(ImmutableSet.of(MEMBERS.get(0), MEMBERS.get(1), JOINING),
+                     ImmutableSet.copyOf(manager.listMembers()));
+
+        manager.removeMember(JOINING);
+        for (int i = 0; i < PARTITIONS.size(); i++) {
+            assertEquals("partition should lose the member",
+                         ImmutableSet.of(MEMBERS.get(i)),
+                         manager.listMembers(PARTITIONS.get(i)));
+        }
+    }
+
+    @Test
+    public void tablesAreSpreadByHash() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            String table = "table" + i;
+            manager.batchWriteAsync(BatchWriteRequest.newBuilder()
+                                            .put(table, "k", new byte[] {1}).build());
+            Submitted submitted = client(partitionOf(table)).next();
+            assertEquals("write should go to the partition of its table",
+                         table, submitted.writes().get(0).tableName());
+            for (TestProtocolClient client : protocolClients.values()) {
+                assertTrue("no other partition should be involved", client.submitted.isEmpty());
+            }
+            submitted.answer();
+        }
+    }
+
+    @Test
+    public void tablesOfAGroupSharePartition() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            String group = "group" + i;
+            BatchWriteRequest batch = BatchWriteRequest.newBuilder()
+                    .putIfAbsent(group, "k", new byte[] {1})
+                    .putIfAbsent(group + DatabaseManager.TABLE_GROUP_SEPARATOR + "a", "k", new byte[] {2})
+                    .putIfAbsent(group + DatabaseManager.TABLE_GROUP_SEPARATOR + "b", "k", new byte[] {3})
+                    .build();
+            manager.batchWriteAsync(batch);
+            Submitted submitted = client(partitionOf(group)).next();
+            assertEquals("batch should reach the partition of its group whole",
+                         describe(batch.getAsList()), describe(submitted.writes()));
+            for (TestProtocolClient client : protocolClients.values()) {
+                assertTrue("no other partition should be involved", client.submitted.isEmpty());
+            }
+            submitted.answer();
+        }
+    }
+
+    @Test
+    public void conditionalBatchAcrossPartitionsRefused() throws Exception {
+        BatchWriteRequest batch = BatchWriteRequest.newBuilder()
+                .put(table(ClusterMessagingProtocol.DEFAULT_PARTITION, 0), "1", new byte[] {1})
+                .putIfAbsent(table(OTHER, 0), "2", new byte[] {2})
+                .build();
+        try {
+            manager.batchWrite(batch);
+            fail("conditional batch over two partitions should be refused");
+        } catch (DatabaseException e) {
+            assertTrue(e.getMessage().contains("partitions"));
+        }
+        try {
+            manager.batchWriteAsync(batch).get(1, TimeUnit.SECONDS);
+            fail("conditional batch over two partitions should be refused");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof DatabaseException);
+        }
+        for (TestProtocolClient client : protocolClients.values()) {
+            assertTrue("refused batch should not be sent", client.submitted.isEmpty());
+        }
+    }
+
+    @Test
+    public void partitionsUseOwnSubjects() throws Exception {
+        assertTrue(communicator.subscribers.containsKey(DatabaseManager.RAFT_LEADER_ELECTION_EVENT));
+        assertTrue(communicator.subscribers.containsKey(
+                new MessageSubject(DatabaseManager.RAFT_LEADER_ELECTION_EVENT.value() + "-" + OTHER)));
+
+        ClusterMessagingProtocol protocol = new ClusterMessagingProtocol();
+        protocol.clusterCommunicator = communicator;
+        protocol.partition(OTHER).createServer(new TcpMember("127.0.0.1", 9876)).listen();
+        for (MessageSubject subject : asList(ClusterMessagingProtocol.COPYCAT_PING,
+                                             ClusterMessagingProtocol.COPYCAT_SYNC,
+                                             ClusterMessagingProtocol.COPYCAT_POLL,
+                                             ClusterMessagingProtocol.COPYCAT_SUBMIT)) {
+            assertTrue("partition server should listen to " + subject,
+                       communicator.subscribers.containsKey(
+                               new MessageSubject(subject.value() + "-" + OTHER)));
+            assertFalse("partition server should not take over the default subjects",
+                        communicator.subscribers.containsKey(subject));
+        }
+    }
+
+    @Test
+    public void mixedPartitionWritesKeepOrder() throws Exception {
+        String a0 = table(ClusterMessagingProtocol.DEFAULT_PARTITION, 0);
+        String a1 = table(ClusterMessagingProtocol.DEFAULT_PARTITION, 1);
+        String b0 = table(OTHER, 0);
+        String b1 = table(OTHER, 1);
+        BatchWriteRequest batch = BatchWriteRequest.newBuilder()
+                .put(a0, "1", new byte[] {1})
+                .put(b0, "2", new byte[] {2})
+                .put(b1, "3", new byte[] {3})
+                .put(a1, "4", new byte[] {4})
+                .put(b0, "5", new byte[] {5})
+                .build();
+        CompletableFuture<BatchWriteResult> future = manager.batchWriteAsync(batch);
+
+        Submitted toA = client(ClusterMessagingProtocol.DEFAULT_PARTITION).next();
+        Submitted toB = client(OTHER).next();
+        assertEquals("default partition should get its share in order",
+                     asList(a0 + "/1", a1 + "/4"), describe(toA.writes()));
+        assertEquals("other partition should get its share in order",
+                     asList(b0 + "/2", b1 + "/3", b0 + "/5"), describe(toB.writes()));
+
+        toB.answer();
+        assertFalse("batch should await all partitions", future.isDone());
+        toA.answer();
+
+        List<String> previous = new ArrayList<>();
+        for (WriteResult result : future.get(1, TimeUnit.SECONDS).getAsList()) {
+            assertEquals(WriteStatus.OK, result.status());
+            previous.add(string(result.previousValue()));
+        }
+        assertEquals("results should be in the order of the requests",
+                     describe(batch.getAsList()), previous);
+    }
+
+    @Test
+    public void mixedPartitionReadsKeepOrder() throws Exception {
+        BatchReadRequest batch = mixedReads();
+        CompletableFuture<BatchReadResult> future = manager.batchReadAsync(batch);
+
+        Submitted toA = client(ClusterMessagingProtocol.DEFAULT_PARTITION).next();
+        Submitted toB = client(OTHER).next();
+        toB.answer();
+        assertFalse("batch should await all partitions", future.isDone());
+        toA.answer();
+        assertReadOrder(batch, future.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void sequentialReadsAskPartitionsAtOnce() throws Exception {
+        BatchReadRequest batch = mixedReads();
+        CompletableFuture<BatchReadResult> future = CompletableFuture.supplyAsync(
+                () -> manager.batchRead(batch, ReadConsistency.SEQUENTIAL));
+
+        // both partitions are asked before either answers
+        Submitted toA = client(ClusterMessagingProtocol.DEFAULT_PARTITION).next();
+        Submitted toB = client(OTHER).next();
+        toB.answer();
+        toA.answer();
+        assertReadOrder(batch, future.get(1, TimeUnit.SECONDS));
+
+        // served from the read cache the second time around
+        assertReadOrder(batch, manager.batchRead(batch, ReadConsistency.SEQUENTIAL));
+        for (TestProtocolClient client : protocolClients.values()) {
+            assertTrue("cached reads should not be sent", client.submitted.isEmpty());
+        }
+    }
+
+    private BatchReadRequest mixedReads() {
+        String a0 = table(ClusterMessagingProtocol.DEFAULT_PARTITION, 0);
+        String b0 = table(OTHER, 0);
+        String b1 = table(OTHER, 1);
+        return new BatchReadRequest.Builder()
+                .get(b0, "1")
+                .get(a0, "2")
+                .get(b1, "3")
+                .get(a0, "4")
+                .build();
+    }
+
+    private void assertReadOrder(BatchReadRequest batch, BatchReadResult result) {
+        List<String> expected = new ArrayList<>();
+        for (ReadRequest request : batch.getAsList()) {
+            expected.add(request.tableName() + "/" + request.key());
+        }
+        List<String> actual = new ArrayList<>();
+        for (ReadResult read : result.getAsList()) {
+            assertEquals(ReadStatus.OK, read.status());
+            actual.add(string(read.value()));
+        }
+        assertEquals("results should be in the order of the requests", expected, actual);
+    }
+
+    private static List<String> describe(List<WriteRequest> writes) {
+        List<String> described = new ArrayList<>();
+        for (WriteRequest write : writes) {
+            described.add(write.tableName() + "/" + write.key());
+        }
+        return described;
+    }
+
+    @SafeVarargs
+    private static <T> List<T> asList(T... values) {
+        List<T> list = new ArrayList<>();
+        Collections.addAll(list, values);
+        return list;
+    }
+
+    // Submitted request along with the future answering it.
+    private static final class Submitted {
+        private final SubmitRequest request;
+        private final CompletableFuture<SubmitResponse> future = new CompletableFuture<>();
+
+        private Submitted(SubmitRequest request) {
+            this.request = request;
+        }
+
+        private List<WriteRequest> writes() {
+            assertEquals("writeAll", request.operation());
+            List<WriteRequest> writes = new ArrayList<>();
+            for (Object batch : (List<?>) request.args().get(0)) {
+                writes.addAll(((BatchWriteRequest) batch).getAsList());
+            }
+            return writes;
+        }
+
+        // Answers with values telling which table and key they are for.
+        private void answer() {
+            Object result;
+            if (request.operation().equals("read")) {
+                List<ReadResult> reads = new ArrayList<>();
+                for (ReadRequest read : ((BatchReadRequest) request.args().get(0)).getAsList()) {
+                    reads.add(new ReadResult(ReadStatus.OK, read.tableName(), read.key(),
+                            new VersionedValue(bytes(read.tableName(), read.key()), 1)));
+                }
+                result = reads;
+            } else {
+                List<List<WriteResult>> batches = new ArrayList<>();
+                for (Object batch : (List<?>) request.args().get(0)) {
+                    List<WriteResult> writes = new ArrayList<>();
+                    for (WriteRequest write : ((BatchWriteRequest) batch).getAsList()) {
+                        writes.add(new WriteResult(WriteStatus.OK,
+                                new VersionedValue(bytes(write.tableName(), write.key()), 1)));
+                    }
+                    batches.add(writes);
+                }
+                result = batches;
+            }
+            future.complete(new SubmitResponse(request.id(), result));
+        }
+    }
+
+    private final class TestProtocolService implements DatabaseProtocolService {
+        @Override
+        public ProtocolServer createServer(TcpMember member) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ProtocolClient createClient(TcpMember member) {
+            return partition(ClusterMessagingProtocol.DEFAULT_PARTITION).createClient(member);
+        }
+
+        @Override
+        public Protocol<TcpMember> partition(String name) {
+            return new Protocol<TcpMember>() {
+                @Override
+                public ProtocolServer createServer(TcpMember member) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public ProtocolClient createClient(TcpMember member) {
+                    return protocolClients.get(name);
+                }
+            };
+        }
+    }
+
+    // Protocol client holding on to submitted requests until answered by the test.
+    private static final class TestProtocolClient implements ProtocolClient {
+
+        private final BlockingQueue<Submitted> submitted = new LinkedBlockingQueue<>();
+
+        private Submitted next() throws InterruptedException {
+            Submitted next = submitted.poll(1, TimeUnit.SECONDS);
+            if (next == null) {
+                fail("request should have been submitted");
+            }
+            return next;
+        }
+
+        @Override
+        public CompletableFuture<SubmitResponse> submit(SubmitRequest request) {
+            Submitted s = new Submitted(request);
+            submitted.add(s);
+            return s.future;
+        }
+
+        @Override
+        public CompletableFuture<Void> connect() {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> close() {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<PingResponse> ping(PingRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<SyncResponse> sync(SyncRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<PollResponse> poll(PollRequest request) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class TestClusterService extends StaticClusterService {
+        private TestClusterService() {
+            localNode = new DefaultControllerNode(new NodeId("local"), LOCALHOST);
+            for (ControllerNode node : MEMBERS) {
+                nodes.put(node.id(), node);
+            }
+            nodes.put(JOINING.id(), JOINING);
+        }
+    }
+
+    // Cluster communicator keeping hold of the subscribers.
+    private static final class TestClusterCommunicator implements ClusterCommunicationService {
+
+        private final Map<MessageSubject, ClusterMessageHandler> subscribers = new HashMap<>();
+
+        @Override
+        public boolean broadcast(ClusterMessage message) throws IOException {
+            return true;
+        }
+
+        @Override
+        public boolean broadcastIncludeSelf(ClusterMessage message) throws IOException {
+            return true;
+        }
+
+        @Override
+        public boolean unicast(ClusterMessage message, NodeId toNodeId) throws IOException {
+            return true;
+        }
+
+        @Override
+        public boolean multicast(ClusterMessage message, Set<NodeId> nodeIds) throws IOException {
+            return true;
+        }
+
+        @Override
+        public ListenableFuture<byte[]> sendAndReceive(ClusterMessage message,
+                                                       NodeId toNodeId) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void addSubscriber(MessageSubject subject, ClusterMessageHandler subscriber) {
+            subscribers.put(subject, subscriber);
+        }
+
+        @Override
+        public void addSubscriber(MessageSubject subject, ClusterMessageHandler subscriber,
+                                  ExecutorService executor) {
+            subscribers.put(subject, subscriber);
+        }
+
+        @Override
+        public void removeSubscriber(MessageSubject subject) {
+            subscribers.remove(subject);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.service.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+import org.onosproject.store.service.ReadRequest;
+import org.onosproject.store.service.ReadResult;
+import org.onosproject.store.service.ReadStatus;
+import org.onosproject.store.service.VersionedValue;
+
+/**
+ * Test of the read cache of instances without a database replica.
+ */
+public class DatabaseReadCacheTest {
+
+    private static final String TABLE = "test-table";
+    private static final ReadRequest READ = ReadRequest.get(TABLE, "a");
+    private static final byte[] VALUE = {1, 2, 3};
+
+    private final DatabaseReadCache cache = new DatabaseReadCache(100, 60000);
+
+    private ReadResult result(VersionedValue value) {
+        return new ReadResult(ReadStatus.OK, TABLE, "a", value);
+    }
+
+    @Test
+    public void cachesValuesAndAbsence() {
+        assertNull(cache.get(READ));
+        cache.put(result(new VersionedValue(VALUE, 1)), cache.generation(TABLE));
+        assertArrayEquals(VALUE, cache.get(READ).value().value());
+
+        ReadRequest absent = ReadRequest.get(TABLE, "b");
+        cache.put(new ReadResult(ReadStatus.OK, TABLE, "b", null), cache.generation(TABLE));
+        assertFalse(cache.get(absent).valueExists());
+    }
+
+    @Test
+    public void invalidation() {
+        cache.put(result(new VersionedValue(VALUE, 1)), cache.generation(TABLE));
+        cache.invalidate(TABLE, "a");
+        assertNull(cache.get(READ));
+
+        cache.put(result(new VersionedValue(VALUE, 2)), cache.generation(TABLE));
+        cache.invalidate(TABLE);
+        assertNull(cache.get(READ));
+
+        cache.put(result(new VersionedValue(VALUE, 3)), cache.generation(TABLE));
+        cache.invalidateAll();
+        assertNull(cache.get(READ));
+    }
+
+    @Test
+    public void lateReadNotCached() {
+        long generation = cache.generation(TABLE);
+        // the row is modified while the read is outstanding
+        cache.invalidate(TABLE, "a");
+        cache.put(result(new VersionedValue(VALUE, 1)), generation);
+        assertNull(cache.get(READ));
+
+        cache.put(result(new VersionedValue(VALUE, 2)), cache.generation(TABLE));
+        assertEquals(2, cache.get(READ).value().version());
+    }
+
+    @Test
+    public void failedReadNotCached() {
+        cache.put(new ReadResult(ReadStatus.NO_SUCH_TABLE, TABLE, "a", null), cache.generation(TABLE));
+        assertNull(cache.get(READ));
+    }
+}
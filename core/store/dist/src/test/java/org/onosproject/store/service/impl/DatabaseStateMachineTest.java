@@ -0,0 +1,202 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.service.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.onosproject.store.service.impl.ClusterMessagingProtocol.DB_SERIALIZER;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.store.service.BatchReadRequest;
+import org.onosproject.store.service.BatchWriteRequest;
+import org.onosproject.store.service.VersionedValue;
+import org.onosproject.store.service.WriteResult;
+import org.onosproject.store.service.WriteStatus;
+
+/**
+ * Test of the database state machine.
+ */
+public class DatabaseStateMachineTest {
+
+    private static final String TABLE = "test-table";
+    private static final byte[] VALUE = {1, 2, 3};
+
+    private DatabaseStateMachine stateMachine;
+
+    @Before
+    public void setUp() {
+        stateMachine = new DatabaseStateMachine();
+        stateMachine.createTable(TABLE);
+    }
+
+    @Test
+    public void writeAllAppliesBatchesIndependently() {
+        BatchWriteRequest first = new BatchWriteRequest.Builder()
+                .put(TABLE, "a", VALUE)
+                .put(TABLE, "b", VALUE)
+                .build();
+        BatchWriteRequest conflicting = new BatchWriteRequest.Builder()
+                .put(TABLE, "c", VALUE)
+                .putIfAbsent(TABLE, "a", VALUE)
+                .build();
+        BatchWriteRequest last = new BatchWriteRequest.Builder()
+                .putIfAbsent(TABLE, "d", VALUE)
+                .build();
+
+        List<List<WriteResult>> results =
+                stateMachine.writeAll(Arrays.asList(first, conflicting, last));
+
+        assertEquals(3, results.size());
+        assertEquals(2, results.get(0).size());
+        assertEquals(WriteStatus.OK, results.get(0).get(0).status());
+        assertEquals(WriteStatus.OK, results.get(0).get(1).status());
+
+        assertEquals(2, results.get(1).size());
+        assertEquals(WriteStatus.ABORTED, results.get(1).get(0).status());
+        assertEquals(WriteStatus.PRECONDITION_VIOLATION, results.get(1).get(1).status());
+
+        assertEquals(1, results.get(2).size());
+        assertEquals(WriteStatus.OK, results.get(2).get(0).status());
+
+        assertEquals(3, stateMachine.getAll(TABLE).size());
+    }
+
+    private void put(String key, byte[] value) {
+        stateMachine.write(new BatchWriteRequest.Builder().put(TABLE, key, value).build());
+    }
+
+    private byte[] read(DatabaseStateMachine machine, String key) {
+        BatchReadRequest request = new BatchReadRequest.Builder().get(TABLE, key).build();
+        VersionedValue value = machine.read(request).get(0).value();
+        return value == null ? null : value.value();
+    }
+
+    @Test
+    public void snapshotRoundTrip() {
+        for (int i = 0; i < 5000; i++) {
+            put("key" + i, new byte[] {(byte) i});
+        }
+        stateMachine.createTable("expiring", 1000);
+        stateMachine.takeSnapshot();
+        put("key42", VALUE);
+        stateMachine.write(new BatchWriteRequest.Builder().remove(TABLE, "key7").build());
+        byte[] snapshot = stateMachine.takeSnapshot();
+
+        DatabaseStateMachine restored = new DatabaseStateMachine();
+        restored.installSnapshot(snapshot);
+        assertEquals(stateMachine.listTables(), restored.listTables());
+        assertEquals(4999, restored.getAll(TABLE).size());
+        assertArrayEquals(VALUE, read(restored, "key42"));
+        assertEquals(null, read(restored, "key7"));
+        assertArrayEquals(new byte[] {(byte) 100}, read(restored, "key100"));
+        // the installed segments are written out again as they are
+        assertArrayEquals(snapshot, restored.takeSnapshot());
+
+        // versions carry on from where the snapshot left off
+        long version = restored.getAll(TABLE).get("key42").version();
+        restored.write(new BatchWriteRequest.Builder().put(TABLE, "new", VALUE).build());
+        assertEquals(version + 1, restored.getAll(TABLE).get("new").version());
+    }
+
+    @Test
+    public void legacySnapshot() throws Exception {
+        DatabaseStateMachine.State state = new DatabaseStateMachine.State();
+        state.createTable(new DatabaseStateMachine.TableMetadata(TABLE));
+        state.getTable(TABLE).put("a", new VersionedValue(VALUE, state.nextVersion()));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes)) {
+            out.write(DB_SERIALIZER.encode(state));
+        }
+        stateMachine.installSnapshot(bytes.toByteArray());
+        assertArrayEquals(VALUE, read(stateMachine, "a"));
+    }
+
+    @Test
+    public void unmodifiedSegmentsAreReused() {
+        Map<String, VersionedValue> table = new HashMap<>();
+        for (int i = 0; i < 4 * TableSnapshot.SEGMENT_ENTRIES; i++) {
+            table.put("key" + i, new VersionedValue(VALUE, i));
+        }
+        TableSnapshot snapshot = new TableSnapshot(true);
+        byte[][] first = snapshot.segments(table).clone();
+        assertEquals(4, first.length);
+
+        table.put("key1", new VersionedValue(VALUE, 10000));
+        snapshot.modified("key1");
+        byte[][] second = snapshot.segments(table);
+
+        int reused = 0;
+        for (int i = 0; i < first.length; i++) {
+            if (first[i] == second[i]) {
+                reused++;
+            } else {
+                assertNotSame(first[i], second[i]);
+            }
+        }
+        assertEquals(3, reused);
+        assertSame(second, snapshot.segments(table));
+    }
+
+    @Test
+    public void modifiedSegmentsEncodedFromTheirKeys() {
+        Map<String, VersionedValue> table = new HashMap<>();
+        for (int i = 0; i < 4 * TableSnapshot.SEGMENT_ENTRIES; i++) {
+            table.put("key" + i, new VersionedValue(VALUE, i));
+        }
+        TableSnapshot snapshot = new TableSnapshot(false);
+        snapshot.segments(table);
+
+        // the table is not walked again once split
+        Map<String, VersionedValue> unwalkable = new HashMap<String, VersionedValue>(table) {
+            @Override
+            public Set<Map.Entry<String, VersionedValue>> entrySet() {
+                throw new AssertionError("table should not be walked");
+            }
+
+            @Override
+            public Set<String> keySet() {
+                throw new AssertionError("table should not be walked");
+            }
+        };
+        unwalkable.put("added", new VersionedValue(VALUE, 10000));
+        snapshot.modified("added");
+        unwalkable.remove("key1");
+        snapshot.modified("key1");
+        byte[][] segments = snapshot.segments(unwalkable);
+
+        Map<String, VersionedValue> decoded = new HashMap<>();
+        for (byte[] segment : segments) {
+            TableSnapshot.decode(false, segment, decoded);
+        }
+        assertEquals(4 * TableSnapshot.SEGMENT_ENTRIES, decoded.size());
+        assertTrue(decoded.containsKey("added"));
+        assertFalse(decoded.containsKey("key1"));
+    }
+}
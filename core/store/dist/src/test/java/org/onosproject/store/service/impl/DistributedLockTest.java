@@ -0,0 +1,329 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.service.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.onlab.packet.IpAddress;
+import org.onosproject.cluster.DefaultControllerNode;
+import org.onosproject.cluster.NodeId;
+import org.onosproject.store.cluster.StaticClusterService;
+import org.onosproject.store.service.BatchReadRequest;
+import org.onosproject.store.service.BatchReadResult;
+import org.onosproject.store.service.BatchWriteRequest;
+import org.onosproject.store.service.BatchWriteResult;
+import org.onosproject.store.service.DatabaseService;
+import org.onosproject.store.service.Lock;
+import org.onosproject.store.service.ReadConsistency;
+import org.onosproject.store.service.VersionedValue;
+
+/**
+ * Test of the lease handling of distributed locks.
+ */
+public class DistributedLockTest {
+
+    private static final String PATH = "test-lock";
+    private static final String OTHER_PATH = "other-lock";
+
+    private final TestDatabaseService databaseService = new TestDatabaseService();
+    private final TestClusterService clusterService = new TestClusterService();
+    private DistributedLockManager lockManager;
+
+    @Before
+    public void setUp() {
+        lockManager = new DistributedLockManager();
+    }
+
+    private Lock lock(String path) {
+        return new DistributedLock(path, databaseService, clusterService, lockManager);
+    }
+
+    @Test
+    public void leaseExpires() throws InterruptedException {
+        Lock holder = lock(PATH);
+        Lock contender = lock(PATH);
+
+        assertTrue("lock should be free", holder.tryLock(100));
+        assertFalse("lock should be held", contender.tryLock(100));
+        long epoch = holder.epoch();
+
+        Thread.sleep(200);
+        assertFalse("lease should have expired", holder.isLocked());
+        assertTrue("expired lock should be taken over", contender.tryLock(1000));
+        assertTrue("epoch should advance", contender.epoch() > epoch);
+
+        assertFalse("expired lease cannot be extended", holder.extendExpiration(100));
+        holder.unlock();
+        assertFalse("new holder should keep the lock", lock(PATH).tryLock(100));
+    }
+
+    @Test
+    public void leasesArePerLock() throws InterruptedException {
+        Lock shortLease = lock(PATH);
+        Lock longLease = lock(OTHER_PATH);
+        Lock shortContender = lock(PATH);
+        Lock longContender = lock(OTHER_PATH);
+        assertTrue(shortLease.tryLock(100));
+        assertTrue(longLease.tryLock(10000));
+        assertFalse(shortContender.tryLock(100));
+        assertFalse(longContender.tryLock(100));
+
+        Thread.sleep(200);
+        assertTrue("short lease should have expired", shortContender.tryLock(100));
+        assertTrue("long lease should be unaffected", longLease.isLocked());
+        assertFalse("long lease should be unaffected", longContender.tryLock(100));
+    }
+
+    @Test
+    public void leaseTimedFromFirstSighting() throws InterruptedException {
+        Lock holder = lock(PATH);
+        assertTrue(holder.tryLock(100));
+        Thread.sleep(200);
+        assertFalse(holder.isLocked());
+
+        // a contender cannot tell how long the row has been there, so it
+        // waits out a whole lease of its own before taking over
+        Lock contender = lock(PATH);
+        assertFalse("lease should be timed from the first sighting", contender.tryLock(100));
+        Thread.sleep(200);
+        assertTrue("unchanged row should be taken over", contender.tryLock(100));
+    }
+
+    @Test
+    public void renewalKeepsLock() throws InterruptedException {
+        Lock holder = lock(PATH);
+        Lock contender = lock(PATH);
+        assertTrue(holder.tryLock(150));
+
+        for (int i = 0; i < 6; i++) {
+            Thread.sleep(50);
+            assertTrue("lease should be extended", holder.extendExpiration(150));
+            assertFalse("renewed lock should be held", contender.tryLock(150));
+        }
+        assertTrue(holder.isLocked());
+
+        holder.unlock();
+        assertFalse(holder.isLocked());
+        assertTrue("released lock should be free", contender.tryLock(150));
+    }
+
+    @Test
+    public void waiterAcquiresOnExpiry() throws InterruptedException {
+        Lock holder = lock(PATH);
+        Lock waiter = lock(PATH);
+        assertTrue(holder.tryLock(100));
+
+        long start = System.currentTimeMillis();
+        assertTrue("waiter should get the lock once the lease expires",
+                   waiter.tryLock(2000, 1000));
+        assertTrue("waiter should not wait for the timeout",
+                   System.currentTimeMillis() - start < 1000);
+        assertTrue(waiter.isLocked());
+    }
+
+    @Test
+    public void waiterRetriesUnknownLease() throws InterruptedException {
+        // a lock row without a lease is treated as held indefinitely
+        databaseService.put(DistributedLockManager.ONOS_LOCK_TABLE_NAME, PATH,
+                            "legacy-holder".getBytes(StandardCharsets.UTF_8));
+        Lock waiter = lock(PATH);
+        CompletableFuture<Boolean> acquired = CompletableFuture.supplyAsync(() -> {
+            try {
+                return waiter.tryLock(DistributedLockManager.DEAD_LOCK_TIMEOUT_MS * 2, 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+
+        Thread.sleep(200);
+        assertFalse("lock with unknown lease should be held", acquired.isDone());
+        // released without a ROW_DELETED event reaching the lock manager
+        databaseService.remove(DistributedLockManager.ONOS_LOCK_TABLE_NAME, PATH);
+        assertTrue("waiter should retry within the dead lock timeout",
+                   acquired.join());
+        assertTrue(waiter.isLocked());
+    }
+
+    @Test
+    public void contentionReadsAreSequential() throws InterruptedException {
+        Lock holder = lock(PATH);
+        assertTrue(holder.tryLock(1000));
+        assertEquals("acquiring a free lock reads no lease", 0, databaseService.sequentialReads);
+
+        assertFalse(lock(PATH).tryLock(1000));
+        assertEquals("lease of the holder should be read locally", 1, databaseService.sequentialReads);
+    }
+
+    @Test
+    public void staleReadCannotStealLock() throws InterruptedException {
+        Lock expired = lock(PATH);
+        Lock holder = lock(PATH);
+        Lock contender = lock(PATH);
+        assertTrue(expired.tryLock(100));
+        assertFalse(holder.tryLock(1000));
+        assertFalse(contender.tryLock(1000));
+        Thread.sleep(200);
+        // local replica still sees the expired lease after the lock changed hands
+        databaseService.freezeSequentialReads();
+        assertTrue("expired lock should be taken over", holder.tryLock(1000));
+
+        assertFalse("stale lease must not let a contender in", contender.tryLock(1000));
+        assertTrue(holder.isLocked());
+    }
+
+    private static final class TestClusterService extends StaticClusterService {
+        private TestClusterService() {
+            localNode = new DefaultControllerNode(new NodeId("local"),
+                                                  IpAddress.valueOf("127.0.0.1"));
+        }
+    }
+
+    // In-memory database supporting the single row operations used by locks.
+    private static final class TestDatabaseService implements DatabaseService {
+
+        private final Map<String, VersionedValue> rows = new HashMap<>();
+        private long version = 0;
+        private int sequentialReads = 0;
+        // rows seen by sequential reads, when lagging behind
+        private Map<String, VersionedValue> localReplica;
+
+        private synchronized void freezeSequentialReads() {
+            localReplica = new HashMap<>(rows);
+        }
+
+        @Override
+        public synchronized VersionedValue get(String tableName, String key) {
+            return rows.get(key);
+        }
+
+        @Override
+        public synchronized VersionedValue get(String tableName, String key,
+                                               ReadConsistency consistency) {
+            if (consistency == ReadConsistency.SEQUENTIAL) {
+                sequentialReads++;
+                if (localReplica != null) {
+                    return localReplica.get(key);
+                }
+            }
+            return get(tableName, key);
+        }
+
+        @Override
+        public synchronized Map<String, VersionedValue> getAll(String tableName) {
+            return new HashMap<>(rows);
+        }
+
+        @Override
+        public synchronized VersionedValue put(String tableName, String key, byte[] value) {
+            return rows.put(key, new VersionedValue(value, ++version));
+        }
+
+        @Override
+        public synchronized boolean putIfAbsent(String tableName, String key, byte[] value) {
+            if (rows.containsKey(key)) {
+                return false;
+            }
+            put(tableName, key, value);
+            return true;
+        }
+
+        @Override
+        public synchronized boolean putIfVersionMatches(String tableName, String key,
+                                                        byte[] value, long version) {
+            VersionedValue current = rows.get(key);
+            if (current == null || current.version() != version) {
+                return false;
+            }
+            put(tableName, key, value);
+            return true;
+        }
+
+        @Override
+        public synchronized boolean putIfValueMatches(String tableName, String key,
+                                                      byte[] oldValue, byte[] newValue) {
+            VersionedValue current = rows.get(key);
+            if (current == null || !Arrays.equals(current.value(), oldValue)) {
+                return false;
+            }
+            put(tableName, key, newValue);
+            return true;
+        }
+
+        @Override
+        public synchronized VersionedValue remove(String tableName, String key) {
+            return rows.remove(key);
+        }
+
+        @Override
+        public synchronized boolean removeIfVersionMatches(String tableName, String key,
+                                                           long version) {
+            VersionedValue current = rows.get(key);
+            if (current == null || current.version() != version) {
+                return false;
+            }
+            rows.remove(key);
+            return true;
+        }
+
+        @Override
+        public synchronized boolean removeIfValueMatches(String tableName, String key,
+                                                         byte[] value) {
+            VersionedValue current = rows.get(key);
+            if (current == null || !Arrays.equals(current.value(), value)) {
+                return false;
+            }
+            rows.remove(key);
+            return true;
+        }
+
+        @Override
+        public BatchReadResult batchRead(BatchReadRequest batchRequest) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BatchReadResult batchRead(BatchReadRequest batchRequest,
+                                         ReadConsistency consistency) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BatchWriteResult batchWrite(BatchWriteRequest batchRequest) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<BatchReadResult> batchReadAsync(BatchReadRequest batchRequest) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<BatchWriteResult> batchWriteAsync(BatchWriteRequest batchRequest) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.serializers;
+
+import org.onlab.packet.IpAddress;
+import org.onlab.packet.IpPrefix;
+import org.onlab.packet.MacAddress;
+import org.onlab.packet.VlanId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.criteria.Criteria;
+import org.onosproject.net.flow.criteria.Criterion;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Kryo Serializer for the {@link Criterion} implementations.
+ * <p>
+ * Each criterion is written as its type, which also determines its class,
+ * followed by its value in compact form.
+ * </p>
+ */
+public final class CriterionSerializer extends Serializer<Criterion> {
+
+    private static final Criterion.Type[] TYPES = Criterion.Type.values();
+
+    private final MacAddressSerializer macSerializer = new MacAddressSerializer();
+
+    /**
+     * Creates {@link Criterion} serializer instance.
+     */
+    public CriterionSerializer() {
+        // non-null, immutable
+        super(false, true);
+    }
+
+    @Override
+    public void write(Kryo kryo, Output output, Criterion object) {
+        final Criterion.Type type = object.type();
+        output.writeInt(type.ordinal(), true);
+        switch (type) {
+        case IN_PORT:
+            output.writeLong(((Criteria.PortCriterion) object).port().toLong(), true);
+            break;
+        case ETH_SRC:
+        case ETH_DST:
+            macSerializer.write(kryo, output, ((Criteria.EthCriterion) object).mac());
+            break;
+        case ETH_TYPE:
+            output.writeShort(((Criteria.EthTypeCriterion) object).ethType());
+            break;
+        case VLAN_VID:
+            output.writeShort(((Criteria.VlanIdCriterion) object).vlanId().toShort());
+            break;
+        case VLAN_PCP:
+            output.writeByte(((Criteria.VlanPcpCriterion) object).priority());
+            break;
+        case IP_PROTO:
+            output.writeByte(((Criteria.IPProtocolCriterion) object).protocol());
+            break;
+        case IPV4_SRC:
+        case IPV4_DST:
+        case IPV6_SRC:
+        case IPV6_DST:
+            writePrefix(output, ((Criteria.IPCriterion) object).ip());
+            break;
+        case TCP_SRC:
+        case TCP_DST:
+            output.writeShort(((Criteria.TcpPortCriterion) object).tcpPort());
+            break;
+        case MPLS_LABEL:
+            output.writeInt(((Criteria.MplsCriterion) object).label(), true);
+            break;
+        case OCH_SIGID:
+            output.writeShort(((Criteria.LambdaCriterion) object).lambda());
+            break;
+        case OCH_SIGTYPE:
+            output.writeShort(((Criteria.OpticalSignalTypeCriterion) object).signalType());
+            break;
+        default:
+            throw new IllegalArgumentException("Unsupported criterion " + object);
+        }
+    }
+
+    @Override
+    public Criterion read(Kryo kryo, Input input, Class<Criterion> clazz) {
+        final Criterion.Type type = TYPES[input.readInt(true)];
+        switch (type) {
+        case IN_PORT:
+            return new Criteria.PortCriterion(PortNumber.portNumber(input.readLong(true)));
+        case ETH_SRC:
+        case ETH_DST:
+            return new Criteria.EthCriterion(macSerializer.read(kryo, input, MacAddress.class), type);
+        case ETH_TYPE:
+            return new Criteria.EthTypeCriterion(input.readShort());
+        case VLAN_VID:
+            return new Criteria.VlanIdCriterion(VlanId.vlanId(input.readShort()));
+        case VLAN_PCP:
+            return new Criteria.VlanPcpCriterion(input.readByte());
+        case IP_PROTO:
+            return new Criteria.IPProtocolCriterion(input.readByte());
+        case IPV4_SRC:
+        case IPV4_DST:
+        case IPV6_SRC:
+        case IPV6_DST:
+            return new Criteria.IPCriterion(readPrefix(input), type);
+        case TCP_SRC:
+        case TCP_DST:
+            return new Criteria.TcpPortCriterion(input.readShort(), type);
+        case MPLS_LABEL:
+            return new Criteria.MplsCriterion(input.readInt(true));
+        case OCH_SIGID:
+            return new Criteria.LambdaCriterion(input.readShort(), type);
+        case OCH_SIGTYPE:
+            return new Criteria.OpticalSignalTypeCriterion(input.readShort(), type);
+        default:
+            throw new IllegalArgumentException("Unsupported criterion type " + type);
+        }
+    }
+
+    /**
+     * Writes an IP address as its length in bytes followed by the bytes.
+     *
+     * @param output output to write to
+     * @param ip     IP address
+     */
+    static void writeAddress(Output output, IpAddress ip) {
+        final byte[] octets = ip.toOctets();
+        output.writeByte(octets.length);
+        output.writeBytes(octets);
+    }
+
+    /**
+     * Reads an IP address written by {@link #writeAddress(Output, IpAddress)}.
+     *
+     * @param input input to read from
+     * @return IP address
+     */
+    static IpAddress readAddress(Input input) {
+        final int length = input.readByte();
+        final IpAddress.Version version = length == IpAddress.INET_BYTE_LENGTH ?
+                IpAddress.Version.INET : IpAddress.Version.INET6;
+        return IpAddress.valueOf(version, input.readBytes(length));
+    }
+
+    private static void writePrefix(Output output, IpPrefix prefix) {
+        writeAddress(output, prefix.address());
+        output.writeByte(prefix.prefixLength());
+    }
+
+    private static IpPrefix readPrefix(Input input) {
+        final IpAddress address = readAddress(input);
+        return IpPrefix.valueOf(address, input.readByte() & 0xff);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.serializers;
+
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.FlowEntry.FlowEntryState;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Kryo Serializer for {@link DefaultFlowEntry}.
+ * <p>
+ * Error type and code are only written for failed entries.
+ * </p>
+ */
+public final class DefaultFlowEntrySerializer extends Serializer<DefaultFlowEntry> {
+
+    private static final FlowEntryState[] STATES = FlowEntryState.values();
+
+    /**
+     * Creates {@link DefaultFlowEntry} serializer instance.
+     */
+    public DefaultFlowEntrySerializer() {
+        // non-null, mutable
+        super(false, false);
+    }
+
+    @Override
+    public void write(Kryo kryo, Output output, DefaultFlowEntry object) {
+        DefaultFlowRuleSerializer.writeRule(kryo, output, object);
+        output.writeInt(object.state().ordinal(), true);
+        output.writeLong(object.life(), true);
+        output.writeLong(object.packets(), true);
+        output.writeLong(object.bytes(), true);
+        output.writeLong(object.lastSeen());
+        if (object.state() == FlowEntryState.FAILED) {
+            output.writeInt(object.errType(), false);
+            output.writeInt(object.errCode(), false);
+        }
+    }
+
+    @Override
+    public DefaultFlowEntry read(Kryo kryo, Input input, Class<DefaultFlowEntry> type) {
+        final DefaultFlowRule rule = DefaultFlowRuleSerializer.readRule(kryo, input);
+        final FlowEntryState state = STATES[input.readInt(true)];
+        final long life = input.readLong(true);
+        final long packets = input.readLong(true);
+        final long bytes = input.readLong(true);
+        final long lastSeen = input.readLong();
+        int errType = -1;
+        int errCode = -1;
+        if (state == FlowEntryState.FAILED) {
+            errType = input.readInt(false);
+            errCode = input.readInt(false);
+        }
+        return new DefaultFlowEntry(rule, state, life, packets, bytes, lastSeen, errType, errCode);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.serializers;
+
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.flow.TrafficTreatment;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Kryo Serializer for {@link DefaultFlowRule}.
+ * <p>
+ * The application and group identifiers are not written, as they are
+ * part of the flow identifier.
+ * </p>
+ */
+public final class DefaultFlowRuleSerializer extends Serializer<DefaultFlowRule> {
+
+    /**
+     * Creates {@link DefaultFlowRule} serializer instance.
+     */
+    public DefaultFlowRuleSerializer() {
+        // non-null, immutable
+        super(false, true);
+    }
+
+    @Override
+    public void write(Kryo kryo, Output output, DefaultFlowRule object) {
+        writeRule(kryo, output, object);
+    }
+
+    @Override
+    public DefaultFlowRule read(Kryo kryo, Input input, Class<DefaultFlowRule> type) {
+        return readRule(kryo, input);
+    }
+
+    /**
+     * Writes the flow rule part of a flow rule or entry.
+     *
+     * @param kryo   Kryo instance
+     * @param output output to write to
+     * @param rule   flow rule
+     */
+    static void writeRule(Kryo kryo, Output output, DefaultFlowRule rule) {
+        kryo.writeObject(output, rule.deviceId());
+        output.writeLong(rule.id().value());
+        output.writeInt(rule.priority(), true);
+        output.writeInt(rule.timeout(), true);
+        output.writeBoolean(rule.isPermanent());
+        output.writeLong(rule.created());
+        kryo.writeClassAndObject(output, rule.selector());
+        kryo.writeClassAndObject(output, rule.treatment());
+    }
+
+    /**
+     * Reads the flow rule part of a flow rule or entry.
+     *
+     * @param kryo  Kryo instance
+     * @param input input to read from
+     * @return flow rule
+     */
+    static DefaultFlowRule readRule(Kryo kryo, Input input) {
+        final DeviceId deviceId = kryo.readObject(input, DeviceId.class);
+        final long id = input.readLong();
+        final int priority = input.readInt(true);
+        final int timeout = input.readInt(true);
+        final boolean permanent = input.readBoolean();
+        final long created = input.readLong();
+        final TrafficSelector selector = (TrafficSelector) kryo.readClassAndObject(input);
+        final TrafficTreatment treatment = (TrafficTreatment) kryo.readClassAndObject(input);
+        return new DefaultFlowRule(deviceId, selector, treatment, priority, id, timeout, permanent,
+                                   created);
+    }
+}
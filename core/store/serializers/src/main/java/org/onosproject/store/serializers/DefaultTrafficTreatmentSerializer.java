@@ -0,0 +1,66 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.serializers;
+
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.TrafficTreatment;
+import org.onosproject.net.flow.instructions.Instruction;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Kryo Serializer for {@link DefaultTrafficTreatment}.
+ * <p>
+ * Treatments are rebuilt on read so that their hash code is computed locally
+ * and they are interned like any other treatment.
+ * </p>
+ */
+public final class DefaultTrafficTreatmentSerializer extends
+        Serializer<DefaultTrafficTreatment> {
+
+    // elements are written without a class tag; their type tag is enough
+    private final InstructionSerializer instructionSerializer = new InstructionSerializer();
+
+    /**
+     * Creates {@link DefaultTrafficTreatment} serializer instance.
+     */
+    public DefaultTrafficTreatmentSerializer() {
+        // non-null, immutable
+        super(false, true);
+    }
+
+    @Override
+    public void write(Kryo kryo, Output output, DefaultTrafficTreatment object) {
+        output.writeInt(object.instructions().size(), true);
+        for (Instruction instruction : object.instructions()) {
+            instructionSerializer.write(kryo, output, instruction);
+        }
+    }
+
+    @Override
+    public DefaultTrafficTreatment read(Kryo kryo, Input input,
+            Class<DefaultTrafficTreatment> type) {
+        TrafficTreatment.Builder builder = DefaultTrafficTreatment.builder();
+        final int size = input.readInt(true);
+        for (int i = 0; i < size; i++) {
+            builder.add(instructionSerializer.read(kryo, input, Instruction.class));
+        }
+        return (DefaultTrafficTreatment) builder.build();
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.store.serializers;
+
+import org.onlab.packet.Ethernet;
+import org.onlab.packet.MacAddress;
+import org.onlab.packet.VlanId;
+import org.onosproject.net.PortNumber;
+import org.onosproject.net.flow.instructions.Instruction;
+import org.onosproject.net.flow.instructions.Instructions;
+import org.onosproject.net.flow.instructions.L0ModificationInstruction;
+import org.onosproject.net.flow.instructions.L2ModificationInstruction;
+import org.onosproject.net.flow.instructions.L3ModificationInstruction;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+/**
+ * Kryo Serializer for the {@link Instruction} implementations.
+ * <p>
+ * Each instruction is written as its type and, for modifications, its
+ * subtype, followed by its value in compact form.
+ * </p>
+ */
+public final class InstructionSerializer extends Serializer<Instruction> {
+
+    private static final Instruction.Type[] TYPES = Instruction.Type.values();
+    private static final L0ModificationInstruction.L0SubType[] L0_SUBTYPES =
+            L0ModificationInstruction.L0SubType.values();
+    private static final L2ModificationInstruction.L2SubType[] L2_SUBTYPES =
+            L2ModificationInstruction.L2SubType.values();
+    private static final L3ModificationInstruction.L3SubType[] L3_SUBTYPES =
+            L3ModificationInstruction.L3SubType.values();
+
+    private final MacAddressSerializer macSerializer = new MacAddressSerializer();
+
+    /**
+     * Creates {@link Instruction} serializer instance.
+     */
+    public InstructionSerializer() {
+        // non-null, immutable
+        super(false, true);
+    }
+
+    @Override
+    public void write(Kryo kryo, Output output, Instruction object) {
+        output.writeInt(object.type().ordinal(), true);
+        switch (object.type()) {
+        case DROP:
+            break;
+        case OUTPUT:
+            output.writeLong(((Instructions.OutputInstruction) object).port().toLong(), true);
+            break;
+        case L0MODIFICATION:
+            writeL0((L0ModificationInstruction) object, output);
+            break;
+        case L2MODIFICATION:
+            writeL2(kryo, (L2ModificationInstruction) object, output);
+            break;
+        case L3MODIFICATION:
+            writeL3((L3ModificationInstruction) object, output);
+            break;
+        default:
+            throw new IllegalArgumentException("Unsupported instruction " + object);
+        }
+    }
+
+    @Override
+    public Instruction read(Kryo kryo, Input input, Class<Instruction> clazz) {
+        final Instruction.Type type = TYPES[input.readInt(true)];
+        switch (type) {
+        case DROP:
+            return Instructions.createDrop();
+        case OUTPUT:
+            return Instructions.createOutput(PortNumber.portNumber(input.readLong(true)));
+        case L0MODIFICATION:
+            return readL0(input);
+        case L2MODIFICATION:
+            return readL2(kryo, input);
+        case L3MODIFICATION:
+            return readL3(input);
+        default:
+            throw new IllegalArgumentException("Unsupported instruction type " + type);
+        }
+    }
+
+    private void writeL0(L0ModificationInstruction object, Output output) {
+        output.writeInt(object.subtype().ordinal(), true);
+        switch (object.subtype()) {
+        case LAMBDA:
+            output.writeShort(((L0ModificationInstruction.ModLambdaInstruction) object).lambda());
+            break;
+        default:
+            throw new IllegalArgumentException("Unsupported instruction " + object);
+        }
+    }
+
+    private Instruction readL0(Input input) {
+        final L0ModificationInstruction.L0SubType subtype = L0_SUBTYPES[input.readInt(true)];
+        switch (subtype) {
+        case LAMBDA:
+            return new L0ModificationInstruction.ModLambdaInstruction(subtype, input.readShort());
+        default:
+            throw new IllegalArgumentException("Unsupported L0 instruction subtype " + subtype);
+        }
+    }
+
+    private void writeL2(Kryo kryo, L2ModificationInstruction object, Output output) {
+        output.writeInt(object.subtype().ordinal(), true);
+        switch (object.subtype()) {
+        case ETH_SRC:
+        case ETH_DST:
+            macSerializer.write(kryo, output,
+                    ((L2ModificationInstruction.ModEtherInstruction) object).mac());
+            break;
+        case VLAN_ID:
+            output.writeShort(((L2ModificationInstruction.ModVlanIdInstruction) object)
+                    .vlanId().toShort());
+            break;
+        case VLAN_PCP:
+            output.writeByte(((L2ModificationInstruction.ModVlanPcpInstruction) object).vlanPcp());
+            break;
+        case MPLS_LABEL:
+            output.writeInt(((L2ModificationInstruction.ModMplsLabelInstruction) object).label(),
+                            true);
+            break;
+        case MPLS_PUSH:
+        case MPLS_POP:
+            output.writeShort(((L2ModificationInstruction.PushHeaderInstructions) object)
+                    .ethernetType().getEtherType());
+            break;
+        default:
+            throw new IllegalArgumentException("Unsupported instruction " + object);
+        }
+    }
+
+    private Instruction readL2(Kryo kryo, Input input) {
+        final L2ModificationInstruction.L2SubType subtype = L2_SUBTYPES[input.readInt(true)];
+        switch (subtype) {
+        case ETH_SRC:
+        case ETH_DST:
+            return new L2ModificationInstruction.ModEtherInstruction(subtype,
+                    macSerializer.read(kryo, input, MacAddress.class));
+        case VLAN_ID:
+            return new L2ModificationInstruction.ModVlanIdInstruction(
+                    VlanId.vlanId(input.readShort()));
+        case VLAN_PCP:
+            return new L2ModificationInstruction.ModVlanPcpInstruction(input.readByte());
+        case MPLS_LABEL:
+            return new L2ModificationInstruction.ModMplsLabelInstruction(input.readInt(true));
+        case MPLS_PUSH:
+        case MPLS_POP:
+            return new L2ModificationInstruction.PushHeaderInstructions(subtype,
+                    new Ethernet().setEtherType(input.readShort()));
+        default:
+            throw new IllegalArgumentException("Unsupported L2 instruction subtype " + subtype);
+        }
+    }
+
+    private void writeL3(L3ModificationInstruction object, Output output) {
+        output.writeInt(object.subtype().ordinal(), true);
+        switch (object.subtype()) {
+        case IP_SRC:
+        case IP_DST:
+            CriterionSerializer.writeAddress(output,
+                    ((L3ModificationInstruction.ModIPInstruction) object).ip());
+            break;
+        default:
+            throw new IllegalArgumentException("Unsupported instruction " + object);
+        }
+    }
+
+    private Instruction readL3(Input input) {
+        final L3ModificationInstruction.L3SubType subtype = L3_SUBTYPES[input.readInt(true)];
+        switch (subtype) {
+        case IP_SRC:
+        case IP_DST:
+            return new L3ModificationInstruction.ModIPInstruction(subtype,
+                    CriterionSerializer.readAddress(input));
+        default:
+            throw new IllegalArgumentException("Unsupported L3 instruction subtype " + subtype);
+        }
+    }
+}
@@ -210,40 +210,17 @@ public final class KryoNamespaces {
                     HostId.class,
                     HostDescription.class,
                     DefaultHostDescription.class,
-                    DefaultFlowEntry.class,
                     StoredFlowEntry.class,
-                    DefaultFlowRule.class,
-                    DefaultFlowEntry.class,
                     FlowEntry.FlowEntryState.class,
                     FlowId.class,
-                    DefaultTrafficSelector.class,
-                    Criteria.PortCriterion.class,
-                    Criteria.EthCriterion.class,
-                    Criteria.EthTypeCriterion.class,
-                    Criteria.IPCriterion.class,
-                    Criteria.IPProtocolCriterion.class,
-                    Criteria.VlanIdCriterion.class,
-                    Criteria.VlanPcpCriterion.class,
-                    Criteria.TcpPortCriterion.class,
-                    Criteria.OpticalSignalTypeCriterion.class,
-                    Criteria.LambdaCriterion.class,
-                    Criteria.MplsCriterion.class,
                     Criterion.class,
                     Criterion.Type.class,
-                    DefaultTrafficTreatment.class,
-                    Instructions.DropInstruction.class,
-                    Instructions.OutputInstruction.class,
                     L0ModificationInstruction.class,
                     L0ModificationInstruction.L0SubType.class,
-                    L0ModificationInstruction.ModLambdaInstruction.class,
                     L2ModificationInstruction.class,
                     L2ModificationInstruction.L2SubType.class,
-                    L2ModificationInstruction.ModEtherInstruction.class,
-                    L2ModificationInstruction.ModVlanIdInstruction.class,
-                    L2ModificationInstruction.ModVlanPcpInstruction.class,
                     L3ModificationInstruction.class,
                     L3ModificationInstruction.L3SubType.class,
-                    L3ModificationInstruction.ModIPInstruction.class,
                     RoleInfo.class,
                     FlowRuleBatchOperation.class,
                     CompletedBatchOperation.class,
@@ -297,6 +274,32 @@ public final class KryoNamespaces {
             .register(new MastershipTermSerializer(), MastershipTerm.class)
             .register(new HostLocationSerializer(), HostLocation.class)
             .register(new DefaultOutboundPacketSerializer(), DefaultOutboundPacket.class)
+            .register(new DefaultTrafficSelectorSerializer(), DefaultTrafficSelector.class)
+            .register(new DefaultTrafficTreatmentSerializer(), DefaultTrafficTreatment.class)
+            .register(new CriterionSerializer(),
+                      Criteria.PortCriterion.class,
+                      Criteria.EthCriterion.class,
+                      Criteria.EthTypeCriterion.class,
+                      Criteria.IPCriterion.class,
+                      Criteria.IPProtocolCriterion.class,
+                      Criteria.VlanIdCriterion.class,
+                      Criteria.VlanPcpCriterion.class,
+                      Criteria.TcpPortCriterion.class,
+                      Criteria.OpticalSignalTypeCriterion.class,
+                      Criteria.LambdaCriterion.class,
+                      Criteria.MplsCriterion.class)
+            .register(new InstructionSerializer(),
+                      Instructions.DropInstruction.class,
+                      Instructions.OutputInstruction.class,
+                      L0ModificationInstruction.ModLambdaInstruction.class,
+                      L2ModificationInstruction.ModEtherInstruction.class,
+                      L2ModificationInstruction.ModVlanIdInstruction.class,
+                      L2ModificationInstruction.ModVlanPcpInstruction.class,
+                      L2ModificationInstruction.ModMplsLabelInstruction.class,
+                      L2ModificationInstruction.PushHeaderInstructions.class,
+                      L3ModificationInstruction.ModIPInstruction.class)
+            .register(new DefaultFlowRuleSerializer(), DefaultFlowRule.class)
+            .register(new DefaultFlowEntrySerializer(), DefaultFlowEntry.class)
             .register(ReadRequest.class)
             .register(WriteRequest.class)
             .register(WriteRequest.Type.class)
@@ -36,12 +36,16 @@ public class MacAddressSerializer extends Serializer<MacAddress> {
 
     @Override
     public void write(Kryo kryo, Output output, MacAddress object) {
-        output.writeBytes(object.toBytes());
+        // the six address bytes, most significant first
+        final long mac = object.toLong();
+        output.writeShort((int) (mac >> 32));
+        output.writeInt((int) mac);
     }
 
     @Override
     public MacAddress read(Kryo kryo, Input input, Class<MacAddress> type) {
-        return MacAddress.valueOf(input.readBytes(MacAddress.MAC_ADDRESS_LENGTH));
+        final long high = input.readShort() & 0xffffL;
+        return MacAddress.valueOf(high << 32 | input.readInt() & 0xffffffffL);
     }
 
 }
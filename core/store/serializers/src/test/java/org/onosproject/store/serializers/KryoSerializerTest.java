@@ -26,6 +26,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.onosproject.cluster.NodeId;
 import org.onosproject.cluster.RoleInfo;
+import org.onosproject.core.DefaultApplicationId;
 import org.onosproject.core.DefaultGroupId;
 import org.onosproject.mastership.MastershipTerm;
 import org.onosproject.net.Annotations;
@@ -42,7 +43,17 @@ import org.onosproject.net.Link.Type;
 import org.onosproject.net.LinkKey;
 import org.onosproject.net.PortNumber;
 import org.onosproject.net.SparseAnnotations;
+import org.onosproject.net.flow.DefaultFlowEntry;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowEntry;
 import org.onosproject.net.flow.FlowId;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.TrafficSelector;
+import org.onosproject.net.flow.TrafficTreatment;
+import org.onosproject.net.flow.criteria.Criteria;
+import org.onosproject.net.flow.instructions.Instructions;
 import org.onosproject.net.intent.IntentId;
 import org.onosproject.net.provider.ProviderId;
 import org.onosproject.net.resource.Bandwidth;
@@ -68,6 +79,7 @@ import org.onlab.packet.IpPrefix;
 import org.onlab.packet.Ip4Prefix;
 import org.onlab.packet.Ip6Prefix;
 import org.onlab.packet.MacAddress;
+import org.onlab.packet.VlanId;
 import org.onlab.util.KryoNamespace;
 
 import java.nio.ByteBuffer;
@@ -171,6 +183,142 @@ public class KryoSerializerTest {
         testSerializedEquals(new DefaultPort(DEV1, P1, true, A1_2));
     }
 
+    @Test
+    public void testDefaultTrafficSelector() {
+        TrafficSelector selector = DefaultTrafficSelector.builder()
+                .matchInport(P1)
+                .matchEthDst(MacAddress.valueOf("12:34:56:78:90:12"))
+                .build();
+        testSerializedEquals(selector);
+        assertSame(selector, serializer.decode(serializer.encode(selector)));
+        testSerializedEquals(DefaultTrafficSelector.builder().build());
+    }
+
+    @Test
+    public void testDefaultTrafficTreatment() {
+        TrafficTreatment treatment = DefaultTrafficTreatment.builder()
+                .setEthDst(MacAddress.valueOf("12:34:56:78:90:12"))
+                .setOutput(P1)
+                .build();
+        testSerializedEquals(treatment);
+        assertSame(treatment, serializer.decode(serializer.encode(treatment)));
+        testSerializedEquals(DefaultTrafficTreatment.builder().build());
+    }
+
+    @Test
+    public void testCriteria() {
+        testSerializedEquals(Criteria.matchInPort(P1));
+        testSerializedEquals(Criteria.matchInPort(PortNumber.LOCAL));
+        testSerializedEquals(Criteria.matchEthSrc(MacAddress.valueOf("12:34:56:78:90:12")));
+        testSerializedEquals(Criteria.matchEthDst(MacAddress.BROADCAST));
+        testSerializedEquals(Criteria.matchEthType((short) 0x88cc));
+        testSerializedEquals(Criteria.matchVlanId(VlanId.vlanId((short) 100)));
+        testSerializedEquals(Criteria.matchVlanPcp((byte) 3));
+        testSerializedEquals(Criteria.matchIPProtocol((byte) 6));
+        testSerializedEquals(Criteria.matchIPSrc(IpPrefix.valueOf("10.1.0.0/16")));
+        testSerializedEquals(Criteria.matchIPDst(IpPrefix.valueOf("1111:2222::/120")));
+        testSerializedEquals(Criteria.matchTcpSrc((short) 80));
+        testSerializedEquals(Criteria.matchTcpDst((short) -1));
+        testSerializedEquals(Criteria.matchMplsLabel(1 << 19));
+        testSerializedEquals(Criteria.matchLambda((short) 12));
+        testSerializedEquals(Criteria.matchOpticalSignalType((short) 1));
+    }
+
+    @Test
+    public void testInstructions() {
+        testSerializedEquals(Instructions.createDrop());
+        testSerializedEquals(Instructions.createOutput(P2));
+        testSerializedEquals(Instructions.modL0Lambda((short) 4));
+        testSerializedEquals(Instructions.modL2Src(MacAddress.valueOf("12:34:56:78:90:12")));
+        testSerializedEquals(Instructions.modL2Dst(MacAddress.ZERO));
+        testSerializedEquals(Instructions.modVlanId(VlanId.vlanId((short) 4000)));
+        testSerializedEquals(Instructions.modVlanPcp((byte) 7));
+        testSerializedEquals(Instructions.modMplsLabel(42));
+        testSerializedEquals(Instructions.modL3Src(IpAddress.valueOf("192.168.0.1")));
+        testSerializedEquals(Instructions.modL3Dst(IpAddress.valueOf("1111:2222::")));
+        testSerializable(Instructions.pushMpls());
+        testSerializable(Instructions.popMpls());
+    }
+
+    private static FlowRule flowRule() {
+        TrafficSelector selector = DefaultTrafficSelector.builder()
+                .matchInport(P1)
+                .matchEthType((short) 0x800)
+                .matchIPDst(IpPrefix.valueOf("10.0.0.1/32"))
+                .build();
+        TrafficTreatment treatment = DefaultTrafficTreatment.builder()
+                .setEthDst(MacAddress.valueOf("12:34:56:78:90:12"))
+                .setOutput(P2)
+                .build();
+        return new DefaultFlowRule(DID1, selector, treatment, 100,
+                                   new DefaultApplicationId((short) 2, "foo"),
+                                   new DefaultGroupId(3), 10, false);
+    }
+
+    private void assertRulesEqual(FlowRule expected, FlowRule actual) {
+        assertEquals(expected, actual);
+        assertEquals(expected.id(), actual.id());
+        assertEquals(expected.appId(), actual.appId());
+        assertEquals(expected.groupId(), actual.groupId());
+        assertEquals(expected.treatment(), actual.treatment());
+        assertEquals(expected.timeout(), actual.timeout());
+        assertEquals(expected.isPermanent(), actual.isPermanent());
+    }
+
+    @Test
+    public void testDefaultFlowRule() {
+        FlowRule rule = flowRule();
+        testSerializedEquals(rule);
+        assertRulesEqual(rule, serializer.decode(serializer.encode(rule)));
+    }
+
+    @Test
+    public void testDefaultFlowEntry() {
+        FlowEntry entry = new DefaultFlowEntry(flowRule(), FlowEntry.FlowEntryState.ADDED,
+                                               12, 1234567L, Long.MAX_VALUE);
+        FlowEntry copy = serializer.decode(serializer.encode(entry));
+        assertRulesEqual(entry, copy);
+        assertEquals(entry.state(), copy.state());
+        assertEquals(entry.life(), copy.life());
+        assertEquals(entry.packets(), copy.packets());
+        assertEquals(entry.bytes(), copy.bytes());
+        assertEquals(entry.lastSeen(), copy.lastSeen());
+        assertEquals(-1, copy.errType());
+
+        FlowEntry failed = new DefaultFlowEntry(flowRule(), 4, 2);
+        copy = serializer.decode(serializer.encode(failed));
+        assertEquals(FlowEntry.FlowEntryState.FAILED, copy.state());
+        assertEquals(4, copy.errType());
+        assertEquals(2, copy.errCode());
+    }
+
+    @Test
+    public void testFlowRuleCreationTime() {
+        FlowRule rule = flowRule();
+        DefaultFlowRule old = new DefaultFlowRule(DID1, rule.selector(), rule.treatment(),
+                                                  rule.priority(), rule.id().value(),
+                                                  rule.timeout(), rule.isPermanent(), 1234L);
+        DefaultFlowRule copy = serializer.decode(serializer.encode(old));
+        assertRulesEqual(old, copy);
+        assertEquals(1234L, copy.created());
+
+        DefaultFlowEntry entry = new DefaultFlowEntry(old, FlowEntry.FlowEntryState.ADDED,
+                                                      12, 1234567L, 42L, 5678L, -1, -1);
+        DefaultFlowEntry entryCopy = serializer.decode(serializer.encode(entry));
+        assertEquals(1234L, entryCopy.created());
+        assertEquals(5678L, entryCopy.lastSeen());
+    }
+
+    @Test
+    public void testFlowRuleNegativeGroupId() {
+        FlowRule rule = new DefaultFlowRule(DID1, flowRule().selector(), flowRule().treatment(), 100,
+                                            new DefaultApplicationId((short) 2, "foo"),
+                                            new DefaultGroupId((short) 0x8123), 10, false);
+        FlowRule copy = serializer.decode(serializer.encode(rule));
+        assertRulesEqual(rule, copy);
+        assertEquals(2, copy.appId());
+    }
+
     @Test
     public void testDeviceId() {
         testSerializedEquals(DID1);
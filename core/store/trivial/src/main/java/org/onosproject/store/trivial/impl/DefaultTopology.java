@@ -15,11 +15,13 @@
  */
 package org.onosproject.store.trivial.impl;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import org.onlab.graph.DijkstraGraphSearch;
 import org.onlab.graph.GraphPathSearch;
+import org.onlab.graph.KShortestPathsSearch;
 import org.onlab.graph.TarjanGraphSearch;
 import org.onosproject.net.AbstractModel;
 import org.onosproject.net.ConnectPoint;
@@ -61,6 +63,8 @@ public class DefaultTopology extends AbstractModel implements Topology {
 
     private static final DijkstraGraphSearch<TopologyVertex, TopologyEdge> DIJKSTRA =
             new DijkstraGraphSearch<>();
+    private static final KShortestPathsSearch<TopologyVertex, TopologyEdge> K_SHORTEST =
+            new KShortestPathsSearch<>();
     private static final TarjanGraphSearch<TopologyVertex, TopologyEdge> TARJAN =
             new TarjanGraphSearch<>();
 
@@ -279,6 +283,34 @@ public class DefaultTopology extends AbstractModel implements Topology {
         return builder.build();
     }
 
+    /**
+     * Computes on-demand up to the given number of loopless paths between
+     * source and destination devices.
+     *
+     * @param src      source device
+     * @param dst      destination device
+     * @param weight   link weight function
+     * @param maxPaths maximum number of paths
+     * @return list of paths, cheapest first
+     */
+    List<Path> getKShortestPaths(DeviceId src, DeviceId dst, LinkWeight weight, int maxPaths) {
+        final DefaultTopologyVertex srcV = new DefaultTopologyVertex(src);
+        final DefaultTopologyVertex dstV = new DefaultTopologyVertex(dst);
+        Set<TopologyVertex> vertices = graph.getVertexes();
+        if (!vertices.contains(srcV) || !vertices.contains(dstV)) {
+            // src or dst not part of the current graph
+            return ImmutableList.of();
+        }
+
+        GraphPathSearch.Result<TopologyVertex, TopologyEdge> result =
+                K_SHORTEST.search(graph, srcV, dstV, weight, maxPaths);
+        ImmutableList.Builder<Path> builder = ImmutableList.builder();
+        for (org.onlab.graph.Path<TopologyVertex, TopologyEdge> path : result.paths()) {
+            builder.add(networkPath(path));
+        }
+        return builder.build();
+    }
+
 
     // Searches the graph for all shortest paths and returns the search results.
     private ImmutableMap<DeviceId, Result<TopologyVertex, TopologyEdge>> searchForShortestPaths() {
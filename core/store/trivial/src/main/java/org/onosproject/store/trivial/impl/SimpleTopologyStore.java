@@ -112,6 +112,12 @@ public class SimpleTopologyStore
         return defaultTopology(topology).getPaths(src, dst, weight);
     }
 
+    @Override
+    public List<Path> getKShortestPaths(Topology topology, DeviceId src, DeviceId dst,
+                                        LinkWeight weight, int maxPaths) {
+        return defaultTopology(topology).getKShortestPaths(src, dst, weight, maxPaths);
+    }
+
     @Override
     public boolean isInfrastructure(Topology topology, ConnectPoint connectPoint) {
         return defaultTopology(topology).isInfrastructure(connectPoint);
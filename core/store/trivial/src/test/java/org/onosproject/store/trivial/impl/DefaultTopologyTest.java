@@ -34,6 +34,7 @@ import org.onosproject.net.topology.TopologyCluster;
 import org.onosproject.net.topology.TopologyEdge;
 import org.onlab.packet.ChassisId;
 
+import java.util.List;
 import java.util.Set;
 
 import static com.google.common.collect.ImmutableSet.of;
@@ -105,6 +106,21 @@ public class DefaultTopologyTest {
         assertEquals("incorrect path count", 1, paths.size());
     }
 
+    @Test
+    public void kShortestPaths() {
+        List<Path> paths = dt.getKShortestPaths(D1, D3, WEIGHT, 3);
+        assertEquals("incorrect path count", 2, paths.size());
+        assertEquals("incorrect first path cost", 2.0, paths.get(0).cost(), 0.01);
+        assertEquals("incorrect first path hop", D2, paths.get(0).links().get(0).dst().deviceId());
+        assertEquals("incorrect second path cost", 4.0, paths.get(1).cost(), 0.01);
+
+        paths = dt.getKShortestPaths(D1, D3, WEIGHT, 1);
+        assertEquals("incorrect path count", 1, paths.size());
+
+        paths = dt.getKShortestPaths(D1, D5, WEIGHT, 3);
+        assertTrue("no paths expected", paths.isEmpty());
+    }
+
     @Test
     public void pointRelated() {
         assertTrue("should be infrastructure point",
@@ -15,9 +15,12 @@
  */
 package org.onosproject.openflow.controller.impl;
 
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static org.onlab.metrics.MetricsUtil.incCounter;
 import static org.onlab.util.Tools.namedThreads;
 
 import java.util.Collection;
+import java.util.Dictionary;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -26,11 +29,19 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import com.codahale.metrics.Counter;
 import com.google.common.collect.Lists;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
+import org.apache.felix.scr.annotations.Modified;
+import org.apache.felix.scr.annotations.Property;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.Service;
+import org.onlab.metrics.MetricsComponent;
+import org.onlab.metrics.MetricsFeature;
+import org.onlab.metrics.MetricsService;
 import org.onosproject.openflow.controller.DefaultOpenFlowPacketContext;
 import org.onosproject.openflow.controller.Dpid;
 import org.onosproject.openflow.controller.OpenFlowController;
@@ -53,6 +64,7 @@ import org.projectfloodlight.openflow.protocol.OFPortStatus;
 import org.projectfloodlight.openflow.protocol.OFStatsReply;
 import org.projectfloodlight.openflow.protocol.OFStatsReplyFlags;
 import org.projectfloodlight.openflow.protocol.OFStatsType;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -95,8 +107,41 @@ public class OpenFlowControllerImpl implements OpenFlowController {
 
     private final Controller ctrl = new Controller();
 
+    private static final int DEFAULT_SWITCH_RATE = 2000;
+    private static final int DEFAULT_PORT_RATE = 500;
+    private static final int DEFAULT_SOURCE_RATE = 100;
+
+    @Property(name = "packetInSwitchRate", intValue = DEFAULT_SWITCH_RATE,
+            label = "Packet-ins per second admitted from a switch; 0 for no limit")
+    private int packetInSwitchRate = DEFAULT_SWITCH_RATE;
+
+    @Property(name = "packetInPortRate", intValue = DEFAULT_PORT_RATE,
+            label = "Packet-ins per second admitted from a switch port; 0 for no limit")
+    private int packetInPortRate = DEFAULT_PORT_RATE;
+
+    @Property(name = "packetInSourceRate", intValue = DEFAULT_SOURCE_RATE,
+            label = "Packet-ins per second admitted from a source MAC address " +
+                    "on a switch; 0 for no limit")
+    private int packetInSourceRate = DEFAULT_SOURCE_RATE;
+
+    private final PacketInLimiter packetInLimiter =
+            new PacketInLimiter(DEFAULT_SWITCH_RATE, DEFAULT_PORT_RATE, DEFAULT_SOURCE_RATE);
+
+    @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
+    protected MetricsService metricsService;
+
+    private Counter packetInAdmitted;
+    private Counter packetInDropped;
+
     @Activate
-    public void activate() {
+    public void activate(ComponentContext context) {
+        if (metricsService != null) {
+            MetricsComponent component = metricsService.registerComponent("OpenFlow");
+            MetricsFeature feature = component.registerFeature("PacketIn");
+            packetInAdmitted = metricsService.createCounter(component, feature, "admitted");
+            packetInDropped = metricsService.createCounter(component, feature, "dropped");
+        }
+        modified(context);
         ctrl.start(agent);
     }
 
@@ -105,6 +150,31 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         ctrl.stop();
     }
 
+    @Modified
+    public void modified(ComponentContext context) {
+        if (context != null) {
+            Dictionary properties = context.getProperties();
+            try {
+                String s = (String) properties.get("packetInSwitchRate");
+                packetInSwitchRate = isNullOrEmpty(s) ? packetInSwitchRate : Integer.parseInt(s);
+
+                s = (String) properties.get("packetInPortRate");
+                packetInPortRate = isNullOrEmpty(s) ? packetInPortRate : Integer.parseInt(s);
+
+                s = (String) properties.get("packetInSourceRate");
+                packetInSourceRate = isNullOrEmpty(s) ? packetInSourceRate : Integer.parseInt(s);
+            } catch (NumberFormatException | ClassCastException e) {
+                log.warn("Invalid packet-in rate configuration; using defaults", e);
+                packetInSwitchRate = DEFAULT_SWITCH_RATE;
+                packetInPortRate = DEFAULT_PORT_RATE;
+                packetInSourceRate = DEFAULT_SOURCE_RATE;
+            }
+        }
+        packetInLimiter.setRates(packetInSwitchRate, packetInPortRate, packetInSourceRate);
+        log.info("Packet-in limits per second: switch {}, port {}, source {}",
+                 packetInSwitchRate, packetInPortRate, packetInSourceRate);
+    }
+
     @Override
     public Iterable<OpenFlowSwitch> getSwitches() {
         return connectedSwitches.values();
@@ -187,6 +257,12 @@ public class OpenFlowControllerImpl implements OpenFlowController {
             }
             break;
         case PACKET_IN:
+            // reject storms before spending any effort on the packet
+            if (packetInLimiter.admit(dpid, (OFPacketIn) msg) != PacketInLimiter.Verdict.ADMITTED) {
+                incCounter(packetInDropped);
+                break;
+            }
+            incCounter(packetInAdmitted);
             OpenFlowPacketContext pktCtx = DefaultOpenFlowPacketContext
             .packetContextFromPacketIn(this.getSwitch(dpid),
                     (OFPacketIn) msg);
@@ -397,6 +473,7 @@ public class OpenFlowControllerImpl implements OpenFlowController {
         @Override
         public void removeConnectedSwitch(Dpid dpid) {
             connectedSwitches.remove(dpid);
+            packetInLimiter.remove(dpid);
             OpenFlowSwitch sw = activeMasterSwitches.remove(dpid);
             if (sw == null) {
                 log.warn("sw was null for {}", dpid);
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.onlab.packet.Ethernet;
+import org.onosproject.openflow.controller.Dpid;
+import org.projectfloodlight.openflow.protocol.OFPacketIn;
+import org.projectfloodlight.openflow.protocol.match.MatchField;
+import org.projectfloodlight.openflow.types.OFPort;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+
+/**
+ * Admission stage for packet-ins, protecting the controller from storms.
+ * <p>
+ * Packets are admitted against token buckets kept per switch, per ingress
+ * port and per source MAC address. The buckets are checked from the most
+ * specific one up, so a single misbehaving host is cut off before it eats
+ * into the budget of its port and switch. Only the OpenFlow header and the
+ * raw frame are looked at; nothing is parsed.
+ * </p>
+ * <p>
+ * Link discovery probes all carry the same source MAC address and would
+ * share one bucket per switch however many links the switch has. A frame
+ * with a probe ether type and the discovery source MAC address is therefore
+ * charged to a probe bucket of its ingress port instead, at the per source
+ * rate. Spoofed probes get no further than a host sending from that port.
+ * </p>
+ */
+final class PacketInLimiter {
+
+    enum Verdict { ADMITTED, SWITCH_LIMITED, PORT_LIMITED, SOURCE_LIMITED }
+
+    // bounds the buckets kept for a MAC scan on a single switch
+    private static final int MAX_SOURCES = 10000;
+    private static final int SOURCE_IDLE_SECONDS = 60;
+
+    private static final int ETH_SRC_OFFSET = 6;
+    private static final int ETH_ADDR_LENGTH = 6;
+    private static final int ETH_TYPE_OFFSET = 12;
+    private static final int VLAN_HEADER_LENGTH = 4;
+    private static final short TYPE_VLAN = (short) 0x8100;
+
+    // source MAC address of the LLDP and BDDP probes sent by link discovery
+    private static final long PROBE_SOURCE_MAC = 0xdeadbeefba11L;
+
+    private final ConcurrentMap<Dpid, SwitchBuckets> switches = Maps.newConcurrentMap();
+
+    private volatile int switchRate;
+    private volatile int portRate;
+    private volatile int sourceRate;
+
+    /**
+     * Creates a limiter.
+     *
+     * @param switchRate packet-ins per second admitted from a switch
+     * @param portRate   packet-ins per second admitted from a switch port
+     * @param sourceRate packet-ins per second admitted from a source MAC
+     *                   address on a switch
+     */
+    PacketInLimiter(int switchRate, int portRate, int sourceRate) {
+        setRates(switchRate, portRate, sourceRate);
+    }
+
+    /**
+     * Changes the rates, in packet-ins per second; zero or less disables a
+     * limit. Buckets start over full.
+     *
+     * @param switchRate per switch rate
+     * @param portRate   per port rate
+     * @param sourceRate per source MAC address rate
+     */
+    void setRates(int switchRate, int portRate, int sourceRate) {
+        this.switchRate = switchRate;
+        this.portRate = portRate;
+        this.sourceRate = sourceRate;
+        switches.clear();
+    }
+
+    /**
+     * Decides whether a packet-in is to be processed.
+     *
+     * @param dpid   switch the packet-in came from
+     * @param packet the packet-in
+     * @return verdict
+     */
+    Verdict admit(Dpid dpid, OFPacketIn packet) {
+        SwitchBuckets buckets = switches.computeIfAbsent(dpid, d -> new SwitchBuckets());
+        final long now = System.nanoTime();
+
+        if (sourceRate > 0) {
+            byte[] frame = packet.getData();
+            if (frame.length >= ETH_SRC_OFFSET + ETH_ADDR_LENGTH) {
+                long mac = sourceKey(frame);
+                TokenBucket bucket = mac == PROBE_SOURCE_MAC && isProbe(frame) ?
+                        buckets.probe(inPort(packet)) : buckets.source(mac);
+                if (!bucket.tryAcquire(now)) {
+                    return Verdict.SOURCE_LIMITED;
+                }
+            }
+        }
+        if (portRate > 0 && !buckets.port(inPort(packet)).tryAcquire(now)) {
+            return Verdict.PORT_LIMITED;
+        }
+        if (buckets.total != null && !buckets.total.tryAcquire(now)) {
+            return Verdict.SWITCH_LIMITED;
+        }
+        return Verdict.ADMITTED;
+    }
+
+    /**
+     * Forgets the buckets of a switch.
+     *
+     * @param dpid switch identifier
+     */
+    void remove(Dpid dpid) {
+        switches.remove(dpid);
+    }
+
+    private static long sourceKey(byte[] frame) {
+        long mac = 0;
+        for (int i = ETH_SRC_OFFSET; i < ETH_SRC_OFFSET + ETH_ADDR_LENGTH; i++) {
+            mac = mac << 8 | (frame[i] & 0xffL);
+        }
+        return mac;
+    }
+
+    // Whether the frame has the ether type of an LLDP or BDDP probe.
+    private static boolean isProbe(byte[] frame) {
+        int offset = ETH_TYPE_OFFSET;
+        short type = etherType(frame, offset);
+        if (type == TYPE_VLAN) {
+            type = etherType(frame, offset + VLAN_HEADER_LENGTH);
+        }
+        return type == Ethernet.TYPE_LLDP || type == Ethernet.TYPE_BSN;
+    }
+
+    private static short etherType(byte[] frame, int offset) {
+        if (frame.length < offset + 2) {
+            return 0;
+        }
+        return (short) ((frame[offset] & 0xff) << 8 | (frame[offset + 1] & 0xff));
+    }
+
+    private static int inPort(OFPacketIn packet) {
+        //FIXME: this has to change in loxi
+        try {
+            return packet.getInPort().getPortNumber();
+        } catch (UnsupportedOperationException e) {
+            OFPort port = packet.getMatch().get(MatchField.IN_PORT);
+            return port == null ? 0 : port.getPortNumber();
+        }
+    }
+
+    // Buckets of a single switch.
+    private final class SwitchBuckets {
+        private final TokenBucket total =
+                switchRate > 0 ? new TokenBucket(switchRate) : null;
+        private final ConcurrentMap<Integer, TokenBucket> ports = Maps.newConcurrentMap();
+        private final ConcurrentMap<Integer, TokenBucket> probes = Maps.newConcurrentMap();
+        private final Cache<Long, TokenBucket> sources = CacheBuilder.newBuilder()
+                .maximumSize(MAX_SOURCES)
+                .expireAfterAccess(SOURCE_IDLE_SECONDS, TimeUnit.SECONDS)
+                .build();
+
+        TokenBucket port(int port) {
+            return ports.computeIfAbsent(port, p -> new TokenBucket(portRate));
+        }
+
+        TokenBucket probe(int port) {
+            return probes.computeIfAbsent(port, p -> new TokenBucket(sourceRate));
+        }
+
+        TokenBucket source(long mac) {
+            try {
+                return sources.get(mac, () -> new TokenBucket(sourceRate));
+            } catch (ExecutionException e) {
+                // cannot happen; the loader does not throw
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Token bucket refilled at a steady rate, holding at most one second
+     * worth of tokens.
+     */
+    static final class TokenBucket {
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long last;
+
+        TokenBucket(int rate) {
+            this.tokensPerNano = rate / (double) TimeUnit.SECONDS.toNanos(1);
+            this.capacity = rate;
+            this.tokens = rate;
+            this.last = System.nanoTime();
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            if (now > last) {
+                tokens = Math.min(capacity, tokens + (now - last) * tokensPerNano);
+                last = now;
+            }
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+}
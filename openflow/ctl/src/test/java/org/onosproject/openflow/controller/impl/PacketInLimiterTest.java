@@ -0,0 +1,168 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.openflow.controller.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.onosproject.openflow.controller.impl.PacketInLimiter.Verdict.ADMITTED;
+import static org.onosproject.openflow.controller.impl.PacketInLimiter.Verdict.PORT_LIMITED;
+import static org.onosproject.openflow.controller.impl.PacketInLimiter.Verdict.SOURCE_LIMITED;
+import static org.onosproject.openflow.controller.impl.PacketInLimiter.Verdict.SWITCH_LIMITED;
+
+import org.junit.Test;
+import org.onlab.packet.Ethernet;
+import org.onosproject.openflow.controller.Dpid;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFPacketIn;
+import org.projectfloodlight.openflow.protocol.OFPacketInReason;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+import org.projectfloodlight.openflow.types.OFBufferId;
+import org.projectfloodlight.openflow.types.OFPort;
+
+/**
+ * Test of the packet-in admission stage.
+ */
+public class PacketInLimiterTest {
+
+    private static final Dpid DPID1 = new Dpid(1);
+    private static final Dpid DPID2 = new Dpid(2);
+
+    // rates are low enough for the buckets not to refill during a test
+    private static final int RATE = 5;
+
+    // source MAC address of all link discovery probes
+    private static final byte[] PROBE_MAC = {
+        (byte) 0xde, (byte) 0xad, (byte) 0xbe, (byte) 0xef, (byte) 0xba, 0x11
+    };
+
+    private OFPacketIn packetIn(int port, int srcMac) {
+        byte[] frame = new byte[60];
+        frame[11] = (byte) srcMac;
+        return packetIn(port, frame);
+    }
+
+    // frame from the discovery source MAC address with the given ether types
+    private OFPacketIn probe(int port, short... types) {
+        byte[] frame = new byte[60];
+        System.arraycopy(PROBE_MAC, 0, frame, 6, PROBE_MAC.length);
+        for (int i = 0; i < types.length; i++) {
+            frame[12 + 4 * i] = (byte) (types[i] >> 8);
+            frame[13 + 4 * i] = (byte) types[i];
+        }
+        return packetIn(port, frame);
+    }
+
+    private OFPacketIn packetIn(int port, byte[] frame) {
+        return OFFactories.getFactory(OFVersion.OF_10).buildPacketIn()
+                .setInPort(OFPort.of(port))
+                .setBufferId(OFBufferId.NO_BUFFER)
+                .setReason(OFPacketInReason.NO_MATCH)
+                .setData(frame)
+                .build();
+    }
+
+    @Test
+    public void sourceLimited() {
+        PacketInLimiter limiter = new PacketInLimiter(0, 0, RATE);
+        for (int i = 0; i < RATE; i++) {
+            assertEquals(ADMITTED, limiter.admit(DPID1, packetIn(1, 1)));
+        }
+        assertEquals(SOURCE_LIMITED, limiter.admit(DPID1, packetIn(1, 1)));
+        // other sources and switches are unaffected
+        assertEquals(ADMITTED, limiter.admit(DPID1, packetIn(1, 2)));
+        assertEquals(ADMITTED, limiter.admit(DPID2, packetIn(1, 1)));
+    }
+
+    @Test
+    public void portLimited() {
+        PacketInLimiter limiter = new PacketInLimiter(0, RATE, 0);
+        for (int i = 0; i < RATE; i++) {
+            assertEquals(ADMITTED, limiter.admit(DPID1, packetIn(1, i)));
+        }
+        assertEquals(PORT_LIMITED, limiter.admit(DPID1, packetIn(1, 42)));
+        assertEquals(ADMITTED, limiter.admit(DPID1, packetIn(2, 42)));
+    }
+
+    @Test
+    public void switchLimited() {
+        PacketInLimiter limiter = new PacketInLimiter(RATE, 0, 0);
+        for (int i = 0; i < RATE; i++) {
+            assertEquals(ADMITTED, limiter.admit(DPID1, packetIn(i, i)));
+        }
+        assertEquals(SWITCH_LIMITED, limiter.admit(DPID1, packetIn(42, 42)));
+        assertEquals(ADMITTED, limiter.admit(DPID2, packetIn(42, 42)));
+
+        // a switch reconnecting starts over
+        limiter.remove(DPID1);
+        assertEquals(ADMITTED, limiter.admit(DPID1, packetIn(42, 42)));
+    }
+
+    // frame from the given source MAC address with the LLDP ether type
+    private OFPacketIn spoofedProbe(int port, int srcMac) {
+        byte[] frame = new byte[60];
+        frame[11] = (byte) srcMac;
+        frame[12] = (byte) (Ethernet.TYPE_LLDP >> 8);
+        frame[13] = (byte) Ethernet.TYPE_LLDP;
+        return packetIn(port, frame);
+    }
+
+    @Test
+    public void probesLimitedPerPort() {
+        PacketInLimiter limiter = new PacketInLimiter(0, 0, RATE);
+        // probes of a switch with many links share the source MAC address
+        for (int port = 1; port <= 10 * RATE; port++) {
+            assertEquals(ADMITTED, limiter.admit(DPID1, probe(port, Ethernet.TYPE_LLDP)));
+        }
+        for (int i = 1; i < RATE; i++) {
+            assertEquals(ADMITTED, limiter.admit(DPID1, probe(1, Ethernet.TYPE_BSN)));
+        }
+        assertEquals(SOURCE_LIMITED, limiter.admit(DPID1, probe(1, (short) 0x8100,
+                                                               Ethernet.TYPE_LLDP)));
+        assertEquals(ADMITTED, limiter.admit(DPID1, probe(2, (short) 0x8100,
+                                                         Ethernet.TYPE_LLDP)));
+        // other traffic from the same address is still limited
+        for (int i = 0; i < RATE; i++) {
+            assertEquals(ADMITTED, limiter.admit(DPID1, probe(1, Ethernet.TYPE_IPV4)));
+        }
+        assertEquals(SOURCE_LIMITED, limiter.admit(DPID1, probe(1, Ethernet.TYPE_IPV4)));
+    }
+
+    @Test
+    public void spoofedProbesSourceLimited() {
+        PacketInLimiter limiter = new PacketInLimiter(0, 0, RATE);
+        // the probe ether type alone does not escape the source bucket
+        for (int port = 1; port <= RATE; port++) {
+            assertEquals(ADMITTED, limiter.admit(DPID1, spoofedProbe(port, 1)));
+        }
+        assertEquals(SOURCE_LIMITED, limiter.admit(DPID1, spoofedProbe(RATE + 1, 1)));
+    }
+
+    @Test
+    public void probesPortLimited() {
+        PacketInLimiter limiter = new PacketInLimiter(0, RATE, 2 * RATE);
+        for (int i = 0; i < RATE; i++) {
+            assertEquals(ADMITTED, limiter.admit(DPID1, probe(1, Ethernet.TYPE_LLDP)));
+        }
+        assertEquals(PORT_LIMITED, limiter.admit(DPID1, probe(1, Ethernet.TYPE_LLDP)));
+    }
+
+    @Test
+    public void unlimited() {
+        PacketInLimiter limiter = new PacketInLimiter(0, 0, 0);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(ADMITTED, limiter.admit(DPID1, packetIn(1, 1)));
+        }
+    }
+}
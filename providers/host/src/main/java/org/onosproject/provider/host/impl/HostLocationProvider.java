@@ -15,6 +15,7 @@
  */
 package org.onosproject.provider.host.impl;
 
+import com.google.common.collect.ImmutableSet;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
@@ -100,7 +101,8 @@ public class HostLocationProvider extends AbstractProvider implements HostProvid
     public void activate(ComponentContext context) {
         modified(context);
         providerService = providerRegistry.register(this);
-        pktService.addProcessor(processor, 1);
+        pktService.addProcessor(processor, 1,
+                                ImmutableSet.of(Ethernet.TYPE_ARP, Ethernet.TYPE_IPV4));
         deviceService.addListener(deviceListener);
         log.info("Started");
     }
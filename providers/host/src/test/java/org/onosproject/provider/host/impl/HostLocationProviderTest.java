@@ -251,6 +251,12 @@ public class HostLocationProviderTest {
             testProcessor = processor;
         }
 
+        @Override
+        public void addProcessor(PacketProcessor processor, int priority,
+                                 Set<Short> ethTypes) {
+            testProcessor = processor;
+        }
+
         @Override
         public void removeProcessor(PacketProcessor processor) {
         }
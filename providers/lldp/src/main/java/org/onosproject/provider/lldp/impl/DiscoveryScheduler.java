@@ -0,0 +1,111 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.provider.lldp.impl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.Collection;
+
+import org.jboss.netty.util.Timeout;
+import org.jboss.netty.util.TimerTask;
+import org.onlab.util.Timer;
+import org.slf4j.Logger;
+
+/**
+ * Single timer task driving link discovery for all devices. The probe
+ * interval is divided into a fixed number of slots and on every tick each
+ * active discoverer probes only the ports assigned to the current slot, so
+ * probes are spread evenly across the interval rather than sent in bursts.
+ */
+public class DiscoveryScheduler implements TimerTask {
+
+    private final Logger log = getLogger(getClass());
+
+    private final Collection<LinkDiscovery> discoverers;
+    private final int slots;
+    private final long tickMillis;
+
+    // only touched from the timer thread
+    private int slot;
+    private volatile Timeout timeout;
+    private volatile boolean isStopped = true;
+
+    /**
+     * Creates a scheduler over the given live collection of discoverers.
+     *
+     * @param discoverers discoverers to drive; iterated on every tick
+     * @param probeRate   interval in milliseconds in which every port is probed
+     * @param slots       number of slots the probe interval is divided into
+     */
+    public DiscoveryScheduler(Collection<LinkDiscovery> discoverers,
+                              long probeRate, int slots) {
+        checkArgument(slots > 0 && probeRate >= slots,
+                      "Probe rate must allow at least 1ms per slot");
+        this.discoverers = discoverers;
+        this.slots = slots;
+        this.tickMillis = probeRate / slots;
+    }
+
+    /**
+     * Processes the current slot for all active discoverers and schedules
+     * the next tick.
+     *
+     * @param t timeout
+     */
+    @Override
+    public void run(Timeout t) {
+        if (isStopped) {
+            return;
+        }
+        for (LinkDiscovery ld : discoverers) {
+            if (!ld.isActive()) {
+                continue;
+            }
+            try {
+                ld.probe(slot, slots);
+            } catch (Exception e) {
+                // one misbehaving device must not stall discovery for others
+                log.warn("Unable to send discovery probes", e);
+            }
+        }
+        slot = (slot + 1) % slots;
+
+        if (!isStopped) {
+            timeout = Timer.getTimer().newTimeout(this, tickMillis, MILLISECONDS);
+        }
+    }
+
+    public synchronized void start() {
+        if (isStopped) {
+            isStopped = false;
+            timeout = Timer.getTimer().newTimeout(this, 0, MILLISECONDS);
+        }
+    }
+
+    public synchronized void stop() {
+        isStopped = true;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    public boolean isStopped() {
+        return isStopped;
+    }
+
+}
@@ -15,11 +15,13 @@
  */
 package org.onosproject.provider.lldp.impl;
 
+import com.google.common.collect.ImmutableSet;
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Deactivate;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
+import org.onlab.packet.Ethernet;
 import org.onosproject.mastership.MastershipEvent;
 import org.onosproject.mastership.MastershipListener;
 import org.onosproject.mastership.MastershipService;
@@ -47,6 +49,7 @@ import java.util.concurrent.TimeUnit;
 
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 import static org.onlab.util.Tools.namedThreads;
+import static org.onosproject.net.MastershipRole.MASTER;
 import static org.slf4j.LoggerFactory.getLogger;
 
 
@@ -80,12 +83,19 @@ public class LLDPLinkProvider extends AbstractProvider implements LinkProvider {
     private static final long INIT_DELAY = 5;
     private static final long DELAY = 5;
 
+    // every port is probed once per PROBE_RATE ms, spread over PROBE_SLOTS ticks
+    private static final long PROBE_RATE = 3000;
+    private static final int PROBE_SLOTS = 10;
+
     private final InternalLinkProvider listener = new InternalLinkProvider();
 
     private final InternalRoleListener roleListener = new InternalRoleListener();
 
     protected final Map<DeviceId, LinkDiscovery> discoverers = new ConcurrentHashMap<>();
 
+    protected final DiscoveryScheduler scheduler =
+            new DiscoveryScheduler(discoverers.values(), PROBE_RATE, PROBE_SLOTS);
+
     /**
      * Creates an OpenFlow link provider.
      */
@@ -97,7 +107,8 @@ public class LLDPLinkProvider extends AbstractProvider implements LinkProvider {
     public void activate() {
         providerService = providerRegistry.register(this);
         deviceService.addListener(listener);
-        packetSevice.addProcessor(listener, 0);
+        packetSevice.addProcessor(listener, 0,
+                                  ImmutableSet.of(Ethernet.TYPE_LLDP, Ethernet.TYPE_BSN));
         masterService.addListener(roleListener);
 
         LinkDiscovery ld;
@@ -112,6 +123,8 @@ public class LLDPLinkProvider extends AbstractProvider implements LinkProvider {
             }
         }
 
+        scheduler.start();
+
         executor = newSingleThreadScheduledExecutor(namedThreads("device-sync-%d"));
         executor.scheduleAtFixedRate(new SyncDeviceInfoTask(), INIT_DELAY,
                 DELAY, TimeUnit.SECONDS);
@@ -122,6 +135,7 @@ public class LLDPLinkProvider extends AbstractProvider implements LinkProvider {
     @Deactivate
     public void deactivate() {
         executor.shutdownNow();
+        scheduler.stop();
         for (LinkDiscovery ld : discoverers.values()) {
             ld.stop();
         }
@@ -151,13 +165,16 @@ public class LLDPLinkProvider extends AbstractProvider implements LinkProvider {
                 return;
             }
             synchronized (discoverers) {
-                if (!discoverers.containsKey(deviceId)) {
+                LinkDiscovery ld = discoverers.get(deviceId);
+                if (ld == null) {
                     // ideally, should never reach here
                     log.debug("Device mastership changed ({}) {}",
                             event.type(), deviceId);
                     discoverers.put(deviceId, new LinkDiscovery(device,
                             packetSevice, masterService, providerService,
                             useBDDP));
+                } else {
+                    ld.setMaster(masterService.getLocalRole(deviceId) == MASTER);
                 }
             }
         }
@@ -16,23 +16,16 @@
 package org.onosproject.provider.lldp.impl;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.onosproject.net.MastershipRole.MASTER;
 import static org.onosproject.net.PortNumber.portNumber;
 import static org.onosproject.net.flow.DefaultTrafficTreatment.builder;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.nio.ByteBuffer;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 
-import org.jboss.netty.util.Timeout;
-import org.jboss.netty.util.TimerTask;
 import org.onosproject.mastership.MastershipService;
 import org.onosproject.net.ConnectPoint;
 import org.onosproject.net.Device;
@@ -49,7 +42,6 @@ import org.onosproject.net.packet.PacketContext;
 import org.onosproject.net.packet.PacketService;
 import org.onlab.packet.Ethernet;
 import org.onlab.packet.ONOSLLDP;
-import org.onlab.util.Timer;
 import org.slf4j.Logger;
 
 // TODO: add 'fast discovery' mode: drop LLDPs in destination switch but listen for flow_removed messages
@@ -57,22 +49,29 @@ import org.slf4j.Logger;
 /**
  * Run discovery process from a physical switch. Ports are initially labeled as
  * slow ports. When an LLDP is successfully received, label the remote port as
- * fast. Every probeRate milliseconds, loop over all fast ports and send an
- * LLDP, send an LLDP for a single slow port. Based on FlowVisor topology
- * discovery implementation.
+ * fast. Probing is driven by the {@link DiscoveryScheduler}, which splits the
+ * probe interval into slots and asks each discoverer to probe only the ports
+ * assigned to the current slot. Over one interval every fast port is probed
+ * once, and is demoted to slow if too many probes go unacknowledged. Based on
+ * FlowVisor topology discovery implementation.
  */
-public class LinkDiscovery implements TimerTask {
+public class LinkDiscovery {
 
     private final Device device;
-    // send 1 probe every probeRate milliseconds
-    private final long probeRate;
-    private final Set<Long> slowPorts;
-    // ports, known to have incoming links
-    private final Set<Long> fastPorts;
-    // number of unacknowledged probes per port
-    private final Map<Long, AtomicInteger> portProbeCount;
     // number of probes to send before link is removed
     private static final short MAX_PROBE_COUNT = 3;
+    private static final int INITIAL_PORT_CAPACITY = 16;
+
+    // per-port discovery state; entries [0, portCount) are in use
+    private long[] ports = new long[INITIAL_PORT_CAPACITY];
+    // ports, known to have incoming links
+    private boolean[] fastPorts = new boolean[INITIAL_PORT_CAPACITY];
+    // number of unacknowledged probes per port
+    private int[] probeCounts = new int[INITIAL_PORT_CAPACITY];
+    private int portCount;
+    // position of each port in the discovery state
+    private final Map<Long, Integer> portIndex = new HashMap<>();
+
     private final Logger log = getLogger(getClass());
     private final ONOSLLDP lldpPacket;
     private final Ethernet ethPacket;
@@ -80,14 +79,14 @@ public class LinkDiscovery implements TimerTask {
     private final boolean useBDDP;
     private final LinkProviderService linkProvider;
     private final PacketService pktService;
-    private final MastershipService mastershipService;
-    private Timeout timeout;
+    private volatile boolean isMaster;
     private volatile boolean isStopped;
 
     /**
      * Instantiates discovery manager for the given physical switch. Creates a
      * generic LLDP packet that will be customized for the port it is sent out on.
-     * Starts the the timer for the discovery process.
+     * The discoverer starts out running; probes are only sent while the local
+     * node is master for the device.
      *
      * @param device        the physical switch
      * @param pktService    packet service
@@ -99,14 +98,11 @@ public class LinkDiscovery implements TimerTask {
                          MastershipService masterService,
                          LinkProviderService providerService, Boolean... useBDDP) {
         this.device = device;
-        this.probeRate = 3000;
         this.linkProvider = providerService;
         this.pktService = pktService;
 
-        this.mastershipService = checkNotNull(masterService, "WTF!");
-        this.slowPorts = Collections.synchronizedSet(new HashSet<Long>());
-        this.fastPorts = Collections.synchronizedSet(new HashSet<Long>());
-        this.portProbeCount = new HashMap<>();
+        checkNotNull(masterService, "WTF!");
+        this.isMaster = masterService.getLocalRole(device.id()) == MASTER;
         this.lldpPacket = new ONOSLLDP();
         this.lldpPacket.setChassisId(device.chassisId());
         this.lldpPacket.setDevice(device.id().toString());
@@ -127,8 +123,7 @@ public class LinkDiscovery implements TimerTask {
             log.info("Using BDDP to discover network");
         }
 
-        this.isStopped = true;
-        start();
+        this.isStopped = false;
         this.log.debug("Started discovery manager for switch {}",
                        device.id());
 
@@ -136,42 +131,63 @@ public class LinkDiscovery implements TimerTask {
 
     /**
      * Add physical port port to discovery process.
-     * Send out initial LLDP and label it as slow port.
+     * Send out initial LLDP and label it as slow port. A port already known
+     * is probed right away, keeping its state.
      *
      * @param port the port
      */
     public void addPort(final Port port) {
-        this.log.debug("Sending init probe to port {}@{}",
-                       port.number().toLong(), device.id());
-        boolean isMaster = mastershipService.getLocalRole(device.id()) == MASTER;
-        if (isMaster) {
-            sendProbes(port.number().toLong());
-        }
+        long portNumber = port.number().toLong();
         synchronized (this) {
-            this.slowPorts.add(port.number().toLong());
+            if (indexOf(portNumber) < 0) {
+                appendPort(portNumber);
+            }
+
+            if (isMaster) {
+                this.log.debug("Sending init probe to port {}@{}",
+                               portNumber, device.id());
+                sendProbes(portNumber);
+            }
         }
     }
 
+    // must be called while holding the monitor of this
+    private void appendPort(long portNumber) {
+        if (portCount == ports.length) {
+            int capacity = ports.length * 2;
+            ports = Arrays.copyOf(ports, capacity);
+            fastPorts = Arrays.copyOf(fastPorts, capacity);
+            probeCounts = Arrays.copyOf(probeCounts, capacity);
+        }
+        ports[portCount] = portNumber;
+        fastPorts[portCount] = false;
+        probeCounts[portCount] = 0;
+        portIndex.put(portNumber, portCount);
+        portCount++;
+    }
+
     /**
      * Removes physical port from discovery process.
      *
      * @param port the port
      */
     public void removePort(final Port port) {
-        // Ignore ports that are not on this switch
-
         long portnum = port.number().toLong();
         synchronized (this) {
-            if (this.slowPorts.contains(portnum)) {
-                this.slowPorts.remove(portnum);
-
-            } else if (this.fastPorts.contains(portnum)) {
-                this.fastPorts.remove(portnum);
-                this.portProbeCount.remove(portnum);
-                // no iterator to update
-            } else {
+            int index = indexOf(portnum);
+            if (index < 0) {
                 this.log.warn("Tried to dynamically remove non-existing port {}",
                               portnum);
+                return;
+            }
+            // move the last entry into the vacated position
+            portCount--;
+            portIndex.remove(portnum);
+            if (index < portCount) {
+                ports[index] = ports[portCount];
+                fastPorts[index] = fastPorts[portCount];
+                probeCounts[index] = probeCounts[portCount];
+                portIndex.put(ports[index], index);
             }
         }
     }
@@ -185,17 +201,17 @@ public class LinkDiscovery implements TimerTask {
      */
     public void ackProbe(final Long portNumber) {
         synchronized (this) {
-            if (this.slowPorts.contains(portNumber)) {
+            int index = indexOf(portNumber);
+            if (index < 0) {
+                this.log.debug("Got ackProbe for non-existing port: {}", portNumber);
+                return;
+            }
+            if (!fastPorts[index]) {
                 this.log.debug("Setting slow port to fast: {}:{}",
                                this.device.id(), portNumber);
-                this.slowPorts.remove(portNumber);
-                this.fastPorts.add(portNumber);
-                this.portProbeCount.put(portNumber, new AtomicInteger(0));
-            } else if (this.fastPorts.contains(portNumber)) {
-                this.portProbeCount.get(portNumber).set(0);
-            } else {
-                this.log.debug("Got ackProbe for non-existing port: {}", portNumber);
+                fastPorts[index] = true;
             }
+            probeCounts[index] = 0;
         }
     }
 
@@ -233,43 +249,28 @@ public class LinkDiscovery implements TimerTask {
 
 
     /**
-     * Execute this method every t milliseconds. Loops over all ports
-     * labeled as fast and sends out an LLDP. Send out an LLDP on a single slow
-     * port.
+     * Sends probes out of the ports assigned to the given slot. Fast ports
+     * whose probes have gone unacknowledged too many times are demoted to
+     * slow and their links reported as vanished.
      *
-     * @param t timeout
+     * @param slot  slot of the probe interval being processed
+     * @param slots total number of slots in the probe interval
      */
-    @Override
-    public void run(final Timeout t) {
-        if (isStopped()) {
-            return;
-        }
-        boolean isMaster = mastershipService.getLocalRole(device.id()) == MASTER;
-        if (!isMaster) {
-            if (!isStopped()) {
-                // reschedule timer
-                timeout = Timer.getTimer().newTimeout(this, this.probeRate, MILLISECONDS);
-            }
-            return;
-        }
-
-        this.log.trace("Sending probes from {}", device.id());
+    public void probe(int slot, int slots) {
+        this.log.trace("Sending probes from {} for slot {}", device.id(), slot);
         synchronized (this) {
-            final Iterator<Long> fastIterator = this.fastPorts.iterator();
-            while (fastIterator.hasNext()) {
-                long portNumber = fastIterator.next();
-                int probeCount = portProbeCount.get(portNumber).getAndIncrement();
-
-                if (probeCount < LinkDiscovery.MAX_PROBE_COUNT) {
+            for (int i = slot; i < portCount; i += slots) {
+                long portNumber = ports[i];
+                if (!fastPorts[i]) {
+                    this.log.trace("Sending slow probe to port {}", portNumber);
+                    sendProbes(portNumber);
+                } else if (probeCounts[i]++ < MAX_PROBE_COUNT) {
                     this.log.trace("Sending fast probe to port {}", portNumber);
                     sendProbes(portNumber);
-
                 } else {
-                    // Link down, demote to slowPorts
-                    // Update fast and slow ports
-                    fastIterator.remove();
-                    this.slowPorts.add(portNumber);
-                    this.portProbeCount.remove(portNumber);
+                    // Link down, demote to slow port
+                    fastPorts[i] = false;
+                    probeCounts[i] = 0;
 
                     ConnectPoint cp = new ConnectPoint(device.id(),
                                                        portNumber(portNumber));
@@ -277,34 +278,46 @@ public class LinkDiscovery implements TimerTask {
                     linkProvider.linksVanished(cp);
                 }
             }
-
-            // send a probe for the next slow port
-            for (long portNumber : slowPorts) {
-                this.log.trace("Sending slow probe to port {}", portNumber);
-                sendProbes(portNumber);
-            }
-        }
-
-        if (!isStopped()) {
-            // reschedule timer
-            timeout = Timer.getTimer().newTimeout(this, this.probeRate, MILLISECONDS);
         }
     }
 
-    public synchronized void stop() {
-        timeout.cancel();
+    public void stop() {
         isStopped = true;
     }
 
-    public synchronized void start() {
+    public void start() {
         if (isStopped) {
-            timeout = Timer.getTimer().newTimeout(this, 0, MILLISECONDS);
             isStopped = false;
         } else {
             log.warn("LinkDiscovery started multiple times?");
         }
     }
 
+    /**
+     * Records whether the local node is master for the device. Probes are
+     * only sent while it is.
+     *
+     * @param isMaster true if the local node is master for the device
+     */
+    public void setMaster(boolean isMaster) {
+        this.isMaster = isMaster;
+    }
+
+    /**
+     * Returns whether this discoverer should currently be sending probes.
+     *
+     * @return true if running and the local node is master for the device
+     */
+    public boolean isActive() {
+        return isMaster && !isStopped;
+    }
+
+    // must be called while holding the monitor of this
+    private int indexOf(long portNumber) {
+        Integer index = portIndex.get(portNumber);
+        return index == null ? -1 : index;
+    }
+
     /**
      * Creates packet_out LLDP for specified output port.
      *
@@ -355,8 +368,8 @@ public class LinkDiscovery implements TimerTask {
         }
     }
 
-    public boolean containsPort(Long portNumber) {
-        return slowPorts.contains(portNumber) || fastPorts.contains(portNumber);
+    public synchronized boolean containsPort(Long portNumber) {
+        return indexOf(portNumber) >= 0;
     }
 
     public boolean isStopped() {
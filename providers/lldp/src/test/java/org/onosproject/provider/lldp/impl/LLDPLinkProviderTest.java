@@ -175,6 +175,73 @@ public class LLDPLinkProviderTest {
     }
 
 
+    @Test
+    public void probesSpreadAcrossSlots() {
+        LinkDiscovery ld = new LinkDiscovery(deviceService.getDevice(DID2),
+                packetService, masterService, providerService, true);
+        ld.addPort(pd3);
+        ld.addPort(pd4);
+        packetService.emitted.clear();
+
+        ld.probe(0, 2);
+        assertEquals("LLDP and BDDP expected for one port only",
+                     2, packetService.emitted.size());
+        ld.probe(1, 2);
+        assertEquals("LLDP and BDDP expected for the other port",
+                     4, packetService.emitted.size());
+    }
+
+    @Test
+    public void knownPortProbedOnAdd() {
+        LinkDiscovery ld = new LinkDiscovery(deviceService.getDevice(DID2),
+                packetService, masterService, providerService, true);
+        ld.addPort(pd3);
+        ld.addPort(pd4);
+        packetService.emitted.clear();
+
+        // port coming back up is probed at once, not at its next slot
+        ld.addPort(pd3);
+        assertEquals("LLDP and BDDP expected for the known port",
+                     2, packetService.emitted.size());
+
+        ld.removePort(pd3);
+        assertFalse(ld.containsPort(pd3.number().toLong()));
+        assertTrue("remaining port should still be known", ld.containsPort(pd4.number().toLong()));
+        ld.ackProbe(pd4.number().toLong());
+        packetService.emitted.clear();
+        ld.probe(0, 1);
+        assertEquals("only the remaining port should be probed",
+                     2, packetService.emitted.size());
+    }
+
+    @Test
+    public void unacknowledgedFastPortDemoted() {
+        LinkDiscovery ld = new LinkDiscovery(deviceService.getDevice(DID2),
+                packetService, masterService, providerService, true);
+        ld.addPort(pd3);
+        ld.ackProbe(pd3.number().toLong());
+
+        for (int i = 0; i < 3; i++) {
+            ld.probe(0, 1);
+        }
+        assertFalse("Port should still be up", vanishedPort(pd3.number().toLong()));
+        ld.probe(0, 1);
+        assertTrue("Port should be down", vanishedPort(pd3.number().toLong()));
+        assertTrue("Port should still be probed", ld.containsPort(pd3.number().toLong()));
+    }
+
+    @Test
+    public void inactiveWhenNotMaster() {
+        LinkDiscovery ld = new LinkDiscovery(deviceService.getDevice(DID2),
+                packetService, masterService, providerService, true);
+        assertTrue("Discoverer should be active", ld.isActive());
+        ld.setMaster(false);
+        assertFalse("Discoverer should be inactive", ld.isActive());
+        ld.setMaster(true);
+        ld.stop();
+        assertFalse("Discoverer should be inactive", ld.isActive());
+    }
+
     @After
     public void tearDown() {
         provider.deactivate();
@@ -358,11 +425,20 @@ public class LLDPLinkProviderTest {
 
     private class TestPacketService implements PacketService {
 
+        final List<OutboundPacket> emitted =
+                Collections.synchronizedList(Lists.<OutboundPacket>newArrayList());
+
         @Override
         public void addProcessor(PacketProcessor processor, int priority) {
             testProcessor = processor;
         }
 
+        @Override
+        public void addProcessor(PacketProcessor processor, int priority,
+                                 Set<Short> ethTypes) {
+            testProcessor = processor;
+        }
+
         @Override
         public void removeProcessor(PacketProcessor processor) {
 
@@ -370,7 +446,7 @@ public class LLDPLinkProviderTest {
 
         @Override
         public void emit(OutboundPacket packet) {
-
+            emitted.add(packet);
         }
     }
 
@@ -17,9 +17,12 @@ package org.onosproject.provider.of.flow.impl;
 
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.ListenableFuture;
 
 import org.apache.felix.scr.annotations.Activate;
 import org.apache.felix.scr.annotations.Component;
@@ -71,19 +74,19 @@ import org.projectfloodlight.openflow.protocol.instruction.OFInstructionApplyAct
 import org.projectfloodlight.openflow.types.OFPort;
 import org.slf4j.Logger;
 
+import java.util.ArrayDeque;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
@@ -99,6 +102,13 @@ public class OpenFlowRuleProvider extends AbstractProvider implements FlowRulePr
 
     enum BatchState { STARTED, FINISHED, CANCELLED };
 
+    // bounds of the number of batches awaiting a barrier reply per switch
+    private static final int MIN_WINDOW = 1;
+    private static final int INITIAL_WINDOW = 4;
+    private static final int MAX_WINDOW = 64;
+    // barrier round trip, relative to the best seen, at which window shrinks
+    private static final int LATENCY_TOLERANCE = 4;
+
     private final Logger log = getLogger(getClass());
 
     @Reference(cardinality = ReferenceCardinality.MANDATORY_UNARY)
@@ -124,6 +134,9 @@ public class OpenFlowRuleProvider extends AbstractProvider implements FlowRulePr
 
     private final Map<Dpid, FlowStatsCollector> collectors = Maps.newHashMap();
 
+    private final ConcurrentMap<Dpid, SwitchInstaller> installers =
+            new ConcurrentHashMap<>();
+
     private final AtomicLong xidCounter = new AtomicLong(1);
 
     /**
@@ -192,14 +205,11 @@ public class OpenFlowRuleProvider extends AbstractProvider implements FlowRulePr
     }
 
     @Override
-    public Future<CompletedBatchOperation> executeBatch(BatchOperation<FlowRuleBatchEntry> batch) {
+    public ListenableFuture<CompletedBatchOperation> executeBatch(BatchOperation<FlowRuleBatchEntry> batch) {
         final Set<Dpid> sws = Sets.newConcurrentHashSet();
         final Map<Long, FlowRuleBatchEntry> fmXids = new HashMap<>();
-        /*
-         * Use identity hash map for reference equality as we could have equal
-         * flow mods for different switches.
-         */
-        Map<OFFlowMod, OpenFlowSwitch> mods = Maps.newIdentityHashMap();
+        // flow mods per switch, in batch order
+        Multimap<Dpid, OFFlowMod> mods = ArrayListMultimap.create();
         for (FlowRuleBatchEntry fbe : batch.getOperations()) {
             FlowRule flowRule = fbe.getTarget();
             final Dpid dpid = Dpid.dpid(flowRule.deviceId().uri());
@@ -214,47 +224,147 @@ public class OpenFlowRuleProvider extends AbstractProvider implements FlowRulePr
                 failed.cancel(true);
                 return failed;
             }
+            // every switch of the batch is sent a barrier, even if none of
+            // its flow mods could be built, as the batch awaits all of them
             sws.add(dpid);
             final Long flowModXid = xidCounter.getAndIncrement();
-            FlowModBuilder builder =
-                    FlowModBuilder.builder(flowRule, sw.factory(),
-                                           Optional.of(flowModXid));
             OFFlowMod mod = null;
-            switch (fbe.getOperator()) {
-                case ADD:
-                    mod = builder.buildFlowAdd();
-                    break;
-                case REMOVE:
-                    mod = builder.buildFlowDel();
-                    break;
-                case MODIFY:
-                    mod = builder.buildFlowMod();
-                    break;
-                default:
-                    log.error("Unsupported batch operation {}", fbe.getOperator());
+            try {
+                FlowModBuilder builder =
+                        FlowModBuilder.builder(flowRule, sw.factory(),
+                                               Optional.of(flowModXid));
+                switch (fbe.getOperator()) {
+                    case ADD:
+                        mod = builder.buildFlowAdd();
+                        break;
+                    case REMOVE:
+                        mod = builder.buildFlowDel();
+                        break;
+                    case MODIFY:
+                        mod = builder.buildFlowMod();
+                        break;
+                    default:
+                        log.error("Unsupported batch operation {}", fbe.getOperator());
+                }
+            } catch (UnsupportedOperationException | IllegalArgumentException e) {
+                log.error("Unable to build flow mod for {}", flowRule, e);
             }
             if (mod != null) {
-                mods.put(mod, sw);
+                mods.put(dpid, mod);
                 fmXids.put(flowModXid, fbe);
             } else {
                 log.error("Conversion of flowrule {} failed.", flowRule);
             }
         }
+        checkState(!sws.isEmpty());
+        // barrier replies remove switches from the set while iterating
+        final Set<Dpid> targets = ImmutableSet.copyOf(sws);
         InstallationFuture installation = new InstallationFuture(sws, fmXids);
         for (Long xid : fmXids.keySet()) {
             pendingFMs.put(xid, installation);
         }
 
         pendingFutures.put(installation.xid(), installation);
-        for (Map.Entry<OFFlowMod, OpenFlowSwitch> entry : mods.entrySet()) {
-            OpenFlowSwitch sw = entry.getValue();
-            OFFlowMod mod = entry.getKey();
-            sw.sendMsg(mod);
+        for (Dpid dpid : targets) {
+            installer(dpid).submit(installation, mods.get(dpid));
         }
-        installation.verify();
         return installation;
     }
 
+    private SwitchInstaller installer(Dpid dpid) {
+        OpenFlowSwitch sw = controller.getSwitch(dpid);
+        return installers.compute(dpid, (d, installer) ->
+                installer != null && installer.sw == sw ? installer : new SwitchInstaller(sw));
+    }
+
+    /**
+     * Pipelines flow mod batches to a single switch. Each batch is closed by
+     * its own barrier and up to a window of batches may await their barrier
+     * replies at a time. The window grows while barrier round trips stay
+     * close to the best recently observed one and is halved when they
+     * stretch out, which keeps the switch busy without flooding its queues.
+     */
+    private final class SwitchInstaller {
+
+        private final OpenFlowSwitch sw;
+        private final Queue<PendingBatch> queued = new ArrayDeque<>();
+        // barrier xid -> time the barrier was sent, in nanoseconds
+        private final Map<Long, Long> outstanding = new HashMap<>();
+
+        private int window = INITIAL_WINDOW;
+        private int acked;
+        private long bestRtt = -1;
+
+        private SwitchInstaller(OpenFlowSwitch sw) {
+            this.sw = sw;
+        }
+
+        private synchronized void submit(InstallationFuture installation,
+                                         Collection<OFFlowMod> mods) {
+            queued.add(new PendingBatch(installation, mods));
+            pump();
+        }
+
+        /**
+         * Frees the window slot held by the batch with the given barrier xid.
+         *
+         * @param xid     barrier xid of the batch
+         * @param replied true if the switch answered the barrier
+         */
+        private synchronized void release(long xid, boolean replied) {
+            Long sent = outstanding.remove(xid);
+            if (sent == null) {
+                return;
+            }
+            if (replied) {
+                adapt(System.nanoTime() - sent);
+            }
+            pump();
+        }
+
+        private void adapt(long rtt) {
+            // let the reference drift up so a switch that got slower for
+            // good is not throttled forever
+            bestRtt = bestRtt < 0 ? rtt : Math.min(rtt, bestRtt + bestRtt / 16);
+            if (rtt > bestRtt * LATENCY_TOLERANCE) {
+                window = Math.max(MIN_WINDOW, window / 2);
+                acked = 0;
+            } else if (++acked >= window) {
+                window = Math.min(MAX_WINDOW, window + 1);
+                acked = 0;
+            }
+        }
+
+        private void pump() {
+            while (outstanding.size() < window && !queued.isEmpty()) {
+                PendingBatch next = queued.poll();
+                if (next.installation.isDone()) {
+                    // cancelled while waiting for the window
+                    continue;
+                }
+                for (OFFlowMod mod : next.mods) {
+                    sw.sendMsg(mod);
+                }
+                OFBarrierRequest barrier = sw.factory().buildBarrierRequest()
+                        .setXid(next.installation.xid())
+                        .build();
+                outstanding.put(next.installation.xid(), System.nanoTime());
+                sw.sendMsg(barrier);
+            }
+        }
+    }
+
+    private static final class PendingBatch {
+        private final InstallationFuture installation;
+        private final Collection<OFFlowMod> mods;
+
+        private PendingBatch(InstallationFuture installation,
+                             Collection<OFFlowMod> mods) {
+            this.installation = installation;
+            this.mods = mods;
+        }
+    }
+
 
     private class InternalFlowProvider
             implements OpenFlowSwitchListener, OpenFlowEventListener {
@@ -272,6 +382,7 @@ public class OpenFlowRuleProvider extends AbstractProvider implements FlowRulePr
 
         @Override
         public void switchRemoved(Dpid dpid) {
+            installers.remove(dpid);
             FlowStatsCollector collector = collectors.remove(dpid);
             if (collector != null) {
                 collector.stop();
@@ -301,6 +412,10 @@ public class OpenFlowRuleProvider extends AbstractProvider implements FlowRulePr
                     pushFlowMetrics(dpid, (OFStatsReply) msg);
                     break;
                 case BARRIER_REPLY:
+                    SwitchInstaller installer = installers.get(dpid);
+                    if (installer != null) {
+                        installer.release(msg.getXid(), true);
+                    }
                     future = pendingFutures.get(msg.getXid());
                     if (future != null) {
                         future.satisfyRequirement(dpid);
@@ -367,7 +482,12 @@ public class OpenFlowRuleProvider extends AbstractProvider implements FlowRulePr
 
     }
 
-    private class InstallationFuture implements Future<CompletedBatchOperation> {
+    /**
+     * Tracks a batch of flow mods until all switches involved have answered
+     * the closing barrier. Completes itself on the last reply rather than
+     * on a thread waiting in get().
+     */
+    private class InstallationFuture extends AbstractFuture<CompletedBatchOperation> {
 
         // barrier xid
         private final Long xid;
@@ -382,15 +502,15 @@ public class OpenFlowRuleProvider extends AbstractProvider implements FlowRulePr
         // Failed batch operation id
         private Long failedId;
 
-        private final CountDownLatch countDownLatch;
-        private BatchState state;
+        private final AtomicInteger pendingReplies;
+        private volatile BatchState state;
 
         public InstallationFuture(Set<Dpid> sws, Map<Long, FlowRuleBatchEntry> fmXids) {
             this.xid = xidCounter.getAndIncrement();
             this.state = BatchState.STARTED;
             this.sws = sws;
             this.fms = fmXids;
-            countDownLatch = new CountDownLatch(sws.size());
+            pendingReplies = new AtomicInteger(sws.size());
         }
 
         public Long xid() {
@@ -459,25 +579,21 @@ public class OpenFlowRuleProvider extends AbstractProvider implements FlowRulePr
         }
 
 
-        public void verify() {
-            checkState(!sws.isEmpty());
-            for (Dpid dpid : sws) {
-                OpenFlowSwitch sw = controller.getSwitch(dpid);
-                OFBarrierRequest.Builder builder = sw.factory()
-                        .buildBarrierRequest()
-                        .setXid(xid);
-                sw.sendMsg(builder.build());
-            }
-        }
-
         @Override
-        public boolean cancel(boolean mayInterruptIfRunning) {
-            if (isDone()) {
+        public synchronized boolean cancel(boolean mayInterruptIfRunning) {
+            if (state != BatchState.STARTED) {
                 return false;
             }
             ok.set(false);
             this.state = BatchState.CANCELLED;
             cleanUp();
+            // give up on the barriers still outstanding
+            for (Dpid dpid : sws) {
+                SwitchInstaller installer = installers.get(dpid);
+                if (installer != null) {
+                    installer.release(xid, false);
+                }
+            }
             for (FlowRuleBatchEntry fbe : fms.values()) {
                 if (fbe.getOperator() == FlowRuleOperation.ADD ||
                         fbe.getOperator() == FlowRuleOperation.MODIFY) {
@@ -487,61 +603,31 @@ public class OpenFlowRuleProvider extends AbstractProvider implements FlowRulePr
                 }
 
             }
-            return true;
+            return super.cancel(mayInterruptIfRunning);
         }
 
-        @Override
-        public boolean isCancelled() {
-            return this.state == BatchState.CANCELLED;
-        }
-
-        @Override
-        public boolean isDone() {
-            return this.state == BatchState.FINISHED || isCancelled();
-        }
-
-        @Override
-        public CompletedBatchOperation get() throws InterruptedException, ExecutionException {
-            countDownLatch.await();
+        private synchronized void complete() {
+            if (state != BatchState.STARTED) {
+                return;
+            }
             this.state = BatchState.FINISHED;
-            Set<Long> failedIds = (failedId != null) ?  Sets.newHashSet(failedId) : Collections.emptySet();
-            CompletedBatchOperation result =
-                    new CompletedBatchOperation(ok.get(), offendingFlowMods, failedIds);
-            //FIXME do cleanup here (moved by BOC)
             cleanUp();
-            return result;
-        }
-
-        @Override
-        public CompletedBatchOperation get(long timeout, TimeUnit unit)
-                throws InterruptedException, ExecutionException,
-                TimeoutException {
-            if (countDownLatch.await(timeout, unit)) {
-                this.state = BatchState.FINISHED;
-                Set<Long> failedIds = (failedId != null) ?  Sets.newHashSet(failedId) : Collections.emptySet();
-                CompletedBatchOperation result =
-                        new CompletedBatchOperation(ok.get(), offendingFlowMods, failedIds);
-                // FIXME do cleanup here (moved by BOC)
-                cleanUp();
-                return result;
-            }
-            throw new TimeoutException(this.toString());
+            Set<Long> failedIds = (failedId != null) ?  Sets.newHashSet(failedId) : Collections.emptySet();
+            set(new CompletedBatchOperation(ok.get(), offendingFlowMods, failedIds));
         }
 
         private void cleanUp() {
-            if (isDone() || isCancelled()) {
-                pendingFutures.remove(xid);
-                for (Long xid : fms.keySet()) {
-                    pendingFMs.remove(xid);
-                }
+            pendingFutures.remove(xid);
+            for (Long xid : fms.keySet()) {
+                pendingFMs.remove(xid);
             }
         }
 
         private void removeRequirement(Dpid dpid) {
-            countDownLatch.countDown();
-            sws.remove(dpid);
-            //FIXME don't do cleanup here (moved by BOC)
-            //cleanUp();
+            // a switch may report errors and then still answer the barrier
+            if (sws.remove(dpid) && pendingReplies.decrementAndGet() == 0) {
+                complete();
+            }
         }
 
         @Override
@@ -554,7 +640,7 @@ public class OpenFlowRuleProvider extends AbstractProvider implements FlowRulePr
                              .map((fbe) -> fbe.getTarget().deviceId())
                              .distinct().collect(Collectors.toList()))
                     .add("failedId", failedId)
-                    .add("latchCount", countDownLatch.getCount())
+                    .add("pendingReplies", pendingReplies.get())
                     .add("state", state)
                     .add("no error?", ok.get())
                     .toString();
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onosproject.provider.of.flow.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onosproject.core.ApplicationId;
+import org.onosproject.core.DefaultApplicationId;
+import org.onosproject.net.DeviceId;
+import org.onosproject.net.flow.CompletedBatchOperation;
+import org.onosproject.net.flow.DefaultFlowRule;
+import org.onosproject.net.flow.DefaultTrafficSelector;
+import org.onosproject.net.flow.DefaultTrafficTreatment;
+import org.onosproject.net.flow.FlowEntry;
+import org.onosproject.net.flow.FlowRule;
+import org.onosproject.net.flow.FlowRuleBatchEntry;
+import org.onosproject.net.flow.FlowRuleBatchEntry.FlowRuleOperation;
+import org.onosproject.net.flow.FlowRuleBatchOperation;
+import org.onosproject.net.flow.FlowRuleProvider;
+import org.onosproject.net.flow.FlowRuleProviderRegistry;
+import org.onosproject.net.flow.FlowRuleProviderService;
+import org.onosproject.net.provider.ProviderId;
+import org.onosproject.openflow.controller.Dpid;
+import org.onosproject.openflow.controller.OpenFlowEventListener;
+import org.onosproject.openflow.controller.OpenFlowSwitch;
+import org.onosproject.openflow.controller.OpenflowControllerAdapter;
+import org.onosproject.openflow.controller.RoleState;
+import org.projectfloodlight.openflow.protocol.OFBarrierRequest;
+import org.projectfloodlight.openflow.protocol.OFFactories;
+import org.projectfloodlight.openflow.protocol.OFFactory;
+import org.projectfloodlight.openflow.protocol.OFFlowMod;
+import org.projectfloodlight.openflow.protocol.OFMessage;
+import org.projectfloodlight.openflow.protocol.OFPortDesc;
+import org.projectfloodlight.openflow.protocol.OFVersion;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Test of the installation of flow rule batches by the OpenFlow provider.
+ */
+public class OpenFlowRuleProviderTest {
+
+    private static final DeviceId DID1 = DeviceId.deviceId("of:0000000000000001");
+    private static final DeviceId DID2 = DeviceId.deviceId("of:0000000000000002");
+    private static final ApplicationId APP_ID = new DefaultApplicationId((short) 1, "test");
+
+    private final OpenFlowRuleProvider provider = new OpenFlowRuleProvider();
+    private final TestController controller = new TestController();
+
+    // OpenFlow 1.2 has no flow mod builder, so conversion of any rule fails
+    private final TestSwitch sw1 = new TestSwitch(OFFactories.getFactory(OFVersion.OF_10));
+    private final TestSwitch sw2 = new TestSwitch(OFFactories.getFactory(OFVersion.OF_12));
+
+    @Before
+    public void setUp() {
+        controller.switches.put(Dpid.dpid(DID1.uri()), sw1);
+        controller.switches.put(Dpid.dpid(DID2.uri()), sw2);
+        provider.providerRegistry = new TestProviderRegistry();
+        provider.controller = controller;
+        provider.activate();
+        assertNotNull("event listener should be registered", controller.eventListener);
+    }
+
+    @After
+    public void tearDown() {
+        provider.deactivate();
+        provider.controller = null;
+        provider.providerRegistry = null;
+    }
+
+    private FlowRuleBatchEntry add(DeviceId deviceId) {
+        FlowRule rule = new DefaultFlowRule(deviceId, DefaultTrafficSelector.builder().build(),
+                                            DefaultTrafficTreatment.builder().build(),
+                                            10, APP_ID, 0, true);
+        return new FlowRuleBatchEntry(FlowRuleOperation.ADD, rule);
+    }
+
+    private void replyToBarriers(Dpid dpid, TestSwitch sw) {
+        for (OFBarrierRequest barrier : sw.barriers()) {
+            controller.eventListener.handleMessage(
+                    dpid, sw.factory().buildBarrierReply().setXid(barrier.getXid()).build());
+        }
+    }
+
+    @Test
+    public void failedConversionStillSendsBarrier() throws Exception {
+        ListenableFuture<CompletedBatchOperation> future = provider.executeBatch(
+                new FlowRuleBatchOperation(asList(add(DID1), add(DID2))));
+
+        assertEquals("converted rule should be sent", 1, sw1.flowMods().size());
+        assertEquals(1, sw1.barriers().size());
+        assertTrue("no flow mod could be built", sw2.flowMods().isEmpty());
+        assertEquals("switch should be sent a barrier anyway", 1, sw2.barriers().size());
+
+        replyToBarriers(Dpid.dpid(DID1.uri()), sw1);
+        assertFalse("batch should await both switches", future.isDone());
+        replyToBarriers(Dpid.dpid(DID2.uri()), sw2);
+        assertTrue("batch should complete", future.get(1, TimeUnit.SECONDS).isSuccess());
+    }
+
+    @Test
+    public void batchWithOnlyFailedConversions() throws Exception {
+        ListenableFuture<CompletedBatchOperation> future = provider.executeBatch(
+                new FlowRuleBatchOperation(asList(add(DID2), add(DID2))));
+
+        assertTrue(sw2.flowMods().isEmpty());
+        assertEquals(1, sw2.barriers().size());
+        replyToBarriers(Dpid.dpid(DID2.uri()), sw2);
+        assertTrue("batch should complete", future.isDone());
+    }
+
+    private static List<FlowRuleBatchEntry> asList(FlowRuleBatchEntry... entries) {
+        List<FlowRuleBatchEntry> list = new ArrayList<>();
+        Collections.addAll(list, entries);
+        return list;
+    }
+
+    private static class TestController extends OpenflowControllerAdapter {
+
+        private final Map<Dpid, OpenFlowSwitch> switches = new HashMap<>();
+        private OpenFlowEventListener eventListener;
+
+        @Override
+        public Iterable<OpenFlowSwitch> getSwitches() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public OpenFlowSwitch getSwitch(Dpid dpid) {
+            return switches.get(dpid);
+        }
+
+        @Override
+        public void addEventListener(OpenFlowEventListener listener) {
+            eventListener = listener;
+        }
+    }
+
+    private static class TestProviderRegistry implements FlowRuleProviderRegistry {
+
+        @Override
+        public FlowRuleProviderService register(FlowRuleProvider provider) {
+            return new FlowRuleProviderService() {
+                @Override
+                public void flowRemoved(FlowEntry flowEntry) {
+                }
+
+                @Override
+                public void pushFlowMetrics(DeviceId deviceId, Iterable<FlowEntry> flowEntries) {
+                }
+
+                @Override
+                public FlowRuleProvider provider() {
+                    return provider;
+                }
+            };
+        }
+
+        @Override
+        public void unregister(FlowRuleProvider provider) {
+        }
+
+        @Override
+        public Set<ProviderId> getProviders() {
+            return Collections.emptySet();
+        }
+    }
+
+    private static class TestSwitch implements OpenFlowSwitch {
+
+        private final OFFactory factory;
+        private final List<OFMessage> sent = new ArrayList<>();
+
+        TestSwitch(OFFactory factory) {
+            this.factory = factory;
+        }
+
+        List<OFFlowMod> flowMods() {
+            List<OFFlowMod> mods = new ArrayList<>();
+            for (OFMessage msg : sent) {
+                if (msg instanceof OFFlowMod) {
+                    mods.add((OFFlowMod) msg);
+                }
+            }
+            return mods;
+        }
+
+        List<OFBarrierRequest> barriers() {
+            List<OFBarrierRequest> barriers = new ArrayList<>();
+            for (OFMessage msg : sent) {
+                if (msg instanceof OFBarrierRequest) {
+                    barriers.add((OFBarrierRequest) msg);
+                }
+            }
+            return barriers;
+        }
+
+        @Override
+        public void sendMsg(OFMessage msg) {
+            sent.add(msg);
+        }
+
+        @Override
+        public void sendMsg(List<OFMessage> msgs) {
+            sent.addAll(msgs);
+        }
+
+        @Override
+        public void handleMessage(OFMessage fromSwitch) {
+        }
+
+        @Override
+        public void setRole(RoleState role) {
+        }
+
+        @Override
+        public RoleState getRole() {
+            return RoleState.MASTER;
+        }
+
+        @Override
+        public List<OFPortDesc> getPorts() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public OFFactory factory() {
+            return factory;
+        }
+
+        @Override
+        public String getStringId() {
+            return null;
+        }
+
+        @Override
+        public long getId() {
+            return 0;
+        }
+
+        @Override
+        public String manfacturerDescription() {
+            return null;
+        }
+
+        @Override
+        public String datapathDescription() {
+            return null;
+        }
+
+        @Override
+        public String hardwareDescription() {
+            return null;
+        }
+
+        @Override
+        public String softwareDescription() {
+            return null;
+        }
+
+        @Override
+        public String serialNumber() {
+            return null;
+        }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public void disconnectSwitch() {
+        }
+
+        @Override
+        public void returnRoleReply(RoleState requested, RoleState response) {
+        }
+
+        @Override
+        public boolean isOptical() {
+            return false;
+        }
+    }
+}
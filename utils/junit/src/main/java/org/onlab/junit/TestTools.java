@@ -18,6 +18,10 @@ package org.onlab.junit;
 import static com.google.common.base.Preconditions.checkArgument;
 import static org.junit.Assert.fail;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+
 /**
  * Utilities to aid in producing JUnit tests.
  */
@@ -109,4 +113,20 @@ public final class TestTools {
         assertAfter(0, duration, assertions);
     }
 
+    /**
+     * Returns a local port that was free at the time of the call, as picked
+     * by the operating system; tests binding it thus do not collide with
+     * other tests running on the same host.
+     *
+     * @return free local port
+     */
+    public static int findAvailablePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            socket.setReuseAddress(true);
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
 }
@@ -0,0 +1,370 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Yen's k-shortest loopless paths search algorithm, finding up to K paths
+ * between the source and destination in the order of ascending cost.
+ * <p>
+ * The graph is never copied nor modified; edges and vertexes excluded from
+ * a spur search are masked instead. Spur searches are guided by the tree of
+ * shortest paths towards the destination, computed once per search, and
+ * are skipped altogether whenever the tree path from the spur vertex avoids
+ * the masked edges and vertexes. All state is confined to the search call,
+ * so a single instance may be used concurrently on a shared graph.
+ * </p>
+ * <p>
+ * Negative edge weights forbid the use of the edge, as they do in
+ * {@link DijkstraGraphSearch}.
+ * </p>
+ */
+public class KShortestPathsSearch<V extends Vertex, E extends Edge<V>>
+        extends AbstractGraphPathSearch<V, E> {
+
+    /**
+     * Searches for the shortest path between the given vertexes. Use
+     * {@link #search(Graph, Vertex, Vertex, EdgeWeight, int)} to search for
+     * more than one path.
+     *
+     * @param graph  graph to be searched
+     * @param src    source vertex
+     * @param dst    destination vertex
+     * @param weight optional edge-weight; if null cost of each edge will be
+     *               assumed to be 1.0
+     * @return search result holding at most one path
+     */
+    @Override
+    public Result<V, E> search(Graph<V, E> graph, V src, V dst,
+                               EdgeWeight<V, E> weight) {
+        return search(graph, src, dst, weight, 1);
+    }
+
+    /**
+     * Searches for up to the given number of loopless paths between the
+     * given vertexes.
+     * <p>
+     * Paths of the result are iterated in the order of ascending cost;
+     * those of the same cost are ordered by ascending hop count. The costs
+     * of the result hold the cost of reaching each vertex along the first
+     * path and its parents hold the edges leading into each vertex along
+     * any of the paths.
+     * </p>
+     *
+     * @param graph    graph to be searched
+     * @param src      source vertex
+     * @param dst      destination vertex
+     * @param weight   optional edge-weight; if null cost of each edge will be
+     *                 assumed to be 1.0
+     * @param maxPaths maximum number of paths to find
+     * @return search result
+     */
+    public Result<V, E> search(Graph<V, E> graph, V src, V dst,
+                               EdgeWeight<V, E> weight, int maxPaths) {
+        checkArguments(graph, src, dst);
+        checkNotNull(dst, "Destination cannot be null");
+        checkArgument(maxPaths > 0, "Maximum number of paths must be positive");
+
+        OrderedResult result = new OrderedResult(src, dst);
+        if (src.equals(dst)) {
+            return result;
+        }
+
+        Search search = new Search(graph, dst, weight);
+        Candidate first = search.fromTree(Collections.<E>emptyList(), 0.0, src, 0);
+        if (first == null) {
+            return result;
+        }
+
+        // Paths found so far and candidates for the next one, cheapest first
+        List<Candidate> found = new ArrayList<>();
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>();
+        Set<List<E>> known = new HashSet<>();
+        candidates.add(first);
+        known.add(first.edges);
+
+        while (found.size() < maxPaths && !candidates.isEmpty()) {
+            Candidate path = candidates.poll();
+            found.add(path);
+            if (found.size() < maxPaths) {
+                search.deviations(path, found, candidates, known);
+            }
+        }
+
+        for (Candidate path : found) {
+            result.add(new DefaultPath<>(path.edges, path.cost));
+        }
+        result.addCosts(first.edges, weight);
+        return result;
+    }
+
+    // Cost of traversing an edge; negative for forbidden edges
+    private double edgeCost(E edge, EdgeWeight<V, E> weight) {
+        return weight == null ? 1.0 : weight.weight(edge);
+    }
+
+    // Single k-shortest-paths search over an unmodified graph.
+    private final class Search {
+
+        private final Graph<V, E> graph;
+        private final V dst;
+        private final EdgeWeight<V, E> weight;
+
+        // Reverse shortest-path tree: cost and next edge towards the destination
+        private final Map<V, Double> toDst = new HashMap<>();
+        private final Map<V, E> next = new HashMap<>();
+
+        private Search(Graph<V, E> graph, V dst, EdgeWeight<V, E> weight) {
+            this.graph = graph;
+            this.dst = dst;
+            this.weight = weight;
+            buildTree();
+        }
+
+        // Dijkstra from the destination over the reversed edges.
+        private void buildTree() {
+            PriorityQueue<Label> queue = new PriorityQueue<>();
+            Set<V> settled = new HashSet<>();
+            toDst.put(dst, 0.0);
+            queue.add(new Label(dst, 0.0));
+            while (!queue.isEmpty()) {
+                Label label = queue.poll();
+                if (!settled.add(label.vertex)) {
+                    continue;
+                }
+                for (E edge : graph.getEdgesTo(label.vertex)) {
+                    double hop = edgeCost(edge, weight);
+                    if (hop < 0) {
+                        continue;
+                    }
+                    V v = edge.src();
+                    double cost = label.cost + hop;
+                    Double old = toDst.get(v);
+                    if (old == null || cost < old) {
+                        toDst.put(v, cost);
+                        next.put(v, edge);
+                        queue.add(new Label(v, cost));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Adds the deviations of the given path to the candidates. Following
+         * Lawler, only vertexes from the point where the path deviated from
+         * its parent onwards are used as spur vertexes; the others were
+         * explored when the parent was found.
+         */
+        private void deviations(Candidate path, List<Candidate> found,
+                                PriorityQueue<Candidate> candidates,
+                                Set<List<E>> known) {
+            List<E> edges = path.edges;
+            Set<V> maskedVertexes = new HashSet<>();
+            double rootCost = 0.0;
+            for (int i = 0; i < path.deviation; i++) {
+                maskedVertexes.add(edges.get(i).src());
+                rootCost += edgeCost(edges.get(i), weight);
+            }
+
+            for (int i = path.deviation; i < edges.size(); i++) {
+                List<E> root = edges.subList(0, i);
+                V spur = edges.get(i).src();
+
+                // Mask the next edge of every found path sharing this root
+                Set<E> maskedEdges = new HashSet<>();
+                for (Candidate other : found) {
+                    if (other.edges.size() > i && other.edges.subList(0, i).equals(root)) {
+                        maskedEdges.add(other.edges.get(i));
+                    }
+                }
+
+                Candidate candidate = spurPath(root, rootCost, spur, i,
+                                               maskedEdges, maskedVertexes);
+                if (candidate != null && known.add(candidate.edges)) {
+                    candidates.add(candidate);
+                }
+
+                maskedVertexes.add(spur);
+                rootCost += edgeCost(edges.get(i), weight);
+            }
+        }
+
+        // Shortest path from the spur vertex avoiding the masked elements.
+        private Candidate spurPath(List<E> root, double rootCost, V spur, int deviation,
+                                   Set<E> maskedEdges, Set<V> maskedVertexes) {
+            // The tree path cannot be beaten once edges are taken away, so
+            // use it if it does not run into anything masked.
+            if (!toDst.containsKey(spur)) {
+                return null;
+            }
+            if (treePathAvoids(spur, maskedEdges, maskedVertexes)) {
+                return fromTree(root, rootCost, spur, deviation);
+            }
+
+            // Otherwise A* with the tree costs as the heuristic; they never
+            // overestimate as masking can only make paths more expensive.
+            Map<V, Double> costs = new HashMap<>();
+            Map<V, E> parents = new HashMap<>();
+            Set<V> settled = new HashSet<>();
+            PriorityQueue<Label> queue = new PriorityQueue<>();
+            costs.put(spur, 0.0);
+            queue.add(new Label(spur, toDst.get(spur)));
+            while (!queue.isEmpty()) {
+                V vertex = queue.poll().vertex;
+                if (vertex.equals(dst)) {
+                    List<E> spurEdges = new ArrayList<>();
+                    for (V v = dst; !v.equals(spur); v = parents.get(v).src()) {
+                        spurEdges.add(parents.get(v));
+                    }
+                    Collections.reverse(spurEdges);
+                    return new Candidate(root, spurEdges, rootCost + costs.get(dst), deviation);
+                }
+                if (!settled.add(vertex)) {
+                    continue;
+                }
+                double base = costs.get(vertex);
+                for (E edge : graph.getEdgesFrom(vertex)) {
+                    V v = edge.dst();
+                    Double estimate = toDst.get(v);
+                    double hop = edgeCost(edge, weight);
+                    if (estimate == null || hop < 0 || settled.contains(v) ||
+                            maskedEdges.contains(edge) || maskedVertexes.contains(v)) {
+                        continue;
+                    }
+                    double cost = base + hop;
+                    Double old = costs.get(v);
+                    if (old == null || cost < old) {
+                        costs.put(v, cost);
+                        parents.put(v, edge);
+                        queue.add(new Label(v, cost + estimate));
+                    }
+                }
+            }
+            return null;
+        }
+
+        private boolean treePathAvoids(V spur, Set<E> maskedEdges, Set<V> maskedVertexes) {
+            for (V v = spur; !v.equals(dst);) {
+                E edge = next.get(v);
+                v = edge.dst();
+                if (maskedEdges.contains(edge) || maskedVertexes.contains(v)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Candidate made of the given root and the tree path from the spur vertex.
+        private Candidate fromTree(List<E> root, double rootCost, V spur, int deviation) {
+            Double spurCost = toDst.get(spur);
+            if (spurCost == null) {
+                return null;
+            }
+            List<E> spurEdges = new ArrayList<>();
+            for (V v = spur; !v.equals(dst); v = next.get(v).dst()) {
+                spurEdges.add(next.get(v));
+            }
+            return new Candidate(root, spurEdges, rootCost + spurCost, deviation);
+        }
+    }
+
+    // Vertex queued with its cost, or estimate of it.
+    private final class Label implements Comparable<Label> {
+        private final V vertex;
+        private final double cost;
+
+        private Label(V vertex, double cost) {
+            this.vertex = vertex;
+            this.cost = cost;
+        }
+
+        @Override
+        public int compareTo(Label other) {
+            return Double.compare(cost, other.cost);
+        }
+    }
+
+    // Candidate path along with the index of the edge where it deviates from its parent.
+    private final class Candidate implements Comparable<Candidate> {
+        private final List<E> edges;
+        private final double cost;
+        private final int deviation;
+
+        private Candidate(List<E> root, List<E> spur, double cost, int deviation) {
+            this.edges = new ArrayList<>(root.size() + spur.size());
+            this.edges.addAll(root);
+            this.edges.addAll(spur);
+            this.cost = cost;
+            this.deviation = deviation;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            int result = Double.compare(cost, other.cost);
+            return result != 0 ? result : Integer.compare(edges.size(), other.edges.size());
+        }
+    }
+
+    // Result that keeps its paths in the order they were found.
+    private final class OrderedResult extends DefaultResult {
+
+        private final Set<Path<V, E>> orderedPaths = new LinkedHashSet<>();
+
+        private OrderedResult(V src, V dst) {
+            super(src, dst);
+            costs.put(src, 0.0);
+        }
+
+        private void add(Path<V, E> path) {
+            orderedPaths.add(path);
+            paths.add(path);
+            for (E edge : path.edges()) {
+                Set<E> edges = parents.get(edge.dst());
+                if (edges == null) {
+                    edges = new HashSet<>();
+                    parents.put(edge.dst(), edges);
+                }
+                edges.add(edge);
+            }
+        }
+
+        private void addCosts(List<E> edges, EdgeWeight<V, E> weight) {
+            double cost = 0.0;
+            for (E edge : edges) {
+                cost += edgeCost(edge, weight);
+                costs.put(edge.dst(), cost);
+            }
+        }
+
+        @Override
+        public Set<Path<V, E>> paths() {
+            return Collections.unmodifiableSet(orderedPaths);
+        }
+    }
+
+}
@@ -26,8 +26,11 @@ import java.util.Set;
 /**
  * K-shortest-path graph search algorithm capable of finding not just one,
  * but K shortest paths with ascending order between the source and destinations.
+ *
+ * @deprecated copies and modifies the graph for every search; use
+ * {@link KShortestPathsSearch} instead
  */
-
+@Deprecated
 public class KshortestPathSearch<V extends Vertex, E extends Edge<V>> {
 
     // Define class variables.
@@ -16,6 +16,7 @@
 
 package org.onlab.metrics;
 
+import com.codahale.metrics.Counter;
 import com.codahale.metrics.Timer;
 import com.codahale.metrics.Timer.Context;
 
@@ -51,6 +52,34 @@ public final class MetricsUtil {
         }
     }
 
+    /**
+     * Increments the Metric Counter.
+     * <p>
+     * If the given counter was null, it will silently be ignored.
+     * </p>
+     *
+     * @param counter counter to increment, if not null.
+     */
+    public static void incCounter(Counter counter) {
+        if (counter != null) {
+            counter.inc();
+        }
+    }
+
+    /**
+     * Decrements the Metric Counter.
+     * <p>
+     * If the given counter was null, it will silently be ignored.
+     * </p>
+     *
+     * @param counter counter to decrement, if not null.
+     */
+    public static void decCounter(Counter counter) {
+        if (counter != null) {
+            counter.dec();
+        }
+    }
+
     // avoid instantiation
     private MetricsUtil() {}
 }
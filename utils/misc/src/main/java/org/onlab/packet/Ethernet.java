@@ -280,8 +280,8 @@ public class Ethernet extends BasePacket {
         }
         final byte[] data = new byte[length];
         final ByteBuffer bb = ByteBuffer.wrap(data);
-        bb.put(this.destinationMACAddress.toBytes());
-        bb.put(this.sourceMACAddress.toBytes());
+        putMacAddress(bb, this.destinationMACAddress);
+        putMacAddress(bb, this.sourceMACAddress);
         if (this.vlanID != Ethernet.VLAN_UNTAGGED) {
             bb.putShort((short) 0x8100);
             bb.putShort((short) (this.priorityCode << 13 | this.vlanID & 0x0fff));
@@ -296,6 +296,19 @@ public class Ethernet extends BasePacket {
         return data;
     }
 
+    // writes the six bytes of a MAC address without a byte array copy
+    private static void putMacAddress(final ByteBuffer bb, final MacAddress mac) {
+        final long value = mac.toLong();
+        bb.putShort((short) (value >> 32));
+        bb.putInt((int) value);
+    }
+
+    // reads the six bytes of a MAC address without a byte array copy
+    private static MacAddress getMacAddress(final ByteBuffer bb) {
+        final long high = bb.getShort() & 0xffffL;
+        return MacAddress.valueOf(high << 32 | bb.getInt() & 0xffffffffL);
+    }
+
     @Override
     public IPacket deserialize(final byte[] data, final int offset,
             final int length) {
@@ -303,19 +316,8 @@ public class Ethernet extends BasePacket {
             return null;
         }
         final ByteBuffer bb = ByteBuffer.wrap(data, offset, length);
-        if (this.destinationMACAddress == null) {
-            this.destinationMACAddress = MacAddress.valueOf(new byte[6]);
-        }
-        final byte[] dstAddr = new byte[MacAddress.MAC_ADDRESS_LENGTH];
-        bb.get(dstAddr);
-        this.destinationMACAddress = MacAddress.valueOf(dstAddr);
-
-        if (this.sourceMACAddress == null) {
-            this.sourceMACAddress = MacAddress.valueOf(new byte[6]);
-        }
-        final byte[] srcAddr = new byte[MacAddress.MAC_ADDRESS_LENGTH];
-        bb.get(srcAddr);
-        this.sourceMACAddress = MacAddress.valueOf(srcAddr);
+        this.destinationMACAddress = getMacAddress(bb);
+        this.sourceMACAddress = getMacAddress(bb);
 
         short ethType = bb.getShort();
         if (ethType == (short) 0x8100) {
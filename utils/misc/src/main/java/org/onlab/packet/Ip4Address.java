@@ -18,8 +18,6 @@ package org.onlab.packet;
 import java.net.InetAddress;
 import java.net.Inet4Address;
 import java.net.Inet6Address;
-import java.nio.ByteBuffer;
-import java.util.Arrays;
 
 import com.google.common.net.InetAddresses;
 
@@ -43,14 +41,35 @@ public final class Ip4Address extends IpAddress {
         super(VERSION, value);
     }
 
+    /**
+     * Constructor for given IP address version and address octets found
+     * at an offset of a byte array.
+     *
+     * @param value the IP address value stored in network byte order
+     * (i.e., the most significant byte first)
+     * @param offset the offset in bytes from the beginning of the byte array
+     * @throws IllegalArgumentException if the arguments are invalid
+     */
+    private Ip4Address(byte[] value, int offset) {
+        super(VERSION, value, offset);
+    }
+
+    /**
+     * Constructor for given IPv4 address value.
+     *
+     * @param value an integer representing an IPv4 address value
+     */
+    private Ip4Address(int value) {
+        super(VERSION, 0, value);
+    }
+
     /**
      * Returns the integer value of this IPv4 address.
      *
      * @return the IPv4 address's value as an integer
      */
     public int toInt() {
-        ByteBuffer bb = ByteBuffer.wrap(super.toOctets());
-        return bb.getInt();
+        return (int) lowBits();
     }
 
     /**
@@ -60,9 +79,7 @@ public final class Ip4Address extends IpAddress {
      * @return an IPv4 address
      */
     public static Ip4Address valueOf(int value) {
-        byte[] bytes =
-            ByteBuffer.allocate(INET_BYTE_LENGTH).putInt(value).array();
-        return new Ip4Address(bytes);
+        return new Ip4Address(value);
     }
 
     /**
@@ -90,9 +107,7 @@ public final class Ip4Address extends IpAddress {
      * @throws IllegalArgumentException if the arguments are invalid
      */
     public static Ip4Address valueOf(byte[] value, int offset) {
-        IpAddress.checkArguments(VERSION, value, offset);
-        byte[] bc = Arrays.copyOfRange(value, offset, value.length);
-        return Ip4Address.valueOf(bc);
+        return new Ip4Address(value, offset);
     }
 
     /**
@@ -151,8 +166,8 @@ public final class Ip4Address extends IpAddress {
      * @throws IllegalArgumentException if the argument is invalid
      */
     public static Ip4Address makeMaskPrefix(int prefixLength) {
-        byte[] mask = IpAddress.makeMaskPrefixArray(VERSION, prefixLength);
-        return new Ip4Address(mask);
+        IpAddress.checkPrefixLength(VERSION, prefixLength);
+        return new Ip4Address((int) lowMask(VERSION, prefixLength));
     }
 
     /**
@@ -168,7 +183,7 @@ public final class Ip4Address extends IpAddress {
      */
     public static Ip4Address makeMaskedAddress(final Ip4Address address,
                                                int prefixLength) {
-        byte[] net = makeMaskedAddressArray(address, prefixLength);
-        return Ip4Address.valueOf(net);
+        IpAddress.checkPrefixLength(VERSION, prefixLength);
+        return new Ip4Address(address.toInt() & (int) lowMask(VERSION, prefixLength));
     }
 }
@@ -18,7 +18,6 @@ package org.onlab.packet;
 import java.net.InetAddress;
 import java.net.Inet4Address;
 import java.net.Inet6Address;
-import java.util.Arrays;
 
 import com.google.common.net.InetAddresses;
 
@@ -42,6 +41,29 @@ public final class Ip6Address extends IpAddress {
         super(VERSION, value);
     }
 
+    /**
+     * Constructor for given IP address version and address octets found
+     * at an offset of a byte array.
+     *
+     * @param value the IP address value stored in network byte order
+     * (i.e., the most significant byte first)
+     * @param offset the offset in bytes from the beginning of the byte array
+     * @throws IllegalArgumentException if the arguments are invalid
+     */
+    private Ip6Address(byte[] value, int offset) {
+        super(VERSION, value, offset);
+    }
+
+    /**
+     * Constructor for given IPv6 address value.
+     *
+     * @param high the most significant 64 bits of the address
+     * @param low the least significant 64 bits of the address
+     */
+    private Ip6Address(long high, long low) {
+        super(VERSION, high, low);
+    }
+
     /**
      * Converts a byte array into an IPv6 address.
      *
@@ -67,9 +89,18 @@ public final class Ip6Address extends IpAddress {
      * @throws IllegalArgumentException if the arguments are invalid
      */
     public static Ip6Address valueOf(byte[] value, int offset) {
-        IpAddress.checkArguments(VERSION, value, offset);
-        byte[] bc = Arrays.copyOfRange(value, offset, value.length);
-        return Ip6Address.valueOf(bc);
+        return new Ip6Address(value, offset);
+    }
+
+    /**
+     * Converts the two halves of an address into an IPv6 address.
+     *
+     * @param high the most significant 64 bits of the address
+     * @param low the least significant 64 bits of the address
+     * @return an IPv6 address
+     */
+    public static Ip6Address valueOf(long high, long low) {
+        return new Ip6Address(high, low);
     }
 
     /**
@@ -129,8 +160,9 @@ public final class Ip6Address extends IpAddress {
      * @throws IllegalArgumentException if the arguments are invalid
      */
     public static Ip6Address makeMaskPrefix(int prefixLength) {
-        byte[] mask = IpAddress.makeMaskPrefixArray(VERSION, prefixLength);
-        return new Ip6Address(mask);
+        IpAddress.checkPrefixLength(VERSION, prefixLength);
+        return new Ip6Address(highMask(VERSION, prefixLength),
+                              lowMask(VERSION, prefixLength));
     }
 
     /**
@@ -146,7 +178,8 @@ public final class Ip6Address extends IpAddress {
      */
     public static Ip6Address makeMaskedAddress(final Ip6Address address,
                                                int prefixLength) {
-        byte[] net = makeMaskedAddressArray(address, prefixLength);
-        return Ip6Address.valueOf(net);
+        IpAddress.checkPrefixLength(VERSION, prefixLength);
+        return new Ip6Address(address.highBits() & highMask(VERSION, prefixLength),
+                              address.lowBits() & lowMask(VERSION, prefixLength));
     }
 }
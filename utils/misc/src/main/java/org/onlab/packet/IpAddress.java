@@ -19,18 +19,19 @@ import java.net.InetAddress;
 import java.net.Inet4Address;
 import java.net.Inet6Address;
 import java.net.UnknownHostException;
-import java.nio.ByteBuffer;
-import java.util.Arrays;
-import java.util.Objects;
 
 import com.google.common.net.InetAddresses;
-import com.google.common.primitives.UnsignedBytes;
 
 import static com.google.common.base.Preconditions.checkState;
 
 /**
  * A class representing an IP address.
  * This class is immutable.
+ * <p>
+ * The address is held in primitives: an IPv4 address in the lower 32 bits
+ * of a {@code long}, an IPv6 address in two. Octet arrays are only created
+ * on demand.
+ * </p>
  */
 public class IpAddress implements Comparable<IpAddress> {
     // IP Versions
@@ -43,7 +44,10 @@ public class IpAddress implements Comparable<IpAddress> {
     public static final int INET6_BIT_LENGTH = INET6_BYTE_LENGTH * Byte.SIZE;
 
     private final Version version;
-    private final byte[] octets;
+    // most significant 64 bits of an IPv6 address; zero for IPv4
+    private final long high;
+    // least significant 64 bits of an IPv6 address, or the IPv4 address
+    private final long low;
 
     /**
      * Constructor for given IP address version and address octets.
@@ -54,22 +58,87 @@ public class IpAddress implements Comparable<IpAddress> {
      * @throws IllegalArgumentException if the arguments are invalid
      */
     protected IpAddress(Version version, byte[] value) {
-        checkArguments(version, value, 0);
+        this(version, value, 0);
+    }
+
+    /**
+     * Constructor for given IP address version and address octets found
+     * at an offset of a byte array.
+     *
+     * @param version the IP address version
+     * @param value the IP address value stored in network byte order
+     * (i.e., the most significant byte first)
+     * @param offset the offset in bytes from the beginning of the byte array
+     * @throws IllegalArgumentException if the arguments are invalid
+     */
+    IpAddress(Version version, byte[] value, int offset) {
+        checkArguments(version, value, offset);
         this.version = version;
-        switch (version) {
-        case INET:
-            this.octets = Arrays.copyOf(value, INET_BYTE_LENGTH);
-            break;
-        case INET6:
-            this.octets = Arrays.copyOf(value, INET6_BYTE_LENGTH);
-            break;
-        default:
-            // Should not be reached
-            this.octets = null;
-            break;
+        if (version == Version.INET) {
+            this.high = 0;
+            this.low = getBits(value, offset, INET_BYTE_LENGTH);
+        } else {
+            this.high = getBits(value, offset, Long.BYTES);
+            this.low = getBits(value, offset + Long.BYTES, Long.BYTES);
         }
     }
 
+    /**
+     * Constructor for given IP address version and address value.
+     *
+     * @param version the IP address version
+     * @param high the most significant 64 bits of an IPv6 address; ignored
+     * for IPv4
+     * @param low the least significant 64 bits of an IPv6 address, or the
+     * IPv4 address in the lower 32 bits
+     */
+    IpAddress(Version version, long high, long low) {
+        this.version = version;
+        if (version == Version.INET) {
+            this.high = 0;
+            this.low = low & 0xffffffffL;
+        } else {
+            this.high = high;
+            this.low = low;
+        }
+    }
+
+    // reads up to eight bytes in network byte order
+    private static long getBits(byte[] value, int offset, int length) {
+        long bits = 0;
+        for (int i = offset; i < offset + length; i++) {
+            bits = bits << Byte.SIZE | (value[i] & 0xffL);
+        }
+        return bits;
+    }
+
+    // writes the lower length bytes in network byte order
+    private static void putBits(byte[] value, int offset, int length, long bits) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            value[i] = (byte) bits;
+            bits >>>= Byte.SIZE;
+        }
+    }
+
+    /**
+     * Returns the most significant 64 bits of the address; zero for IPv4.
+     *
+     * @return high order bits
+     */
+    long highBits() {
+        return high;
+    }
+
+    /**
+     * Returns the least significant 64 bits of the address; the IPv4
+     * address in the lower 32 bits.
+     *
+     * @return low order bits
+     */
+    long lowBits() {
+        return low;
+    }
+
     /**
      * Returns the IP version of this address.
      *
@@ -94,7 +163,7 @@ public class IpAddress implements Comparable<IpAddress> {
         if (this instanceof Ip4Address) {
             return (Ip4Address) this;
         }
-        return Ip4Address.valueOf(octets);
+        return Ip4Address.valueOf((int) low);
     }
 
     /**
@@ -112,7 +181,7 @@ public class IpAddress implements Comparable<IpAddress> {
         if (this instanceof Ip6Address) {
             return (Ip6Address) this;
         }
-        return Ip6Address.valueOf(octets);
+        return Ip6Address.valueOf(high, low);
     }
 
     /**
@@ -121,7 +190,15 @@ public class IpAddress implements Comparable<IpAddress> {
      * @return a byte array
      */
     public byte[] toOctets() {
-        return Arrays.copyOf(octets, octets.length);
+        if (version == Version.INET) {
+            byte[] octets = new byte[INET_BYTE_LENGTH];
+            putBits(octets, 0, INET_BYTE_LENGTH, low);
+            return octets;
+        }
+        byte[] octets = new byte[INET6_BYTE_LENGTH];
+        putBits(octets, 0, Long.BYTES, high);
+        putBits(octets, Long.BYTES, Long.BYTES, low);
+        return octets;
     }
 
     /**
@@ -150,9 +227,7 @@ public class IpAddress implements Comparable<IpAddress> {
      * @return an IP address
      */
     public static IpAddress valueOf(int value) {
-        byte[] bytes =
-            ByteBuffer.allocate(INET_BYTE_LENGTH).putInt(value).array();
-        return new IpAddress(Version.INET, bytes);
+        return new IpAddress(Version.INET, 0, value);
     }
 
     /**
@@ -183,9 +258,7 @@ public class IpAddress implements Comparable<IpAddress> {
      */
     public static IpAddress valueOf(Version version, byte[] value,
                                     int offset) {
-        checkArguments(version, value, offset);
-        byte[] bc = Arrays.copyOfRange(value, offset, value.length);
-        return IpAddress.valueOf(version, bc);
+        return new IpAddress(version, value, offset);
     }
 
     /**
@@ -245,8 +318,9 @@ public class IpAddress implements Comparable<IpAddress> {
      * @throws IllegalArgumentException if the arguments are invalid
      */
     public static IpAddress makeMaskPrefix(Version version, int prefixLength) {
-        byte[] mask = makeMaskPrefixArray(version, prefixLength);
-        return new IpAddress(version, mask);
+        checkPrefixLength(version, prefixLength);
+        return new IpAddress(version, highMask(version, prefixLength),
+                             lowMask(version, prefixLength));
     }
 
     /**
@@ -269,8 +343,10 @@ public class IpAddress implements Comparable<IpAddress> {
             Ip6Address ip6a = (Ip6Address) address;
             return Ip6Address.makeMaskedAddress(ip6a, prefixLength);
         } else {
-            byte[] net = makeMaskedAddressArray(address, prefixLength);
-            return IpAddress.valueOf(address.version(), net);
+            checkPrefixLength(address.version(), prefixLength);
+            return new IpAddress(address.version(),
+                                 address.high & highMask(address.version(), prefixLength),
+                                 address.low & lowMask(address.version(), prefixLength));
         }
     }
 
@@ -281,18 +357,18 @@ public class IpAddress implements Comparable<IpAddress> {
             return this.version.compareTo(o.version);
         }
 
-        // Compare the bytes, one-by-one
-        for (int i = 0; i < this.octets.length; i++) {
-            if (this.octets[i] != o.octets[i]) {
-                return UnsignedBytes.compare(this.octets[i], o.octets[i]);
-            }
+        // Compare the bits, as unsigned values
+        if (this.high != o.high) {
+            return Long.compareUnsigned(this.high, o.high);
         }
-        return 0;       // Equal
+        return Long.compareUnsigned(this.low, o.low);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(version, Arrays.hashCode(octets));
+        int result = version.hashCode();
+        result = 31 * result + Long.hashCode(high);
+        return 31 * result + Long.hashCode(low);
     }
 
     @Override
@@ -305,7 +381,7 @@ public class IpAddress implements Comparable<IpAddress> {
         }
         IpAddress other = (IpAddress) obj;
         return (version == other.version) &&
-            Arrays.equals(octets, other.octets);
+            (high == other.high) && (low == other.low);
     }
 
     @Override
@@ -317,9 +393,16 @@ public class IpAddress implements Comparable<IpAddress> {
      * @see java.lang.Object#toString()
      */
     public String toString() {
+        if (version == Version.INET) {
+            return new StringBuilder(15)
+                .append(low >>> 24 & 0xff).append('.')
+                .append(low >>> 16 & 0xff).append('.')
+                .append(low >>> 8 & 0xff).append('.')
+                .append(low & 0xff).toString();
+        }
         InetAddress inetAddr = null;
         try {
-            inetAddr = InetAddress.getByAddress(octets);
+            inetAddr = InetAddress.getByAddress(toOctets());
         } catch (UnknownHostException e) {
             // Should never happen
             checkState(false, "Internal error: Ip6Address.toString()");
@@ -375,65 +458,53 @@ public class IpAddress implements Comparable<IpAddress> {
     }
 
     /**
-     * Creates a byte array for IP network mask prefix.
+     * Checks whether a prefix length is valid for the IP version.
      *
      * @param version the IP address version
-     * @param prefixLength the length of the mask prefix. Must be in the
-     * interval [0, 32] for IPv4, or [0, 128] for IPv6
-     * @return a byte array that contains a mask prefix of the
-     * specified length
-     * @throws IllegalArgumentException if the arguments are invalid
+     * @param prefixLength the length of the mask prefix
+     * @throws IllegalArgumentException if the prefix length is invalid
      */
-    static byte[] makeMaskPrefixArray(Version version, int prefixLength) {
-        int addrByteLength = byteLength(version);
-        int addrBitLength = addrByteLength * Byte.SIZE;
-
-        // Verify the prefix length
+    static void checkPrefixLength(Version version, int prefixLength) {
+        int addrBitLength = byteLength(version) * Byte.SIZE;
         if ((prefixLength < 0) || (prefixLength > addrBitLength)) {
             final String msg = "Invalid IP prefix length: " + prefixLength +
                 ". Must be in the interval [0, " + addrBitLength + "].";
             throw new IllegalArgumentException(msg);
         }
+    }
 
-        // Number of bytes and extra bits that should be all 1s
-        int maskBytes = prefixLength / Byte.SIZE;
-        int maskBits = prefixLength % Byte.SIZE;
-        byte[] mask = new byte[addrByteLength];
-
-        // Set the bytes and extra bits to 1s
-        for (int i = 0; i < maskBytes; i++) {
-            mask[i] = (byte) 0xff;              // Set mask bytes to 1s
-        }
-        for (int i = maskBytes; i < addrByteLength; i++) {
-            mask[i] = 0;                        // Set remaining bytes to 0s
-        }
-        if (maskBits > 0) {
-            mask[maskBytes] = (byte) (0xff << (Byte.SIZE - maskBits));
+    /**
+     * Returns the mask of the most significant 64 bits of an address for
+     * a valid prefix length.
+     *
+     * @param version the IP address version
+     * @param prefixLength the length of the mask prefix
+     * @return high order bits of the mask; zero for IPv4
+     */
+    static long highMask(Version version, int prefixLength) {
+        if (version == Version.INET) {
+            return 0;
         }
-        return mask;
+        return prefixMask(Math.min(prefixLength, Long.SIZE));
     }
 
     /**
-     * Creates a byte array that represents an IP address masked with
-     * a network mask of given mask length.
+     * Returns the mask of the least significant 64 bits of an address for
+     * a valid prefix length.
      *
-     * @param addr the address to mask
-     * @param prefixLength the length of the mask prefix. Must be in the
-     * interval [0, 32] for IPv4, or [0, 128] for IPv6
-     * @return a byte array that represents the IP address masked with
-     * a mask prefix of the specified length
-     * @throws IllegalArgumentException if the prefix length is invalid
+     * @param version the IP address version
+     * @param prefixLength the length of the mask prefix
+     * @return low order bits of the mask; the IPv4 mask in the lower 32 bits
      */
-    static byte[] makeMaskedAddressArray(final IpAddress addr,
-                                         int prefixLength) {
-        byte[] mask = IpAddress.makeMaskPrefixArray(addr.version(),
-                                                    prefixLength);
-        byte[] net = new byte[mask.length];
-
-        // Mask each byte
-        for (int i = 0; i < net.length; i++) {
-            net[i] = (byte) (addr.octets[i] & mask[i]);
+    static long lowMask(Version version, int prefixLength) {
+        if (version == Version.INET) {
+            return prefixMask(prefixLength) >>> INET_BIT_LENGTH;
         }
-        return net;
+        return prefixMask(Math.max(prefixLength - Long.SIZE, 0));
+    }
+
+    // 64 bit mask with the given number of leading ones
+    private static long prefixMask(int ones) {
+        return ones == 0 ? 0 : -1L << (Long.SIZE - ones);
     }
 }
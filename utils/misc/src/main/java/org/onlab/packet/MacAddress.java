@@ -15,26 +15,34 @@
  */
 package org.onlab.packet;
 
-import java.util.Arrays;
-
 /**
  * The class representing MAC address.
+ * <p>
+ * The address is held in the lower 48 bits of a {@code long}; byte array
+ * views are only created on demand.
+ * </p>
  */
 public class MacAddress {
 
-    public static final MacAddress ZERO = valueOf("00:00:00:00:00:00");
-    public static final MacAddress BROADCAST = valueOf("ff:ff:ff:ff:ff:ff");
+    public static final MacAddress ZERO = new MacAddress(0L);
+    public static final MacAddress BROADCAST = new MacAddress(0xffffffffffffL);
+
+    // link local addresses are 01:80:c2:00:00:00, 0e and 03
+    private static final long LL = 0x0180c2000000L;
+    private static final long LL_MASK = 0xffffffffff00L;
 
-    private static final byte[] LL = new byte[]{
-            0x01, (byte) 0x80, (byte) 0xc2, 0x00, 0x00,
-            0x00, 0x0e, 0x03
-    };
+    private static final long ADDRESS_MASK = 0xffffffffffffL;
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
 
     public static final int MAC_ADDRESS_LENGTH = 6;
-    private byte[] address = new byte[MacAddress.MAC_ADDRESS_LENGTH];
+    private final long address;
 
     public MacAddress(final byte[] address) {
-        this.address = Arrays.copyOf(address, MacAddress.MAC_ADDRESS_LENGTH);
+        this(toLong(address, 0));
+    }
+
+    private MacAddress(final long address) {
+        this.address = address & ADDRESS_MASK;
     }
 
     /**
@@ -54,13 +62,12 @@ public class MacAddress {
                             + " separated pairwise by :'s.");
         }
 
-        final byte[] addressInBytes = new byte[MacAddress.MAC_ADDRESS_LENGTH];
+        long value = 0;
         for (int i = 0; i < MacAddress.MAC_ADDRESS_LENGTH; i++) {
-            final String element = elements[i];
-            addressInBytes[i] = (byte) Integer.parseInt(element, 16);
+            value = value << 8 | (Integer.parseInt(elements[i], 16) & 0xffL);
         }
 
-        return new MacAddress(addressInBytes);
+        return new MacAddress(value);
     }
 
     /**
@@ -78,7 +85,25 @@ public class MacAddress {
                                                        + MacAddress.MAC_ADDRESS_LENGTH);
         }
 
-        return new MacAddress(address);
+        return new MacAddress(toLong(address, 0));
+    }
+
+    /**
+     * Returns a MAC address instance representing the six bytes found at
+     * the given offset of the specified {@code byte} array.
+     *
+     * @param address the byte array to be parsed.
+     * @param offset  offset of the first byte of the address
+     * @return a MAC address instance representing the specified bytes
+     * @throws IllegalArgumentException if the array is too short
+     */
+    public static MacAddress valueOf(final byte[] address, final int offset) {
+        if (offset < 0 || offset + MacAddress.MAC_ADDRESS_LENGTH > address.length) {
+            throw new IllegalArgumentException("the length is not "
+                                                       + MacAddress.MAC_ADDRESS_LENGTH);
+        }
+
+        return new MacAddress(toLong(address, offset));
     }
 
     /**
@@ -93,12 +118,22 @@ public class MacAddress {
      * @throws IllegalArgumentException if the long value cannot be parsed as a MAC address.
      */
     public static MacAddress valueOf(final long address) {
-        final byte[] addressInBytes = new byte[]{
-                (byte) (address >> 40 & 0xff), (byte) (address >> 32 & 0xff),
-                (byte) (address >> 24 & 0xff), (byte) (address >> 16 & 0xff),
-                (byte) (address >> 8 & 0xff), (byte) (address >> 0 & 0xff)};
+        // share the well-known addresses
+        if ((address & ADDRESS_MASK) == 0) {
+            return ZERO;
+        }
+        if ((address & ADDRESS_MASK) == ADDRESS_MASK) {
+            return BROADCAST;
+        }
+        return new MacAddress(address);
+    }
 
-        return new MacAddress(addressInBytes);
+    private static long toLong(final byte[] address, final int offset) {
+        long value = 0;
+        for (int i = 0; i < MacAddress.MAC_ADDRESS_LENGTH; i++) {
+            value = value << 8 | (address[offset + i] & 0xffL);
+        }
+        return value;
     }
 
     /**
@@ -107,7 +142,7 @@ public class MacAddress {
      * @return the length of the {@code MACAddress}.
      */
     public int length() {
-        return this.address.length;
+        return MAC_ADDRESS_LENGTH;
     }
 
     /**
@@ -117,7 +152,11 @@ public class MacAddress {
      * type {@code byte} array.
      */
     public byte[] toBytes() {
-        return Arrays.copyOf(this.address, this.address.length);
+        final byte[] bytes = new byte[MAC_ADDRESS_LENGTH];
+        for (int i = 0; i < MAC_ADDRESS_LENGTH; i++) {
+            bytes[i] = (byte) (address >> (MAC_ADDRESS_LENGTH - 1 - i) * 8);
+        }
+        return bytes;
     }
 
     /**
@@ -127,12 +166,7 @@ public class MacAddress {
      * type {@code long}.
      */
     public long toLong() {
-        long mac = 0;
-        for (int i = 0; i < 6; i++) {
-            final long t = (this.address[i] & 0xffL) << (5 - i) * 8;
-            mac |= t;
-        }
-        return mac;
+        return address;
     }
 
     /**
@@ -141,12 +175,7 @@ public class MacAddress {
      * @return {@code true} if the MAC address is the broadcast address.
      */
     public boolean isBroadcast() {
-        for (final byte b : this.address) {
-            if (b != -1) {
-                return false;
-            }
-        }
-        return true;
+        return address == ADDRESS_MASK;
     }
 
     /**
@@ -158,7 +187,7 @@ public class MacAddress {
         if (this.isBroadcast()) {
             return false;
         }
-        return (this.address[0] & 0x01) != 0;
+        return (address & 0x010000000000L) != 0;
     }
 
     /**
@@ -167,9 +196,11 @@ public class MacAddress {
      * @return true if link local
      */
     public boolean isLinkLocal() {
-        return LL[0] == address[0] && LL[1] == address[1] && LL[2] == address[2] &&
-                LL[3] == address[3] && LL[4] == address[4] &&
-                (LL[5] == address[5] || LL[6] == address[5] || LL[7] == address[5]);
+        if ((address & LL_MASK) != LL) {
+            return false;
+        }
+        final long last = address & 0xff;
+        return last == 0x00 || last == 0x0e || last == 0x03;
     }
 
     @Override
@@ -183,24 +214,17 @@ public class MacAddress {
         }
 
         final MacAddress other = (MacAddress) o;
-        return Arrays.equals(this.address, other.address);
+        return this.address == other.address;
     }
 
     @Override
     public int hashCode() {
-        return Long.hashCode(toLong());
+        return Long.hashCode(address);
     }
 
     @Override
     public String toString() {
-        final StringBuilder builder = new StringBuilder();
-        for (final byte b : this.address) {
-            if (builder.length() > 0) {
-                builder.append(":");
-            }
-            builder.append(String.format("%02X", b & 0xFF));
-        }
-        return builder.toString();
+        return toString(true);
     }
 
     /**
@@ -208,9 +232,17 @@ public class MacAddress {
      * radix tree storage)
      */
     public String toStringNoColon() {
-        final StringBuilder builder = new StringBuilder();
-        for (final byte b : this.address) {
-            builder.append(String.format("%02X", b & 0xFF));
+        return toString(false);
+    }
+
+    private String toString(boolean colons) {
+        final StringBuilder builder = new StringBuilder(3 * MAC_ADDRESS_LENGTH);
+        for (int i = MAC_ADDRESS_LENGTH - 1; i >= 0; i--) {
+            final int b = (int) (address >> i * 8) & 0xff;
+            builder.append(HEX[b >> 4]).append(HEX[b & 0xf]);
+            if (colons && i > 0) {
+                builder.append(':');
+            }
         }
         return builder.toString();
     }
@@ -28,6 +28,7 @@ import com.esotericsoftware.kryo.Serializer;
 import com.esotericsoftware.kryo.io.ByteBufferInput;
 import com.esotericsoftware.kryo.io.ByteBufferOutput;
 import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
 import com.esotericsoftware.kryo.pool.KryoCallback;
 import com.esotericsoftware.kryo.pool.KryoFactory;
 import com.esotericsoftware.kryo.pool.KryoPool;
@@ -36,6 +37,11 @@ import com.google.common.collect.ImmutableList;
 
 /**
  * Pool of Kryo instances, with classes pre-registered.
+ * <p>
+ * Input and output buffers are kept per thread and reused across calls, so
+ * serializing to a byte array allocates little more than the result, and
+ * serializing to a buffer or stream allocates nothing on the common path.
+ * </p>
  */
 //@ThreadSafe
 public final class KryoNamespace implements KryoFactory, KryoPool {
@@ -48,6 +54,9 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
     public static final int DEFAULT_BUFFER_SIZE = 4096;
     public static final int MAX_BUFFER_SIZE = 100 * 1000 * 1000;
 
+    // reused output buffers grown beyond this are dropped after use
+    private static final int MAX_POOLED_BUFFER_SIZE = 512 * 1024;
+
     /**
      * ID to use if this KryoNamespace does not define registration id.
      */
@@ -228,18 +237,19 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
      * Serializes given object to byte array using Kryo instance in pool.
      *
      * @param obj Object to serialize
-     * @param bufferSize maximum size of serialized bytes
+     * @param bufferSize initial size of the buffer, if one has to be allocated
      * @return serialized bytes
      */
     public byte[] serialize(final Object obj, final int bufferSize) {
-        ByteBufferOutput out = new ByteBufferOutput(bufferSize, MAX_BUFFER_SIZE);
+        Buffers buffers = Buffers.acquire(bufferSize);
+        Output out = buffers.output;
         Kryo kryo = borrow();
         try {
             kryo.writeClassAndObject(out, obj);
-            out.flush();
             return out.toBytes();
         } finally {
             release(kryo);
+            buffers.release();
         }
     }
 
@@ -250,13 +260,16 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
      * @param buffer to write to
      */
     public void serialize(final Object obj, final ByteBuffer buffer) {
-        ByteBufferOutput out = new ByteBufferOutput(buffer);
+        Buffers buffers = Buffers.acquire(DEFAULT_BUFFER_SIZE);
+        ByteBufferOutput out = buffers.byteBufferOutput;
+        out.setBuffer(buffer, buffer.capacity());
         Kryo kryo = borrow();
         try {
             kryo.writeClassAndObject(out, obj);
             out.flush();
         } finally {
             release(kryo);
+            buffers.release();
         }
     }
 
@@ -275,16 +288,20 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
      *
      * @param obj Object to serialize
      * @param stream to write to
-     * @param bufferSize size of the buffer in front of the stream
+     * @param bufferSize size of the buffer in front of the stream, if one
+     *                   has to be allocated
      */
     public void serialize(final Object obj, final OutputStream stream, final int bufferSize) {
-        ByteBufferOutput out = new ByteBufferOutput(stream, bufferSize);
+        Buffers buffers = Buffers.acquire(bufferSize);
+        Output out = buffers.output;
+        out.setOutputStream(stream);
         Kryo kryo = borrow();
         try {
             kryo.writeClassAndObject(out, obj);
             out.flush();
         } finally {
             release(kryo);
+            buffers.release();
         }
     }
 
@@ -296,7 +313,9 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
      * @return deserialized Object
      */
     public <T> T deserialize(final byte[] bytes) {
-        Input in = new Input(bytes);
+        Buffers buffers = Buffers.acquire(DEFAULT_BUFFER_SIZE);
+        Input in = buffers.input;
+        in.setBuffer(bytes);
         Kryo kryo = borrow();
         try {
             @SuppressWarnings("unchecked")
@@ -304,6 +323,7 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
             return obj;
         } finally {
             release(kryo);
+            buffers.release();
         }
     }
 
@@ -315,7 +335,9 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
      * @return deserialized Object
      */
     public <T> T deserialize(final ByteBuffer buffer) {
-        ByteBufferInput in = new ByteBufferInput(buffer);
+        Buffers buffers = Buffers.acquire(DEFAULT_BUFFER_SIZE);
+        ByteBufferInput in = buffers.byteBufferInput;
+        in.setBuffer(buffer);
         Kryo kryo = borrow();
         try {
             @SuppressWarnings("unchecked")
@@ -323,6 +345,7 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
             return obj;
         } finally {
             release(kryo);
+            buffers.release();
         }
     }
 
@@ -405,6 +428,66 @@ public final class KryoNamespace implements KryoFactory, KryoPool {
                     .toString();
     }
 
+    /**
+     * Serialization buffers of a thread.
+     */
+    private static final class Buffers {
+
+        private static final byte[] EMPTY_BYTES = new byte[0];
+        private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
+        private static final ThreadLocal<Buffers> LOCAL = new ThreadLocal<Buffers>() {
+            @Override
+            protected Buffers initialValue() {
+                return new Buffers(DEFAULT_BUFFER_SIZE);
+            }
+        };
+
+        private final Output output;
+        private final Input input = new Input();
+        private final ByteBufferOutput byteBufferOutput = new ByteBufferOutput();
+        private final ByteBufferInput byteBufferInput = new ByteBufferInput();
+
+        // set while in use; calls nested in a serializer get fresh buffers
+        private boolean inUse;
+
+        private Buffers(int bufferSize) {
+            output = new Output(bufferSize, MAX_BUFFER_SIZE);
+        }
+
+        /**
+         * Returns buffers for use by the current thread, to be released
+         * when done.
+         *
+         * @param bufferSize initial output buffer size, if one has to be
+         *                   allocated
+         * @return buffers
+         */
+        static Buffers acquire(int bufferSize) {
+            Buffers buffers = LOCAL.get();
+            if (buffers.inUse) {
+                buffers = new Buffers(bufferSize);
+            }
+            buffers.inUse = true;
+            return buffers;
+        }
+
+        /**
+         * Resets the buffers for the next use, dropping references to the
+         * caller's data.
+         */
+        void release() {
+            output.setOutputStream(null);
+            if (output.getBuffer().length > MAX_POOLED_BUFFER_SIZE) {
+                output.setBuffer(new byte[DEFAULT_BUFFER_SIZE], MAX_BUFFER_SIZE);
+            }
+            input.setBuffer(EMPTY_BYTES);
+            byteBufferOutput.setBuffer(EMPTY_BUFFER, 0);
+            byteBufferInput.setBuffer(EMPTY_BUFFER);
+            inUse = false;
+        }
+    }
+
     static final class RegistrationBlock {
         private final int begin;
         private final ImmutableList<Pair<Class<?>, Serializer<?>>> types;
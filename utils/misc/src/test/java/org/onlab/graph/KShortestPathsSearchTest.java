@@ -0,0 +1,224 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static com.google.common.collect.ImmutableSet.of;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test of the Yen's k-shortest paths search.
+ */
+public class KShortestPathsSearchTest extends AbstractGraphPathSearchTest {
+
+    @Override
+    protected KShortestPathsSearch<TestVertex, TestEdge> graphSearch() {
+        return new KShortestPathsSearch<>();
+    }
+
+    @Test
+    public void noPath() {
+        graph = new AdjacencyListsGraph<>(of(A, B, C, D),
+                                          of(new TestEdge(A, B, 1),
+                                             new TestEdge(B, A, 1),
+                                             new TestEdge(C, D, 1),
+                                             new TestEdge(D, C, 1)));
+        assertEquals("incorrect paths count", 0,
+                     graphSearch().search(graph, A, D, weight, 3).paths().size());
+    }
+
+    @Test
+    public void shortestOnly() {
+        graph = new AdjacencyListsGraph<>(vertexes(), edges());
+        Set<Path<TestVertex, TestEdge>> paths = graphSearch().search(graph, A, H, weight).paths();
+        assertEquals("incorrect paths count", 1, paths.size());
+        Path<TestVertex, TestEdge> path = paths.iterator().next();
+        assertEquals("incorrect path cost", 5.0, path.cost(), 0.1);
+        assertEquals("incorrect path length", 5, path.edges().size());
+    }
+
+    @Test
+    public void defaultGraph() {
+        graph = new AdjacencyListsGraph<>(vertexes(), edges());
+        Set<Path<TestVertex, TestEdge>> paths =
+                graphSearch().search(graph, A, H, weight, 100).paths();
+        assertEquals("incorrect paths count", allPaths(A, H).size(), paths.size());
+        assertOrdered(paths);
+        assertEquals("incorrect first cost", 5.0, paths.iterator().next().cost(), 0.1);
+    }
+
+    @Test
+    public void hopCount() {
+        graph = new AdjacencyListsGraph<>(vertexes(), edges());
+        Set<Path<TestVertex, TestEdge>> paths =
+                graphSearch().search(graph, A, H, null, 3).paths();
+        assertEquals("incorrect paths count", 3, paths.size());
+        assertOrdered(paths);
+        assertEquals("incorrect first cost", 3.0, paths.iterator().next().cost(), 0.1);
+    }
+
+    @Test
+    public void dualEdgePath() {
+        graph = new AdjacencyListsGraph<>(of(A, B, C, D, E, F, G, H),
+                                          of(new TestEdge(A, B, 1), new TestEdge(A, C, 3),
+                                             new TestEdge(B, D, 2), new TestEdge(B, C, 1),
+                                             new TestEdge(B, E, 4), new TestEdge(C, E, 1),
+                                             new TestEdge(D, H, 5), new TestEdge(D, E, 1),
+                                             new TestEdge(E, F, 1), new TestEdge(F, D, 1),
+                                             new TestEdge(F, G, 1), new TestEdge(F, H, 1),
+                                             new TestEdge(A, E, 3), new TestEdge(B, D, 1)));
+        Set<Path<TestVertex, TestEdge>> paths =
+                graphSearch().search(graph, A, G, weight, 5).paths();
+        assertEquals("incorrect paths count", 5, paths.size());
+        assertOrdered(paths);
+    }
+
+    @Test
+    public void forbiddenEdges() {
+        graph = new AdjacencyListsGraph<>(vertexes(), edges());
+        EdgeWeight<TestVertex, TestEdge> noCE = edge ->
+                edge.src().equals(C) && edge.dst().equals(E) ? -1 : edge.weight();
+        for (Path<TestVertex, TestEdge> path :
+                graphSearch().search(graph, A, H, noCE, 100).paths()) {
+            for (TestEdge edge : path.edges()) {
+                assertTrue("forbidden edge used", noCE.weight(edge) >= 0);
+            }
+        }
+    }
+
+    @Test
+    public void randomGraphs() {
+        Random random = new Random(42);
+        List<TestVertex> vertexes = new ArrayList<>(vertexes());
+        for (int round = 0; round < 50; round++) {
+            Set<TestEdge> edges = new HashSet<>();
+            for (TestVertex src : vertexes) {
+                for (TestVertex dst : vertexes) {
+                    if (!src.equals(dst) && random.nextInt(3) == 0) {
+                        edges.add(new TestEdge(src, dst, 1 + random.nextInt(5)));
+                    }
+                }
+            }
+            graph = new AdjacencyListsGraph<>(vertexes(), edges);
+
+            List<Double> expected = new ArrayList<>();
+            for (List<TestEdge> path : allPaths(A, H)) {
+                expected.add(cost(path));
+            }
+            Collections.sort(expected);
+
+            int k = 1 + random.nextInt(10);
+            Set<Path<TestVertex, TestEdge>> paths =
+                    graphSearch().search(graph, A, H, weight, k).paths();
+            assertEquals("incorrect paths count", Math.min(k, expected.size()), paths.size());
+            int i = 0;
+            for (Path<TestVertex, TestEdge> path : paths) {
+                assertEquals("incorrect path cost", expected.get(i++), path.cost(), 0.01);
+                assertEquals("incorrect reported cost", cost(path.edges()), path.cost(), 0.01);
+                assertLoopless(path);
+            }
+        }
+    }
+
+    @Test
+    public void concurrentSearches() throws Exception {
+        graph = new AdjacencyListsGraph<>(vertexes(), edges());
+        KShortestPathsSearch<TestVertex, TestEdge> search = graphSearch();
+        Set<Path<TestVertex, TestEdge>> expected = search.search(graph, A, H, weight, 10).paths();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Set<Path<TestVertex, TestEdge>>>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                futures.add(executor.submit(() -> search.search(graph, A, H, weight, 10).paths()));
+            }
+            for (Future<Set<Path<TestVertex, TestEdge>>> future : futures) {
+                assertEquals("incorrect paths", new ArrayList<>(expected),
+                             new ArrayList<>(future.get(10, TimeUnit.SECONDS)));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertOrdered(Set<Path<TestVertex, TestEdge>> paths) {
+        Iterator<Path<TestVertex, TestEdge>> it = paths.iterator();
+        Path<TestVertex, TestEdge> previous = it.next();
+        assertLoopless(previous);
+        while (it.hasNext()) {
+            Path<TestVertex, TestEdge> path = it.next();
+            assertTrue("paths not in ascending cost", previous.cost() <= path.cost());
+            assertLoopless(path);
+            previous = path;
+        }
+    }
+
+    private void assertLoopless(Path<TestVertex, TestEdge> path) {
+        Set<TestVertex> visited = new HashSet<>();
+        visited.add(path.src());
+        for (TestEdge edge : path.edges()) {
+            assertTrue("path has a loop", visited.add(edge.dst()));
+        }
+    }
+
+    private double cost(List<TestEdge> path) {
+        double cost = 0;
+        for (TestEdge edge : path) {
+            cost += edge.weight();
+        }
+        return cost;
+    }
+
+    // Enumerates all loopless paths by brute force
+    private List<List<TestEdge>> allPaths(TestVertex src, TestVertex dst) {
+        List<List<TestEdge>> paths = new ArrayList<>();
+        Set<TestVertex> visited = new HashSet<>();
+        visited.add(src);
+        allPaths(src, dst, new ArrayList<>(), visited, paths);
+        return paths;
+    }
+
+    private void allPaths(TestVertex vertex, TestVertex dst, List<TestEdge> path,
+                          Set<TestVertex> visited, List<List<TestEdge>> paths) {
+        if (vertex.equals(dst)) {
+            paths.add(new ArrayList<>(path));
+            return;
+        }
+        for (TestEdge edge : graph.getEdgesFrom(vertex)) {
+            if (visited.add(edge.dst())) {
+                path.add(edge);
+                allPaths(edge.dst(), dst, path, visited, paths);
+                path.remove(path.size() - 1);
+                visited.remove(edge.dst());
+            }
+        }
+    }
+
+}
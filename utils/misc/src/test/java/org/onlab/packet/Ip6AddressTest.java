@@ -173,6 +173,24 @@ public class Ip6AddressTest {
         ipAddress = Ip6Address.valueOf(value);
     }
 
+    /**
+     * Tests valueOf() converter for the two halves of an IPv6 address.
+     */
+    @Test
+    public void testValueOfLongsIPv6() {
+        Ip6Address ipAddress;
+
+        ipAddress = Ip6Address.valueOf(0x1111222233334444L, 0x5555666677778888L);
+        assertThat(ipAddress.toString(),
+                   is("1111:2222:3333:4444:5555:6666:7777:8888"));
+        assertThat(ipAddress,
+                   is(Ip6Address.valueOf("1111:2222:3333:4444:5555:6666:7777:8888")));
+
+        ipAddress = Ip6Address.valueOf(-1L, -1L);
+        assertThat(ipAddress.toString(),
+                   is("ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff"));
+    }
+
     /**
      * Tests valueOf() converter for IPv6 byte array and an offset.
      */
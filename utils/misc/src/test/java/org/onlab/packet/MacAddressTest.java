@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.packet;
+
+import com.google.common.testing.EqualsTester;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for class {@link MacAddress}.
+ */
+public class MacAddressTest {
+
+    private static final byte[] BYTES =
+            new byte[] {0x12, 0x34, 0x56, 0x78, (byte) 0x9a, (byte) 0xbc};
+
+    /**
+     * Tests the conversions between strings, bytes and long values.
+     */
+    @Test
+    public void testConversions() {
+        MacAddress mac = MacAddress.valueOf("12:34:56:78:9a:bc");
+
+        assertThat(mac.toLong(), is(0x123456789abcL));
+        assertArrayEquals(BYTES, mac.toBytes());
+        assertThat(mac.toString(), is("12:34:56:78:9A:BC"));
+        assertThat(mac.toStringNoColon(), is("123456789ABC"));
+        assertThat(mac.length(), is(MacAddress.MAC_ADDRESS_LENGTH));
+
+        assertThat(MacAddress.valueOf(BYTES), is(mac));
+        assertThat(new MacAddress(BYTES), is(mac));
+        assertThat(MacAddress.valueOf(0x123456789abcL), is(mac));
+        assertThat(MacAddress.valueOf(new byte[] {1, 0x12, 0x34, 0x56, 0x78,
+                (byte) 0x9a, (byte) 0xbc, 2}, 1), is(mac));
+        // only the lower 48 bits are used
+        assertThat(MacAddress.valueOf(0xff00123456789abcL), is(mac));
+    }
+
+    /**
+     * Tests that the well-known addresses are shared.
+     */
+    @Test
+    public void testWellKnown() {
+        assertThat(MacAddress.valueOf(0L), sameInstance(MacAddress.ZERO));
+        assertThat(MacAddress.valueOf(0xffffffffffffL), sameInstance(MacAddress.BROADCAST));
+        assertThat(MacAddress.BROADCAST.toString(), is("FF:FF:FF:FF:FF:FF"));
+        assertThat(MacAddress.ZERO.toString(), is("00:00:00:00:00:00"));
+    }
+
+    /**
+     * Tests the address classifications.
+     */
+    @Test
+    public void testClassifications() {
+        assertTrue(MacAddress.BROADCAST.isBroadcast());
+        assertFalse(MacAddress.BROADCAST.isMulticast());
+        assertTrue(MacAddress.valueOf("01:00:5e:00:00:01").isMulticast());
+        assertFalse(MacAddress.valueOf(BYTES).isMulticast());
+
+        assertTrue(MacAddress.valueOf("01:80:c2:00:00:00").isLinkLocal());
+        assertTrue(MacAddress.valueOf("01:80:c2:00:00:0e").isLinkLocal());
+        assertTrue(MacAddress.valueOf("01:80:c2:00:00:03").isLinkLocal());
+        assertFalse(MacAddress.valueOf("01:80:c2:00:00:01").isLinkLocal());
+        assertFalse(MacAddress.valueOf("01:80:c3:00:00:00").isLinkLocal());
+    }
+
+    /**
+     * Tests invalid addresses.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLength() {
+        MacAddress.valueOf(new byte[] {1, 2, 3});
+    }
+
+    /**
+     * Tests equals(), hashCode() and toString() methods.
+     */
+    @Test
+    public void testEquals() {
+        new EqualsTester()
+                .addEqualityGroup(MacAddress.valueOf(BYTES),
+                                  MacAddress.valueOf("12:34:56:78:9A:BC"))
+                .addEqualityGroup(MacAddress.valueOf(1L))
+                .addEqualityGroup(MacAddress.ZERO)
+                .testEquals();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests of the Kryo namespace and its reuse of buffers.
+ */
+public class KryoNamespaceTest {
+
+    private static final KryoNamespace NAMESPACE = KryoNamespace.newBuilder()
+            .register(byte[].class, String.class, ArrayList.class)
+            .register(new NestingSerializer(), Nesting.class)
+            .build();
+
+    @Test
+    public void bytes() {
+        byte[] first = NAMESPACE.serialize("first");
+        byte[] second = NAMESPACE.serialize("second");
+        assertEquals("first", NAMESPACE.deserialize(first));
+        assertEquals("second", NAMESPACE.deserialize(second));
+        // results must not share the reused buffer
+        assertArrayEquals(first, NAMESPACE.serialize("first"));
+    }
+
+    @Test
+    public void large() {
+        byte[] payload = new byte[2 * 1024 * 1024];
+        Arrays.fill(payload, (byte) 7);
+        byte[] bytes = NAMESPACE.serialize(payload);
+        assertArrayEquals(payload, NAMESPACE.<byte[]>deserialize(bytes));
+        assertEquals("small", NAMESPACE.deserialize(NAMESPACE.serialize("small")));
+    }
+
+    @Test
+    public void byteBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(128);
+        NAMESPACE.serialize("buffered", buffer);
+        buffer.flip();
+        assertEquals("buffered", NAMESPACE.deserialize(buffer));
+    }
+
+    @Test
+    public void stream() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NAMESPACE.serialize("streamed", out);
+        assertEquals("streamed",
+                     NAMESPACE.deserialize(new ByteArrayInputStream(out.toByteArray())));
+    }
+
+    @Test
+    public void nested() {
+        Nesting nesting = NAMESPACE.deserialize(NAMESPACE.serialize(new Nesting("inner")));
+        assertEquals("inner", nesting.value);
+    }
+
+    private static final class Nesting {
+        private final String value;
+
+        private Nesting(String value) {
+            this.value = value;
+        }
+    }
+
+    // serializes its value through the namespace again, from within a call
+    private static final class NestingSerializer extends Serializer<Nesting> {
+        @Override
+        public void write(Kryo kryo, Output output, Nesting object) {
+            byte[] bytes = NAMESPACE.serialize(object.value);
+            output.writeInt(bytes.length);
+            output.writeBytes(bytes);
+        }
+
+        @Override
+        public Nesting read(Kryo kryo, Input input, Class<Nesting> type) {
+            byte[] bytes = input.readBytes(input.readInt());
+            return new Nesting(NAMESPACE.<String>deserialize(bytes));
+        }
+    }
+}
@@ -22,6 +22,9 @@ import com.esotericsoftware.kryo.Serializer;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+
 import java.nio.ByteBuffer;
 
 /**
@@ -63,6 +66,17 @@ public class KryoSerializer {
         serializerPool.serialize(obj, buffer);
     }
 
+    /**
+     * Serializes the given object straight into a Netty buffer, which grows
+     * as needed.
+     *
+     * @param obj    object to serialize
+     * @param buffer buffer to write to
+     */
+    public void encode(Object obj, ByteBuf buffer) {
+        serializerPool.serialize(obj, new ByteBufOutputStream(buffer));
+    }
+
     public static final class InternalMessageSerializer
             extends Serializer<InternalMessage> {
 
@@ -54,16 +54,17 @@ public class MessageEncoder extends MessageToByteEncoder<InternalMessage> {
         // write preamble
         out.writeBytes(PREAMBLE);
 
-        byte[] payload = SERIALIZER.encode(message);
-
-        // write payload length
-        out.writeInt(payload.length);
+        // write payload length; filled in once the payload is written
+        int lengthIndex = out.writerIndex();
+        out.writeInt(0);
 
         // write payloadSerializer version
         out.writeInt(SERIALIZER_VERSION);
 
-        // write payload.
-        out.writeBytes(payload);
+        // write payload straight into the buffer.
+        int payloadIndex = out.writerIndex();
+        SERIALIZER.encode(message, out);
+        out.setInt(lengthIndex, out.writerIndex() - payloadIndex);
     }
 
     @Override
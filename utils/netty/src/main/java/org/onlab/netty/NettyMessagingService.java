@@ -15,12 +15,14 @@
  */
 package org.onlab.netty;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.onlab.util.Tools.namedThreads;
+
 import io.netty.bootstrap.Bootstrap;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
-import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInitializer;
@@ -35,49 +37,51 @@ import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
 
 import java.io.IOException;
 import java.net.UnknownHostException;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
-import org.apache.commons.pool.KeyedPoolableObjectFactory;
-import org.apache.commons.pool.impl.GenericKeyedObjectPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.RemovalListener;
-import com.google.common.cache.RemovalNotification;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 
 /**
  * A Netty based implementation of MessagingService.
+ * <p>
+ * A single long-lived connection is kept to each peer, over which all
+ * messages and replies to that peer are multiplexed. Messages are queued
+ * and written in batches, with one flush per turn of the event loop. A
+ * peer that cannot be reached is retried with exponential backoff.
+ * </p>
  */
 public class NettyMessagingService implements MessagingService {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
+    private static final long RESPONSE_TIMEOUT_MILLIS = 10000;
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final long MIN_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 5000;
+
     private final Endpoint localEp;
     private final ConcurrentMap<String, MessageHandler> handlers = new ConcurrentHashMap<>();
     private final AtomicLong messageIdGenerator = new AtomicLong(0);
-    private final Cache<Long, SettableFuture<byte[]>> responseFutures = CacheBuilder.newBuilder()
-            .maximumSize(100000)
-            .expireAfterWrite(10, TimeUnit.SECONDS)
-            .removalListener(new RemovalListener<Long, SettableFuture<byte[]>>() {
-                @Override
-                public void onRemoval(RemovalNotification<Long, SettableFuture<byte[]>> entry) {
-                    entry.getValue().setException(new TimeoutException("Timedout waiting for reply"));
-                }
-            })
-            .build();
-    private final GenericKeyedObjectPool<Endpoint, Channel> channels
-            = new GenericKeyedObjectPool<Endpoint, Channel>(new OnosCommunicationChannelFactory());
+    private final ConcurrentMap<Long, Callback> callbacks = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Endpoint, Connection> connections = new ConcurrentHashMap<>();
+
+    private HashedWheelTimer timer;
 
     private EventLoopGroup serverGroup;
     private EventLoopGroup clientGroup;
@@ -119,14 +123,17 @@ public class NettyMessagingService implements MessagingService {
     }
 
     public void activate() throws Exception {
-        channels.setTestOnBorrow(true);
-        channels.setTestOnReturn(true);
+        timer = new HashedWheelTimer(namedThreads("netty-messaging-timer-%d"));
         initEventLoopGroup();
         startAcceptingConnections();
     }
 
     public void deactivate() throws Exception {
-        channels.close();
+        for (Connection connection : connections.values()) {
+            connection.close();
+        }
+        connections.clear();
+        timer.stop();
         serverGroup.shutdownGracefully();
         clientGroup.shutdownGracefully();
     }
@@ -151,28 +158,16 @@ public class NettyMessagingService implements MessagingService {
     }
 
     protected void sendAsync(Endpoint ep, InternalMessage message) throws IOException {
-        Channel channel = null;
-        try {
-            try {
-                channel = channels.borrowObject(ep);
-                channel.eventLoop().execute(new WriteTask(channel, message));
-            } finally {
-                channels.returnObject(ep, channel);
-            }
-        } catch (IOException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new IOException(e);
-        }
-
+        connections.computeIfAbsent(ep, Connection::new).send(message);
     }
 
     @Override
     public ListenableFuture<byte[]> sendAndReceive(Endpoint ep, String type, byte[] payload)
             throws IOException {
-        SettableFuture<byte[]> futureResponse = SettableFuture.create();
-        Long messageId = messageIdGenerator.incrementAndGet();
-        responseFutures.put(messageId, futureResponse);
+        long messageId = messageIdGenerator.incrementAndGet();
+        Callback callback = new Callback(messageId);
+        callbacks.put(messageId, callback);
+        callback.timeout = timer.newTimeout(callback, RESPONSE_TIMEOUT_MILLIS, MILLISECONDS);
         InternalMessage message = new InternalMessage.Builder(this)
             .withId(messageId)
             .withSender(localEp)
@@ -181,11 +176,12 @@ public class NettyMessagingService implements MessagingService {
             .build();
         try {
             sendAsync(ep, message);
-        } catch (Exception e) {
-            responseFutures.invalidate(messageId);
+        } catch (IOException e) {
+            callbacks.remove(messageId);
+            callback.timeout.cancel();
             throw e;
         }
-        return futureResponse;
+        return callback.future;
     }
 
     @Override
@@ -217,44 +213,179 @@ public class NettyMessagingService implements MessagingService {
         b.bind(localEp.port()).sync();
     }
 
-    private class OnosCommunicationChannelFactory
-        implements KeyedPoolableObjectFactory<Endpoint, Channel> {
+    private Channel connect(Endpoint ep) throws InterruptedException {
+        Bootstrap bootstrap = new Bootstrap();
+        bootstrap.option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+        bootstrap.option(ChannelOption.WRITE_BUFFER_HIGH_WATER_MARK, 32 * 1024);
+        bootstrap.option(ChannelOption.WRITE_BUFFER_LOW_WATER_MARK, 8 * 1024);
+        bootstrap.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, CONNECT_TIMEOUT_MILLIS);
+        bootstrap.group(clientGroup);
+        bootstrap.channel(clientChannelClass);
+        bootstrap.option(ChannelOption.SO_KEEPALIVE, true);
+        // writes are coalesced by the connection already
+        bootstrap.option(ChannelOption.TCP_NODELAY, true);
+        bootstrap.handler(new OnosCommunicationChannelInitializer());
+        // Start the client.
+        return bootstrap.connect(ep.host(), ep.port()).sync().channel();
+    }
 
-        @Override
-        public void activateObject(Endpoint endpoint, Channel channel)
-                throws Exception {
+    /**
+     * Connection to a peer, shared by all senders.
+     */
+    private final class Connection {
+
+        private final Endpoint ep;
+        private final Queue<InternalMessage> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+        private final Runnable flusher = this::flush;
+
+        private volatile Channel channel;
+
+        // reconnect backoff; guarded by this
+        private long backoffMillis;
+        private long nextAttempt;
+
+        private Connection(Endpoint ep) {
+            this.ep = ep;
         }
 
-        @Override
-        public void destroyObject(Endpoint ep, Channel channel) throws Exception {
-            channel.close();
+        /**
+         * Queues a message and makes sure a flush is due on the event loop.
+         *
+         * @param message message to send
+         * @throws IOException if the peer cannot be connected to
+         */
+        private void send(InternalMessage message) throws IOException {
+            Channel ch = channel();
+            pending.add(message);
+            if (flushScheduled.compareAndSet(false, true)) {
+                ch.eventLoop().execute(flusher);
+            }
         }
 
-        @Override
-        public Channel makeObject(Endpoint ep) throws Exception {
-            Bootstrap bootstrap = new Bootstrap();
-            bootstrap.option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
-            bootstrap.option(ChannelOption.WRITE_BUFFER_HIGH_WATER_MARK, 32 * 1024);
-            bootstrap.option(ChannelOption.WRITE_BUFFER_LOW_WATER_MARK, 8 * 1024);
-            bootstrap.group(clientGroup);
-            // TODO: Make this faster:
-            // http://normanmaurer.me/presentations/2014-facebook-eng-netty/slides.html#37.0
-            bootstrap.channel(clientChannelClass);
-            bootstrap.option(ChannelOption.SO_KEEPALIVE, true);
-            bootstrap.handler(new OnosCommunicationChannelInitializer());
-            // Start the client.
-            ChannelFuture f = bootstrap.connect(ep.host(), ep.port()).sync();
-            return f.channel();
+        // writes everything queued so far, flushing once
+        private void flush() {
+            flushScheduled.set(false);
+            Channel ch = channel;
+            boolean written = false;
+            InternalMessage message;
+            while ((message = pending.poll()) != null) {
+                if (ch != null && ch.isActive()) {
+                    write(ch, message);
+                    written = true;
+                } else {
+                    failed(message, new IOException("Connection to " + ep + " lost"));
+                }
+            }
+            if (written) {
+                ch.flush();
+            }
         }
 
-        @Override
-        public void passivateObject(Endpoint ep, Channel channel)
-                throws Exception {
+        private void write(Channel ch, InternalMessage message) {
+            if (!message.type().equals(InternalMessage.REPLY_MESSAGE_TYPE)) {
+                Callback callback = callbacks.get(message.id());
+                if (callback != null) {
+                    // the reply is lost along with the connection it was asked on
+                    callback.channel = ch;
+                }
+            }
+            ch.write(message).addListener((ChannelFuture future) -> {
+                if (!future.isSuccess()) {
+                    failed(message, future.cause());
+                }
+            });
+        }
+
+        private void failed(InternalMessage message, Throwable cause) {
+            log.debug("Failed sending {} message to {}", message.type(), ep, cause);
+            if (!message.type().equals(InternalMessage.REPLY_MESSAGE_TYPE)) {
+                fail(message.id(), cause);
+            }
+        }
+
+        // fails the requests still awaiting a reply over a closed channel
+        private void closed(Channel ch) {
+            log.debug("Connection to {} closed", ep);
+            IOException cause = new IOException("Connection to " + ep + " closed");
+            for (Callback callback : callbacks.values()) {
+                if (callback.channel == ch) {
+                    fail(callback.id, cause);
+                }
+            }
+        }
+
+        private Channel channel() throws IOException {
+            Channel ch = channel;
+            if (ch != null && ch.isActive()) {
+                return ch;
+            }
+            synchronized (this) {
+                ch = channel;
+                if (ch != null && ch.isActive()) {
+                    return ch;
+                }
+                long now = System.currentTimeMillis();
+                if (now < nextAttempt) {
+                    throw new IOException("Unable to connect to " + ep + "; retrying in "
+                            + (nextAttempt - now) + "ms");
+                }
+                try {
+                    ch = connect(ep);
+                } catch (Exception e) {
+                    if (e instanceof InterruptedException) {
+                        Thread.currentThread().interrupt();
+                    }
+                    backoffMillis = backoffMillis == 0 ? MIN_BACKOFF_MILLIS
+                            : Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+                    nextAttempt = now + backoffMillis;
+                    throw new IOException("Unable to connect to " + ep, e);
+                }
+                backoffMillis = 0;
+                nextAttempt = 0;
+                final Channel connected = ch;
+                ch.closeFuture().addListener(future -> closed(connected));
+                channel = ch;
+                return ch;
+            }
+        }
+
+        private void close() {
+            Channel ch = channel;
+            if (ch != null) {
+                ch.close();
+            }
+        }
+    }
+
+    private void fail(long messageId, Throwable cause) {
+        Callback callback = callbacks.remove(messageId);
+        if (callback != null) {
+            callback.timeout.cancel();
+            callback.future.setException(cause);
+        }
+    }
+
+    /**
+     * Pending reply to a request, failed when its timeout on the wheel fires
+     * or when the channel it was sent over closes.
+     */
+    private final class Callback implements TimerTask {
+
+        private final long id;
+        private final SettableFuture<byte[]> future = SettableFuture.create();
+        private volatile Timeout timeout;
+        private volatile Channel channel;
+
+        private Callback(long id) {
+            this.id = id;
         }
 
         @Override
-        public boolean validateObject(Endpoint ep, Channel channel) {
-            return channel.isOpen();
+        public void run(Timeout t) {
+            if (callbacks.remove(id, this)) {
+                future.setException(new TimeoutException("Timedout waiting for reply"));
+            }
         }
     }
 
@@ -272,22 +403,6 @@ public class NettyMessagingService implements MessagingService {
         }
     }
 
-    private static class WriteTask implements Runnable {
-
-        private final InternalMessage message;
-        private final Channel channel;
-
-        public WriteTask(Channel channel, InternalMessage message) {
-            this.channel = channel;
-            this.message = message;
-        }
-
-        @Override
-        public void run() {
-            channel.writeAndFlush(message).addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
-        }
-    }
-
     @ChannelHandler.Sharable
     private class InboundMessageDispatcher extends SimpleChannelInboundHandler<InternalMessage> {
 
@@ -295,18 +410,14 @@ public class NettyMessagingService implements MessagingService {
         protected void channelRead0(ChannelHandlerContext ctx, InternalMessage message) throws Exception {
             String type = message.type();
             if (type.equals(InternalMessage.REPLY_MESSAGE_TYPE)) {
-                try {
-                    SettableFuture<byte[]> futureResponse =
-                        NettyMessagingService.this.responseFutures.getIfPresent(message.id());
-                    if (futureResponse != null) {
-                        futureResponse.set(message.payload());
-                    } else {
-                        log.warn("Received a reply for message id:[{}]. "
-                                + " from {}. But was unable to locate the"
-                                + " request handle", message.id(), message.sender());
-                    }
-                } finally {
-                    NettyMessagingService.this.responseFutures.invalidate(message.id());
+                Callback callback = callbacks.remove(message.id());
+                if (callback != null) {
+                    callback.timeout.cancel();
+                    callback.future.set(message.payload());
+                } else {
+                    log.warn("Received a reply for message id:[{}]. "
+                            + " from {}. But was unable to locate the"
+                            + " request handle", message.id(), message.sender());
                 }
                 return;
             }
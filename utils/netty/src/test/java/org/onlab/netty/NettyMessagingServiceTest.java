@@ -0,0 +1,159 @@
+/*
+ * Copyright 2014 Open Networking Laboratory
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.onlab.netty;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.onlab.junit.TestTools.findAvailablePort;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * Tests of the requests and replies multiplexed over the single connection
+ * kept to each peer.
+ */
+public class NettyMessagingServiceTest {
+
+    private static final String IP = "127.0.0.1";
+
+    private Endpoint serverEp;
+    private NettyMessagingService client;
+    private NettyMessagingService server;
+
+    @Before
+    public void setUp() throws Exception {
+        serverEp = new Endpoint(IP, findAvailablePort());
+        client = new NettyMessagingService(IP, findAvailablePort());
+        client.activate();
+        server = startServer();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        client.deactivate();
+        if (server != null) {
+            server.deactivate();
+        }
+    }
+
+    // Starts a server answering "echo" requests, waiting for the port to free up if need be.
+    private NettyMessagingService startServer() throws Exception {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (true) {
+            NettyMessagingService service = new NettyMessagingService(IP, serverEp.port());
+            try {
+                service.activate();
+                service.registerHandler("echo", new EchoHandler());
+                return service;
+            } catch (Exception e) {
+                service.deactivate();
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    private static byte[] payload(int i) {
+        return ByteBuffer.allocate(4).putInt(i).array();
+    }
+
+    @Test
+    public void concurrentRequests() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> senders = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int base = t * 1000;
+                senders.add(executor.submit(() -> {
+                    List<ListenableFuture<byte[]>> replies = new ArrayList<>();
+                    for (int i = 0; i < 100; i++) {
+                        replies.add(client.sendAndReceive(serverEp, "echo", payload(base + i)));
+                    }
+                    for (int i = 0; i < 100; i++) {
+                        assertArrayEquals("reply should match its request",
+                                          payload(base + i), replies.get(i).get(5, TimeUnit.SECONDS));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> sender : senders) {
+                sender.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void pendingRequestFailsWhenConnectionDrops() throws Exception {
+        CountDownLatch received = new CountDownLatch(1);
+        server.registerHandler("silent", message -> received.countDown());
+        Future<byte[]> reply = client.sendAndReceive(serverEp, "silent", payload(0));
+        assertTrue("request should arrive", received.await(5, TimeUnit.SECONDS));
+
+        server.deactivate();
+        server = null;
+        try {
+            // well ahead of the response timeout
+            reply.get(5, TimeUnit.SECONDS);
+            fail("request should fail once the connection is gone");
+        } catch (ExecutionException e) {
+            assertTrue("failure should be reported as an I/O error",
+                       e.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void reconnectsToRestartedPeer() throws Exception {
+        assertArrayEquals(payload(1),
+                          client.sendAndReceive(serverEp, "echo", payload(1)).get(5, TimeUnit.SECONDS));
+
+        CountDownLatch received = new CountDownLatch(1);
+        server.registerHandler("silent", message -> received.countDown());
+        Future<byte[]> lost = client.sendAndReceive(serverEp, "silent", payload(2));
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        server.deactivate();
+        server = null;
+        try {
+            lost.get(5, TimeUnit.SECONDS);
+            fail("request should fail once the connection is gone");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+
+        server = startServer();
+        assertArrayEquals("connection should be re-established", payload(3),
+                          client.sendAndReceive(serverEp, "echo", payload(3)).get(5, TimeUnit.SECONDS));
+    }
+}
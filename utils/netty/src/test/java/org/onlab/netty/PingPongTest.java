@@ -21,8 +21,8 @@ import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang3.RandomUtils;
 
 import static org.junit.Assert.*;
+import static org.onlab.junit.TestTools.findAvailablePort;
 
-import org.junit.Ignore;
 import org.junit.Test;
 
 /**
@@ -30,17 +30,18 @@ import org.junit.Test;
  */
 public class PingPongTest {
 
-    @Ignore("Turning off fragile test")
     @Test
     public void testPingPong() throws Exception {
-        NettyMessagingService pinger = new NettyMessagingService(8085);
-        NettyMessagingService ponger = new NettyMessagingService(9086);
+        int pongerPort = findAvailablePort();
+        NettyMessagingService pinger = new NettyMessagingService("127.0.0.1", findAvailablePort());
+        NettyMessagingService ponger = new NettyMessagingService("127.0.0.1", pongerPort);
         try {
             pinger.activate();
             ponger.activate();
             ponger.registerHandler("echo", new EchoHandler());
             byte[] payload = RandomUtils.nextBytes(100);
-            Future<byte[]> responseFuture = pinger.sendAndReceive(new Endpoint("localhost", 9086), "echo", payload);
+            Future<byte[]> responseFuture =
+                    pinger.sendAndReceive(new Endpoint("127.0.0.1", pongerPort), "echo", payload);
             assertArrayEquals(payload, responseFuture.get(10000, TimeUnit.MILLISECONDS));
         } finally {
             pinger.deactivate();